@@ -24,10 +24,12 @@ import org.apache.iotdb.udf.api.type.Type;
 public class AggregateFunctionAnalysis implements FunctionAnalysis {
   private final Type outputDataType;
   private final boolean removable;
+  private final boolean vectorized;
 
-  private AggregateFunctionAnalysis(Type outputDataType, boolean removable) {
+  private AggregateFunctionAnalysis(Type outputDataType, boolean removable, boolean vectorized) {
     this.outputDataType = outputDataType;
     this.removable = removable;
+    this.vectorized = vectorized;
   }
 
   public Type getOutputDataType() {
@@ -38,9 +40,14 @@ public class AggregateFunctionAnalysis implements FunctionAnalysis {
     return removable;
   }
 
+  public boolean isVectorized() {
+    return vectorized;
+  }
+
   public static class Builder {
     private Type outputDataType;
     private boolean removable = false;
+    private boolean vectorized = false;
 
     public Builder outputDataType(Type outputDataType) {
       this.outputDataType = outputDataType;
@@ -52,11 +59,21 @@ public class AggregateFunctionAnalysis implements FunctionAnalysis {
       return this;
     }
 
+    /**
+     * Set to true if the function implements the column by column {@code addInput} method of
+     * {@linkplain org.apache.iotdb.udf.api.relational.AggregateFunction}, the execution engine will
+     * then call it instead of adding the input row by row.
+     */
+    public Builder vectorized(boolean vectorized) {
+      this.vectorized = vectorized;
+      return this;
+    }
+
     public AggregateFunctionAnalysis build() throws IllegalArgumentException {
       if (outputDataType == null) {
         throw new IllegalArgumentException("AggregateFunctionAnalysis outputDataType is not set.");
       }
-      return new AggregateFunctionAnalysis(outputDataType, removable);
+      return new AggregateFunctionAnalysis(outputDataType, removable, vectorized);
     }
   }
 }
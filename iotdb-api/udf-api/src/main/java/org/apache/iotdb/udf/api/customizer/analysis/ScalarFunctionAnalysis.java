@@ -24,28 +24,45 @@ import org.apache.iotdb.udf.api.type.Type;
 public class ScalarFunctionAnalysis implements FunctionAnalysis {
 
   private final Type outputDataType;
+  private final boolean vectorized;
 
-  private ScalarFunctionAnalysis(Type outputDataType) {
+  private ScalarFunctionAnalysis(Type outputDataType, boolean vectorized) {
     this.outputDataType = outputDataType;
+    this.vectorized = vectorized;
   }
 
   public Type getOutputDataType() {
     return outputDataType;
   }
 
+  public boolean isVectorized() {
+    return vectorized;
+  }
+
   public static class Builder {
     private Type outputDataType;
+    private boolean vectorized = false;
 
     public Builder outputDataType(Type outputDataType) {
       this.outputDataType = outputDataType;
       return this;
     }
 
+    /**
+     * Set to true if the function implements the column by column {@code evaluate} method of
+     * {@linkplain org.apache.iotdb.udf.api.relational.ScalarFunction}, the execution engine will
+     * then call it instead of evaluating row by row.
+     */
+    public Builder vectorized(boolean vectorized) {
+      this.vectorized = vectorized;
+      return this;
+    }
+
     public ScalarFunctionAnalysis build() throws IllegalArgumentException {
       if (outputDataType == null) {
         throw new IllegalArgumentException("ScalarFunctionAnalysis outputDataType is not set.");
       }
-      return new ScalarFunctionAnalysis(outputDataType);
+      return new ScalarFunctionAnalysis(outputDataType, vectorized);
     }
   }
 }
@@ -27,6 +27,8 @@ import org.apache.iotdb.udf.api.exception.UDFException;
 import org.apache.iotdb.udf.api.relational.access.Record;
 import org.apache.iotdb.udf.api.utils.ResultValue;
 
+import org.apache.tsfile.block.column.Column;
+
 public interface AggregateFunction extends SQLFunction {
 
   /**
@@ -69,6 +71,24 @@ public interface AggregateFunction extends SQLFunction {
    */
   void addInput(State state, Record input);
 
+  /**
+   * Update states with data columns. This method is called instead of {@link #addInput(State,
+   * Record)} once {@linkplain AggregateFunctionAnalysis.Builder#vectorized(boolean)} is set to
+   * true.
+   *
+   * <p>The row at position i should be added to {@code states[i]} if {@code selection[i]} is true,
+   * and be skipped otherwise. The states of all the rows are the same one if the aggregation is not
+   * grouped.
+   *
+   * @param states states to be updated, one for each position of the columns
+   * @param columns original input data columns, a value is null if {@link Column#isNull(int)}
+   * @param selection whether each position should be added
+   * @throws UnsupportedOperationException if the user does not override this method
+   */
+  default void addInput(State[] states, Column[] columns, boolean[] selection) {
+    throw new UnsupportedOperationException();
+  }
+
   /**
    * Merge two state in execution engine.
    *
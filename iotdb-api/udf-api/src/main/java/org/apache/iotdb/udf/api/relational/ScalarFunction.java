@@ -25,6 +25,9 @@ import org.apache.iotdb.udf.api.exception.UDFArgumentNotValidException;
 import org.apache.iotdb.udf.api.exception.UDFException;
 import org.apache.iotdb.udf.api.relational.access.Record;
 
+import org.apache.tsfile.block.column.Column;
+import org.apache.tsfile.block.column.ColumnBuilder;
+
 public interface ScalarFunction extends SQLFunction {
   /**
    * In this method, the user need to do the following things:
@@ -63,6 +66,27 @@ public interface ScalarFunction extends SQLFunction {
    */
   Object evaluate(Record input) throws UDFException;
 
+  /**
+   * This method will be called to process the transformation column by column once {@linkplain
+   * ScalarFunctionAnalysis.Builder#vectorized(boolean)} is set to true, and {@link
+   * #evaluate(Record)} will not be called then. In a single UDF query, this method may be called
+   * multiple times.
+   *
+   * <p>One value should be appended to the builder for each position of the columns, in the same
+   * order. The positions whose selection is false will not be used, the user could simply append
+   * null for them.
+   *
+   * @param columns original input data columns, a value is null if {@link Column#isNull(int)}
+   * @param selection whether each position should be evaluated
+   * @param builder used to collect the output values
+   * @throws UDFException the user can throw errors if necessary
+   * @throws UnsupportedOperationException if the user does not override this method
+   */
+  default void evaluate(Column[] columns, boolean[] selection, ColumnBuilder builder)
+      throws UDFException {
+    throw new UnsupportedOperationException();
+  }
+
   /** This method is mainly used to release the resources used in the ScalarFunction. */
   default void beforeDestroy() {
     // do nothing
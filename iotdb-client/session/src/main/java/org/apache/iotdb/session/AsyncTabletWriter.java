@@ -0,0 +1,415 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iotdb.session;
+
+import org.apache.iotdb.common.rpc.thrift.TSStatus;
+import org.apache.iotdb.isession.ISession;
+import org.apache.iotdb.isession.pool.ISessionPool;
+import org.apache.iotdb.rpc.BatchExecutionException;
+import org.apache.iotdb.rpc.IoTDBConnectionException;
+import org.apache.iotdb.rpc.StatementExecutionException;
+import org.apache.iotdb.rpc.TSStatusCode;
+import org.apache.iotdb.session.util.ThreadUtils;
+
+import org.apache.tsfile.write.record.Tablet;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A non-blocking writer of {@link Tablet}s on top of an {@link ISessionPool} or an {@link
+ * ISession}.
+ *
+ * <p>{@link #insertTablet(Tablet)} returns at once with a future. The accepted tablets are batched
+ * by device, at most one tablet of each device per request, and a batch is sent with one {@code
+ * insertTablets} call when it reaches {@code batchSizeInRows} rows or when it has waited for {@code
+ * lingerMs}. Up to {@code maxInFlightRequests} batches are sent at the same time, each one on its
+ * own connection of the pool. A plain {@link ISession} is not thread-safe, so it always has one
+ * request in flight.
+ *
+ * <p>Requests rejected by the server because it is overloaded are retried with exponential backoff.
+ * {@link #insertTablet(Tablet)} blocks the caller when the rows not yet written exceed {@code
+ * maxPendingRows}, so a slow server slows the producers down instead of filling the memory.
+ *
+ * <p>A tablet must not be modified or reset until its future is completed. Tablets of the same
+ * device in different batches may be written in any order when several requests are in flight.
+ */
+public class AsyncTabletWriter implements AutoCloseable {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(AsyncTabletWriter.class);
+
+  private static final Set<Integer> THROTTLING_STATUS_CODES =
+      new HashSet<>(
+          Arrays.asList(
+              TSStatusCode.WRITE_PROCESS_REJECT.getStatusCode(),
+              TSStatusCode.NUM_REQUESTS_EXCEEDED.getStatusCode(),
+              TSStatusCode.REQUEST_SIZE_EXCEEDED.getStatusCode(),
+              TSStatusCode.NUM_WRITE_REQUESTS_EXCEEDED.getStatusCode(),
+              TSStatusCode.WRITE_SIZE_EXCEEDED.getStatusCode()));
+
+  private final TabletsInserter inserter;
+  private final int batchSizeInRows;
+  private final long lingerMs;
+  private final long maxPendingRows;
+  private final int maxThrottleRetries;
+  private final long initialBackoffMs;
+  private final long maxBackoffMs;
+
+  private final ExecutorService sendExecutor;
+  private final ScheduledExecutorService lingerExecutor;
+
+  // guarded by this
+  private Batch currentBatch = new Batch();
+  // rows accepted by insertTablet but not written or failed yet
+  private long pendingRows = 0;
+  private boolean closed = false;
+
+  private AsyncTabletWriter(Builder builder, TabletsInserter inserter, int maxInFlightRequests) {
+    this.inserter = inserter;
+    this.batchSizeInRows = builder.batchSizeInRows;
+    this.lingerMs = builder.lingerMs;
+    this.maxPendingRows = builder.maxPendingRows;
+    this.maxThrottleRetries = builder.maxThrottleRetries;
+    this.initialBackoffMs = builder.initialBackoffMs;
+    this.maxBackoffMs = builder.maxBackoffMs;
+    this.sendExecutor =
+        Executors.newFixedThreadPool(
+            maxInFlightRequests, ThreadUtils.createThreadFactory("AsyncTabletWriter-Send", true));
+    this.lingerExecutor =
+        Executors.newSingleThreadScheduledExecutor(
+            ThreadUtils.createThreadFactory("AsyncTabletWriter-Linger", true));
+  }
+
+  public static Builder builder(ISessionPool sessionPool) {
+    return new Builder(sessionPool, null);
+  }
+
+  public static Builder builder(ISession session) {
+    return new Builder(null, session);
+  }
+
+  /**
+   * Accept a tablet to be written asynchronously. Blocks while the pending rows exceed {@code
+   * maxPendingRows}.
+   *
+   * @return a future completed when the tablet is written, or completed exceptionally with the
+   *     {@link StatementExecutionException} or {@link IoTDBConnectionException} of the request
+   */
+  public CompletableFuture<Void> insertTablet(Tablet tablet) throws InterruptedException {
+    CompletableFuture<Void> future = new CompletableFuture<>();
+    int rowSize = tablet.getRowSize();
+    if (rowSize == 0) {
+      future.complete(null);
+      return future;
+    }
+    synchronized (this) {
+      // always accept a tablet when nothing is pending, otherwise a tablet larger than
+      // maxPendingRows would never be accepted
+      while (!closed && pendingRows > 0 && pendingRows + rowSize > maxPendingRows) {
+        wait();
+      }
+      if (closed) {
+        future.completeExceptionally(new IllegalStateException("AsyncTabletWriter is closed"));
+        return future;
+      }
+      pendingRows += rowSize;
+      if (currentBatch.contains(tablet.getDeviceId())) {
+        sealCurrentBatch();
+      }
+      Batch batch = currentBatch;
+      batch.add(tablet, future);
+      if (batch.rowSize >= batchSizeInRows) {
+        sealCurrentBatch();
+      } else if (batch.tablets.size() == 1) {
+        lingerExecutor.schedule(() -> sealIfCurrent(batch), lingerMs, TimeUnit.MILLISECONDS);
+      }
+    }
+    return future;
+  }
+
+  /** Send the current batch and wait until all the accepted tablets are written or failed. */
+  public synchronized void flush() throws InterruptedException {
+    sealCurrentBatch();
+    while (pendingRows > 0) {
+      wait();
+    }
+  }
+
+  /** Flush the accepted tablets and stop the writer. The sessions are not closed. */
+  @Override
+  public void close() throws InterruptedException {
+    synchronized (this) {
+      if (closed) {
+        return;
+      }
+      closed = true;
+      // wake up the callers blocked by backpressure, they'll find the writer closed
+      notifyAll();
+    }
+    flush();
+    lingerExecutor.shutdownNow();
+    sendExecutor.shutdown();
+  }
+
+  public synchronized long getPendingRows() {
+    return pendingRows;
+  }
+
+  private synchronized void sealIfCurrent(Batch batch) {
+    if (currentBatch == batch) {
+      sealCurrentBatch();
+    }
+  }
+
+  // must be called while holding the monitor of this
+  private void sealCurrentBatch() {
+    if (currentBatch.tablets.isEmpty()) {
+      return;
+    }
+    Batch batch = currentBatch;
+    currentBatch = new Batch();
+    try {
+      sendExecutor.execute(() -> send(batch));
+    } catch (RejectedExecutionException e) {
+      batch.fail(e);
+      pendingRows -= batch.rowSize;
+      notifyAll();
+    }
+  }
+
+  private void send(Batch batch) {
+    long backoffMs = initialBackoffMs;
+    int retries = 0;
+    try {
+      while (true) {
+        try {
+          inserter.insert(batch.tablets);
+          batch.complete();
+          return;
+        } catch (StatementExecutionException e) {
+          if (!isThrottled(e) || retries >= maxThrottleRetries) {
+            batch.fail(e);
+            return;
+          }
+          retries++;
+          LOGGER.debug(
+              "Insertion of {} rows is throttled, retry {} after {}ms: {}",
+              batch.rowSize,
+              retries,
+              backoffMs,
+              e.getMessage());
+          Thread.sleep(backoffMs);
+          backoffMs = Math.min(backoffMs * 2, maxBackoffMs);
+        } catch (IoTDBConnectionException | RuntimeException e) {
+          batch.fail(e);
+          return;
+        }
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      batch.fail(e);
+    } finally {
+      synchronized (this) {
+        pendingRows -= batch.rowSize;
+        notifyAll();
+      }
+    }
+  }
+
+  /**
+   * Whether the insertion is rejected only because the server is busy. A MULTIPLE_ERROR is thrown
+   * as a {@link BatchExecutionException}, which is throttling if all of its failed sub-statuses
+   * are. The whole batch is retried then, rewriting the rows that succeeded is harmless.
+   */
+  static boolean isThrottled(StatementExecutionException e) {
+    if (e instanceof BatchExecutionException
+        && ((BatchExecutionException) e).getStatusList() != null) {
+      return isThrottled(((BatchExecutionException) e).getStatusList());
+    }
+    return THROTTLING_STATUS_CODES.contains(e.getStatusCode());
+  }
+
+  private static boolean isThrottled(List<TSStatus> statusList) {
+    boolean hasFailure = false;
+    for (TSStatus status : statusList) {
+      int code = status.getCode();
+      if (code == TSStatusCode.SUCCESS_STATUS.getStatusCode()
+          || code == TSStatusCode.REDIRECTION_RECOMMEND.getStatusCode()) {
+        continue;
+      }
+      boolean throttled =
+          code == TSStatusCode.MULTIPLE_ERROR.getStatusCode() && status.isSetSubStatus()
+              ? isThrottled(status.getSubStatus())
+              : THROTTLING_STATUS_CODES.contains(code);
+      if (!throttled) {
+        return false;
+      }
+      hasFailure = true;
+    }
+    return hasFailure;
+  }
+
+  @FunctionalInterface
+  private interface TabletsInserter {
+    void insert(Map<String, Tablet> tablets)
+        throws IoTDBConnectionException, StatementExecutionException;
+  }
+
+  private static class Batch {
+
+    private final Map<String, Tablet> tablets = new LinkedHashMap<>();
+    private final List<CompletableFuture<Void>> futures = new ArrayList<>();
+    private long rowSize = 0;
+
+    private boolean contains(String deviceId) {
+      return tablets.containsKey(deviceId);
+    }
+
+    private void add(Tablet tablet, CompletableFuture<Void> future) {
+      tablets.put(tablet.getDeviceId(), tablet);
+      futures.add(future);
+      rowSize += tablet.getRowSize();
+    }
+
+    private void complete() {
+      futures.forEach(future -> future.complete(null));
+    }
+
+    private void fail(Throwable t) {
+      futures.forEach(future -> future.completeExceptionally(t));
+    }
+  }
+
+  public static class Builder {
+
+    private final ISessionPool sessionPool;
+    private final ISession session;
+    private boolean aligned = false;
+    private boolean sorted = false;
+    private int batchSizeInRows = 10_000;
+    private long lingerMs = 10;
+    private long maxPendingRows = 1_000_000;
+    private int maxInFlightRequests = 4;
+    private int maxThrottleRetries = 10;
+    private long initialBackoffMs = 100;
+    private long maxBackoffMs = 5_000;
+
+    private Builder(ISessionPool sessionPool, ISession session) {
+      this.sessionPool = sessionPool;
+      this.session = session;
+    }
+
+    public Builder aligned(boolean aligned) {
+      this.aligned = aligned;
+      return this;
+    }
+
+    /** Whether the times of each tablet are already sorted. */
+    public Builder sorted(boolean sorted) {
+      this.sorted = sorted;
+      return this;
+    }
+
+    public Builder batchSizeInRows(int batchSizeInRows) {
+      this.batchSizeInRows = batchSizeInRows;
+      return this;
+    }
+
+    public Builder lingerMs(long lingerMs) {
+      this.lingerMs = lingerMs;
+      return this;
+    }
+
+    public Builder maxPendingRows(long maxPendingRows) {
+      this.maxPendingRows = maxPendingRows;
+      return this;
+    }
+
+    /** Only used with an {@link ISessionPool}, should not exceed the max size of the pool. */
+    public Builder maxInFlightRequests(int maxInFlightRequests) {
+      this.maxInFlightRequests = maxInFlightRequests;
+      return this;
+    }
+
+    public Builder maxThrottleRetries(int maxThrottleRetries) {
+      this.maxThrottleRetries = maxThrottleRetries;
+      return this;
+    }
+
+    public Builder initialBackoffMs(long initialBackoffMs) {
+      this.initialBackoffMs = initialBackoffMs;
+      return this;
+    }
+
+    public Builder maxBackoffMs(long maxBackoffMs) {
+      this.maxBackoffMs = maxBackoffMs;
+      return this;
+    }
+
+    public AsyncTabletWriter build() {
+      if (batchSizeInRows <= 0
+          || lingerMs < 0
+          || maxPendingRows <= 0
+          || maxInFlightRequests <= 0
+          || maxThrottleRetries < 0
+          || initialBackoffMs <= 0
+          || maxBackoffMs < initialBackoffMs) {
+        throw new IllegalArgumentException("Invalid options of AsyncTabletWriter");
+      }
+      final boolean isAligned = aligned;
+      final boolean isSorted = sorted;
+      if (sessionPool != null) {
+        return new AsyncTabletWriter(
+            this,
+            tablets -> {
+              if (isAligned) {
+                sessionPool.insertAlignedTablets(tablets, isSorted);
+              } else {
+                sessionPool.insertTablets(tablets, isSorted);
+              }
+            },
+            maxInFlightRequests);
+      }
+      return new AsyncTabletWriter(
+          this,
+          tablets -> {
+            if (isAligned) {
+              session.insertAlignedTablets(tablets, isSorted);
+            } else {
+              session.insertTablets(tablets, isSorted);
+            }
+          },
+          1);
+    }
+  }
+}
@@ -0,0 +1,206 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iotdb.session;
+
+import org.apache.iotdb.common.rpc.thrift.TSStatus;
+import org.apache.iotdb.isession.pool.ISessionPool;
+import org.apache.iotdb.rpc.RpcUtils;
+import org.apache.iotdb.rpc.StatementExecutionException;
+import org.apache.iotdb.rpc.TSStatusCode;
+
+import org.apache.tsfile.enums.TSDataType;
+import org.apache.tsfile.write.record.Tablet;
+import org.apache.tsfile.write.schema.IMeasurementSchema;
+import org.apache.tsfile.write.schema.MeasurementSchema;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyMap;
+
+public class AsyncTabletWriterTest {
+
+  private Tablet createTablet(String deviceId, int rowSize) {
+    List<IMeasurementSchema> schemaList =
+        Collections.singletonList(new MeasurementSchema("s1", TSDataType.INT64));
+    Tablet tablet = new Tablet(deviceId, schemaList, rowSize);
+    for (int i = 0; i < rowSize; i++) {
+      tablet.addTimestamp(i, i);
+      tablet.addValue("s1", i, (long) i);
+    }
+    return tablet;
+  }
+
+  @SuppressWarnings("unchecked")
+  @Test
+  public void testBatchByDevice() throws Exception {
+    ISessionPool sessionPool = Mockito.mock(ISessionPool.class);
+    List<Map<String, Tablet>> requests = new CopyOnWriteArrayList<>();
+    Mockito.doAnswer(
+            invocation -> {
+              requests.add(invocation.getArgument(0));
+              return null;
+            })
+        .when(sessionPool)
+        .insertTablets(anyMap(), anyBoolean());
+
+    try (AsyncTabletWriter writer =
+        AsyncTabletWriter.builder(sessionPool).batchSizeInRows(25).lingerMs(60_000).build()) {
+      CompletableFuture<Void> f1 = writer.insertTablet(createTablet("root.sg.d1", 10));
+      CompletableFuture<Void> f2 = writer.insertTablet(createTablet("root.sg.d2", 10));
+      // the second tablet of d1 goes to a new batch
+      CompletableFuture<Void> f3 = writer.insertTablet(createTablet("root.sg.d1", 10));
+      // the new batch reaches the size limit
+      CompletableFuture<Void> f4 = writer.insertTablet(createTablet("root.sg.d3", 20));
+      CompletableFuture.allOf(f1, f2, f3, f4).get(10, TimeUnit.SECONDS);
+      assertEquals(2, requests.size());
+      assertEquals(0, writer.getPendingRows());
+    }
+    assertTrue(requests.get(0).keySet().containsAll(Arrays.asList("root.sg.d1", "root.sg.d2")));
+    assertEquals(2, requests.get(1).size());
+  }
+
+  @Test
+  public void testFlushAfterLinger() throws Exception {
+    ISessionPool sessionPool = Mockito.mock(ISessionPool.class);
+    try (AsyncTabletWriter writer =
+        AsyncTabletWriter.builder(sessionPool).aligned(true).lingerMs(10).build()) {
+      writer.insertTablet(createTablet("root.sg.d1", 10)).get(10, TimeUnit.SECONDS);
+      Mockito.verify(sessionPool, Mockito.times(1)).insertAlignedTablets(anyMap(), anyBoolean());
+    }
+  }
+
+  @Test
+  public void testRetryOnThrottling() throws Exception {
+    ISessionPool sessionPool = Mockito.mock(ISessionPool.class);
+    AtomicInteger attempts = new AtomicInteger(0);
+    Mockito.doAnswer(
+            invocation -> {
+              if (attempts.getAndIncrement() < 2) {
+                throw new StatementExecutionException(
+                    new TSStatus(TSStatusCode.WRITE_PROCESS_REJECT.getStatusCode()));
+              }
+              return null;
+            })
+        .when(sessionPool)
+        .insertTablets(anyMap(), anyBoolean());
+
+    try (AsyncTabletWriter writer =
+        AsyncTabletWriter.builder(sessionPool).initialBackoffMs(1).maxBackoffMs(2).build()) {
+      CompletableFuture<Void> future = writer.insertTablet(createTablet("root.sg.d1", 10));
+      writer.flush();
+      assertTrue(future.isDone());
+      assertFalse(future.isCompletedExceptionally());
+      assertEquals(3, attempts.get());
+    }
+  }
+
+  @Test
+  public void testRetryOnThrottledSubStatus() throws Exception {
+    ISessionPool sessionPool = Mockito.mock(ISessionPool.class);
+    AtomicInteger attempts = new AtomicInteger(0);
+    Mockito.doAnswer(
+            invocation -> {
+              if (attempts.getAndIncrement() < 1) {
+                throw multipleError(TSStatusCode.SUCCESS_STATUS, TSStatusCode.WRITE_PROCESS_REJECT);
+              }
+              return null;
+            })
+        .when(sessionPool)
+        .insertTablets(anyMap(), anyBoolean());
+
+    try (AsyncTabletWriter writer =
+        AsyncTabletWriter.builder(sessionPool).initialBackoffMs(1).maxBackoffMs(2).build()) {
+      CompletableFuture<Void> future = writer.insertTablet(createTablet("root.sg.d1", 10));
+      writer.flush();
+      assertTrue(future.isDone());
+      assertFalse(future.isCompletedExceptionally());
+      assertEquals(2, attempts.get());
+    }
+  }
+
+  @Test
+  public void testIsThrottled() {
+    assertTrue(
+        AsyncTabletWriter.isThrottled(
+            multipleError(TSStatusCode.WRITE_PROCESS_REJECT, TSStatusCode.NUM_REQUESTS_EXCEEDED)));
+    // some failures are not caused by throttling
+    assertFalse(
+        AsyncTabletWriter.isThrottled(
+            multipleError(TSStatusCode.WRITE_PROCESS_REJECT, TSStatusCode.DATA_TYPE_MISMATCH)));
+    assertFalse(
+        AsyncTabletWriter.isThrottled(
+            new StatementExecutionException(
+                new TSStatus(TSStatusCode.MULTIPLE_ERROR.getStatusCode()))));
+  }
+
+  /** The exception thrown by the session for a MULTIPLE_ERROR with the given sub-statuses. */
+  private StatementExecutionException multipleError(TSStatusCode... subStatusCodes) {
+    List<TSStatus> subStatus = new ArrayList<>();
+    for (TSStatusCode subStatusCode : subStatusCodes) {
+      subStatus.add(new TSStatus(subStatusCode.getStatusCode()));
+    }
+    TSStatus status = new TSStatus(TSStatusCode.MULTIPLE_ERROR.getStatusCode());
+    status.setSubStatus(subStatus);
+    try {
+      RpcUtils.verifySuccess(status);
+    } catch (StatementExecutionException e) {
+      return e;
+    }
+    throw new AssertionError("MULTIPLE_ERROR is not thrown");
+  }
+
+  @Test
+  public void testFailWithoutRetry() throws Exception {
+    ISessionPool sessionPool = Mockito.mock(ISessionPool.class);
+    Mockito.doThrow(
+            new StatementExecutionException(
+                new TSStatus(TSStatusCode.DATA_TYPE_MISMATCH.getStatusCode())))
+        .when(sessionPool)
+        .insertTablets(anyMap(), anyBoolean());
+
+    try (AsyncTabletWriter writer = AsyncTabletWriter.builder(sessionPool).build()) {
+      CompletableFuture<Void> future = writer.insertTablet(createTablet("root.sg.d1", 10));
+      writer.flush();
+      try {
+        future.get();
+        fail();
+      } catch (ExecutionException e) {
+        assertTrue(e.getCause() instanceof StatementExecutionException);
+      }
+      Mockito.verify(sessionPool, Mockito.times(1)).insertTablets(anyMap(), anyBoolean());
+    }
+  }
+}
@@ -0,0 +1,233 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iotdb.db.benchmark;
+
+import org.apache.iotdb.commons.exception.IllegalPathException;
+import org.apache.iotdb.commons.path.PartialPath;
+import org.apache.iotdb.db.queryengine.plan.planner.plan.node.PlanNodeId;
+import org.apache.iotdb.db.queryengine.plan.planner.plan.node.write.InsertRowNode;
+import org.apache.iotdb.db.queryengine.plan.planner.plan.node.write.InsertTabletNode;
+
+import org.apache.tsfile.common.conf.TSFileConfig;
+import org.apache.tsfile.enums.TSDataType;
+import org.apache.tsfile.file.metadata.enums.TSEncoding;
+import org.apache.tsfile.utils.Binary;
+import org.apache.tsfile.write.UnSupportedDataTypeException;
+import org.apache.tsfile.write.schema.MeasurementSchema;
+
+import java.util.Random;
+
+/** Generates reproducible write payloads shared by all the benchmarks. */
+public class BenchmarkDataGenerator {
+
+  public static final long SEED = 20240101L;
+
+  /** Data types of the generated columns, column i uses DATA_TYPES[i % DATA_TYPES.length]. */
+  private static final TSDataType[] DATA_TYPES =
+      new TSDataType[] {
+        TSDataType.DOUBLE,
+        TSDataType.INT64,
+        TSDataType.FLOAT,
+        TSDataType.INT32,
+        TSDataType.BOOLEAN,
+        TSDataType.TEXT
+      };
+
+  /** How far (in rows) a late point may be moved back. */
+  private static final int MAX_DISORDER_DISTANCE = 1024;
+
+  private BenchmarkDataGenerator() {
+    // util class
+  }
+
+  public static TSDataType getDataType(int columnIndex) {
+    return DATA_TYPES[columnIndex % DATA_TYPES.length];
+  }
+
+  public static TSDataType[] getDataTypes(int columnCount) {
+    TSDataType[] dataTypes = new TSDataType[columnCount];
+    for (int i = 0; i < columnCount; i++) {
+      dataTypes[i] = getDataType(i);
+    }
+    return dataTypes;
+  }
+
+  public static String[] getMeasurements(int columnCount) {
+    String[] measurements = new String[columnCount];
+    for (int i = 0; i < columnCount; i++) {
+      measurements[i] = "s" + i;
+    }
+    return measurements;
+  }
+
+  public static MeasurementSchema[] getMeasurementSchemas(int columnCount) {
+    MeasurementSchema[] schemas = new MeasurementSchema[columnCount];
+    for (int i = 0; i < columnCount; i++) {
+      TSDataType dataType = getDataType(i);
+      schemas[i] = new MeasurementSchema("s" + i, dataType, getEncoding(dataType));
+    }
+    return schemas;
+  }
+
+  public static TSEncoding getEncoding(TSDataType dataType) {
+    switch (dataType) {
+      case DOUBLE:
+      case FLOAT:
+        return TSEncoding.GORILLA;
+      case INT32:
+      case INT64:
+        return TSEncoding.TS_2DIFF;
+      case BOOLEAN:
+        return TSEncoding.RLE;
+      default:
+        return TSEncoding.PLAIN;
+    }
+  }
+
+  /**
+   * Generate increasing timestamps starting from startTime, then move roughly outOfOrderRatio of
+   * them backwards by swapping them with a close predecessor, which is how late points usually look
+   * like in IoT workloads.
+   */
+  public static long[] generateTimestamps(
+      long startTime, int rowCount, double outOfOrderRatio, Random random) {
+    long[] times = new long[rowCount];
+    for (int i = 0; i < rowCount; i++) {
+      times[i] = startTime + i;
+    }
+    int swapCount = (int) (rowCount * outOfOrderRatio / 2);
+    for (int i = 0; i < swapCount; i++) {
+      int later = 1 + random.nextInt(rowCount - 1);
+      int earlier = Math.max(0, later - 1 - random.nextInt(MAX_DISORDER_DISTANCE));
+      long tmp = times[later];
+      times[later] = times[earlier];
+      times[earlier] = tmp;
+    }
+    return times;
+  }
+
+  public static Object generateValue(TSDataType dataType, long time, Random random) {
+    switch (dataType) {
+      case DOUBLE:
+        return random.nextDouble() * 100;
+      case INT64:
+        return time * 10 + random.nextInt(10);
+      case FLOAT:
+        return random.nextFloat() * 100;
+      case INT32:
+        return random.nextInt(1000);
+      case BOOLEAN:
+        return random.nextBoolean();
+      case TEXT:
+        return new Binary("v" + random.nextInt(1000), TSFileConfig.STRING_CHARSET);
+      default:
+        throw new UnSupportedDataTypeException(dataType.name());
+    }
+  }
+
+  public static Object generateColumn(TSDataType dataType, long[] times, Random random) {
+    int rowCount = times.length;
+    switch (dataType) {
+      case DOUBLE:
+        double[] doubles = new double[rowCount];
+        for (int i = 0; i < rowCount; i++) {
+          doubles[i] = (double) generateValue(dataType, times[i], random);
+        }
+        return doubles;
+      case INT64:
+        long[] longs = new long[rowCount];
+        for (int i = 0; i < rowCount; i++) {
+          longs[i] = (long) generateValue(dataType, times[i], random);
+        }
+        return longs;
+      case FLOAT:
+        float[] floats = new float[rowCount];
+        for (int i = 0; i < rowCount; i++) {
+          floats[i] = (float) generateValue(dataType, times[i], random);
+        }
+        return floats;
+      case INT32:
+        int[] ints = new int[rowCount];
+        for (int i = 0; i < rowCount; i++) {
+          ints[i] = (int) generateValue(dataType, times[i], random);
+        }
+        return ints;
+      case BOOLEAN:
+        boolean[] booleans = new boolean[rowCount];
+        for (int i = 0; i < rowCount; i++) {
+          booleans[i] = (boolean) generateValue(dataType, times[i], random);
+        }
+        return booleans;
+      case TEXT:
+        Binary[] binaries = new Binary[rowCount];
+        for (int i = 0; i < rowCount; i++) {
+          binaries[i] = (Binary) generateValue(dataType, times[i], random);
+        }
+        return binaries;
+      default:
+        throw new UnSupportedDataTypeException(dataType.name());
+    }
+  }
+
+  public static InsertTabletNode generateInsertTabletNode(
+      String devicePath, boolean aligned, int columnCount, long[] times, Random random)
+      throws IllegalPathException {
+    TSDataType[] dataTypes = getDataTypes(columnCount);
+    Object[] columns = new Object[columnCount];
+    for (int i = 0; i < columnCount; i++) {
+      columns[i] = generateColumn(dataTypes[i], times, random);
+    }
+    InsertTabletNode node =
+        new InsertTabletNode(
+            new PlanNodeId(""),
+            new PartialPath(devicePath),
+            aligned,
+            getMeasurements(columnCount),
+            dataTypes,
+            times,
+            null,
+            columns,
+            times.length);
+    node.setMeasurementSchemas(getMeasurementSchemas(columnCount));
+    return node;
+  }
+
+  public static InsertRowNode generateInsertRowNode(
+      String devicePath, boolean aligned, int columnCount, long time, Random random)
+      throws IllegalPathException {
+    TSDataType[] dataTypes = getDataTypes(columnCount);
+    Object[] values = new Object[columnCount];
+    for (int i = 0; i < columnCount; i++) {
+      values[i] = generateValue(dataTypes[i], time, random);
+    }
+    InsertRowNode node =
+        new InsertRowNode(
+            new PlanNodeId(""),
+            new PartialPath(devicePath),
+            aligned,
+            getMeasurements(columnCount),
+            dataTypes,
+            time,
+            values,
+            false);
+    node.setMeasurementSchemas(getMeasurementSchemas(columnCount));
+    return node;
+  }
+}
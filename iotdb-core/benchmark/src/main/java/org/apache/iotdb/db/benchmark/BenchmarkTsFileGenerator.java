@@ -0,0 +1,148 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iotdb.db.benchmark;
+
+import org.apache.iotdb.commons.exception.IllegalPathException;
+import org.apache.iotdb.commons.utils.FileUtils;
+import org.apache.iotdb.db.exception.WriteProcessException;
+import org.apache.iotdb.db.queryengine.plan.planner.plan.node.write.InsertTabletNode;
+import org.apache.iotdb.db.storageengine.dataregion.flush.MemTableFlushTask;
+import org.apache.iotdb.db.storageengine.dataregion.memtable.IMemTable;
+import org.apache.iotdb.db.storageengine.dataregion.memtable.PrimitiveMemTable;
+import org.apache.iotdb.db.storageengine.dataregion.read.control.FileReaderManager;
+import org.apache.iotdb.db.storageengine.dataregion.tsfile.TsFileResource;
+import org.apache.iotdb.db.storageengine.dataregion.tsfile.TsFileResourceStatus;
+import org.apache.iotdb.db.utils.constant.TestConstant;
+
+import org.apache.tsfile.file.metadata.IDeviceID;
+import org.apache.tsfile.write.writer.RestorableTsFileIOWriter;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Writes the TsFiles read by the read path benchmarks. The files are produced by flushing a {@link
+ * PrimitiveMemTable} through {@link MemTableFlushTask}, so they have the same layout (chunk and
+ * page sizes, encodings) as the files of a running DataNode.
+ */
+public class BenchmarkTsFileGenerator {
+
+  public static final String DATABASE = "root.bench";
+  public static final String DEVICE = DATABASE + ".d0";
+  private static final String DATA_REGION_ID = "1";
+  private static final File DATA_DIR =
+      new File(TestConstant.getTestTsFileDir(DATABASE, Long.parseLong(DATA_REGION_ID), 0));
+
+  private final List<TsFileResource> seqResources = new ArrayList<>();
+  private final List<TsFileResource> unseqResources = new ArrayList<>();
+  private long fileVersion = 0;
+
+  /**
+   * @param fileCount number of sequence files, each one holds pointsPerFile consecutive points
+   * @param outOfOrderRatio ratio of the points which are overwritten by unsequence files, there is
+   *     one unsequence file for each sequence file if the ratio is positive
+   */
+  public BenchmarkTsFileGenerator(
+      boolean aligned, int columnCount, int fileCount, int pointsPerFile, double outOfOrderRatio)
+      throws IllegalPathException,
+          IOException,
+          WriteProcessException,
+          ExecutionException,
+          InterruptedException {
+    FileUtils.deleteFileOrDirectory(DATA_DIR);
+    Random random = new Random(BenchmarkDataGenerator.SEED);
+    int unseqPointsPerFile = (int) (pointsPerFile * outOfOrderRatio);
+    for (int i = 0; i < fileCount; i++) {
+      long startTime = (long) i * pointsPerFile;
+      seqResources.add(
+          generateTsFile(
+              aligned,
+              columnCount,
+              BenchmarkDataGenerator.generateTimestamps(startTime, pointsPerFile, 0, random),
+              random));
+      if (unseqPointsPerFile > 0) {
+        // overwrite points spread over the whole time range of the sequence file
+        long[] times = new long[unseqPointsPerFile];
+        long step = pointsPerFile / unseqPointsPerFile;
+        for (int j = 0; j < unseqPointsPerFile; j++) {
+          times[j] = startTime + j * step;
+        }
+        unseqResources.add(generateTsFile(aligned, columnCount, times, random));
+      }
+    }
+  }
+
+  private TsFileResource generateTsFile(
+      boolean aligned, int columnCount, long[] times, Random random)
+      throws IllegalPathException,
+          IOException,
+          WriteProcessException,
+          ExecutionException,
+          InterruptedException {
+    if (!DATA_DIR.exists() && !DATA_DIR.mkdirs()) {
+      throw new IOException("Failed to create directory " + DATA_DIR);
+    }
+    File file =
+        new File(
+            TestConstant.getTestTsFilePath(
+                DATABASE, Long.parseLong(DATA_REGION_ID), 0, ++fileVersion));
+
+    InsertTabletNode insertTabletNode =
+        BenchmarkDataGenerator.generateInsertTabletNode(
+            DEVICE, aligned, columnCount, times, random);
+    IMemTable memTable = new PrimitiveMemTable(DATABASE, DATA_REGION_ID);
+    if (aligned) {
+      memTable.insertAlignedTablet(insertTabletNode, 0, times.length, null);
+    } else {
+      memTable.insertTablet(insertTabletNode, 0, times.length);
+    }
+
+    try (RestorableTsFileIOWriter writer = new RestorableTsFileIOWriter(file)) {
+      new MemTableFlushTask(memTable, writer, DATABASE, DATA_REGION_ID).syncFlushMemTable();
+      writer.endFile();
+    } finally {
+      memTable.release();
+    }
+
+    TsFileResource resource = new TsFileResource(file);
+    IDeviceID deviceID = insertTabletNode.getDeviceID();
+    resource.updateStartTime(deviceID, times[0]);
+    resource.updateEndTime(deviceID, times[times.length - 1]);
+    resource.setStatus(TsFileResourceStatus.NORMAL);
+    return resource;
+  }
+
+  public List<TsFileResource> getSeqResources() {
+    return seqResources;
+  }
+
+  public List<TsFileResource> getUnseqResources() {
+    return unseqResources;
+  }
+
+  public void close() throws IOException {
+    FileReaderManager.getInstance().closeAndRemoveAllOpenedReaders();
+    FileUtils.deleteFileOrDirectory(DATA_DIR);
+  }
+}
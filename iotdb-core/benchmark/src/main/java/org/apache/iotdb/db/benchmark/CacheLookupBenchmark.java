@@ -0,0 +1,172 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iotdb.db.benchmark;
+
+import org.apache.iotdb.commons.exception.IllegalPathException;
+import org.apache.iotdb.db.exception.WriteProcessException;
+import org.apache.iotdb.db.queryengine.execution.fragment.FragmentInstanceContext;
+import org.apache.iotdb.db.storageengine.buffer.ChunkCache;
+import org.apache.iotdb.db.storageengine.buffer.ChunkCache.ChunkCacheKey;
+import org.apache.iotdb.db.storageengine.buffer.TimeSeriesMetadataCache;
+import org.apache.iotdb.db.storageengine.buffer.TimeSeriesMetadataCache.TimeSeriesMetadataCacheKey;
+import org.apache.iotdb.db.storageengine.dataregion.tsfile.TsFileResource;
+
+import org.apache.tsfile.file.metadata.ChunkMetadata;
+import org.apache.tsfile.file.metadata.IDeviceID;
+import org.apache.tsfile.file.metadata.TimeseriesMetadata;
+import org.apache.tsfile.file.metadata.statistics.Statistics;
+import org.apache.tsfile.read.TsFileSequenceReader;
+import org.apache.tsfile.read.common.Chunk;
+import org.apache.tsfile.read.common.Path;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the lookups of {@link ChunkCache} and {@link TimeSeriesMetadataCache} when the entries
+ * are cached, which is the common case for dashboards repeatedly querying recent data. The keys are
+ * visited round robin, so the score is the cost of a single lookup.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class CacheLookupBenchmark {
+
+  @Param({"10", "100"})
+  private int columnCount;
+
+  @Param({"10"})
+  private int fileCount;
+
+  @Param({"10000"})
+  private int pointsPerFile;
+
+  private BenchmarkTsFileGenerator generator;
+
+  private FragmentInstanceContext context;
+
+  private final List<String> filePaths = new ArrayList<>();
+
+  private final List<TimeSeriesMetadataCacheKey> timeSeriesMetadataCacheKeys = new ArrayList<>();
+
+  private final List<ChunkCacheKey> chunkCacheKeys = new ArrayList<>();
+
+  private final List<Statistics<?>> chunkStatistics = new ArrayList<>();
+
+  private Set<String> allSensors;
+
+  private int timeSeriesMetadataIndex = 0;
+
+  private int chunkIndex = 0;
+
+  @Setup(Level.Trial)
+  public void setUpTrial()
+      throws IllegalPathException,
+          IOException,
+          WriteProcessException,
+          ExecutionException,
+          InterruptedException {
+    generator = new BenchmarkTsFileGenerator(false, columnCount, fileCount, pointsPerFile, 0);
+    context = FragmentInstanceContext.createFragmentInstanceContextForCompaction(1);
+
+    IDeviceID deviceID = IDeviceID.Factory.DEFAULT_FACTORY.create(BenchmarkTsFileGenerator.DEVICE);
+    String[] measurements = BenchmarkDataGenerator.getMeasurements(columnCount);
+    allSensors = new HashSet<>(Arrays.asList(measurements));
+    for (TsFileResource resource : generator.getSeqResources()) {
+      String filePath = resource.getTsFilePath();
+      try (TsFileSequenceReader reader = new TsFileSequenceReader(filePath)) {
+        for (String measurement : measurements) {
+          filePaths.add(filePath);
+          timeSeriesMetadataCacheKeys.add(
+              new TimeSeriesMetadataCacheKey(resource.getTsFileID(), deviceID, measurement));
+          for (ChunkMetadata chunkMetadata :
+              reader.getChunkMetadataList(new Path(deviceID, measurement, true))) {
+            chunkCacheKeys.add(
+                new ChunkCacheKey(
+                    filePath,
+                    resource.getTsFileID(),
+                    chunkMetadata.getOffsetOfChunkHeader(),
+                    true));
+            chunkStatistics.add(chunkMetadata.getStatistics());
+          }
+        }
+      }
+    }
+
+    // load all the entries into the caches
+    for (int i = 0; i < timeSeriesMetadataCacheKeys.size(); i++) {
+      getTimeSeriesMetadata();
+    }
+    for (int i = 0; i < chunkCacheKeys.size(); i++) {
+      getChunk();
+    }
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDownTrial() throws IOException {
+    ChunkCache.getInstance().clear();
+    TimeSeriesMetadataCache.getInstance().clear();
+    generator.close();
+  }
+
+  @Benchmark
+  public TimeseriesMetadata getTimeSeriesMetadata() throws IOException {
+    int index = timeSeriesMetadataIndex;
+    timeSeriesMetadataIndex = (index + 1) % timeSeriesMetadataCacheKeys.size();
+    return TimeSeriesMetadataCache.getInstance()
+        .get(
+            filePaths.get(index),
+            timeSeriesMetadataCacheKeys.get(index),
+            allSensors,
+            false,
+            false,
+            context);
+  }
+
+  @Benchmark
+  public Chunk getChunk() throws IOException {
+    int index = chunkIndex;
+    chunkIndex = (index + 1) % chunkCacheKeys.size();
+    return ChunkCache.getInstance()
+        .get(chunkCacheKeys.get(index), null, chunkStatistics.get(index), context);
+  }
+}
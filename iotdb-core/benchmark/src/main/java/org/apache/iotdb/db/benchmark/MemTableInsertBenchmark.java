@@ -0,0 +1,141 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iotdb.db.benchmark;
+
+import org.apache.iotdb.commons.exception.IllegalPathException;
+import org.apache.iotdb.db.exception.WriteProcessException;
+import org.apache.iotdb.db.queryengine.plan.planner.plan.node.write.InsertRowNode;
+import org.apache.iotdb.db.queryengine.plan.planner.plan.node.write.InsertTabletNode;
+import org.apache.iotdb.db.storageengine.dataregion.memtable.IMemTable;
+import org.apache.iotdb.db.storageengine.dataregion.memtable.PrimitiveMemTable;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks {@code AbstractMemTable#insertTablet}, {@code AbstractMemTable#insertAlignedTablet},
+ * {@code AbstractMemTable#insert} and {@code AbstractMemTable#insertAlignedRow}. The score is the
+ * number of requests (a tablet, or the same rows inserted one by one) handled per second, each
+ * request carries {@code rowsPerRequest} rows.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class MemTableInsertBenchmark {
+
+  private static final String DATABASE = "root.bench";
+  private static final String DEVICE = DATABASE + ".d0";
+
+  /** The memtable is replaced once it holds this many points, like a flush would do. */
+  private static final long MAX_POINTS_PER_MEMTABLE = 20_000_000L;
+
+  @Param({"false", "true"})
+  private boolean aligned;
+
+  @Param({"10", "100"})
+  private int columnCount;
+
+  @Param({"0.0", "0.05", "0.3"})
+  private double outOfOrderRatio;
+
+  @Param({"1000"})
+  private int rowsPerRequest;
+
+  private IMemTable memTable;
+
+  private InsertTabletNode insertTabletNode;
+
+  private InsertRowNode[] insertRowNodes;
+
+  /** Timestamps of the first request, later requests are shifted forward. */
+  private long[] baseTimes;
+
+  private long timeOffset;
+
+  @Setup(Level.Trial)
+  public void setUpTrial() throws IllegalPathException {
+    Random random = new Random(BenchmarkDataGenerator.SEED);
+    baseTimes =
+        BenchmarkDataGenerator.generateTimestamps(0, rowsPerRequest, outOfOrderRatio, random);
+    insertTabletNode =
+        BenchmarkDataGenerator.generateInsertTabletNode(
+            DEVICE, aligned, columnCount, baseTimes.clone(), random);
+    insertRowNodes = new InsertRowNode[rowsPerRequest];
+    for (int i = 0; i < rowsPerRequest; i++) {
+      insertRowNodes[i] =
+          BenchmarkDataGenerator.generateInsertRowNode(
+              DEVICE, aligned, columnCount, baseTimes[i], random);
+    }
+    memTable = new PrimitiveMemTable(DATABASE, "1");
+  }
+
+  @Setup(Level.Invocation)
+  public void setUpInvocation() {
+    if (memTable.getTotalPointsNum() >= MAX_POINTS_PER_MEMTABLE) {
+      memTable.release();
+      memTable = new PrimitiveMemTable(DATABASE, "1");
+    }
+    // move the requests forward in time so that every request is written after the previous one
+    timeOffset += rowsPerRequest;
+    long[] times = insertTabletNode.getTimes();
+    for (int i = 0; i < rowsPerRequest; i++) {
+      times[i] = baseTimes[i] + timeOffset;
+      insertRowNodes[i].setTime(times[i]);
+    }
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDownTrial() {
+    memTable.release();
+  }
+
+  @Benchmark
+  public int insertTablet() throws WriteProcessException {
+    return aligned
+        ? memTable.insertAlignedTablet(insertTabletNode, 0, rowsPerRequest, null)
+        : memTable.insertTablet(insertTabletNode, 0, rowsPerRequest);
+  }
+
+  @Benchmark
+  public int insertRows() {
+    int points = 0;
+    for (InsertRowNode insertRowNode : insertRowNodes) {
+      points += aligned ? memTable.insertAlignedRow(insertRowNode) : memTable.insert(insertRowNode);
+    }
+    return points;
+  }
+}
@@ -0,0 +1,178 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iotdb.db.benchmark;
+
+import org.apache.iotdb.commons.exception.IllegalPathException;
+import org.apache.iotdb.commons.path.AlignedFullPath;
+import org.apache.iotdb.commons.path.NonAlignedFullPath;
+import org.apache.iotdb.db.exception.WriteProcessException;
+import org.apache.iotdb.db.queryengine.execution.fragment.FragmentInstanceContext;
+import org.apache.iotdb.db.queryengine.execution.operator.source.AlignedSeriesScanUtil;
+import org.apache.iotdb.db.queryengine.execution.operator.source.SeriesScanUtil;
+import org.apache.iotdb.db.queryengine.plan.planner.plan.parameter.SeriesScanOptions;
+import org.apache.iotdb.db.queryengine.plan.statement.component.Ordering;
+import org.apache.iotdb.db.storageengine.buffer.BloomFilterCache;
+import org.apache.iotdb.db.storageengine.buffer.ChunkCache;
+import org.apache.iotdb.db.storageengine.buffer.TimeSeriesMetadataCache;
+import org.apache.iotdb.db.storageengine.dataregion.read.QueryDataSource;
+
+import org.apache.tsfile.file.metadata.IDeviceID;
+import org.apache.tsfile.read.common.block.TsBlock;
+import org.apache.tsfile.write.schema.IMeasurementSchema;
+import org.apache.tsfile.write.schema.MeasurementSchema;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks a full scan of one device with {@link SeriesScanUtil} (non-aligned, the first column)
+ * or {@link AlignedSeriesScanUtil} (aligned, all the columns) over local TsFiles. The unsequence
+ * files overlap the sequence files according to outOfOrderRatio, which forces the merge reader to
+ * be used. With coldCache the chunk, metadata and bloom filter caches are cleared before every
+ * scan, so that the loading path of the caches is measured as well.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class SeriesScanBenchmark {
+
+  @Param({"false", "true"})
+  private boolean aligned;
+
+  @Param({"10"})
+  private int columnCount;
+
+  @Param({"0.0", "0.1"})
+  private double outOfOrderRatio;
+
+  @Param({"false", "true"})
+  private boolean coldCache;
+
+  @Param({"10"})
+  private int fileCount;
+
+  @Param({"100000"})
+  private int pointsPerFile;
+
+  private BenchmarkTsFileGenerator generator;
+
+  private FragmentInstanceContext context;
+
+  private long queryId = 0;
+
+  @Setup(Level.Trial)
+  public void setUpTrial()
+      throws IllegalPathException,
+          IOException,
+          WriteProcessException,
+          ExecutionException,
+          InterruptedException {
+    generator =
+        new BenchmarkTsFileGenerator(
+            aligned, columnCount, fileCount, pointsPerFile, outOfOrderRatio);
+  }
+
+  @Setup(Level.Invocation)
+  public void setUpInvocation() {
+    context = FragmentInstanceContext.createFragmentInstanceContextForCompaction(++queryId);
+    if (coldCache) {
+      ChunkCache.getInstance().clear();
+      TimeSeriesMetadataCache.getInstance().clear();
+      BloomFilterCache.getInstance().clear();
+    }
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDownTrial() throws IOException {
+    generator.close();
+  }
+
+  @Benchmark
+  public long scan() throws IOException {
+    SeriesScanUtil seriesScanUtil = createSeriesScanUtil();
+    seriesScanUtil.initQueryDataSource(
+        new QueryDataSource(generator.getSeqResources(), generator.getUnseqResources()));
+
+    long rowCount = 0;
+    while (true) {
+      if (seriesScanUtil.hasNextPage()) {
+        rowCount += count(seriesScanUtil.nextPage());
+        continue;
+      }
+      Optional<Boolean> hasNextChunk = seriesScanUtil.hasNextChunk();
+      if (!hasNextChunk.isPresent() || hasNextChunk.get()) {
+        continue;
+      }
+      Optional<Boolean> hasNextFile = seriesScanUtil.hasNextFile();
+      if (!hasNextFile.isPresent() || hasNextFile.get()) {
+        continue;
+      }
+      return rowCount;
+    }
+  }
+
+  private SeriesScanUtil createSeriesScanUtil() {
+    IDeviceID deviceID = IDeviceID.Factory.DEFAULT_FACTORY.create(BenchmarkTsFileGenerator.DEVICE);
+    MeasurementSchema[] schemas = BenchmarkDataGenerator.getMeasurementSchemas(columnCount);
+    SeriesScanOptions.Builder scanOptionsBuilder = new SeriesScanOptions.Builder();
+    if (aligned) {
+      List<String> measurements =
+          Arrays.asList(BenchmarkDataGenerator.getMeasurements(columnCount));
+      scanOptionsBuilder.withAllSensors(new HashSet<>(measurements));
+      return new AlignedSeriesScanUtil(
+          new AlignedFullPath(deviceID, measurements, Arrays.<IMeasurementSchema>asList(schemas)),
+          Ordering.ASC,
+          scanOptionsBuilder.build(),
+          context);
+    }
+    scanOptionsBuilder.withAllSensors(Collections.singleton(schemas[0].getMeasurementName()));
+    return new SeriesScanUtil(
+        new NonAlignedFullPath(deviceID, schemas[0]),
+        Ordering.ASC,
+        scanOptionsBuilder.build(),
+        context);
+  }
+
+  private static int count(TsBlock tsBlock) {
+    return tsBlock == null ? 0 : tsBlock.getPositionCount();
+  }
+}
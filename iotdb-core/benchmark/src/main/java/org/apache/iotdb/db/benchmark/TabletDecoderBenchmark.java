@@ -0,0 +1,128 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iotdb.db.benchmark;
+
+import org.apache.iotdb.db.utils.TabletDecoder;
+import org.apache.iotdb.session.rpccompress.TabletEncoder;
+
+import org.apache.tsfile.enums.TSDataType;
+import org.apache.tsfile.file.metadata.enums.CompressionType;
+import org.apache.tsfile.file.metadata.enums.TSEncoding;
+import org.apache.tsfile.utils.Pair;
+import org.apache.tsfile.write.record.Tablet;
+import org.apache.tsfile.write.schema.IMeasurementSchema;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the decoding of the time and value buffers of an insertTablet request by {@link
+ * TabletDecoder}. The buffers are produced by the client's {@link TabletEncoder} in the same way as
+ * {@code Session#insertTablet}: PLAIN and uncompressed by default, or with the per-type encodings
+ * and LZ4 when RPC compression is enabled.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class TabletDecoderBenchmark {
+
+  @Param({"false", "true"})
+  private boolean rpcCompression;
+
+  @Param({"10", "100"})
+  private int columnCount;
+
+  @Param({"1000"})
+  private int rowsPerRequest;
+
+  private TSDataType[] dataTypes;
+
+  private CompressionType compressionType;
+
+  private List<TSEncoding> encodings;
+
+  private ByteBuffer timeBuffer;
+
+  private ByteBuffer valueBuffer;
+
+  @Setup(Level.Trial)
+  public void setUpTrial() {
+    Random random = new Random(BenchmarkDataGenerator.SEED);
+    dataTypes = BenchmarkDataGenerator.getDataTypes(columnCount);
+    long[] times = BenchmarkDataGenerator.generateTimestamps(0, rowsPerRequest, 0, random);
+    Object[] columns = new Object[columnCount];
+    for (int i = 0; i < columnCount; i++) {
+      columns[i] = BenchmarkDataGenerator.generateColumn(dataTypes[i], times, random);
+    }
+    List<IMeasurementSchema> schemas =
+        new ArrayList<>(Arrays.asList(BenchmarkDataGenerator.getMeasurementSchemas(columnCount)));
+    Tablet tablet = new Tablet("root.bench.d0", schemas, times, columns, null, rowsPerRequest);
+
+    if (rpcCompression) {
+      compressionType = CompressionType.LZ4;
+      encodings = new ArrayList<>(columnCount + 1);
+      encodings.add(TSEncoding.TS_2DIFF);
+      for (TSDataType dataType : dataTypes) {
+        encodings.add(BenchmarkDataGenerator.getEncoding(dataType));
+      }
+    } else {
+      compressionType = CompressionType.UNCOMPRESSED;
+      encodings = Collections.nCopies(columnCount + 1, TSEncoding.PLAIN);
+    }
+    TabletEncoder encoder = new TabletEncoder(compressionType, encodings);
+    timeBuffer = encoder.encodeTime(tablet);
+    valueBuffer = encoder.encodeValues(tablet);
+  }
+
+  @Benchmark
+  public long[] decodeTime() {
+    return createDecoder().decodeTime(timeBuffer.duplicate());
+  }
+
+  @Benchmark
+  public Pair<Object[], ByteBuffer> decodeValues() {
+    return createDecoder().decodeValues(valueBuffer.duplicate());
+  }
+
+  /** A decoder is created for every request, as StatementGenerator does. */
+  private TabletDecoder createDecoder() {
+    return new TabletDecoder(compressionType, dataTypes, encodings, rowsPerRequest);
+  }
+}
@@ -0,0 +1,128 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iotdb.db.benchmark;
+
+import org.apache.iotdb.db.queryengine.execution.exchange.TsBlockSerdeFactory;
+
+import org.apache.tsfile.block.column.ColumnBuilder;
+import org.apache.tsfile.enums.TSDataType;
+import org.apache.tsfile.read.common.block.TsBlock;
+import org.apache.tsfile.read.common.block.TsBlockBuilder;
+import org.apache.tsfile.read.common.block.column.TsBlockSerde;
+import org.apache.tsfile.utils.Binary;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the serialization and deserialization of the {@link TsBlock}s sent between fragment
+ * instances through the exchange operators, using the serde provided by {@link
+ * TsBlockSerdeFactory}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class TsBlockSerdeBenchmark {
+
+  @Param({"1", "10"})
+  private int columnCount;
+
+  @Param({"1000"})
+  private int rowCount;
+
+  private TsBlockSerde serde;
+
+  private TsBlock tsBlock;
+
+  private ByteBuffer serialized;
+
+  @Setup(Level.Trial)
+  public void setUpTrial() throws IOException {
+    serde = new TsBlockSerdeFactory().get();
+
+    Random random = new Random(BenchmarkDataGenerator.SEED);
+    TSDataType[] dataTypes = BenchmarkDataGenerator.getDataTypes(columnCount);
+    long[] times = BenchmarkDataGenerator.generateTimestamps(0, rowCount, 0, random);
+    TsBlockBuilder builder = new TsBlockBuilder(Arrays.asList(dataTypes));
+    for (long time : times) {
+      builder.getTimeColumnBuilder().writeLong(time);
+      for (int i = 0; i < columnCount; i++) {
+        writeValue(
+            builder.getColumnBuilder(i),
+            dataTypes[i],
+            BenchmarkDataGenerator.generateValue(dataTypes[i], time, random));
+      }
+      builder.declarePosition();
+    }
+    tsBlock = builder.build();
+    serialized = serde.serialize(tsBlock);
+  }
+
+  @Benchmark
+  public ByteBuffer serialize() throws IOException {
+    return serde.serialize(tsBlock);
+  }
+
+  @Benchmark
+  public TsBlock deserialize() {
+    return serde.deserialize(serialized.duplicate());
+  }
+
+  private static void writeValue(ColumnBuilder columnBuilder, TSDataType dataType, Object value) {
+    switch (dataType) {
+      case DOUBLE:
+        columnBuilder.writeDouble((double) value);
+        break;
+      case INT64:
+        columnBuilder.writeLong((long) value);
+        break;
+      case FLOAT:
+        columnBuilder.writeFloat((float) value);
+        break;
+      case INT32:
+        columnBuilder.writeInt((int) value);
+        break;
+      case BOOLEAN:
+        columnBuilder.writeBoolean((boolean) value);
+        break;
+      default:
+        columnBuilder.writeBinary((Binary) value);
+        break;
+    }
+  }
+}
@@ -0,0 +1,219 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iotdb.db.benchmark;
+
+import org.apache.iotdb.commons.exception.IllegalPathException;
+import org.apache.iotdb.commons.utils.FileUtils;
+import org.apache.iotdb.db.storageengine.dataregion.wal.buffer.IWALByteBufferView;
+import org.apache.iotdb.db.storageengine.dataregion.wal.buffer.WALBuffer;
+import org.apache.iotdb.db.storageengine.dataregion.wal.buffer.WALEntry;
+import org.apache.iotdb.db.storageengine.dataregion.wal.buffer.WALInfoEntry;
+import org.apache.iotdb.db.utils.constant.TestConstant;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the WAL write path: {@link WALEntry#serialize} of tablets and rows into a direct
+ * buffer (which is what the serialize thread of {@link WALBuffer} does), and the end-to-end {@link
+ * WALBuffer#write} until the entries are consumed by the sync thread.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class WALBufferBenchmark {
+
+  private static final String DEVICE = "root.bench.d0";
+
+  private static final String LOG_DIRECTORY = TestConstant.BASE_OUTPUT_PATH.concat("wal-benchmark");
+
+  @Param({"false", "true"})
+  private boolean aligned;
+
+  @Param({"10", "100"})
+  private int columnCount;
+
+  @Param({"1000"})
+  private int rowsPerRequest;
+
+  private WALEntry tabletEntry;
+
+  private WALEntry[] rowEntries;
+
+  private ByteBuffer buffer;
+
+  private ByteBufferView bufferView;
+
+  private WALBuffer walBuffer;
+
+  @Setup(Level.Trial)
+  public void setUpTrial() throws IllegalPathException, IOException {
+    Random random = new Random(BenchmarkDataGenerator.SEED);
+    long[] times = BenchmarkDataGenerator.generateTimestamps(0, rowsPerRequest, 0, random);
+    tabletEntry =
+        new WALInfoEntry(
+            1,
+            BenchmarkDataGenerator.generateInsertTabletNode(
+                DEVICE, aligned, columnCount, times, random));
+    rowEntries = new WALEntry[rowsPerRequest];
+    int maxSerializedSize = tabletEntry.serializedSize();
+    int rowsSerializedSize = 0;
+    for (int i = 0; i < rowsPerRequest; i++) {
+      rowEntries[i] =
+          new WALInfoEntry(
+              1,
+              BenchmarkDataGenerator.generateInsertRowNode(
+                  DEVICE, aligned, columnCount, times[i], random));
+      rowsSerializedSize += rowEntries[i].serializedSize();
+    }
+    buffer = ByteBuffer.allocateDirect(Math.max(maxSerializedSize, rowsSerializedSize));
+    bufferView = new ByteBufferView(buffer);
+
+    FileUtils.deleteFileOrDirectory(new File(LOG_DIRECTORY));
+    walBuffer = new WALBuffer("benchmark", LOG_DIRECTORY);
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDownTrial() {
+    walBuffer.close();
+    FileUtils.deleteFileOrDirectory(new File(LOG_DIRECTORY));
+  }
+
+  @Benchmark
+  public int serializeTablet() {
+    buffer.clear();
+    tabletEntry.serialize(bufferView);
+    return buffer.position();
+  }
+
+  @Benchmark
+  public int serializeRows() {
+    buffer.clear();
+    for (WALEntry rowEntry : rowEntries) {
+      rowEntry.serialize(bufferView);
+    }
+    return buffer.position();
+  }
+
+  @Benchmark
+  public void writeTablet() throws InterruptedException {
+    walBuffer.write(tabletEntry);
+    waitUntilConsumed();
+  }
+
+  @Benchmark
+  public void writeRows() throws InterruptedException {
+    for (WALEntry rowEntry : rowEntries) {
+      walBuffer.write(rowEntry);
+    }
+    waitUntilConsumed();
+  }
+
+  private void waitUntilConsumed() throws InterruptedException {
+    while (!walBuffer.isAllWALEntriesConsumed()) {
+      Thread.sleep(0, 100_000);
+    }
+  }
+
+  /** Same as the view used by the serialize thread of WALBuffer, without the buffer switching. */
+  private static class ByteBufferView extends IWALByteBufferView {
+
+    private final ByteBuffer buffer;
+
+    private ByteBufferView(ByteBuffer buffer) {
+      this.buffer = buffer;
+    }
+
+    @Override
+    public void write(int b) {
+      put((byte) b);
+    }
+
+    @Override
+    public void write(byte[] b) {
+      put(b);
+    }
+
+    @Override
+    public void put(byte b) {
+      buffer.put(b);
+    }
+
+    @Override
+    public void put(byte[] src) {
+      buffer.put(src);
+    }
+
+    @Override
+    public void putChar(char value) {
+      buffer.putChar(value);
+    }
+
+    @Override
+    public void putShort(short value) {
+      buffer.putShort(value);
+    }
+
+    @Override
+    public void putInt(int value) {
+      buffer.putInt(value);
+    }
+
+    @Override
+    public void putLong(long value) {
+      buffer.putLong(value);
+    }
+
+    @Override
+    public void putFloat(float value) {
+      buffer.putFloat(value);
+    }
+
+    @Override
+    public void putDouble(double value) {
+      buffer.putDouble(value);
+    }
+
+    @Override
+    public int position() {
+      return buffer.position();
+    }
+  }
+}
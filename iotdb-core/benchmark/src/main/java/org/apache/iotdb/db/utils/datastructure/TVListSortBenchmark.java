@@ -0,0 +1,145 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iotdb.db.utils.datastructure;
+
+import org.apache.iotdb.db.benchmark.BenchmarkDataGenerator;
+
+import org.apache.tsfile.enums.TSDataType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks {@link TVList#sort()} of the {@link TVListSortAlgorithm#TIM}, {@link
+ * TVListSortAlgorithm#QUICK} and {@link TVListSortAlgorithm#BACKWARD} variants. This class lives in
+ * the package of the TVLists because their constructors are package private, the algorithm is
+ * otherwise fixed by the configuration when the DataNode starts.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class TVListSortBenchmark {
+
+  @Param({"TIM", "QUICK", "BACKWARD"})
+  private TVListSortAlgorithm algorithm;
+
+  @Param({"false", "true"})
+  private boolean aligned;
+
+  @Param({"10"})
+  private int columnCount;
+
+  @Param({"0.01", "0.1", "0.5"})
+  private double outOfOrderRatio;
+
+  @Param({"100000"})
+  private int rowCount;
+
+  private long[] times;
+
+  private Object[][] rows;
+
+  private TVList list;
+
+  @Setup(Level.Trial)
+  public void setUpTrial() {
+    Random random = new Random(BenchmarkDataGenerator.SEED);
+    times = BenchmarkDataGenerator.generateTimestamps(0, rowCount, outOfOrderRatio, random);
+    int width = aligned ? columnCount : 1;
+    rows = new Object[rowCount][width];
+    for (int i = 0; i < rowCount; i++) {
+      for (int j = 0; j < width; j++) {
+        rows[i][j] =
+            BenchmarkDataGenerator.generateValue(
+                BenchmarkDataGenerator.getDataType(j), times[i], random);
+      }
+    }
+  }
+
+  /** Sorting is destructive, so every invocation works on a freshly filled list. */
+  @Setup(Level.Invocation)
+  public void setUpInvocation() {
+    if (aligned) {
+      List<TSDataType> dataTypes = Arrays.asList(BenchmarkDataGenerator.getDataTypes(columnCount));
+      AlignedTVList alignedTVList = newAlignedList(dataTypes);
+      for (int i = 0; i < rowCount; i++) {
+        alignedTVList.putAlignedValue(times[i], rows[i]);
+      }
+      list = alignedTVList;
+    } else {
+      DoubleTVList doubleTVList = newDoubleList();
+      for (int i = 0; i < rowCount; i++) {
+        doubleTVList.putDouble(times[i], (double) rows[i][0]);
+      }
+      list = doubleTVList;
+    }
+  }
+
+  @TearDown(Level.Invocation)
+  public void tearDownInvocation() {
+    list.clear();
+  }
+
+  @Benchmark
+  public TVList sort() {
+    list.sort();
+    return list;
+  }
+
+  private AlignedTVList newAlignedList(List<TSDataType> dataTypes) {
+    switch (algorithm) {
+      case QUICK:
+        return new QuickAlignedTVList(dataTypes);
+      case BACKWARD:
+        return new BackAlignedTVList(dataTypes);
+      default:
+        return new TimAlignedTVList(dataTypes);
+    }
+  }
+
+  private DoubleTVList newDoubleList() {
+    switch (algorithm) {
+      case QUICK:
+        return new QuickDoubleTVList();
+      case BACKWARD:
+        return new BackDoubleTVList();
+      default:
+        return new TimDoubleTVList();
+    }
+  }
+}
@@ -933,6 +933,13 @@ public class IoTConsensusServerImpl {
     private final PriorityQueue<DeserializedBatchIndexedConsensusRequest> requestCache;
     private long nextSyncIndex = -1;
 
+    // Batches leaving the requestCache take tickets in order and are applied in the order of their
+    // tickets, so that the following batches can be sorted while the previous one is being applied
+    private final Lock applyLock = new ReentrantLock();
+    private final Condition applyCondition = applyLock.newCondition();
+    private long issuedApplyTicket = 0;
+    private long appliedApplyTicket = 0;
+
     public SyncLogCacheQueue(int sourcePeerId) {
       this.sourcePeerId = sourcePeerId;
       this.requestCache = new PriorityQueue<>();
@@ -951,9 +958,12 @@ public class IoTConsensusServerImpl {
           requestCache.size(),
           request.getStartSyncIndex(),
           request.getEndSyncIndex());
+      long insertStartTime;
+      long sortTime;
+      long applyTicket;
       queueLock.lock();
       try {
-        long insertStartTime = System.nanoTime();
+        insertStartTime = System.nanoTime();
         requestCache.add(request);
         // If the peek is not hold by current thread, it should notify the corresponding thread to
         // process the peek when the queue is full
@@ -1012,29 +1022,53 @@ public class IoTConsensusServerImpl {
             break;
           }
         }
-        long sortTime = System.nanoTime();
+        sortTime = System.nanoTime();
         ioTConsensusServerMetrics.recordSortCost(sortTime - insertStartTime);
-        List<TSStatus> subStatus = new LinkedList<>();
-        for (IConsensusRequest insertNode : request.getInsertNodes()) {
-          insertNode.markAsGeneratedByRemoteConsensusLeader();
-          subStatus.add(stateMachine.write(insertNode));
-        }
-        long applyTime = System.nanoTime();
-        ioTConsensusServerMetrics.recordApplyCost(applyTime - sortTime);
+        applyTicket = ++issuedApplyTicket;
         queueSortCondition.signalAll();
-        logger.debug(
-            "cacheAndInsert end: source = {}, region = {}, queue size {}, startSyncIndex = {}, endSyncIndex = {}, sortTime = {}ms, applyTime = {}ms",
-            sourcePeerId,
-            consensusGroupId,
-            requestCache.size(),
-            request.getStartSyncIndex(),
-            request.getEndSyncIndex(),
-            TimeUnit.NANOSECONDS.toMillis(sortTime - insertStartTime),
-            TimeUnit.NANOSECONDS.toMillis(applyTime - sortTime));
-        return new TSStatus().setSubStatus(subStatus);
       } finally {
         queueLock.unlock();
       }
+      List<TSStatus> subStatus = applyInOrder(request, applyTicket);
+      long applyTime = System.nanoTime();
+      ioTConsensusServerMetrics.recordApplyCost(applyTime - sortTime);
+      logger.debug(
+          "cacheAndInsert end: source = {}, region = {}, startSyncIndex = {}, endSyncIndex = {}, sortTime = {}ms, applyTime = {}ms",
+          sourcePeerId,
+          consensusGroupId,
+          request.getStartSyncIndex(),
+          request.getEndSyncIndex(),
+          TimeUnit.NANOSECONDS.toMillis(sortTime - insertStartTime),
+          TimeUnit.NANOSECONDS.toMillis(applyTime - sortTime));
+      return new TSStatus().setSubStatus(subStatus);
+    }
+
+    /**
+     * Apply the batch after all the batches with smaller tickets have been applied. The ticket must
+     * be applied even if the current thread is interrupted, otherwise the following batches will
+     * wait forever.
+     */
+    private List<TSStatus> applyInOrder(
+        DeserializedBatchIndexedConsensusRequest request, long applyTicket) {
+      applyLock.lock();
+      try {
+        while (appliedApplyTicket != applyTicket - 1) {
+          applyCondition.awaitUninterruptibly();
+        }
+        try {
+          List<TSStatus> subStatus = new LinkedList<>();
+          for (IConsensusRequest insertNode : request.getInsertNodes()) {
+            insertNode.markAsGeneratedByRemoteConsensusLeader();
+            subStatus.add(stateMachine.write(insertNode));
+          }
+          return subStatus;
+        } finally {
+          appliedApplyTicket = applyTicket;
+          applyCondition.signalAll();
+        }
+      } finally {
+        applyLock.unlock();
+      }
     }
   }
 }
@@ -98,6 +98,9 @@ public class DispatchLogHandler implements AsyncMethodCallback<TSyncLogEntriesRe
       LogDispatcher.getReceiverMemSizeSum().addAndGet(response.getReceiverMemSize());
       LogDispatcher.getSenderMemSizeSum().addAndGet(batch.getMemorySize());
     }
+    if (response.isSetReceiverApplyTimeInNs()) {
+      logDispatcherThreadMetrics.recordApplyLatency(response.getReceiverApplyTimeInNs());
+    }
     logDispatcherThreadMetrics.recordSyncLogTimePerRequest(System.nanoTime() - createTime);
   }
 
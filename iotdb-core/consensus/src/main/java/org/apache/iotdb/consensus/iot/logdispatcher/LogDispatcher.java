@@ -224,6 +224,8 @@ public class LogDispatcher {
     private final BlockingQueue<IndexedConsensusRequest> pendingEntries;
     // A container used to cache requests, whose size changes dynamically
     private final List<IndexedConsensusRequest> bufferedEntries = new LinkedList<>();
+    // Memory size of the requests in pendingEntries and bufferedEntries
+    private final AtomicLong queuedRequestMemorySize = new AtomicLong(0);
     // A reader management class that gets requests from the DataRegion
     private final ConsensusReqReader reader =
         (ConsensusReqReader) impl.getStateMachine().read(new GetConsensusReqReaderPlan());
@@ -281,6 +283,14 @@ public class LogDispatcher {
       return bufferedEntries.size();
     }
 
+    /**
+     * The size in bytes of the requests held in memory which have not been acknowledged by the
+     * peer, including the queued requests and the batches in flight.
+     */
+    public long getLagInBytes() {
+      return queuedRequestMemorySize.get() + syncStatus.getPendingBatchesMemorySize();
+    }
+
     /** try to offer a request into queue with memory control. */
     public boolean offer(IndexedConsensusRequest indexedConsensusRequest) {
       if (!iotConsensusMemoryManager.reserve(indexedConsensusRequest)) {
@@ -294,7 +304,9 @@ public class LogDispatcher {
         iotConsensusMemoryManager.free(indexedConsensusRequest);
         throw t;
       }
-      if (!success) {
+      if (success) {
+        queuedRequestMemorySize.addAndGet(indexedConsensusRequest.getMemorySize());
+      } else {
         // If offer failed, the reserved memory should be released
         iotConsensusMemoryManager.free(indexedConsensusRequest);
       }
@@ -303,6 +315,7 @@ public class LogDispatcher {
 
     /** try to remove a request from queue with memory control. */
     private void releaseReservedMemory(IndexedConsensusRequest indexedConsensusRequest) {
+      queuedRequestMemorySize.addAndGet(-indexedConsensusRequest.getMemorySize());
       iotConsensusMemoryManager.free(indexedConsensusRequest);
     }
 
@@ -330,6 +343,7 @@ public class LogDispatcher {
       for (IndexedConsensusRequest indexedConsensusRequest : bufferedEntries) {
         iotConsensusMemoryManager.free(indexedConsensusRequest);
       }
+      queuedRequestMemorySize.set(0);
       syncStatus.free();
       MetricService.getInstance().removeMetricSet(logDispatcherThreadMetrics);
     }
@@ -34,6 +34,7 @@ public class LogDispatcherThreadMetrics implements IMetricSet {
 
   private Timer constructBatchTimer = DoNothingMetricManager.DO_NOTHING_TIMER;
   private Timer syncLogTimePerRequestTimer = DoNothingMetricManager.DO_NOTHING_TIMER;
+  private Timer applyLatencyTimer = DoNothingMetricManager.DO_NOTHING_TIMER;
 
   public LogDispatcherThreadMetrics(LogDispatcher.LogDispatcherThread logDispatcherThread) {
     this.logDispatcherThread = logDispatcherThread;
@@ -48,6 +49,11 @@ public class LogDispatcherThreadMetrics implements IMetricSet {
     syncLogTimePerRequestTimer.updateNanos(costTimeInNanos);
   }
 
+  /** Record the time the peer spent on deserializing, ordering and applying a batch. */
+  public void recordApplyLatency(long costTimeInNanos) {
+    applyLatencyTimer.updateNanos(costTimeInNanos);
+  }
+
   @Override
   public void bindTo(AbstractMetricService metricService) {
     bindAutoGauge(metricService);
@@ -88,6 +94,17 @@ public class LogDispatcherThreadMetrics implements IMetricSet {
         logDispatcherThread.getPeer().getGroupId().toString(),
         Tag.TYPE.toString(),
         "cachedRequestInMemoryQueue");
+    metricService.createAutoGauge(
+        Metric.IOT_CONSENSUS.toString(),
+        MetricLevel.IMPORTANT,
+        logDispatcherThread,
+        LogDispatcher.LogDispatcherThread::getLagInBytes,
+        Tag.NAME.toString(),
+        formatName(),
+        Tag.REGION.toString(),
+        logDispatcherThread.getPeer().getGroupId().toString(),
+        Tag.TYPE.toString(),
+        "lagInBytes");
   }
 
   private void bindStageTimer(AbstractMetricService metricService) {
@@ -111,6 +128,16 @@ public class LogDispatcherThreadMetrics implements IMetricSet {
             "syncLogTimePerRequest",
             Tag.REGION.toString(),
             peerGroupId);
+    applyLatencyTimer =
+        metricService.getOrCreateTimer(
+            Metric.IOT_SEND_LOG.toString(),
+            MetricLevel.IMPORTANT,
+            Tag.NAME.toString(),
+            Metric.IOT_CONSENSUS.toString(),
+            Tag.STAGE.toString(),
+            "applyLatency",
+            Tag.REGION.toString(),
+            peerGroupId);
   }
 
   private void unbindStageTimer(AbstractMetricService metricService) {
@@ -132,6 +159,15 @@ public class LogDispatcherThreadMetrics implements IMetricSet {
         "syncLogTimePerRequest",
         Tag.REGION.toString(),
         peerGroupId);
+    metricService.remove(
+        MetricType.TIMER,
+        Metric.IOT_SEND_LOG.toString(),
+        Tag.NAME.toString(),
+        Metric.IOT_CONSENSUS.toString(),
+        Tag.STAGE.toString(),
+        "applyLatency",
+        Tag.REGION.toString(),
+        peerGroupId);
   }
 
   @Override
@@ -168,6 +204,15 @@ public class LogDispatcherThreadMetrics implements IMetricSet {
         logDispatcherThread.getPeer().getGroupId().toString(),
         Tag.TYPE.toString(),
         "cachedRequestInMemoryQueue");
+    metricService.remove(
+        MetricType.AUTO_GAUGE,
+        Metric.IOT_CONSENSUS.toString(),
+        Tag.NAME.toString(),
+        formatName(),
+        Tag.REGION.toString(),
+        logDispatcherThread.getPeer().getGroupId().toString(),
+        Tag.TYPE.toString(),
+        "lagInBytes");
   }
 
   private String formatName() {
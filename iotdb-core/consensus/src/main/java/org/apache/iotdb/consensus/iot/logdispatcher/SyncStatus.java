@@ -106,6 +106,14 @@ public class SyncStatus {
             : pendingBatches.getLast().getEndIndex());
   }
 
+  public synchronized long getPendingBatchesMemorySize() {
+    long memorySize = 0;
+    for (Batch pendingBatch : pendingBatches) {
+      memorySize += pendingBatch.getMemorySize();
+    }
+    return memorySize;
+  }
+
   public synchronized List<Batch> getPendingBatches() {
     return pendingBatches;
   }
@@ -130,7 +130,8 @@ public class IoTConsensusRPCServiceProcessor implements IoTConsensusIService.Ifa
         req.consensusGroupId,
         writeStatus.subStatus);
     return new TSyncLogEntriesRes(writeStatus.subStatus)
-        .setReceiverMemSize(deserializedRequest.getMemorySize());
+        .setReceiverMemSize(deserializedRequest.getMemorySize())
+        .setReceiverApplyTimeInNs(System.nanoTime() - buildRequestTime);
   }
 
   @Override
@@ -242,4 +242,33 @@ public class SyncStatusTest {
     Assert.assertEquals(
         config.getReplication().getMaxPendingBatchesNum() + 1, status.getNextSendingIndex());
   }
+
+  /** Confirm the memory size of the batches in flight is released once they are synced. */
+  @Test
+  public void pendingBatchesMemorySizeTest() throws InterruptedException {
+    IndexController controller =
+        new IndexController(storageDir.getAbsolutePath(), peer, 0, CHECK_POINT_GAP);
+    SyncStatus status = new SyncStatus(controller, config);
+    List<Batch> batchList = new ArrayList<>();
+
+    for (long i = 0; i < 3; i++) {
+      TLogEntry logEntry = new TLogEntry();
+      logEntry.setSearchIndex(i);
+      logEntry.setMemorySize(100);
+      Batch batch = new Batch(IoTConsensusConfig.newBuilder().build());
+      batch.addTLogEntry(logEntry);
+      batch.buildIndex();
+      batchList.add(batch);
+      status.addNextBatch(batch);
+    }
+    Assert.assertEquals(300, status.getPendingBatchesMemorySize());
+
+    // a synced batch is still in flight until all the batches before it are synced
+    status.removeBatch(batchList.get(1));
+    Assert.assertEquals(300, status.getPendingBatchesMemorySize());
+    status.removeBatch(batchList.get(0));
+    Assert.assertEquals(100, status.getPendingBatchesMemorySize());
+    status.free();
+    Assert.assertEquals(0, status.getPendingBatchesMemorySize());
+  }
 }
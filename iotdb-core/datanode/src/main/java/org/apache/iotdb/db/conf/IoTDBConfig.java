@@ -124,6 +124,15 @@ public class IoTDBConfig {
   /** Max mqtt message size. Unit: byte */
   private int mqttMaxMessageSize = 1048576;
 
+  /**
+   * Max number of mqtt messages of a client inserted by one statement. 1 means each message is
+   * inserted by its own statement.
+   */
+  private int mqttInsertBatchSize = 1;
+
+  /** Max time a mqtt message waits in the batch before being inserted. Unit: ms */
+  private long mqttInsertBatchMaxDelayInMs = 10;
+
   /** Rpc binding address. */
   private String rpcAddress = "0.0.0.0";
 
@@ -179,6 +188,12 @@ public class IoTDBConfig {
    */
   private volatile long walSyncModeFsyncDelayInMs = 3;
 
+  /**
+   * Whether the writer threads serialize their wal entries before handing them to the wal buffer,
+   * and the sync mode fsync delay adapts to the observed fsync latency.
+   */
+  private boolean walGroupCommitEnabled = false;
+
   /** Buffer size of each wal node. Unit: byte */
   private int walBufferSize = 32 * 1024 * 1024;
 
@@ -397,6 +412,9 @@ public class IoTDBConfig {
   /** The sort algorithm used in TVList */
   private TVListSortAlgorithm tvListSortAlgorithm = TVListSortAlgorithm.TIM;
 
+  /** Whether the values of fixed-width non-aligned TVLists are stored in direct memory */
+  private boolean tvListOffHeapEnabled = false;
+
   /**
    * the threshold when working TVList is sorted and added into immutable TVList list in the
    * writable memtable
@@ -421,9 +439,38 @@ public class IoTDBConfig {
   /** The buffer for sort operation */
   private long sortBufferSize = 32 * 1024 * 1024L;
 
+  /** Whether hash aggregation spills its groups to sort_tmp_dir when out of memory */
+  private boolean enableHashAggregationSpill = false;
+
+  /** Whether INNER and LEFT equi-joins of table model use hash join instead of merge sort join */
+  private boolean enableHashJoin = false;
+
+  /** Whether inner hash joins push the domain of the build side keys into the probe side scan */
+  private boolean enableJoinDynamicFilter = true;
+
+  /** Whether window partitions which exceed the memory limit are spilled to disk */
+  private boolean enableWindowSpill = false;
+
   /** Mods cache size limit per fi */
   private long modsCacheSizeLimitPerFI = 32 * 1024 * 1024;
 
+  /** Whether the parsed mods files are cached and shared by all the queries of the DataNode */
+  private boolean enableSharedModsCache = true;
+
+  /** Max size of the mods cache shared by all the queries of the DataNode */
+  private long sharedModsCacheSizeInBytes = 64 * 1024 * 1024;
+
+  /** Whether to read the chunks of sealed TsFiles into direct buffers when ChunkCache misses */
+  private boolean chunkDirectReadEnabled = false;
+
+  /**
+   * The number of chunks and timeseries metadata a query can load from disk before it is regarded
+   * as a large scan, whose later reads are no longer put into ChunkCache and
+   * TimeSeriesMetadataCache. A scan of whole series expected to load this many is regarded as large
+   * from the start. Scan detection is disabled if it's not positive.
+   */
+  private long cacheBypassScanThreshold = 4096;
+
   /**
    * The strategy of inner space compaction task. There are just one inner space compaction strategy
    * SIZE_TIRED_COMPACTION:
@@ -765,12 +812,24 @@ public class IoTDBConfig {
   /** The default value of primitive array size in array pool */
   private int primitiveArraySize = 64;
 
+  /**
+   * Number of stripes of the array pool, each stripe caches a few arrays of every data type for the
+   * threads mapped to it. It is rounded up to a power of 2.
+   */
+  private int primitiveArrayPoolStripeNum = Runtime.getRuntime().availableProcessors();
+
   /**
    * Level of TimeIndex, which records the start time and end time of TsFileResource. Currently,
    * DEVICE_TIME_INDEX and FILE_TIME_INDEX are supported, and could not be changed after first set.
    */
   private TimeIndexLevel timeIndexLevel = TimeIndexLevel.ARRAY_DEVICE_TIME_INDEX;
 
+  /**
+   * Whether to index the TsFileResources of a data region by device and time, so that single device
+   * queries only check the files which may contain the device in the queried time range.
+   */
+  private boolean enableTsFileIntervalIndex = false;
+
   // just for test
   // wait for 60 second by default.
   private int thriftServerAwaitTimeForStopService = 60;
@@ -782,6 +841,13 @@ public class IoTDBConfig {
   // if enable partial insert, one measurement failure will not impact other measurements
   private boolean enablePartialInsert = true;
 
+  /**
+   * Number of lock stripes the time partitions of a data region are hashed to. Insertions into
+   * different stripes of a data region run concurrently. 1 means insertions of a data region are
+   * serialized by its write lock.
+   */
+  private int dataRegionInsertLockStripeNum = 1;
+
   private boolean enable13DataInsertAdapt = false;
 
   /**
@@ -828,6 +894,12 @@ public class IoTDBConfig {
   /** the size of ioTaskQueue */
   private int ioTaskQueueSizeForFlushing = 10;
 
+  /**
+   * the number of threads encoding one memtable in parallel when flushing, 1 means the memtable is
+   * encoded by a single encoding task
+   */
+  private int flushEncodingThreadNumPerMemTable = 1;
+
   /** the number of data regions per user-defined database */
   private int dataRegionNum = 1;
 
@@ -921,6 +993,21 @@ public class IoTDBConfig {
   /** Thread keep alive time in ms of mpp data exchange. */
   private int mppDataExchangeKeepAliveTimeInMs = 1000;
 
+  /**
+   * Compression of the TsBlocks this data node pulls from other data nodes. The upstream data node
+   * sends them uncompressed if it does not support compression.
+   */
+  private CompressionType mppDataExchangeCompressionType = CompressionType.UNCOMPRESSED;
+
+  /** Serialized TsBlocks smaller than this are not compressed in mpp data exchange. */
+  private int mppDataExchangeCompressionThresholdInBytes = 16 * 1024;
+
+  /**
+   * Max bytes of TsBlocks a SinkChannel pushes to its downstream SourceHandle before they are
+   * acknowledged, 0 means all TsBlocks are pulled by the downstream SourceHandle.
+   */
+  private long mppDataExchangePushCreditInBytes = 0L;
+
   /** Thrift socket and connection timeout between data node and config node. */
   private int connectionTimeoutInMS = (int) TimeUnit.SECONDS.toMillis(60);
 
@@ -1005,6 +1092,12 @@ public class IoTDBConfig {
   /** Maximum execution time of a DriverTask */
   private int driverTaskExecutionTimeSliceInMs = 200;
 
+  /**
+   * Whether each query worker thread polls DriverTasks from its own ready queue and steals from the
+   * others when it's empty, instead of all the workers sharing one ready queue.
+   */
+  private boolean enableWorkStealingDriverScheduler = false;
+
   /** Maximum size of wal buffer used in IoTConsensus. Unit: byte */
   private long throttleThreshold = 200 * 1024 * 1024 * 1024L;
 
@@ -1333,6 +1426,14 @@ public class IoTDBConfig {
     this.timeIndexLevel = TimeIndexLevel.valueOf(timeIndexLevel);
   }
 
+  public boolean isEnableTsFileIntervalIndex() {
+    return enableTsFileIntervalIndex;
+  }
+
+  public void setEnableTsFileIntervalIndex(boolean enableTsFileIntervalIndex) {
+    this.enableTsFileIntervalIndex = enableTsFileIntervalIndex;
+  }
+
   public void updatePath() {
     formulateFolders();
     confirmMultiDirStrategy();
@@ -1921,6 +2022,14 @@ public class IoTDBConfig {
     this.walSyncModeFsyncDelayInMs = walSyncModeFsyncDelayInMs;
   }
 
+  public boolean isWalGroupCommitEnabled() {
+    return walGroupCommitEnabled;
+  }
+
+  public void setWalGroupCommitEnabled(boolean walGroupCommitEnabled) {
+    this.walGroupCommitEnabled = walGroupCommitEnabled;
+  }
+
   public int getWalBufferSize() {
     return walBufferSize;
   }
@@ -2066,6 +2175,14 @@ public class IoTDBConfig {
     this.enablePartialInsert = enablePartialInsert;
   }
 
+  public int getDataRegionInsertLockStripeNum() {
+    return dataRegionInsertLockStripeNum;
+  }
+
+  public void setDataRegionInsertLockStripeNum(int dataRegionInsertLockStripeNum) {
+    this.dataRegionInsertLockStripeNum = dataRegionInsertLockStripeNum;
+  }
+
   public boolean isEnable13DataInsertAdapt() {
     return enable13DataInsertAdapt;
   }
@@ -2207,6 +2324,14 @@ public class IoTDBConfig {
     return tvListSortAlgorithm;
   }
 
+  public boolean isTvListOffHeapEnabled() {
+    return tvListOffHeapEnabled;
+  }
+
+  public void setTvListOffHeapEnabled(boolean tvListOffHeapEnabled) {
+    this.tvListOffHeapEnabled = tvListOffHeapEnabled;
+  }
+
   public void setTvListSortAlgorithm(TVListSortAlgorithm tvListSortAlgorithm) {
     this.tvListSortAlgorithm = tvListSortAlgorithm;
   }
@@ -2568,6 +2693,22 @@ public class IoTDBConfig {
     this.mqttMaxMessageSize = mqttMaxMessageSize;
   }
 
+  public int getMqttInsertBatchSize() {
+    return mqttInsertBatchSize;
+  }
+
+  public void setMqttInsertBatchSize(int mqttInsertBatchSize) {
+    this.mqttInsertBatchSize = mqttInsertBatchSize;
+  }
+
+  public long getMqttInsertBatchMaxDelayInMs() {
+    return mqttInsertBatchMaxDelayInMs;
+  }
+
+  public void setMqttInsertBatchMaxDelayInMs(long mqttInsertBatchMaxDelayInMs) {
+    this.mqttInsertBatchMaxDelayInMs = mqttInsertBatchMaxDelayInMs;
+  }
+
   public int getTagAttributeFlushInterval() {
     return tagAttributeFlushInterval;
   }
@@ -2584,6 +2725,14 @@ public class IoTDBConfig {
     this.primitiveArraySize = primitiveArraySize;
   }
 
+  public int getPrimitiveArrayPoolStripeNum() {
+    return primitiveArrayPoolStripeNum;
+  }
+
+  public void setPrimitiveArrayPoolStripeNum(int primitiveArrayPoolStripeNum) {
+    this.primitiveArrayPoolStripeNum = primitiveArrayPoolStripeNum;
+  }
+
   public int getThriftMaxFrameSize() {
     return thriftMaxFrameSize;
   }
@@ -2729,6 +2878,14 @@ public class IoTDBConfig {
     this.ioTaskQueueSizeForFlushing = ioTaskQueueSizeForFlushing;
   }
 
+  public int getFlushEncodingThreadNumPerMemTable() {
+    return flushEncodingThreadNumPerMemTable;
+  }
+
+  public void setFlushEncodingThreadNumPerMemTable(int flushEncodingThreadNumPerMemTable) {
+    this.flushEncodingThreadNumPerMemTable = flushEncodingThreadNumPerMemTable;
+  }
+
   public boolean isEnableSeqSpaceCompaction() {
     return enableSeqSpaceCompaction;
   }
@@ -3134,6 +3291,31 @@ public class IoTDBConfig {
     this.mppDataExchangeKeepAliveTimeInMs = mppDataExchangeKeepAliveTimeInMs;
   }
 
+  public CompressionType getMppDataExchangeCompressionType() {
+    return mppDataExchangeCompressionType;
+  }
+
+  public void setMppDataExchangeCompressionType(CompressionType mppDataExchangeCompressionType) {
+    this.mppDataExchangeCompressionType = mppDataExchangeCompressionType;
+  }
+
+  public int getMppDataExchangeCompressionThresholdInBytes() {
+    return mppDataExchangeCompressionThresholdInBytes;
+  }
+
+  public void setMppDataExchangeCompressionThresholdInBytes(
+      int mppDataExchangeCompressionThresholdInBytes) {
+    this.mppDataExchangeCompressionThresholdInBytes = mppDataExchangeCompressionThresholdInBytes;
+  }
+
+  public long getMppDataExchangePushCreditInBytes() {
+    return mppDataExchangePushCreditInBytes;
+  }
+
+  public void setMppDataExchangePushCreditInBytes(long mppDataExchangePushCreditInBytes) {
+    this.mppDataExchangePushCreditInBytes = mppDataExchangePushCreditInBytes;
+  }
+
   public int getConnectionTimeoutInMS() {
     return connectionTimeoutInMS;
   }
@@ -3401,6 +3583,14 @@ public class IoTDBConfig {
     this.driverTaskExecutionTimeSliceInMs = driverTaskExecutionTimeSliceInMs;
   }
 
+  public boolean isEnableWorkStealingDriverScheduler() {
+    return enableWorkStealingDriverScheduler;
+  }
+
+  public void setEnableWorkStealingDriverScheduler(boolean enableWorkStealingDriverScheduler) {
+    this.enableWorkStealingDriverScheduler = enableWorkStealingDriverScheduler;
+  }
+
   public static String getEnvironmentVariables() {
     return "\n\t"
         + IoTDBConstant.IOTDB_HOME
@@ -4173,6 +4363,38 @@ public class IoTDBConfig {
     return sortBufferSize;
   }
 
+  public boolean isEnableHashAggregationSpill() {
+    return enableHashAggregationSpill;
+  }
+
+  public void setEnableHashAggregationSpill(boolean enableHashAggregationSpill) {
+    this.enableHashAggregationSpill = enableHashAggregationSpill;
+  }
+
+  public boolean isEnableHashJoin() {
+    return enableHashJoin;
+  }
+
+  public void setEnableHashJoin(boolean enableHashJoin) {
+    this.enableHashJoin = enableHashJoin;
+  }
+
+  public boolean isEnableJoinDynamicFilter() {
+    return enableJoinDynamicFilter;
+  }
+
+  public void setEnableJoinDynamicFilter(boolean enableJoinDynamicFilter) {
+    this.enableJoinDynamicFilter = enableJoinDynamicFilter;
+  }
+
+  public boolean isEnableWindowSpill() {
+    return enableWindowSpill;
+  }
+
+  public void setEnableWindowSpill(boolean enableWindowSpill) {
+    this.enableWindowSpill = enableWindowSpill;
+  }
+
   public void setModsCacheSizeLimitPerFI(long modsCacheSizeLimitPerFI) {
     this.modsCacheSizeLimitPerFI = modsCacheSizeLimitPerFI;
   }
@@ -4181,6 +4403,38 @@ public class IoTDBConfig {
     return modsCacheSizeLimitPerFI;
   }
 
+  public boolean isEnableSharedModsCache() {
+    return enableSharedModsCache;
+  }
+
+  public void setEnableSharedModsCache(boolean enableSharedModsCache) {
+    this.enableSharedModsCache = enableSharedModsCache;
+  }
+
+  public long getSharedModsCacheSizeInBytes() {
+    return sharedModsCacheSizeInBytes;
+  }
+
+  public void setSharedModsCacheSizeInBytes(long sharedModsCacheSizeInBytes) {
+    this.sharedModsCacheSizeInBytes = sharedModsCacheSizeInBytes;
+  }
+
+  public boolean isChunkDirectReadEnabled() {
+    return chunkDirectReadEnabled;
+  }
+
+  public void setChunkDirectReadEnabled(boolean chunkDirectReadEnabled) {
+    this.chunkDirectReadEnabled = chunkDirectReadEnabled;
+  }
+
+  public long getCacheBypassScanThreshold() {
+    return cacheBypassScanThreshold;
+  }
+
+  public void setCacheBypassScanThreshold(long cacheBypassScanThreshold) {
+    this.cacheBypassScanThreshold = cacheBypassScanThreshold;
+  }
+
   public void setSortTmpDir(String sortTmpDir) {
     this.sortTmpDir = sortTmpDir;
   }
@@ -368,6 +368,11 @@ public class IoTDBDescriptor {
             properties.getProperty(
                 "tvlist_sort_algorithm", conf.getTvListSortAlgorithm().toString())));
 
+    conf.setTvListOffHeapEnabled(
+        Boolean.parseBoolean(
+            properties.getProperty(
+                "tvlist_off_heap_enabled", String.valueOf(conf.isTvListOffHeapEnabled()))));
+
     conf.setTVListSortThreshold(
         Integer.parseInt(
             properties.getProperty(
@@ -391,6 +396,16 @@ public class IoTDBDescriptor {
                 "io_task_queue_size_for_flushing",
                 Integer.toString(conf.getIoTaskQueueSizeForFlushing()))));
 
+    int flushEncodingThreadNumPerMemTable =
+        Integer.parseInt(
+            properties.getProperty(
+                "flush_encoding_thread_num_per_memtable",
+                Integer.toString(conf.getFlushEncodingThreadNumPerMemTable())));
+    if (flushEncodingThreadNumPerMemTable <= 0) {
+      flushEncodingThreadNumPerMemTable = Runtime.getRuntime().availableProcessors();
+    }
+    conf.setFlushEncodingThreadNumPerMemTable(flushEncodingThreadNumPerMemTable);
+
     boolean enableWALCompression =
         Boolean.parseBoolean(properties.getProperty("enable_wal_compression", "true"));
     conf.setWALCompressionAlgorithm(
@@ -484,6 +499,12 @@ public class IoTDBDescriptor {
             properties.getProperty(
                 "query_timeout_threshold", Long.toString(conf.getQueryTimeoutThreshold()))));
 
+    conf.setEnableTsFileIntervalIndex(
+        Boolean.parseBoolean(
+            properties.getProperty(
+                "enable_tsfile_interval_index",
+                String.valueOf(conf.isEnableTsFileIntervalIndex()))));
+
     conf.setSessionTimeoutThreshold(
         Integer.parseInt(
             properties.getProperty(
@@ -717,6 +738,15 @@ public class IoTDBDescriptor {
             properties.getProperty(
                 "enable_partial_insert", String.valueOf(conf.isEnablePartialInsert()))));
 
+    int dataRegionInsertLockStripeNum =
+        Integer.parseInt(
+            properties.getProperty(
+                "data_region_insert_lock_stripe_num",
+                Integer.toString(conf.getDataRegionInsertLockStripeNum())));
+    if (dataRegionInsertLockStripeNum > 0) {
+      conf.setDataRegionInsertLockStripeNum(dataRegionInsertLockStripeNum);
+    }
+
     conf.setEnable13DataInsertAdapt(
         Boolean.parseBoolean(
             properties.getProperty(
@@ -798,6 +828,15 @@ public class IoTDBDescriptor {
             properties.getProperty(
                 "primitive_array_size", String.valueOf(conf.getPrimitiveArraySize())))));
 
+    int primitiveArrayPoolStripeNum =
+        Integer.parseInt(
+            properties.getProperty(
+                "primitive_array_pool_stripe_num",
+                String.valueOf(conf.getPrimitiveArrayPoolStripeNum())));
+    if (primitiveArrayPoolStripeNum > 0) {
+      conf.setPrimitiveArrayPoolStripeNum(primitiveArrayPoolStripeNum);
+    }
+
     conf.setThriftMaxFrameSize(
         Integer.parseInt(
             properties.getProperty(
@@ -1057,9 +1096,54 @@ public class IoTDBDescriptor {
     // The buffer for sort operator to calculate
     loadFixedSizeLimitForQuery(properties, "sort_buffer_size_in_bytes", conf::setSortBufferSize);
 
+    conf.setEnableHashAggregationSpill(
+        Boolean.parseBoolean(
+            properties.getProperty(
+                "enable_hash_aggregation_spill",
+                String.valueOf(conf.isEnableHashAggregationSpill()))));
+
+    conf.setEnableHashJoin(
+        Boolean.parseBoolean(
+            properties.getProperty("enable_hash_join", String.valueOf(conf.isEnableHashJoin()))));
+
+    conf.setEnableJoinDynamicFilter(
+        Boolean.parseBoolean(
+            properties.getProperty(
+                "enable_join_dynamic_filter", String.valueOf(conf.isEnableJoinDynamicFilter()))));
+
+    conf.setEnableWindowSpill(
+        Boolean.parseBoolean(
+            properties.getProperty(
+                "enable_window_spill", String.valueOf(conf.isEnableWindowSpill()))));
+
     loadFixedSizeLimitForQuery(
         properties, "mods_cache_size_limit_per_fi_in_bytes", conf::setModsCacheSizeLimitPerFI);
 
+    conf.setEnableSharedModsCache(
+        Boolean.parseBoolean(
+            properties.getProperty(
+                "enable_shared_mods_cache", String.valueOf(conf.isEnableSharedModsCache()))));
+    long sharedModsCacheSize =
+        Long.parseLong(properties.getProperty("shared_mods_cache_size_in_bytes", "0"));
+    if (sharedModsCacheSize <= 0) {
+      sharedModsCacheSize =
+          Math.min(
+              64 * 1024 * 1024L,
+              memoryConfig.getOperatorsMemoryManager().getTotalMemorySizeInBytes() / 20);
+    }
+    conf.setSharedModsCacheSizeInBytes(sharedModsCacheSize);
+
+    conf.setChunkDirectReadEnabled(
+        Boolean.parseBoolean(
+            properties.getProperty(
+                "chunk_direct_read_enabled", String.valueOf(conf.isChunkDirectReadEnabled()))));
+
+    conf.setCacheBypassScanThreshold(
+        Long.parseLong(
+            properties.getProperty(
+                "cache_bypass_scan_threshold",
+                String.valueOf(conf.getCacheBypassScanThreshold()))));
+
     // tmp filePath for sort operator
     conf.setSortTmpDir(properties.getProperty("sort_tmp_dir", conf.getSortTmpDir()));
 
@@ -1259,6 +1343,11 @@ public class IoTDBDescriptor {
       conf.setWalBufferSize(walBufferSize);
     }
 
+    conf.setWalGroupCommitEnabled(
+        Boolean.parseBoolean(
+            properties.getProperty(
+                "wal_group_commit_enabled", Boolean.toString(conf.isWalGroupCommitEnabled()))));
+
     boolean WALInsertNodeCacheShrinkClearEnabled =
         Boolean.parseBoolean(
             properties.getProperty(
@@ -1927,6 +2016,22 @@ public class IoTDBDescriptor {
       conf.setMqttMaxMessageSize(
           Integer.parseInt(properties.getProperty(IoTDBConstant.MQTT_MAX_MESSAGE_SIZE).trim()));
     }
+
+    if (properties.getProperty(IoTDBConstant.MQTT_INSERT_BATCH_SIZE) != null) {
+      conf.setMqttInsertBatchSize(
+          Math.max(
+              1,
+              Integer.parseInt(
+                  properties.getProperty(IoTDBConstant.MQTT_INSERT_BATCH_SIZE).trim())));
+    }
+
+    if (properties.getProperty(IoTDBConstant.MQTT_INSERT_BATCH_MAX_DELAY_IN_MS) != null) {
+      conf.setMqttInsertBatchMaxDelayInMs(
+          Math.max(
+              1,
+              Long.parseLong(
+                  properties.getProperty(IoTDBConstant.MQTT_INSERT_BATCH_MAX_DELAY_IN_MS).trim())));
+    }
   }
 
   // timed flush memtable
@@ -2710,6 +2815,21 @@ public class IoTDBDescriptor {
             properties.getProperty(
                 "mpp_data_exchange_keep_alive_time_in_ms",
                 Integer.toString(conf.getMppDataExchangeKeepAliveTimeInMs()))));
+    conf.setMppDataExchangeCompressionType(
+        CompressionType.valueOf(
+            properties.getProperty(
+                "mpp_data_exchange_compression_type",
+                conf.getMppDataExchangeCompressionType().name())));
+    conf.setMppDataExchangeCompressionThresholdInBytes(
+        Integer.parseInt(
+            properties.getProperty(
+                "mpp_data_exchange_compression_threshold_in_bytes",
+                Integer.toString(conf.getMppDataExchangeCompressionThresholdInBytes()))));
+    conf.setMppDataExchangePushCreditInBytes(
+        Long.parseLong(
+            properties.getProperty(
+                "mpp_data_exchange_push_credit_in_bytes",
+                Long.toString(conf.getMppDataExchangePushCreditInBytes()))));
 
     conf.setPartitionCacheSize(
         Integer.parseInt(
@@ -2721,6 +2841,12 @@ public class IoTDBDescriptor {
             properties.getProperty(
                 "driver_task_execution_time_slice_in_ms",
                 Integer.toString(conf.getDriverTaskExecutionTimeSliceInMs()))));
+
+    conf.setEnableWorkStealingDriverScheduler(
+        Boolean.parseBoolean(
+            properties.getProperty(
+                "enable_work_stealing_driver_scheduler",
+                Boolean.toString(conf.isEnableWorkStealingDriverScheduler()))));
   }
 
   /** Get default encode algorithm by data type */
@@ -23,6 +23,7 @@ import org.apache.iotdb.commons.audit.UserEntity;
 import org.apache.iotdb.commons.exception.IllegalPathException;
 import org.apache.iotdb.commons.pipe.agent.task.connection.UnboundedBlockingPendingQueue;
 import org.apache.iotdb.commons.pipe.agent.task.progress.PipeEventCommitManager;
+import org.apache.iotdb.commons.pipe.config.PipeConfig;
 import org.apache.iotdb.commons.pipe.datastructure.pattern.IoTDBTreePatternOperations;
 import org.apache.iotdb.commons.pipe.event.EnrichedEvent;
 import org.apache.iotdb.commons.pipe.event.ProgressReportEvent;
@@ -31,7 +32,9 @@ import org.apache.iotdb.db.pipe.event.common.deletion.PipeDeleteDataNodeEvent;
 import org.apache.iotdb.db.pipe.event.common.heartbeat.PipeHeartbeatEvent;
 import org.apache.iotdb.db.pipe.event.common.tablet.PipeInsertNodeTabletInsertionEvent;
 import org.apache.iotdb.db.pipe.event.common.tablet.PipeRawTabletInsertionEvent;
+import org.apache.iotdb.db.pipe.event.common.tsfile.PipeSlicedTsFileInsertionEvent;
 import org.apache.iotdb.db.pipe.event.common.tsfile.PipeTsFileInsertionEvent;
+import org.apache.iotdb.db.pipe.event.common.tsfile.slicer.TsFileChunkSlicer;
 import org.apache.iotdb.db.pipe.source.schemaregion.IoTDBSchemaRegionSource;
 import org.apache.iotdb.db.pipe.source.schemaregion.PipePlanTreePrivilegeParseVisitor;
 import org.apache.iotdb.db.queryengine.plan.planner.plan.node.write.AbstractDeleteDataNode;
@@ -43,6 +46,9 @@ import org.apache.iotdb.pipe.api.exception.PipeException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.File;
+import java.io.IOException;
+import java.util.Objects;
 import java.util.concurrent.atomic.AtomicInteger;
 
 public class PipeEventCollector implements EventCollector {
@@ -139,6 +145,18 @@ public class PipeEventCollector implements EventCollector {
       return;
     }
 
+    if (!forceTabletFormat && canSlice4TsFileEvent(sourceEvent)) {
+      try {
+        sliceAndCollectEvent(sourceEvent);
+        return;
+      } catch (final Exception e) {
+        LOGGER.warn(
+            "Failed to slice TsFile {}, will parse it into tablets instead.",
+            sourceEvent.getTsFile(),
+            e);
+      }
+    }
+
     try {
       sourceEvent.consumeTabletInsertionEventsWithRetry(
           this::collectParsedRawTableEvent, "PipeEventCollector::parseAndCollectEvent");
@@ -155,6 +173,32 @@ public class PipeEventCollector implements EventCollector {
             && !sourceEvent.shouldParseTime());
   }
 
+  private static boolean canSlice4TsFileEvent(final PipeTsFileInsertionEvent sourceEvent) {
+    return PipeConfig.getInstance().isPipeTsFileRawChunkTransferEnabled()
+        && !sourceEvent.isTableModelEvent()
+        && Objects.nonNull(sourceEvent.getTreePattern())
+        && !sourceEvent.shouldParse4Privilege();
+  }
+
+  private void sliceAndCollectEvent(final PipeTsFileInsertionEvent sourceEvent) throws IOException {
+    final File slicedTsFile;
+    try (final TsFileChunkSlicer slicer =
+        new TsFileChunkSlicer(
+            sourceEvent.getTsFile(),
+            sourceEvent.getTreePattern(),
+            sourceEvent.getStartTime(),
+            sourceEvent.getEndTime(),
+            sourceEvent.isWithMod())) {
+      slicedTsFile = slicer.slice();
+    }
+
+    // Nothing of the TsFile matches, the source event is reported directly
+    if (Objects.nonNull(slicedTsFile)) {
+      hasNoGeneratedEvent = false;
+      collectEvent(new PipeSlicedTsFileInsertionEvent(sourceEvent, slicedTsFile));
+    }
+  }
+
   private void collectParsedRawTableEvent(final PipeRawTabletInsertionEvent parsedEvent) {
     if (!parsedEvent.hasNoNeedParsingAndIsEmpty()) {
       hasNoGeneratedEvent = false;
@@ -0,0 +1,91 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iotdb.db.pipe.event.common.tsfile;
+
+import org.apache.iotdb.db.pipe.event.common.tsfile.slicer.TsFileChunkSlicer;
+
+import org.apache.commons.io.FileUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+
+/**
+ * The event of a TsFile sliced by {@link TsFileChunkSlicer} from the TsFile of another event. The
+ * sliced TsFile only contains the data matching the pattern and the time range of the pipe, is
+ * owned by this event and deleted once the event is released.
+ */
+public class PipeSlicedTsFileInsertionEvent extends PipeTsFileInsertionEvent {
+
+  private static final Logger LOGGER =
+      LoggerFactory.getLogger(PipeSlicedTsFileInsertionEvent.class);
+
+  public PipeSlicedTsFileInsertionEvent(
+      final PipeTsFileInsertionEvent sourceEvent, final File slicedTsFile) {
+    super(
+        sourceEvent.getRawIsTableModelEvent(),
+        sourceEvent.getSourceDatabaseNameFromDataRegion(),
+        sourceEvent.getTsFileResource(),
+        slicedTsFile,
+        // The mods have been applied when slicing
+        false,
+        sourceEvent.isLoaded(),
+        sourceEvent.isGeneratedByHistoricalExtractor(),
+        null,
+        sourceEvent.getPipeName(),
+        sourceEvent.getCreationTime(),
+        sourceEvent.getPipeTaskMeta(),
+        sourceEvent.getTreePattern(),
+        sourceEvent.getTablePattern(),
+        sourceEvent.getUserId(),
+        sourceEvent.getUserName(),
+        sourceEvent.getCliHostname(),
+        sourceEvent.isSkipIfNoPrivileges(),
+        sourceEvent.getStartTime(),
+        sourceEvent.getEndTime());
+
+    // init fields of EnrichedEvent
+    isPatternParsed = true;
+    isTimeParsed = true;
+
+    // init fields of PipeTsFileInsertionEvent
+    overridingProgressIndex = sourceEvent.overridingProgressIndex;
+  }
+
+  /////////////////////////// PipeTsFileInsertionEvent ///////////////////////////
+
+  @Override
+  protected boolean increaseFileReferenceCount(final String holderMessage) {
+    // The sliced TsFile is private to this event, so it is not hard-linked
+    return getTsFile().exists();
+  }
+
+  @Override
+  protected boolean decreaseFileReferenceCount(final String holderMessage) {
+    close();
+    if (!FileUtils.deleteQuietly(getTsFile())) {
+      LOGGER.warn(
+          "Failed to delete sliced TsFile {}. Holder Message: {}",
+          getTsFile().getPath(),
+          holderMessage);
+    }
+    return true;
+  }
+}
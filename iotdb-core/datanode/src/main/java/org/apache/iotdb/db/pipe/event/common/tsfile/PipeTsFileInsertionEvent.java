@@ -270,6 +270,10 @@ public class PipeTsFileInsertionEvent extends PipeInsertionEvent
     return !resource.isEmpty();
   }
 
+  public TsFileResource getTsFileResource() {
+    return resource;
+  }
+
   @Override
   public File getTsFile() {
     return tsFile;
@@ -322,6 +326,18 @@ public class PipeTsFileInsertionEvent extends PipeInsertionEvent
   @Override
   public boolean internallyIncreaseResourceReferenceCount(final String holderMessage) {
     extractTime = System.nanoTime();
+    try {
+      return increaseFileReferenceCount(holderMessage);
+    } finally {
+      if (Objects.nonNull(pipeName)) {
+        PipeDataNodeSinglePipeMetrics.getInstance()
+            .increaseTsFileEventCount(pipeName, creationTime);
+      }
+    }
+  }
+
+  /** Pin the files of this event. The event metrics are maintained by the caller. */
+  protected boolean increaseFileReferenceCount(final String holderMessage) {
     try {
       tsFile = PipeDataNodeResourceManager.tsfile().increaseFileReference(tsFile, true, pipeName);
       if (isWithMod) {
@@ -336,16 +352,26 @@ public class PipeTsFileInsertionEvent extends PipeInsertionEvent
               tsFile, modFile, holderMessage),
           e);
       return false;
+    }
+  }
+
+  @Override
+  public boolean internallyDecreaseResourceReferenceCount(final String holderMessage) {
+    try {
+      return decreaseFileReferenceCount(holderMessage);
     } finally {
       if (Objects.nonNull(pipeName)) {
         PipeDataNodeSinglePipeMetrics.getInstance()
-            .increaseTsFileEventCount(pipeName, creationTime);
+            .decreaseTsFileEventCount(
+                pipeName,
+                creationTime,
+                shouldReportOnCommit ? System.nanoTime() - extractTime : -1);
       }
     }
   }
 
-  @Override
-  public boolean internallyDecreaseResourceReferenceCount(final String holderMessage) {
+  /** Release the files of this event. The event metrics are maintained by the caller. */
+  protected boolean decreaseFileReferenceCount(final String holderMessage) {
     try {
       PipeDataNodeResourceManager.tsfile().decreaseFileReference(tsFile, pipeName);
       if (isWithMod) {
@@ -360,14 +386,6 @@ public class PipeTsFileInsertionEvent extends PipeInsertionEvent
               tsFile.getPath(), holderMessage),
           e);
       return false;
-    } finally {
-      if (Objects.nonNull(pipeName)) {
-        PipeDataNodeSinglePipeMetrics.getInstance()
-            .decreaseTsFileEventCount(
-                pipeName,
-                creationTime,
-                shouldReportOnCommit ? System.nanoTime() - extractTime : -1);
-      }
     }
   }
 
@@ -27,6 +27,7 @@ import org.apache.iotdb.commons.pipe.datastructure.pattern.IoTDBTreePatternOpera
 import org.apache.iotdb.commons.pipe.datastructure.pattern.TablePattern;
 import org.apache.iotdb.commons.pipe.datastructure.pattern.TreePattern;
 import org.apache.iotdb.db.pipe.event.common.tsfile.PipeTsFileInsertionEvent;
+import org.apache.iotdb.db.pipe.event.common.tsfile.parser.query.TsFileInsertionEventParallelQueryParser;
 import org.apache.iotdb.db.pipe.event.common.tsfile.parser.query.TsFileInsertionEventQueryParser;
 import org.apache.iotdb.db.pipe.event.common.tsfile.parser.scan.TsFileInsertionEventScanParser;
 import org.apache.iotdb.db.pipe.event.common.tsfile.parser.table.TsFileInsertionEventTableParser;
@@ -164,6 +165,27 @@ public class TsFileInsertionEventParserProvider {
     final int originalSize = deviceIsAlignedMap.size();
     final Map<IDeviceID, Boolean> filteredDeviceIsAlignedMap =
         filterDeviceIsAlignedMapByPattern(deviceIsAlignedMap);
+
+    // Split the devices among several workers if parallel parsing is enabled. Each worker only
+    // queries its own devices, so this is used even if most of the TsFile matches the pattern.
+    final int parallelism = PipeConfig.getInstance().getPipeTsFileParallelParsingThreadNum();
+    if (parallelism > 1 && filteredDeviceIsAlignedMap.size() > 1) {
+      return new TsFileInsertionEventParallelQueryParser(
+          pipeName,
+          creationTime,
+          tsFile,
+          treePattern,
+          startTime,
+          endTime,
+          pipeTaskMeta,
+          sourceEvent,
+          entity,
+          sourceEvent.isSkipIfNoPrivileges(),
+          filteredDeviceIsAlignedMap,
+          isWithMod,
+          parallelism);
+    }
+
     // Use scan data container if we need enough amount to data thus it's better to scan than query.
     return (double) filteredDeviceIsAlignedMap.size() / originalSize
             > PipeConfig.getInstance().getPipeTsFileScanParsingThreshold()
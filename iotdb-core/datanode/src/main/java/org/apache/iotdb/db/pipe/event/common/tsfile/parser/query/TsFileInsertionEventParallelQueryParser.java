@@ -0,0 +1,407 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iotdb.db.pipe.event.common.tsfile.parser.query;
+
+import org.apache.iotdb.commons.audit.IAuditEntity;
+import org.apache.iotdb.commons.concurrent.IoTDBThreadPoolFactory;
+import org.apache.iotdb.commons.concurrent.ThreadName;
+import org.apache.iotdb.commons.exception.IllegalPathException;
+import org.apache.iotdb.commons.pipe.agent.task.meta.PipeTaskMeta;
+import org.apache.iotdb.commons.pipe.config.PipeConfig;
+import org.apache.iotdb.commons.pipe.datastructure.pattern.TreePattern;
+import org.apache.iotdb.commons.utils.TestOnly;
+import org.apache.iotdb.db.pipe.event.common.PipeInsertionEvent;
+import org.apache.iotdb.db.pipe.event.common.tablet.PipeRawTabletInsertionEvent;
+import org.apache.iotdb.db.pipe.event.common.tsfile.parser.TsFileInsertionEventParser;
+import org.apache.iotdb.db.pipe.resource.PipeDataNodeResourceManager;
+import org.apache.iotdb.db.pipe.resource.memory.PipeMemoryBlock;
+import org.apache.iotdb.pipe.api.event.dml.insertion.TabletInsertionEvent;
+import org.apache.iotdb.pipe.api.exception.PipeException;
+
+import org.apache.tsfile.file.metadata.IDeviceID;
+import org.apache.tsfile.read.TsFileDeviceIterator;
+import org.apache.tsfile.read.TsFileSequenceReader;
+import org.apache.tsfile.utils.Pair;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Parses a TsFile with several {@link TsFileInsertionEventQueryParser}s at the same time. The
+ * devices of the TsFile are sorted and split into contiguous shards, and each shard is parsed by a
+ * worker of a shared, bounded thread pool into its own bounded queue.
+ *
+ * <p>The tablets are consumed shard by shard, so they come out in device order and the tablets of
+ * one device are never interleaved with those of another, which keeps them batchable by the sink.
+ * If a shard has not been picked up by the pool when it is needed, the consumer parses it itself,
+ * so the parsing never waits for a busy pool.
+ */
+public class TsFileInsertionEventParallelQueryParser extends TsFileInsertionEventParser {
+
+  private static final Logger LOGGER =
+      LoggerFactory.getLogger(TsFileInsertionEventParallelQueryParser.class);
+
+  private static final long QUEUE_POLL_TIMEOUT_MS = 100;
+
+  private final List<ShardWorker> workers = new ArrayList<>();
+  private final PipeMemoryBlock allocatedMemoryBlockForQueues;
+
+  private final AtomicBoolean isStarted = new AtomicBoolean(false);
+  private volatile boolean isClosed = false;
+
+  @TestOnly
+  public TsFileInsertionEventParallelQueryParser(
+      final File tsFile,
+      final TreePattern pattern,
+      final long startTime,
+      final long endTime,
+      final PipeInsertionEvent sourceEvent,
+      final int parallelism)
+      throws IOException, IllegalPathException {
+    this(
+        null,
+        0,
+        tsFile,
+        pattern,
+        startTime,
+        endTime,
+        null,
+        sourceEvent,
+        null,
+        false,
+        readDeviceIsAlignedMap(tsFile),
+        false,
+        parallelism);
+  }
+
+  public TsFileInsertionEventParallelQueryParser(
+      final String pipeName,
+      final long creationTime,
+      final File tsFile,
+      final TreePattern pattern,
+      final long startTime,
+      final long endTime,
+      final PipeTaskMeta pipeTaskMeta,
+      final PipeInsertionEvent sourceEvent,
+      final IAuditEntity entity,
+      final boolean skipIfNoPrivileges,
+      final Map<IDeviceID, Boolean> deviceIsAlignedMap,
+      final boolean isWithMod,
+      final int parallelism)
+      throws IOException, IllegalPathException {
+    super(
+        pipeName,
+        creationTime,
+        pattern,
+        null,
+        startTime,
+        endTime,
+        pipeTaskMeta,
+        entity,
+        skipIfNoPrivileges,
+        sourceEvent);
+
+    final int queueCapacity =
+        Math.max(1, PipeConfig.getInstance().getPipeTsFileParallelParsingQueueCapacity());
+    try {
+      for (final Map<IDeviceID, Boolean> shard : splitByDevice(deviceIsAlignedMap, parallelism)) {
+        // The metrics are recorded by this parser, so the shard parsers are created without the
+        // pipe name to avoid counting the tablets twice
+        final TsFileInsertionEventQueryParser parser =
+            new TsFileInsertionEventQueryParser(
+                null,
+                0,
+                tsFile,
+                pattern,
+                startTime,
+                endTime,
+                pipeTaskMeta,
+                sourceEvent,
+                entity,
+                skipIfNoPrivileges,
+                shard,
+                isWithMod);
+        parser.disableReportOnLastTablet();
+        workers.add(new ShardWorker(parser, queueCapacity));
+      }
+
+      // Each shard parser holds the memory of the tablet it is building, the queued tablets are
+      // accounted here
+      allocatedMemoryBlockForQueues =
+          PipeDataNodeResourceManager.memory()
+              .forceAllocateForTabletWithRetry(
+                  (long) PipeConfig.getInstance().getPipeDataStructureTabletSizeInBytes()
+                      * queueCapacity
+                      * workers.size());
+    } catch (final Exception e) {
+      close();
+      throw e;
+    }
+  }
+
+  private static Map<IDeviceID, Boolean> readDeviceIsAlignedMap(final File tsFile)
+      throws IOException {
+    final Map<IDeviceID, Boolean> deviceIsAlignedMap = new HashMap<>();
+    try (final TsFileSequenceReader reader = new TsFileSequenceReader(tsFile.getPath())) {
+      final TsFileDeviceIterator iterator = reader.getAllDevicesIteratorWithIsAligned();
+      while (iterator.hasNext()) {
+        final Pair<IDeviceID, Boolean> deviceIsAlignedPair = iterator.next();
+        deviceIsAlignedMap.put(deviceIsAlignedPair.getLeft(), deviceIsAlignedPair.getRight());
+      }
+    }
+    return deviceIsAlignedMap;
+  }
+
+  /** Splits the devices into at most {@code parallelism} contiguous shards of sorted devices. */
+  static List<Map<IDeviceID, Boolean>> splitByDevice(
+      final Map<IDeviceID, Boolean> deviceIsAlignedMap, final int parallelism) {
+    final List<IDeviceID> devices = new ArrayList<>(deviceIsAlignedMap.keySet());
+    Collections.sort(devices);
+
+    final int shardNum = Math.max(1, Math.min(parallelism, devices.size()));
+    final List<Map<IDeviceID, Boolean>> shards = new ArrayList<>(shardNum);
+    for (int i = 0; i < shardNum; ++i) {
+      final Map<IDeviceID, Boolean> shard = new LinkedHashMap<>();
+      final int from = (int) ((long) devices.size() * i / shardNum);
+      final int to = (int) ((long) devices.size() * (i + 1) / shardNum);
+      for (final IDeviceID device : devices.subList(from, to)) {
+        shard.put(device, deviceIsAlignedMap.get(device));
+      }
+      shards.add(shard);
+    }
+    return shards;
+  }
+
+  public int getShardNum() {
+    return workers.size();
+  }
+
+  @Override
+  public Iterable<TabletInsertionEvent> toTabletInsertionEvents() {
+    if (tabletInsertionIterable == null) {
+      startWorkers();
+
+      tabletInsertionIterable =
+          () ->
+              new Iterator<TabletInsertionEvent>() {
+
+                private int workerIndex = 0;
+                private TabletInsertionEvent nextEvent = null;
+
+                @Override
+                public boolean hasNext() {
+                  if (nextEvent != null) {
+                    return true;
+                  }
+
+                  while (workerIndex < workers.size()) {
+                    nextEvent = workers.get(workerIndex).take();
+                    if (nextEvent != null) {
+                      if (!parseStartTimeRecorded) {
+                        recordParseStartTime();
+                      }
+                      return true;
+                    }
+                    ++workerIndex;
+                  }
+
+                  if (parseStartTimeRecorded && !parseEndTimeRecorded) {
+                    recordParseEndTime();
+                  }
+                  close();
+                  return false;
+                }
+
+                @Override
+                public TabletInsertionEvent next() {
+                  if (!hasNext()) {
+                    close();
+                    throw new NoSuchElementException();
+                  }
+
+                  final TabletInsertionEvent next = nextEvent;
+                  nextEvent = null;
+                  if (next instanceof PipeRawTabletInsertionEvent) {
+                    recordTabletMetrics(((PipeRawTabletInsertionEvent) next).convertToTablet());
+                    // Only the last tablet of the whole TsFile reports the progress
+                    if (!hasNext()) {
+                      ((PipeRawTabletInsertionEvent) next).markAsNeedToReport();
+                    }
+                  }
+                  return next;
+                }
+              };
+    }
+
+    return tabletInsertionIterable;
+  }
+
+  private void startWorkers() {
+    if (!isStarted.compareAndSet(false, true)) {
+      return;
+    }
+
+    // The first shard is consumed right away, so it is parsed by the consumer itself
+    for (int i = 1; i < workers.size(); ++i) {
+      try {
+        ParsingExecutorHolder.EXECUTOR.submit(workers.get(i));
+      } catch (final RejectedExecutionException e) {
+        // The shard will be parsed by the consumer when it is needed
+        LOGGER.warn("Failed to submit the parsing of a TsFile shard, will parse it in place", e);
+      }
+    }
+  }
+
+  @Override
+  public void close() {
+    isClosed = true;
+
+    for (final ShardWorker worker : workers) {
+      worker.close();
+    }
+
+    super.close();
+
+    if (allocatedMemoryBlockForQueues != null) {
+      allocatedMemoryBlockForQueues.close();
+    }
+  }
+
+  private class ShardWorker implements Runnable {
+
+    private final TsFileInsertionEventQueryParser parser;
+    private final BlockingQueue<TabletInsertionEvent> queue;
+
+    // Set by whoever parses the shard, either a pool thread or the consumer
+    private final AtomicBoolean isClaimed = new AtomicBoolean(false);
+    private boolean isClaimedByConsumer = false;
+    private Iterator<TabletInsertionEvent> consumerIterator;
+
+    private volatile boolean isFinished = false;
+    private volatile Exception failure;
+
+    private ShardWorker(final TsFileInsertionEventQueryParser parser, final int queueCapacity) {
+      this.parser = parser;
+      this.queue = new ArrayBlockingQueue<>(queueCapacity);
+    }
+
+    @Override
+    public void run() {
+      if (!isClaimed.compareAndSet(false, true)) {
+        return;
+      }
+
+      try {
+        for (final TabletInsertionEvent event : parser.toTabletInsertionEvents()) {
+          while (!queue.offer(event, QUEUE_POLL_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+            if (isClosed) {
+              return;
+            }
+          }
+          if (isClosed) {
+            return;
+          }
+        }
+      } catch (final InterruptedException e) {
+        Thread.currentThread().interrupt();
+        failure = e;
+      } catch (final Exception e) {
+        failure = e;
+      } finally {
+        parser.close();
+        isFinished = true;
+      }
+    }
+
+    /**
+     * @return the next event of this shard, or {@code null} if the shard is exhausted
+     */
+    private TabletInsertionEvent take() {
+      if (isClaimedByConsumer || isClaimed.compareAndSet(false, true)) {
+        isClaimedByConsumer = true;
+        if (consumerIterator == null) {
+          consumerIterator = parser.toTabletInsertionEvents().iterator();
+        }
+        return consumerIterator.hasNext() ? consumerIterator.next() : null;
+      }
+
+      try {
+        while (!isClosed) {
+          final TabletInsertionEvent event =
+              queue.poll(QUEUE_POLL_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+          if (event != null) {
+            return event;
+          }
+          if (isFinished) {
+            // The worker may have offered the last events right before finishing
+            final TabletInsertionEvent lastEvent = queue.poll();
+            if (lastEvent != null) {
+              return lastEvent;
+            }
+            if (failure != null) {
+              throw new PipeException("Failed to parse a shard of the TsFile", failure);
+            }
+            return null;
+          }
+        }
+        return null;
+      } catch (final InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new PipeException("Interrupted while waiting for the parsed tablets", e);
+      }
+    }
+
+    private void close() {
+      // A running worker closes its parser itself once it notices that parsing is closed
+      if (isClaimedByConsumer || isClaimed.compareAndSet(false, true)) {
+        parser.close();
+      }
+      queue.clear();
+    }
+  }
+
+  private static class ParsingExecutorHolder {
+
+    private static final ExecutorService EXECUTOR =
+        IoTDBThreadPoolFactory.newFixedThreadPool(
+            Math.max(1, PipeConfig.getInstance().getPipeTsFileParallelParsingThreadNum()),
+            ThreadName.PIPE_TSFILE_PARALLEL_PARSING_POOL.getName());
+
+    private ParsingExecutorHolder() {
+      // Empty constructor
+    }
+  }
+}
@@ -61,6 +61,7 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
@@ -79,6 +80,10 @@ public class TsFileInsertionEventQueryParser extends TsFileInsertionEventParser
   private final Map<IDeviceID, Boolean> deviceIsAlignedMap;
   private final Map<String, TSDataType> measurementDataTypeMap;
 
+  // Whether the last tablet of this parser should report the progress of the source event. It is
+  // disabled when this parser only handles a shard of the TsFile.
+  private boolean reportOnLastTablet = true;
+
   @TestOnly
   public TsFileInsertionEventQueryParser(
       final File tsFile,
@@ -167,7 +172,12 @@ public class TsFileInsertionEventQueryParser extends TsFileInsertionEventParser
                 ? deviceIsAlignedMap
                 : tsFileResourceManager.getDeviceIsAlignedMapFromCache(tsFile, true);
         measurementDataTypeMap = tsFileResourceManager.getMeasurementDataTypeMapFromCache(tsFile);
-        deviceMeasurementsMap = tsFileResourceManager.getDeviceMeasurementsMapFromCache(tsFile);
+        deviceMeasurementsMap =
+            Objects.nonNull(deviceIsAlignedMap)
+                ? filterDeviceMeasurementsMapByDevices(
+                    tsFileResourceManager.getDeviceMeasurementsMapFromCache(tsFile),
+                    deviceIsAlignedMap.keySet())
+                : tsFileResourceManager.getDeviceMeasurementsMapFromCache(tsFile);
       } else {
         // We need to create these objects here and remove them later.
         final Set<IDeviceID> devices;
@@ -261,10 +271,23 @@ public class TsFileInsertionEventQueryParser extends TsFileInsertionEventParser
     }
   }
 
+  private static Map<IDeviceID, List<String>> filterDeviceMeasurementsMapByDevices(
+      final Map<IDeviceID, List<String>> originalDeviceMeasurementsMap,
+      final Set<IDeviceID> devices) {
+    final Map<IDeviceID, List<String>> filteredDeviceMeasurementsMap = new LinkedHashMap<>();
+    for (final IDeviceID device : devices) {
+      final List<String> measurements = originalDeviceMeasurementsMap.get(device);
+      if (Objects.nonNull(measurements)) {
+        filteredDeviceMeasurementsMap.put(device, measurements);
+      }
+    }
+    return filteredDeviceMeasurementsMap;
+  }
+
   private Map<IDeviceID, List<String>> filterDeviceMeasurementsMapByPattern(
       final Map<IDeviceID, List<String>> originalDeviceMeasurementsMap)
       throws IllegalPathException {
-    final Map<IDeviceID, List<String>> filteredDeviceMeasurementsMap = new HashMap<>();
+    final Map<IDeviceID, List<String>> filteredDeviceMeasurementsMap = new LinkedHashMap<>();
     for (Map.Entry<IDeviceID, List<String>> entry : originalDeviceMeasurementsMap.entrySet()) {
       final IDeviceID deviceId = entry.getKey();
 
@@ -365,7 +388,7 @@ public class TsFileInsertionEventQueryParser extends TsFileInsertionEventParser
    */
   private Map<IDeviceID, List<String>> readFilteredDeviceMeasurementsMap(
       final Set<IDeviceID> devices) throws IOException {
-    final Map<IDeviceID, List<String>> result = new HashMap<>();
+    final Map<IDeviceID, List<String>> result = new LinkedHashMap<>();
 
     for (final IDeviceID device : devices) {
       tsFileSequenceReader
@@ -460,7 +483,7 @@ public class TsFileInsertionEventQueryParser extends TsFileInsertionEventParser
                                 0,
                                 pipeTaskMeta,
                                 sourceEvent,
-                                true)
+                                reportOnLastTablet)
                             : new PipeRawTabletInsertionEvent(
                                 sourceEvent.getRawIsTableModelEvent(),
                                 sourceEvent.getSourceDatabaseNameFromDataRegion(),
@@ -472,7 +495,7 @@ public class TsFileInsertionEventQueryParser extends TsFileInsertionEventParser
                                 sourceEvent.getCreationTime(),
                                 pipeTaskMeta,
                                 sourceEvent,
-                                true);
+                                reportOnLastTablet);
                     close();
                   } else {
                     next =
@@ -510,6 +533,10 @@ public class TsFileInsertionEventQueryParser extends TsFileInsertionEventParser
     return tabletInsertionIterable;
   }
 
+  void disableReportOnLastTablet() {
+    reportOnLastTablet = false;
+  }
+
   @Override
   public void close() {
     try {
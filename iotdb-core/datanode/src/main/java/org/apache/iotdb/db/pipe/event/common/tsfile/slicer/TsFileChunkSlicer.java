@@ -0,0 +1,529 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iotdb.db.pipe.event.common.tsfile.slicer;
+
+import org.apache.iotdb.commons.exception.DiskSpaceInsufficientException;
+import org.apache.iotdb.commons.path.PatternTreeMap;
+import org.apache.iotdb.commons.pipe.config.PipeConfig;
+import org.apache.iotdb.commons.pipe.datastructure.pattern.TreePattern;
+import org.apache.iotdb.db.conf.IoTDBDescriptor;
+import org.apache.iotdb.db.pipe.event.common.tsfile.parser.util.ModsOperationUtil;
+import org.apache.iotdb.db.pipe.resource.PipeDataNodeResourceManager;
+import org.apache.iotdb.db.pipe.resource.memory.PipeMemoryBlock;
+import org.apache.iotdb.db.pipe.resource.memory.PipeMemoryWeightUtil;
+import org.apache.iotdb.db.storageengine.dataregion.modification.ModEntry;
+import org.apache.iotdb.db.storageengine.rescon.disk.FolderManager;
+import org.apache.iotdb.db.storageengine.rescon.disk.strategy.DirectoryStrategyType;
+import org.apache.iotdb.db.utils.datastructure.PatternTreeMapFactory;
+import org.apache.iotdb.pipe.api.exception.PipeException;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.tsfile.common.constant.TsFileConstant;
+import org.apache.tsfile.exception.write.UnSupportedDataTypeException;
+import org.apache.tsfile.file.header.ChunkHeader;
+import org.apache.tsfile.file.metadata.AbstractAlignedChunkMetadata;
+import org.apache.tsfile.file.metadata.ChunkMetadata;
+import org.apache.tsfile.file.metadata.IChunkMetadata;
+import org.apache.tsfile.file.metadata.IDeviceID;
+import org.apache.tsfile.read.TsFileDeviceIterator;
+import org.apache.tsfile.read.TsFileSequenceReader;
+import org.apache.tsfile.read.common.BatchData;
+import org.apache.tsfile.read.common.Chunk;
+import org.apache.tsfile.read.common.TimeRange;
+import org.apache.tsfile.read.filter.basic.Filter;
+import org.apache.tsfile.read.filter.factory.TimeFilterApi;
+import org.apache.tsfile.read.reader.IChunkReader;
+import org.apache.tsfile.read.reader.chunk.AlignedChunkReader;
+import org.apache.tsfile.read.reader.chunk.ChunkReader;
+import org.apache.tsfile.utils.Pair;
+import org.apache.tsfile.utils.TsPrimitiveType;
+import org.apache.tsfile.write.chunk.AlignedChunkWriterImpl;
+import org.apache.tsfile.write.chunk.ChunkWriterImpl;
+import org.apache.tsfile.write.schema.IMeasurementSchema;
+import org.apache.tsfile.write.schema.MeasurementSchema;
+import org.apache.tsfile.write.writer.TsFileIOWriter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
+/**
+ * Slices the part of a tree-model TsFile matching a pattern and a time range into a new TsFile.
+ *
+ * <p>Chunks fully inside the time range and untouched by mods are copied as raw bytes, without
+ * decoding. Only the chunks crossing the time range boundaries, partially deleted by mods or whose
+ * matched aligned values may be all null at some time are decoded, filtered and re-encoded. Chunks
+ * outside the time range or fully deleted are dropped.
+ */
+public class TsFileChunkSlicer implements AutoCloseable {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(TsFileChunkSlicer.class);
+
+  private static final AtomicReference<FolderManager> FOLDER_MANAGER = new AtomicReference<>();
+  private static final String TS_FILE_PREFIX = "sl"; // sl means sliced
+  private static final AtomicLong TS_FILE_ID_GENERATOR = new AtomicLong(0);
+
+  private final File tsFile;
+  private final TreePattern pattern;
+  private final long startTime;
+  private final long endTime;
+  private final Filter filter;
+
+  private final PatternTreeMap<ModEntry, PatternTreeMapFactory.ModsSerializer> modifications;
+  private final PipeMemoryBlock allocatedMemoryBlockForModifications;
+  private final PipeMemoryBlock allocatedMemoryBlockForChunk;
+
+  // The chunk group of a device is only started once one of its chunks is written
+  private IDeviceID currentChunkGroupDeviceId;
+
+  private long copiedChunkCount = 0;
+  private long decodedChunkCount = 0;
+
+  public TsFileChunkSlicer(
+      final File tsFile,
+      final TreePattern pattern,
+      final long startTime,
+      final long endTime,
+      final boolean isWithMod) {
+    this.tsFile = tsFile;
+    this.pattern = pattern;
+    this.startTime = startTime;
+    this.endTime = endTime;
+    filter = TimeFilterApi.between(startTime, endTime);
+
+    modifications =
+        isWithMod
+            ? ModsOperationUtil.loadModificationsFromTsFile(tsFile)
+            : PatternTreeMapFactory.getModsPatternTreeMap();
+    allocatedMemoryBlockForModifications =
+        PipeDataNodeResourceManager.memory()
+            .forceAllocateForTabletWithRetry(modifications.ramBytesUsed());
+    allocatedMemoryBlockForChunk =
+        PipeDataNodeResourceManager.memory()
+            .forceAllocateForTabletWithRetry(PipeConfig.getInstance().getPipeMaxReaderChunkSize());
+  }
+
+  /**
+   * @return the sliced TsFile, or {@code null} if no data of the TsFile matches the pattern and the
+   *     time range
+   */
+  public File slice() throws IOException {
+    final File slicedTsFile = createFile();
+    boolean isEmpty = true;
+    currentChunkGroupDeviceId = null;
+    try (final TsFileSequenceReader reader = new TsFileSequenceReader(tsFile.getAbsolutePath());
+        final TsFileIOWriter writer = new TsFileIOWriter(slicedTsFile)) {
+      final TsFileDeviceIterator deviceIterator = reader.getAllDevicesIteratorWithIsAligned();
+      while (deviceIterator.hasNext()) {
+        final Pair<IDeviceID, Boolean> deviceIsAlignedPair = deviceIterator.next();
+        final IDeviceID deviceId = deviceIsAlignedPair.getLeft();
+        if (!pattern.mayOverlapWithDevice(deviceId)) {
+          continue;
+        }
+
+        if (Boolean.TRUE.equals(deviceIsAlignedPair.getRight())) {
+          sliceAlignedDevice(reader, writer, deviceId);
+        } else {
+          sliceNonAlignedDevice(reader, writer, deviceId);
+        }
+        if (Objects.nonNull(currentChunkGroupDeviceId)) {
+          writer.endChunkGroup();
+          currentChunkGroupDeviceId = null;
+          isEmpty = false;
+        }
+      }
+      writer.endFile();
+    } catch (final Exception e) {
+      FileUtils.deleteQuietly(slicedTsFile);
+      throw e;
+    }
+
+    LOGGER.debug(
+        "Sliced TsFile {} into {}: {} chunks copied, {} chunks decoded.",
+        tsFile.getPath(),
+        slicedTsFile.getPath(),
+        copiedChunkCount,
+        decodedChunkCount);
+
+    if (isEmpty) {
+      FileUtils.deleteQuietly(slicedTsFile);
+      return null;
+    }
+    return slicedTsFile;
+  }
+
+  private void sliceNonAlignedDevice(
+      final TsFileSequenceReader reader, final TsFileIOWriter writer, final IDeviceID deviceId)
+      throws IOException {
+    final Iterator<Map<String, List<ChunkMetadata>>> iterator =
+        reader.getMeasurementChunkMetadataListMapIterator(deviceId);
+    while (iterator.hasNext()) {
+      for (final Map.Entry<String, List<ChunkMetadata>> entry : iterator.next().entrySet()) {
+        final String measurement = entry.getKey();
+        if (!pattern.matchesMeasurement(deviceId, measurement)) {
+          continue;
+        }
+
+        for (final ChunkMetadata chunkMetadata : entry.getValue()) {
+          if (isOutOfTimeRange(chunkMetadata.getStartTime(), chunkMetadata.getEndTime())
+              || ModsOperationUtil.isAllDeletedByMods(
+                  deviceId,
+                  measurement,
+                  chunkMetadata.getStartTime(),
+                  chunkMetadata.getEndTime(),
+                  modifications)) {
+            continue;
+          }
+
+          final Chunk chunk = readChunk(reader, chunkMetadata, 0);
+          if (canCopyRaw(
+              deviceId, measurement, chunkMetadata.getStartTime(), chunkMetadata.getEndTime())) {
+            startChunkGroupIfNecessary(writer, deviceId);
+            writer.writeChunk(chunk, chunkMetadata);
+            ++copiedChunkCount;
+            continue;
+          }
+
+          ++decodedChunkCount;
+          decodeAndWriteNonAlignedChunk(writer, deviceId, chunk);
+        }
+      }
+    }
+  }
+
+  private void decodeAndWriteNonAlignedChunk(
+      final TsFileIOWriter writer, final IDeviceID deviceId, final Chunk chunk) throws IOException {
+    final ChunkHeader chunkHeader = chunk.getHeader();
+    final ChunkWriterImpl chunkWriter =
+        new ChunkWriterImpl(
+            new MeasurementSchema(
+                chunkHeader.getMeasurementID(),
+                chunkHeader.getDataType(),
+                chunkHeader.getEncodingType(),
+                chunkHeader.getCompressionType()));
+    final ModsOperationUtil.ModsInfo modsInfo =
+        ModsOperationUtil.initializeMeasurementMods(
+                deviceId, Collections.singletonList(chunkHeader.getMeasurementID()), modifications)
+            .get(0);
+
+    long pointCount = 0;
+    final IChunkReader chunkReader = new ChunkReader(chunk, filter);
+    while (chunkReader.hasNextSatisfiedPage()) {
+      final BatchData data = chunkReader.nextPageData();
+      for (; data.hasCurrent(); data.next()) {
+        final long time = data.currentTime();
+        if (ModsOperationUtil.isDelete(time, modsInfo)) {
+          continue;
+        }
+        switch (chunkWriter.getDataType()) {
+          case BOOLEAN:
+            chunkWriter.write(time, data.getBoolean());
+            break;
+          case INT32:
+          case DATE:
+            chunkWriter.write(time, data.getInt());
+            break;
+          case INT64:
+          case TIMESTAMP:
+            chunkWriter.write(time, data.getLong());
+            break;
+          case FLOAT:
+            chunkWriter.write(time, data.getFloat());
+            break;
+          case DOUBLE:
+            chunkWriter.write(time, data.getDouble());
+            break;
+          case TEXT:
+          case BLOB:
+          case STRING:
+            chunkWriter.write(time, data.getBinary());
+            break;
+          default:
+            throw new UnSupportedDataTypeException("UnSupported" + chunkWriter.getDataType());
+        }
+        ++pointCount;
+      }
+    }
+
+    if (pointCount > 0) {
+      startChunkGroupIfNecessary(writer, deviceId);
+      chunkWriter.writeToFileWriter(writer);
+    }
+  }
+
+  private void sliceAlignedDevice(
+      final TsFileSequenceReader reader, final TsFileIOWriter writer, final IDeviceID deviceId)
+      throws IOException {
+    for (final AbstractAlignedChunkMetadata alignedChunkMetadata :
+        reader.getAlignedChunkMetadata(deviceId, true)) {
+      if (isOutOfTimeRange(
+          alignedChunkMetadata.getStartTime(), alignedChunkMetadata.getEndTime())) {
+        continue;
+      }
+
+      final List<ChunkMetadata> valueChunkMetadataList = new ArrayList<>();
+      for (final IChunkMetadata valueChunkMetadata :
+          alignedChunkMetadata.getValueChunkMetadataList()) {
+        if (Objects.nonNull(valueChunkMetadata)
+            && pattern.matchesMeasurement(deviceId, valueChunkMetadata.getMeasurementUid())
+            && !ModsOperationUtil.isAllDeletedByMods(
+                deviceId,
+                valueChunkMetadata.getMeasurementUid(),
+                alignedChunkMetadata.getStartTime(),
+                alignedChunkMetadata.getEndTime(),
+                modifications)) {
+          valueChunkMetadataList.add((ChunkMetadata) valueChunkMetadata);
+        }
+      }
+      if (valueChunkMetadataList.isEmpty()) {
+        continue;
+      }
+
+      final ChunkMetadata timeChunkMetadata =
+          (ChunkMetadata) alignedChunkMetadata.getTimeChunkMetadata();
+      final Chunk timeChunk = readChunk(reader, timeChunkMetadata, 0);
+      long size = PipeMemoryWeightUtil.calculateChunkRamBytesUsed(timeChunk);
+      final List<Chunk> valueChunkList = new ArrayList<>(valueChunkMetadataList.size());
+      for (final ChunkMetadata valueChunkMetadata : valueChunkMetadataList) {
+        final Chunk valueChunk = readChunk(reader, valueChunkMetadata, size);
+        size += PipeMemoryWeightUtil.calculateChunkRamBytesUsed(valueChunk);
+        valueChunkList.add(valueChunk);
+      }
+
+      if (hasValueAtEveryTime(timeChunkMetadata, valueChunkMetadataList)
+          && valueChunkMetadataList.stream()
+              .allMatch(
+                  valueChunkMetadata ->
+                      canCopyRaw(
+                          deviceId,
+                          valueChunkMetadata.getMeasurementUid(),
+                          alignedChunkMetadata.getStartTime(),
+                          alignedChunkMetadata.getEndTime()))) {
+        startChunkGroupIfNecessary(writer, deviceId);
+        writer.writeChunk(timeChunk, timeChunkMetadata);
+        for (int i = 0; i < valueChunkList.size(); ++i) {
+          writer.writeChunk(valueChunkList.get(i), valueChunkMetadataList.get(i));
+        }
+        ++copiedChunkCount;
+        continue;
+      }
+
+      ++decodedChunkCount;
+      decodeAndWriteAlignedChunk(writer, deviceId, timeChunk, valueChunkList);
+    }
+  }
+
+  private void decodeAndWriteAlignedChunk(
+      final TsFileIOWriter writer,
+      final IDeviceID deviceId,
+      final Chunk timeChunk,
+      final List<Chunk> valueChunkList)
+      throws IOException {
+    final List<IMeasurementSchema> valueSchemaList = new ArrayList<>(valueChunkList.size());
+    for (final Chunk valueChunk : valueChunkList) {
+      final ChunkHeader chunkHeader = valueChunk.getHeader();
+      valueSchemaList.add(
+          new MeasurementSchema(
+              chunkHeader.getMeasurementID(),
+              chunkHeader.getDataType(),
+              chunkHeader.getEncodingType(),
+              chunkHeader.getCompressionType()));
+    }
+    final ChunkHeader timeChunkHeader = timeChunk.getHeader();
+    final AlignedChunkWriterImpl chunkWriter =
+        new AlignedChunkWriterImpl(
+            new MeasurementSchema(
+                timeChunkHeader.getMeasurementID(),
+                timeChunkHeader.getDataType(),
+                timeChunkHeader.getEncodingType(),
+                timeChunkHeader.getCompressionType()),
+            valueSchemaList);
+    final List<ModsOperationUtil.ModsInfo> modsInfos =
+        ModsOperationUtil.initializeMeasurementMods(
+            deviceId,
+            valueSchemaList.stream()
+                .map(IMeasurementSchema::getMeasurementName)
+                .collect(Collectors.toList()),
+            modifications);
+
+    long pointCount = 0;
+    final IChunkReader chunkReader = new AlignedChunkReader(timeChunk, valueChunkList, filter);
+    while (chunkReader.hasNextSatisfiedPage()) {
+      final BatchData data = chunkReader.nextPageData();
+      for (; data.hasCurrent(); data.next()) {
+        final long time = data.currentTime();
+        final TsPrimitiveType[] values = data.getVector().clone();
+        boolean isAllNull = true;
+        for (int i = 0; i < values.length; ++i) {
+          if (Objects.nonNull(values[i]) && ModsOperationUtil.isDelete(time, modsInfos.get(i))) {
+            values[i] = null;
+          }
+          isAllNull &= Objects.isNull(values[i]);
+        }
+        if (isAllNull) {
+          continue;
+        }
+        chunkWriter.write(time, values);
+        ++pointCount;
+      }
+    }
+
+    if (pointCount > 0) {
+      startChunkGroupIfNecessary(writer, deviceId);
+      chunkWriter.writeToFileWriter(writer);
+    }
+  }
+
+  private void startChunkGroupIfNecessary(final TsFileIOWriter writer, final IDeviceID deviceId)
+      throws IOException {
+    if (Objects.isNull(currentChunkGroupDeviceId)) {
+      writer.startChunkGroup(deviceId);
+      currentChunkGroupDeviceId = deviceId;
+    }
+  }
+
+  private Chunk readChunk(
+      final TsFileSequenceReader reader, final ChunkMetadata chunkMetadata, final long usedSize)
+      throws IOException {
+    final Chunk chunk = reader.readMemChunk(chunkMetadata);
+    final long size = usedSize + PipeMemoryWeightUtil.calculateChunkRamBytesUsed(chunk);
+    if (allocatedMemoryBlockForChunk.getMemoryUsageInBytes() < size) {
+      PipeDataNodeResourceManager.memory().forceResize(allocatedMemoryBlockForChunk, size);
+    }
+    return chunk;
+  }
+
+  private boolean isOutOfTimeRange(final long chunkStartTime, final long chunkEndTime) {
+    return chunkEndTime < startTime || chunkStartTime > endTime;
+  }
+
+  /**
+   * A chunk can be copied without decoding iff all of its points are inside the time range and no
+   * mod overlaps with it.
+   */
+  private boolean canCopyRaw(
+      final IDeviceID deviceId,
+      final String measurement,
+      final long chunkStartTime,
+      final long chunkEndTime) {
+    if (chunkStartTime < startTime || chunkEndTime > endTime) {
+      return false;
+    }
+    if (modifications.isEmpty()) {
+      return true;
+    }
+    final List<ModEntry> mods = modifications.getOverlapped(deviceId, measurement);
+    if (Objects.isNull(mods)) {
+      return true;
+    }
+    final TimeRange chunkTimeRange = new TimeRange(chunkStartTime, chunkEndTime);
+    return mods.stream().noneMatch(mod -> mod.getTimeRange().overlaps(chunkTimeRange));
+  }
+
+  /**
+   * The time chunk is copied as a whole with the kept value chunks, so an aligned chunk can only be
+   * copied without decoding iff one of the kept value chunks has a value at every time. Otherwise
+   * the rows whose kept values are all null would be copied, while decoding drops them.
+   */
+  private static boolean hasValueAtEveryTime(
+      final ChunkMetadata timeChunkMetadata, final List<ChunkMetadata> valueChunkMetadataList) {
+    final long rowCount = timeChunkMetadata.getStatistics().getCount();
+    return valueChunkMetadataList.stream()
+        .anyMatch(valueChunkMetadata -> valueChunkMetadata.getStatistics().getCount() == rowCount);
+  }
+
+  public long getCopiedChunkCount() {
+    return copiedChunkCount;
+  }
+
+  public long getDecodedChunkCount() {
+    return decodedChunkCount;
+  }
+
+  private static File createFile() throws IOException {
+    final File baseDir;
+    try {
+      baseDir = getNextBaseDir();
+    } catch (final DiskSpaceInsufficientException e) {
+      throw new PipeException(
+          String.format("Failed to create file dir for sliced TsFile: %s", e.getMessage()));
+    }
+    return new File(
+        baseDir,
+        TS_FILE_PREFIX
+            + "_"
+            + IoTDBDescriptor.getInstance().getConfig().getDataNodeId()
+            + "_"
+            + TS_FILE_ID_GENERATOR.getAndIncrement()
+            + TsFileConstant.TSFILE_SUFFIX);
+  }
+
+  private static File getNextBaseDir() throws DiskSpaceInsufficientException {
+    if (FOLDER_MANAGER.get() == null) {
+      synchronized (FOLDER_MANAGER) {
+        if (FOLDER_MANAGER.get() == null) {
+          FOLDER_MANAGER.set(
+              new FolderManager(
+                  Arrays.stream(IoTDBDescriptor.getInstance().getConfig().getPipeReceiverFileDirs())
+                      .map(fileDir -> fileDir + File.separator + ".sliced")
+                      .collect(Collectors.toList()),
+                  DirectoryStrategyType.SEQUENCE_STRATEGY));
+        }
+      }
+    }
+    final File baseDir =
+        FOLDER_MANAGER
+            .get()
+            .getNextWithRetry(
+                folder -> {
+                  final File dir = new File(folder);
+                  if (dir.exists() || dir.mkdirs()) {
+                    return dir;
+                  }
+                  LOGGER.warn("Failed to create sliced TsFile dir {}.", dir.getPath());
+                  return null;
+                });
+    if (baseDir == null) {
+      throw new PipeException("Failed to create sliced TsFile dir.");
+    }
+    return baseDir;
+  }
+
+  @Override
+  public void close() {
+    if (Objects.nonNull(allocatedMemoryBlockForModifications)) {
+      allocatedMemoryBlockForModifications.close();
+    }
+    if (Objects.nonNull(allocatedMemoryBlockForChunk)) {
+      allocatedMemoryBlockForChunk.close();
+    }
+  }
+}
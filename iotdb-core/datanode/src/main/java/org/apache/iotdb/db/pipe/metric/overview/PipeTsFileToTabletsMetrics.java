@@ -51,6 +51,7 @@ public class PipeTsFileToTabletsMetrics implements IMetricSet {
   private final Map<String, Rate> pipeRateMap = new ConcurrentHashMap<>();
   private final Map<String, Counter> pipeTabletCountMap = new ConcurrentHashMap<>();
   private final Map<String, Counter> pipeTabletMemoryMap = new ConcurrentHashMap<>();
+  private final Map<String, Rate> pipeTabletThroughputMap = new ConcurrentHashMap<>();
   private final Map<String, Counter> pipeParseFileCountMap = new ConcurrentHashMap<>();
 
   //////////////////////////// bindTo & unbindFrom (metric framework) ////////////////////////////
@@ -90,6 +91,13 @@ public class PipeTsFileToTabletsMetrics implements IMetricSet {
             MetricLevel.IMPORTANT,
             Tag.NAME.toString(),
             pipeID));
+    pipeTabletThroughputMap.putIfAbsent(
+        pipeID,
+        metricService.getOrCreateRate(
+            Metric.PIPE_TSFILE_TO_TABLETS_THROUGHPUT.toString(),
+            MetricLevel.IMPORTANT,
+            Tag.NAME.toString(),
+            pipeID));
     pipeParseFileCountMap.putIfAbsent(
         pipeID,
         metricService.getOrCreateCounter(
@@ -138,6 +146,13 @@ public class PipeTsFileToTabletsMetrics implements IMetricSet {
         pipeID);
     pipeTabletMemoryMap.remove(pipeID);
 
+    metricService.remove(
+        MetricType.RATE,
+        Metric.PIPE_TSFILE_TO_TABLETS_THROUGHPUT.toString(),
+        Tag.NAME.toString(),
+        pipeID);
+    pipeTabletThroughputMap.remove(pipeID);
+
     metricService.remove(
         MetricType.COUNTER,
         Metric.PIPE_TSFILE_PARSE_FILE_COUNT.toString(),
@@ -218,6 +233,11 @@ public class PipeTsFileToTabletsMetrics implements IMetricSet {
     if (tabletMemory != null) {
       tabletMemory.inc(tabletMemorySize);
     }
+    // Bytes of tablets parsed per second, regardless of how many parsing workers produced them
+    final Rate throughput = pipeTabletThroughputMap.get(taskID);
+    if (throughput != null) {
+      throughput.mark(tabletMemorySize);
+    }
   }
 
   //////////////////////////// singleton ////////////////////////////
@@ -20,11 +20,13 @@ package org.apache.iotdb.db.protocol.mqtt;
 
 import org.apache.iotdb.common.rpc.thrift.TSStatus;
 import org.apache.iotdb.commons.conf.IoTDBConstant.ClientVersion;
+import org.apache.iotdb.commons.exception.IllegalPathException;
 import org.apache.iotdb.commons.path.PartialPath;
 import org.apache.iotdb.commons.schema.table.column.TsTableColumnCategory;
 import org.apache.iotdb.db.auth.AuthorityChecker;
 import org.apache.iotdb.db.conf.IoTDBConfig;
 import org.apache.iotdb.db.conf.IoTDBDescriptor;
+import org.apache.iotdb.db.exception.query.QueryProcessException;
 import org.apache.iotdb.db.protocol.session.IClientSession;
 import org.apache.iotdb.db.protocol.session.MqttClientSession;
 import org.apache.iotdb.db.protocol.session.SessionManager;
@@ -39,7 +41,9 @@ import org.apache.iotdb.db.queryengine.plan.planner.LocalExecutionPlanner;
 import org.apache.iotdb.db.queryengine.plan.relational.metadata.Metadata;
 import org.apache.iotdb.db.queryengine.plan.relational.security.TreeAccessCheckContext;
 import org.apache.iotdb.db.queryengine.plan.relational.sql.parser.SqlParser;
+import org.apache.iotdb.db.queryengine.plan.statement.crud.InsertBaseStatement;
 import org.apache.iotdb.db.queryengine.plan.statement.crud.InsertRowStatement;
+import org.apache.iotdb.db.queryengine.plan.statement.crud.InsertRowsStatement;
 import org.apache.iotdb.db.queryengine.plan.statement.crud.InsertTabletStatement;
 import org.apache.iotdb.db.utils.CommonUtils;
 import org.apache.iotdb.db.utils.TimestampPrecisionUtils;
@@ -57,9 +61,18 @@ import org.apache.tsfile.utils.BitMap;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.lang.reflect.Array;
 import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -77,12 +90,29 @@ public class MPPPublishHandler extends AbstractInterceptHandler {
   private final IPartitionFetcher partitionFetcher;
   private final ISchemaFetcher schemaFetcher;
   private final boolean useTableInsert;
+  // null if each message is inserted by its own statement
+  private final MqttMessageBatcher batcher;
 
   public MPPPublishHandler(IoTDBConfig config) {
     this.payloadFormat = PayloadFormatManager.getPayloadFormat(config.getMqttPayloadFormatter());
     partitionFetcher = ClusterPartitionFetcher.getInstance();
     schemaFetcher = ClusterSchemaFetcher.getInstance();
     useTableInsert = PayloadFormatter.TABLE_TYPE.equals(this.payloadFormat.getType());
+    batcher =
+        config.getMqttInsertBatchSize() > 1
+            ? new MqttMessageBatcher(
+                config.getMqttInsertBatchSize(),
+                config.getMqttInsertBatchMaxDelayInMs(),
+                this::insertBatch,
+                (clientId, session) -> clientIdToSessionMap.get(clientId) == session)
+            : null;
+  }
+
+  /** Insert the buffered messages, should be called after the broker is stopped. */
+  public void stop() {
+    if (batcher != null) {
+      batcher.stop();
+    }
   }
 
   @Override
@@ -115,6 +145,9 @@ public class MPPPublishHandler extends AbstractInterceptHandler {
   public void onDisconnect(InterceptDisconnectMessage msg) {
     MqttClientSession session = clientIdToSessionMap.remove(msg.getClientID());
     if (null != session) {
+      if (batcher != null) {
+        batcher.flush(msg.getClientID());
+      }
       sessionManager.removeCurrSessionForMqtt(session);
       sessionManager.closeSession(session, Coordinator.getInstance()::cleanupQueryExecution);
     }
@@ -148,6 +181,11 @@ public class MPPPublishHandler extends AbstractInterceptHandler {
         return;
       }
 
+      if (batcher != null) {
+        batcher.add(clientId, session, messages);
+        return;
+      }
+
       for (Message message : messages) {
         if (message == null) {
           continue;
@@ -166,37 +204,29 @@ public class MPPPublishHandler extends AbstractInterceptHandler {
     }
   }
 
+  /** Insert a batch of messages of the client, see {@link MqttMessageBatcher}. */
+  private void insertBatch(MqttClientSession session, List<Message> messages) {
+    if (messages.size() == 1) {
+      if (useTableInsert) {
+        insertTable((TableMessage) messages.get(0), session);
+      } else {
+        insertTree((TreeMessage) messages.get(0), session);
+      }
+    } else if (useTableInsert) {
+      insertTableBatch(messages, session);
+    } else {
+      insertTreeBatch(messages, session);
+    }
+  }
+
   /** Inserting table using tablet */
   private void insertTable(TableMessage message, MqttClientSession session) {
-    TSStatus tsStatus = null;
     try {
       TimestampPrecisionUtils.checkTimestampPrecision(message.getTimestamp());
-      InsertTabletStatement insertTabletStatement = constructInsertTabletStatement(message);
-      session.setDatabaseName(message.getDatabase().toLowerCase());
-      session.setSqlDialect(IClientSession.SqlDialect.TABLE);
-      long queryId = sessionManager.requestQueryId();
-      SqlParser relationSqlParser = new SqlParser();
-      Metadata metadata = LocalExecutionPlanner.getInstance().metadata;
-      ExecutionResult result =
-          Coordinator.getInstance()
-              .executeForTableModel(
-                  insertTabletStatement,
-                  relationSqlParser,
-                  session,
-                  queryId,
-                  sessionManager.getSessionInfo(session),
-                  "",
-                  metadata,
-                  config.getQueryTimeoutThreshold());
-
-      tsStatus = result.status;
-      if (LOG.isDebugEnabled()) {
-        LOG.debug("process result: {}", tsStatus);
-      }
-      if (tsStatus.getCode() != TSStatusCode.SUCCESS_STATUS.getStatusCode()
-          || tsStatus.getCode() != TSStatusCode.REDIRECTION_RECOMMEND.getStatusCode()) {
-        LOG.warn("mqtt line insert error , message = {}", tsStatus.message);
-      }
+      executeTableInsert(
+          constructInsertTabletStatement(Collections.singletonList(message)),
+          message.getDatabase(),
+          session);
     } catch (Exception e) {
       LOG.warn(
           "meet error when inserting database {}, table {}, tags {}, attributes {}, fields {}, at time {}, because ",
@@ -210,7 +240,128 @@ public class MPPPublishHandler extends AbstractInterceptHandler {
     }
   }
 
-  private InsertTabletStatement constructInsertTabletStatement(TableMessage message) {
+  /**
+   * Inserting the messages of a batch into tables. The messages with the same database, table and
+   * columns are inserted by one tablet, with a row for each message. If the tablet fails, e.g. a
+   * value of one message doesn't match the column type, its messages are inserted one by one, so
+   * only the bad messages are dropped as they are when batching is disabled.
+   */
+  private void insertTableBatch(List<Message> messages, MqttClientSession session) {
+    Map<List<Object>, List<TableMessage>> tabletMessages = new LinkedHashMap<>();
+    for (Message message : messages) {
+      TableMessage tableMessage = (TableMessage) message;
+      try {
+        TimestampPrecisionUtils.checkTimestampPrecision(tableMessage.getTimestamp());
+      } catch (Exception e) {
+        LOG.warn(
+            "meet error when inserting database {}, table {}, at time {}, because ",
+            tableMessage.getDatabase(),
+            tableMessage.getTable(),
+            tableMessage.getTimestamp(),
+            e);
+        continue;
+      }
+      tabletMessages
+          .computeIfAbsent(
+              Arrays.asList(
+                  tableMessage.getDatabase(),
+                  tableMessage.getTable(),
+                  tableMessage.getFields(),
+                  tableMessage.getDataTypes(),
+                  tableMessage.getTagKeys(),
+                  tableMessage.getAttributeKeys()),
+              k -> new ArrayList<>())
+          .add(tableMessage);
+    }
+    for (List<TableMessage> rows : tabletMessages.values()) {
+      insertOrFallback(
+          rows,
+          batch -> {
+            TableMessage first = batch.get(0);
+            try {
+              return executeTableInsert(
+                  constructInsertTabletStatement(batch), first.getDatabase(), session);
+            } catch (Exception e) {
+              LOG.warn(
+                  "meet error when inserting {} rows into database {}, table {}, retry them one by one, because ",
+                  batch.size(),
+                  first.getDatabase(),
+                  first.getTable(),
+                  e);
+              return false;
+            }
+          },
+          row -> insertTable(row, session));
+    }
+  }
+
+  /**
+   * Insert the rows by one statement. If it fails, the rows are inserted one by one, so that only
+   * the bad rows are dropped as they are when batching is disabled.
+   *
+   * @param batchInserter inserts all the rows and returns whether the insertion succeeded
+   * @param inserter inserts a single row
+   */
+  static <T> void insertOrFallback(
+      List<T> rows, Predicate<List<T>> batchInserter, Consumer<T> inserter) {
+    if (rows.size() == 1) {
+      inserter.accept(rows.get(0));
+      return;
+    }
+    if (!batchInserter.test(rows)) {
+      rows.forEach(inserter);
+    }
+  }
+
+  /** Whether the status returned by the insertion means success. */
+  static boolean isInsertSucceeded(TSStatus tsStatus) {
+    return tsStatus.getCode() == TSStatusCode.SUCCESS_STATUS.getStatusCode()
+        || tsStatus.getCode() == TSStatusCode.REDIRECTION_RECOMMEND.getStatusCode();
+  }
+
+  /**
+   * @return whether the insertion succeeded
+   */
+  private boolean executeTableInsert(
+      InsertTabletStatement insertTabletStatement, String database, MqttClientSession session) {
+    session.setDatabaseName(database.toLowerCase());
+    session.setSqlDialect(IClientSession.SqlDialect.TABLE);
+    long queryId = sessionManager.requestQueryId();
+    SqlParser relationSqlParser = new SqlParser();
+    Metadata metadata = LocalExecutionPlanner.getInstance().metadata;
+    ExecutionResult result =
+        Coordinator.getInstance()
+            .executeForTableModel(
+                insertTabletStatement,
+                relationSqlParser,
+                session,
+                queryId,
+                sessionManager.getSessionInfo(session),
+                "",
+                metadata,
+                config.getQueryTimeoutThreshold());
+
+    TSStatus tsStatus = result.status;
+    if (LOG.isDebugEnabled()) {
+      LOG.debug("process result: {}", tsStatus);
+    }
+    if (!isInsertSucceeded(tsStatus)) {
+      LOG.warn("mqtt line insert error , message = {}", tsStatus.message);
+      return false;
+    }
+    return true;
+  }
+
+  /**
+   * @param messages messages with the same database, table and columns
+   */
+  private InsertTabletStatement constructInsertTabletStatement(List<TableMessage> messages) {
+    TableMessage message = messages.get(0);
+    if (messages.size() > 1) {
+      // keep the rows ordered by time, the rows with the same time are kept in publishing order
+      messages = new ArrayList<>(messages);
+      messages.sort(Comparator.comparingLong(TableMessage::getTimestamp));
+    }
     InsertTabletStatement insertStatement = new InsertTabletStatement();
     insertStatement.setDevicePath(new PartialPath(message.getTable(), false));
     List<String> measurements =
@@ -218,16 +369,28 @@ public class MPPPublishHandler extends AbstractInterceptHandler {
             .flatMap(List::stream)
             .collect(Collectors.toList());
     insertStatement.setMeasurements(measurements.toArray(new String[0]));
-    long[] timestamps = new long[] {message.getTimestamp()};
+    int rowSize = messages.size();
+    long[] timestamps = new long[rowSize];
+    for (int row = 0; row < rowSize; row++) {
+      timestamps[row] = messages.get(row).getTimestamp();
+    }
     insertStatement.setTimes(timestamps);
     int columnSize = measurements.size();
-    int rowSize = 1;
 
     BitMap[] bitMaps = new BitMap[columnSize];
-    Object[] columns =
-        Stream.of(message.getValues(), message.getTagValues(), message.getAttributeValues())
-            .flatMap(List::stream)
-            .toArray(Object[]::new);
+    Object[] columns = getRowColumns(message);
+    if (rowSize > 1) {
+      // each value of a message is an array of one element, merge them into columns of all rows
+      for (int column = 0; column < columnSize; column++) {
+        columns[column] = Array.newInstance(columns[column].getClass().getComponentType(), rowSize);
+      }
+      for (int row = 0; row < rowSize; row++) {
+        Object[] rowColumns = getRowColumns(messages.get(row));
+        for (int column = 0; column < columnSize; column++) {
+          System.arraycopy(rowColumns[column], 0, columns[column], row, 1);
+        }
+      }
+    }
     insertStatement.setColumns(columns);
     insertStatement.setBitMaps(bitMaps);
     insertStatement.setRowCount(rowSize);
@@ -260,60 +423,15 @@ public class MPPPublishHandler extends AbstractInterceptHandler {
     return insertStatement;
   }
 
+  private Object[] getRowColumns(TableMessage message) {
+    return Stream.of(message.getValues(), message.getTagValues(), message.getAttributeValues())
+        .flatMap(List::stream)
+        .toArray(Object[]::new);
+  }
+
   private void insertTree(TreeMessage message, MqttClientSession session) {
-    TSStatus tsStatus = null;
     try {
-      InsertRowStatement statement = new InsertRowStatement();
-      statement.setDevicePath(
-          DataNodeDevicePathCache.getInstance().getPartialPath(message.getDevice()));
-      TimestampPrecisionUtils.checkTimestampPrecision(message.getTimestamp());
-      statement.setTime(message.getTimestamp());
-      statement.setMeasurements(message.getMeasurements().toArray(new String[0]));
-      if (message.getDataTypes() == null) {
-        statement.setDataTypes(new TSDataType[message.getMeasurements().size()]);
-        statement.setValues(message.getValues().toArray(new Object[0]));
-        statement.setNeedInferType(true);
-      } else {
-        List<TSDataType> dataTypes = message.getDataTypes();
-        List<String> values = message.getValues();
-        Object[] inferredValues = new Object[values.size()];
-        for (int i = 0; i < values.size(); ++i) {
-          inferredValues[i] = CommonUtils.parseValue(dataTypes.get(i), values.get(i));
-        }
-        statement.setDataTypes(dataTypes.toArray(new TSDataType[0]));
-        statement.setValues(inferredValues);
-      }
-      statement.setAligned(false);
-
-      tsStatus =
-          AuthorityChecker.checkAuthority(
-              statement,
-              new TreeAccessCheckContext(
-                  session.getUserId(), session.getUsername(), session.getClientAddress()));
-      if (tsStatus.getCode() != TSStatusCode.SUCCESS_STATUS.getStatusCode()) {
-        LOG.warn(tsStatus.message);
-      } else {
-        long queryId = sessionManager.requestQueryId();
-        ExecutionResult result =
-            Coordinator.getInstance()
-                .executeForTreeModel(
-                    statement,
-                    queryId,
-                    sessionManager.getSessionInfo(session),
-                    "",
-                    partitionFetcher,
-                    schemaFetcher,
-                    config.getQueryTimeoutThreshold(),
-                    false);
-        tsStatus = result.status;
-        if (LOG.isDebugEnabled()) {
-          LOG.debug("process result: {}", tsStatus);
-        }
-        if (tsStatus.getCode() != TSStatusCode.SUCCESS_STATUS.getStatusCode()
-            || tsStatus.getCode() != TSStatusCode.REDIRECTION_RECOMMEND.getStatusCode()) {
-          LOG.warn("mqtt json insert error , message = {}", tsStatus.message);
-        }
-      }
+      executeTreeInsert(constructInsertRowStatement(message), session);
     } catch (Exception e) {
       LOG.warn(
           "meet error when inserting device {}, measurements {}, at time {}, because ",
@@ -324,6 +442,120 @@ public class MPPPublishHandler extends AbstractInterceptHandler {
     }
   }
 
+  /**
+   * Inserting the messages of a batch into devices by one InsertRowsStatement. If it fails, e.g.
+   * the user has no privilege on one of the devices, the messages are inserted one by one, so only
+   * the bad messages are dropped as they are when batching is disabled.
+   */
+  private void insertTreeBatch(List<Message> messages, MqttClientSession session) {
+    List<InsertRowStatement> rows = new ArrayList<>(messages.size());
+    for (Message message : messages) {
+      TreeMessage treeMessage = (TreeMessage) message;
+      try {
+        rows.add(constructInsertRowStatement(treeMessage));
+      } catch (Exception e) {
+        LOG.warn(
+            "meet error when inserting device {}, measurements {}, at time {}, because ",
+            treeMessage.getDevice(),
+            treeMessage.getMeasurements(),
+            treeMessage.getTimestamp(),
+            e);
+      }
+    }
+    if (rows.isEmpty()) {
+      return;
+    }
+    insertOrFallback(
+        rows,
+        batch -> {
+          InsertRowsStatement statement = new InsertRowsStatement();
+          statement.setInsertRowStatementList(batch);
+          try {
+            return executeTreeInsert(statement, session);
+          } catch (Exception e) {
+            LOG.warn(
+                "meet error when inserting {} rows, retry them one by one, because ",
+                batch.size(),
+                e);
+            return false;
+          }
+        },
+        row -> {
+          try {
+            executeTreeInsert(row, session);
+          } catch (Exception e) {
+            LOG.warn(
+                "meet error when inserting device {}, measurements {}, at time {}, because ",
+                row.getDevicePath(),
+                Arrays.toString(row.getMeasurements()),
+                row.getTime(),
+                e);
+          }
+        });
+  }
+
+  private InsertRowStatement constructInsertRowStatement(TreeMessage message)
+      throws IllegalPathException, QueryProcessException {
+    InsertRowStatement statement = new InsertRowStatement();
+    statement.setDevicePath(
+        DataNodeDevicePathCache.getInstance().getPartialPath(message.getDevice()));
+    TimestampPrecisionUtils.checkTimestampPrecision(message.getTimestamp());
+    statement.setTime(message.getTimestamp());
+    statement.setMeasurements(message.getMeasurements().toArray(new String[0]));
+    if (message.getDataTypes() == null) {
+      statement.setDataTypes(new TSDataType[message.getMeasurements().size()]);
+      statement.setValues(message.getValues().toArray(new Object[0]));
+      statement.setNeedInferType(true);
+    } else {
+      List<TSDataType> dataTypes = message.getDataTypes();
+      List<String> values = message.getValues();
+      Object[] inferredValues = new Object[values.size()];
+      for (int i = 0; i < values.size(); ++i) {
+        inferredValues[i] = CommonUtils.parseValue(dataTypes.get(i), values.get(i));
+      }
+      statement.setDataTypes(dataTypes.toArray(new TSDataType[0]));
+      statement.setValues(inferredValues);
+    }
+    statement.setAligned(false);
+    return statement;
+  }
+
+  /**
+   * @return whether the insertion succeeded
+   */
+  private boolean executeTreeInsert(InsertBaseStatement statement, MqttClientSession session) {
+    TSStatus tsStatus =
+        AuthorityChecker.checkAuthority(
+            statement,
+            new TreeAccessCheckContext(
+                session.getUserId(), session.getUsername(), session.getClientAddress()));
+    if (tsStatus.getCode() != TSStatusCode.SUCCESS_STATUS.getStatusCode()) {
+      LOG.warn(tsStatus.message);
+      return false;
+    }
+    long queryId = sessionManager.requestQueryId();
+    ExecutionResult result =
+        Coordinator.getInstance()
+            .executeForTreeModel(
+                statement,
+                queryId,
+                sessionManager.getSessionInfo(session),
+                "",
+                partitionFetcher,
+                schemaFetcher,
+                config.getQueryTimeoutThreshold(),
+                false);
+    tsStatus = result.status;
+    if (LOG.isDebugEnabled()) {
+      LOG.debug("process result: {}", tsStatus);
+    }
+    if (!isInsertSucceeded(tsStatus)) {
+      LOG.warn("mqtt json insert error , message = {}", tsStatus.message);
+      return false;
+    }
+    return true;
+  }
+
   @Override
   public void onSessionLoopError(Throwable throwable) {
     // TODO: Implement something sensible here ...
@@ -0,0 +1,63 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.iotdb.db.protocol.mqtt;
+
+import org.apache.iotdb.commons.service.metric.enums.Metric;
+import org.apache.iotdb.metrics.AbstractMetricService;
+import org.apache.iotdb.metrics.impl.DoNothingMetricManager;
+import org.apache.iotdb.metrics.metricsets.IMetricSet;
+import org.apache.iotdb.metrics.type.Histogram;
+import org.apache.iotdb.metrics.type.Timer;
+import org.apache.iotdb.metrics.utils.MetricLevel;
+import org.apache.iotdb.metrics.utils.MetricType;
+
+/** Metrics of the batches of mqtt messages inserted by {@link MqttMessageBatcher}. */
+public class MqttInsertBatchMetrics implements IMetricSet {
+
+  private Histogram batchSizeHistogram = DoNothingMetricManager.DO_NOTHING_HISTOGRAM;
+  private Timer batchLatencyTimer = DoNothingMetricManager.DO_NOTHING_TIMER;
+
+  /**
+   * @param batchSize number of messages in the batch
+   * @param latencyInNanos time from the first message of the batch being buffered to the batch
+   *     being inserted
+   */
+  public void recordBatch(int batchSize, long latencyInNanos) {
+    batchSizeHistogram.update(batchSize);
+    batchLatencyTimer.updateNanos(latencyInNanos);
+  }
+
+  @Override
+  public void bindTo(AbstractMetricService metricService) {
+    batchSizeHistogram =
+        metricService.getOrCreateHistogram(
+            Metric.MQTT_INSERT_BATCH_SIZE.toString(), MetricLevel.IMPORTANT);
+    batchLatencyTimer =
+        metricService.getOrCreateTimer(
+            Metric.MQTT_INSERT_BATCH_LATENCY.toString(), MetricLevel.IMPORTANT);
+  }
+
+  @Override
+  public void unbindFrom(AbstractMetricService metricService) {
+    batchSizeHistogram = DoNothingMetricManager.DO_NOTHING_HISTOGRAM;
+    batchLatencyTimer = DoNothingMetricManager.DO_NOTHING_TIMER;
+    metricService.remove(MetricType.HISTOGRAM, Metric.MQTT_INSERT_BATCH_SIZE.toString());
+    metricService.remove(MetricType.TIMER, Metric.MQTT_INSERT_BATCH_LATENCY.toString());
+  }
+}
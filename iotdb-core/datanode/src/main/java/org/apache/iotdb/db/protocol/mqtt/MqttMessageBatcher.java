@@ -0,0 +1,214 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.iotdb.db.protocol.mqtt;
+
+import org.apache.iotdb.commons.concurrent.IoTDBThreadPoolFactory;
+import org.apache.iotdb.commons.concurrent.ThreadName;
+import org.apache.iotdb.commons.concurrent.threadpool.ScheduledExecutorUtil;
+import org.apache.iotdb.commons.service.metric.MetricService;
+import org.apache.iotdb.db.protocol.session.MqttClientSession;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import java.util.function.BiPredicate;
+
+/**
+ * Buffers the messages published by the mqtt clients and inserts them in batches, so that the
+ * analysis, the partition fetching and the WAL entry are shared by the messages of a batch.
+ *
+ * <p>The messages are buffered per client, since they are authorized and executed with the session
+ * of the client. The buffer of a client is flushed by the publishing thread once it holds {@code
+ * batchSize} messages, and by a background thread every {@code maxDelayInMs}. The flushes of a
+ * client are serialized, so its messages are inserted in the order they are published.
+ *
+ * <p>The broker acknowledges a message once it is handed to the handler, whatever the result of the
+ * insertion is, so batching doesn't change the QoS semantics. The buffer of a client is flushed and
+ * closed before its session is closed, and all the buffers are flushed when the service is stopped,
+ * so no acknowledged message is dropped. The messages published while the client is disconnecting
+ * are inserted directly, as they are when batching is disabled.
+ */
+public class MqttMessageBatcher {
+
+  private static final Logger LOG = LoggerFactory.getLogger(MqttMessageBatcher.class);
+
+  private final int batchSize;
+  private final BiConsumer<MqttClientSession, List<Message>> inserter;
+  // Whether the session is still the session of the client
+  private final BiPredicate<String, MqttClientSession> isConnected;
+  private final Map<String, ClientBuffer> clientBuffers = new ConcurrentHashMap<>();
+  private final MqttInsertBatchMetrics metrics = new MqttInsertBatchMetrics();
+  private final ScheduledExecutorService flushExecutor;
+
+  public MqttMessageBatcher(
+      int batchSize,
+      long maxDelayInMs,
+      BiConsumer<MqttClientSession, List<Message>> inserter,
+      BiPredicate<String, MqttClientSession> isConnected) {
+    this.batchSize = batchSize;
+    this.inserter = inserter;
+    this.isConnected = isConnected;
+    MetricService.getInstance().addMetricSet(metrics);
+    this.flushExecutor =
+        IoTDBThreadPoolFactory.newSingleThreadScheduledExecutor(
+            ThreadName.MQTT_INSERT_BATCH_FLUSH.getName());
+    ScheduledExecutorUtil.safelyScheduleWithFixedDelay(
+        flushExecutor, this::flushAll, maxDelayInMs, maxDelayInMs, TimeUnit.MILLISECONDS);
+  }
+
+  public void add(String clientId, MqttClientSession session, List<Message> messages) {
+    ClientBuffer buffer =
+        clientBuffers.computeIfAbsent(clientId, k -> new ClientBuffer(clientId, session));
+    int bufferedCount = buffer.add(session, messages);
+    if (bufferedCount < 0) {
+      // The buffer has been closed by the disconnection of the client, or belongs to a new
+      // connection of the client
+      List<Message> batch = new ArrayList<>(messages.size());
+      for (Message message : messages) {
+        if (message != null) {
+          batch.add(message);
+        }
+      }
+      insert(clientId, session, batch, System.nanoTime());
+      return;
+    }
+    if (!isConnected.test(clientId, session)) {
+      // The client has disconnected since the session was fetched. The buffer may be created after
+      // the disconnection flushed the client, so nobody else would remove it.
+      if (clientBuffers.remove(clientId, buffer)) {
+        buffer.close();
+      }
+      return;
+    }
+    if (bufferedCount >= batchSize) {
+      buffer.flush();
+    }
+  }
+
+  /**
+   * Insert the buffered messages of the client and close its buffer, should be called after the
+   * client is removed from the connected ones and before its session is closed.
+   */
+  public void flush(String clientId) {
+    ClientBuffer buffer = clientBuffers.remove(clientId);
+    if (buffer != null) {
+      buffer.close();
+    }
+  }
+
+  private void flushAll() {
+    clientBuffers.values().forEach(ClientBuffer::flush);
+  }
+
+  private void insert(
+      String clientId, MqttClientSession session, List<Message> batch, long batchStartTime) {
+    if (batch.isEmpty()) {
+      return;
+    }
+    try {
+      inserter.accept(session, batch);
+    } catch (Throwable t) {
+      LOG.warn(
+          "meet error when inserting {} messages of client {}, because ",
+          batch.size(),
+          clientId,
+          t);
+    }
+    metrics.recordBatch(batch.size(), System.nanoTime() - batchStartTime);
+  }
+
+  public void stop() {
+    flushExecutor.shutdown();
+    try {
+      if (!flushExecutor.awaitTermination(60, TimeUnit.SECONDS)) {
+        LOG.warn("Timeout when waiting for the mqtt insert batch flush thread to stop.");
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    clientBuffers.keySet().forEach(this::flush);
+    MetricService.getInstance().removeMetricSet(metrics);
+  }
+
+  private class ClientBuffer {
+
+    private final String clientId;
+    private final MqttClientSession session;
+    // Serializes the flushes, so the batches of a client are inserted in order
+    private final Object flushLock = new Object();
+    private List<Message> messages = new ArrayList<>();
+    private long firstMessageTime;
+    // Set when the client disconnects, no message is buffered after that
+    private boolean closed = false;
+
+    private ClientBuffer(String clientId, MqttClientSession session) {
+      this.clientId = clientId;
+      this.session = session;
+    }
+
+    /**
+     * @return the number of buffered messages, or -1 if the messages are not buffered because the
+     *     buffer is closed or belongs to another session of the client
+     */
+    private synchronized int add(MqttClientSession messageSession, List<Message> newMessages) {
+      if (closed || messageSession != session) {
+        return -1;
+      }
+      if (messages.isEmpty()) {
+        firstMessageTime = System.nanoTime();
+      }
+      for (Message message : newMessages) {
+        if (message != null) {
+          messages.add(message);
+        }
+      }
+      return messages.size();
+    }
+
+    private void flush() {
+      synchronized (flushLock) {
+        List<Message> batch;
+        long batchStartTime;
+        synchronized (this) {
+          if (messages.isEmpty()) {
+            return;
+          }
+          batch = messages;
+          batchStartTime = firstMessageTime;
+          messages = new ArrayList<>(batchSize);
+        }
+        insert(clientId, session, batch, batchStartTime);
+      }
+    }
+
+    private void close() {
+      synchronized (this) {
+        closed = true;
+      }
+      flush();
+    }
+  }
+}
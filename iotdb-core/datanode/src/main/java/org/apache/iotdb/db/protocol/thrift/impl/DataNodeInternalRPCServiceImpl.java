@@ -612,7 +612,12 @@ public class DataNodeInternalRPCServiceImpl implements IDataNodeRPCService.Iface
 
   @Override
   public TSStatus invalidatePartitionCache(final TInvalidateCacheReq req) {
-    ClusterPartitionFetcher.getInstance().invalidAllCache();
+    if (req.isStorageGroup()) {
+      // only the deleted database is invalidated, others need not be fetched again
+      ClusterPartitionFetcher.getInstance().invalidCache(req.getFullPath());
+    } else {
+      ClusterPartitionFetcher.getInstance().invalidAllCache();
+    }
     return new TSStatus(TSStatusCode.SUCCESS_STATUS.getStatusCode());
   }
 
@@ -23,6 +23,7 @@ import org.apache.iotdb.common.rpc.thrift.TEndPoint;
 import org.apache.iotdb.common.rpc.thrift.TSStatus;
 import org.apache.iotdb.commons.client.IClientManager;
 import org.apache.iotdb.commons.client.sync.SyncDataNodeMPPDataExchangeServiceClient;
+import org.apache.iotdb.db.conf.IoTDBDescriptor;
 import org.apache.iotdb.db.queryengine.exception.exchange.GetTsBlockFromClosedOrAbortedChannelException;
 import org.apache.iotdb.db.queryengine.execution.driver.DriverContext;
 import org.apache.iotdb.db.queryengine.execution.exchange.sink.DownStreamChannelIndex;
@@ -54,6 +55,7 @@ import org.apache.iotdb.rpc.TSStatusCode;
 
 import org.apache.thrift.TException;
 import org.apache.tsfile.external.commons.lang3.Validate;
+import org.apache.tsfile.file.metadata.enums.CompressionType;
 import org.apache.tsfile.read.common.block.column.TsBlockSerde;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -114,11 +116,31 @@ public class MPPDataExchangeManager implements IMPPDataExchangeManager {
         if (sinkHandle == null) {
           return resp;
         }
+        // the caller doesn't set compression type if it doesn't support compression
+        CompressionType compressionType =
+            req.isSetCompressionType()
+                ? CompressionType.deserialize(req.getCompressionType())
+                : CompressionType.UNCOMPRESSED;
         // index of the channel must be a SinkChannel
         SinkChannel sinkChannel = (SinkChannel) (sinkHandle.getChannel(req.getIndex()));
         for (int i = req.getStartSequenceId(); i < req.getEndSequenceId(); i++) {
           try {
             ByteBuffer serializedTsBlock = sinkChannel.getSerializedTsBlock(i);
+            if (compressionType != CompressionType.UNCOMPRESSED) {
+              ByteBuffer compressedTsBlock =
+                  TsBlockCompression.compress(
+                      serializedTsBlock,
+                      compressionType,
+                      IoTDBDescriptor.getInstance()
+                          .getConfig()
+                          .getMppDataExchangeCompressionThresholdInBytes());
+              if (compressedTsBlock == null) {
+                resp.addToCompressionTypes(CompressionType.UNCOMPRESSED.serialize());
+              } else {
+                resp.addToCompressionTypes(compressionType.serialize());
+                serializedTsBlock = compressedTsBlock;
+              }
+            }
             resp.addToTsBlocks(serializedTsBlock);
           } catch (GetTsBlockFromClosedOrAbortedChannelException e) {
             // Return an empty block list to indicate that getting data block failed this time.
@@ -245,7 +267,8 @@ public class MPPDataExchangeManager implements IMPPDataExchangeManager {
           return;
         }
 
-        sourceHandle.updatePendingDataBlockInfo(e.getStartSequenceId(), e.getBlockSizes());
+        sourceHandle.updatePendingDataBlockInfo(
+            e.getStartSequenceId(), e.getBlockSizes(), e.isSetTsBlocks() ? e.getTsBlocks() : null);
       } finally {
         DATA_EXCHANGE_COST_METRICS.recordDataExchangeCost(
             SEND_NEW_DATA_BLOCK_EVENT_TASK_SERVER, System.nanoTime() - startTime);
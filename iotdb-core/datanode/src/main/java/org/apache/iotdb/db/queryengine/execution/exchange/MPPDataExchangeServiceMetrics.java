@@ -24,11 +24,30 @@ import org.apache.iotdb.commons.service.AbstractThriftServiceThread;
 import org.apache.iotdb.commons.service.metric.enums.Metric;
 import org.apache.iotdb.commons.service.metric.enums.Tag;
 import org.apache.iotdb.metrics.AbstractMetricService;
+import org.apache.iotdb.metrics.impl.DoNothingMetricManager;
 import org.apache.iotdb.metrics.metricsets.IMetricSet;
+import org.apache.iotdb.metrics.type.Counter;
+import org.apache.iotdb.metrics.type.Timer;
 import org.apache.iotdb.metrics.utils.MetricLevel;
 import org.apache.iotdb.metrics.utils.MetricType;
 
+import java.util.Arrays;
+
 public class MPPDataExchangeServiceMetrics implements IMetricSet {
+  private static final String UNCOMPRESSED_SIZE = "uncompressed_size";
+  private static final String COMPRESSED_SIZE = "compressed_size";
+  private static final String SAVED_SIZE = "saved_size";
+  private static final String COMPRESSION_RATIO = "compression_ratio";
+  private static final String COMPRESS_COST = "compress_cost";
+  private static final String UNCOMPRESS_COST = "uncompress_cost";
+
+  // Compression is recorded by TsBlockCompression, which has no access to the metric set
+  private static Counter uncompressedSizeCounter = DoNothingMetricManager.DO_NOTHING_COUNTER;
+  private static Counter compressedSizeCounter = DoNothingMetricManager.DO_NOTHING_COUNTER;
+  private static Counter savedSizeCounter = DoNothingMetricManager.DO_NOTHING_COUNTER;
+  private static Timer compressTimer = DoNothingMetricManager.DO_NOTHING_TIMER;
+  private static Timer uncompressTimer = DoNothingMetricManager.DO_NOTHING_TIMER;
+
   private AbstractThriftServiceThread thriftServiceThread;
 
   public MPPDataExchangeServiceMetrics(AbstractThriftServiceThread thriftServiceThread) {
@@ -44,6 +63,93 @@ public class MPPDataExchangeServiceMetrics implements IMetricSet {
         AbstractThriftServiceThread::getActiveThreadCount,
         Tag.NAME.toString(),
         ThreadName.MPP_DATA_EXCHANGE_RPC_SERVICE.getName());
+    bindCompressionMetrics(metricService);
+  }
+
+  private void bindCompressionMetrics(AbstractMetricService metricService) {
+    uncompressedSizeCounter =
+        metricService.getOrCreateCounter(
+            Metric.DATA_EXCHANGE_COMPRESSION.toString(),
+            MetricLevel.IMPORTANT,
+            Tag.NAME.toString(),
+            UNCOMPRESSED_SIZE);
+    compressedSizeCounter =
+        metricService.getOrCreateCounter(
+            Metric.DATA_EXCHANGE_COMPRESSION.toString(),
+            MetricLevel.IMPORTANT,
+            Tag.NAME.toString(),
+            COMPRESSED_SIZE);
+    savedSizeCounter =
+        metricService.getOrCreateCounter(
+            Metric.DATA_EXCHANGE_COMPRESSION.toString(),
+            MetricLevel.IMPORTANT,
+            Tag.NAME.toString(),
+            SAVED_SIZE);
+    metricService.createAutoGauge(
+        Metric.DATA_EXCHANGE_COMPRESSION.toString(),
+        MetricLevel.IMPORTANT,
+        this,
+        MPPDataExchangeServiceMetrics::getCompressionRatio,
+        Tag.NAME.toString(),
+        COMPRESSION_RATIO);
+    compressTimer =
+        metricService.getOrCreateTimer(
+            Metric.DATA_EXCHANGE_COMPRESSION.toString(),
+            MetricLevel.IMPORTANT,
+            Tag.NAME.toString(),
+            COMPRESS_COST);
+    uncompressTimer =
+        metricService.getOrCreateTimer(
+            Metric.DATA_EXCHANGE_COMPRESSION.toString(),
+            MetricLevel.IMPORTANT,
+            Tag.NAME.toString(),
+            UNCOMPRESS_COST);
+  }
+
+  private void unbindCompressionMetrics(AbstractMetricService metricService) {
+    uncompressedSizeCounter = DoNothingMetricManager.DO_NOTHING_COUNTER;
+    compressedSizeCounter = DoNothingMetricManager.DO_NOTHING_COUNTER;
+    savedSizeCounter = DoNothingMetricManager.DO_NOTHING_COUNTER;
+    compressTimer = DoNothingMetricManager.DO_NOTHING_TIMER;
+    uncompressTimer = DoNothingMetricManager.DO_NOTHING_TIMER;
+    Arrays.asList(UNCOMPRESSED_SIZE, COMPRESSED_SIZE, SAVED_SIZE)
+        .forEach(
+            name ->
+                metricService.remove(
+                    MetricType.COUNTER,
+                    Metric.DATA_EXCHANGE_COMPRESSION.toString(),
+                    Tag.NAME.toString(),
+                    name));
+    metricService.remove(
+        MetricType.AUTO_GAUGE,
+        Metric.DATA_EXCHANGE_COMPRESSION.toString(),
+        Tag.NAME.toString(),
+        COMPRESSION_RATIO);
+    Arrays.asList(COMPRESS_COST, UNCOMPRESS_COST)
+        .forEach(
+            name ->
+                metricService.remove(
+                    MetricType.TIMER,
+                    Metric.DATA_EXCHANGE_COMPRESSION.toString(),
+                    Tag.NAME.toString(),
+                    name));
+  }
+
+  /** Compressed size divided by uncompressed size of the TsBlocks sent by this data node. */
+  private double getCompressionRatio() {
+    long uncompressedSize = uncompressedSizeCounter.getCount();
+    return uncompressedSize == 0 ? 1 : (double) compressedSizeCounter.getCount() / uncompressedSize;
+  }
+
+  public static void recordCompression(long uncompressedSize, long compressedSize, long costInNs) {
+    uncompressedSizeCounter.inc(uncompressedSize);
+    compressedSizeCounter.inc(compressedSize);
+    savedSizeCounter.inc(uncompressedSize - compressedSize);
+    compressTimer.updateNanos(costInNs);
+  }
+
+  public static void recordUncompression(long costInNs) {
+    uncompressTimer.updateNanos(costInNs);
   }
 
   @Override
@@ -53,5 +159,6 @@ public class MPPDataExchangeServiceMetrics implements IMetricSet {
         Metric.THRIFT_ACTIVE_THREADS.toString(),
         Tag.NAME.toString(),
         ThreadName.MPP_DATA_EXCHANGE_RPC_SERVICE.getName());
+    unbindCompressionMetrics(metricService);
   }
 }
@@ -0,0 +1,107 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iotdb.db.queryengine.execution.exchange;
+
+import org.apache.tsfile.compress.ICompressor;
+import org.apache.tsfile.compress.IUnCompressor;
+import org.apache.tsfile.file.metadata.enums.CompressionType;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Compression of serialized TsBlocks transferred by {@link MPPDataExchangeService}.
+ *
+ * <p>A compressed TsBlock is laid out as [uncompressedSize(4 bytes)][compressed bytes].
+ */
+public class TsBlockCompression {
+
+  private TsBlockCompression() {
+    // util class
+  }
+
+  /**
+   * @return the compressed TsBlock, or null if the TsBlock is smaller than the threshold or can't
+   *     be made smaller by compression
+   */
+  public static ByteBuffer compress(
+      ByteBuffer serializedTsBlock, CompressionType compressionType, int thresholdInBytes)
+      throws IOException {
+    int uncompressedSize = serializedTsBlock.remaining();
+    if (compressionType == CompressionType.UNCOMPRESSED || uncompressedSize < thresholdInBytes) {
+      return null;
+    }
+    long startTime = System.nanoTime();
+    ICompressor compressor = ICompressor.getCompressor(compressionType);
+    byte[] compressed = new byte[compressor.getMaxBytesForCompression(uncompressedSize)];
+    int compressedSize;
+    if (serializedTsBlock.hasArray()) {
+      compressedSize =
+          compressor.compress(
+              serializedTsBlock.array(),
+              serializedTsBlock.arrayOffset() + serializedTsBlock.position(),
+              uncompressedSize,
+              compressed);
+    } else {
+      byte[] uncompressed = new byte[uncompressedSize];
+      serializedTsBlock.duplicate().get(uncompressed);
+      compressedSize = compressor.compress(uncompressed, 0, uncompressedSize, compressed);
+    }
+    ByteBuffer result = null;
+    if (Integer.BYTES + compressedSize < uncompressedSize) {
+      result = ByteBuffer.allocate(Integer.BYTES + compressedSize);
+      result.putInt(uncompressedSize);
+      result.put(compressed, 0, compressedSize);
+      result.flip();
+    }
+    MPPDataExchangeServiceMetrics.recordCompression(
+        uncompressedSize,
+        result == null ? uncompressedSize : result.remaining(),
+        System.nanoTime() - startTime);
+    return result;
+  }
+
+  public static ByteBuffer uncompress(ByteBuffer compressedTsBlock, CompressionType compressionType)
+      throws IOException {
+    if (compressionType == CompressionType.UNCOMPRESSED) {
+      return compressedTsBlock;
+    }
+    long startTime = System.nanoTime();
+    ByteBuffer buffer = compressedTsBlock.duplicate();
+    int uncompressedSize = buffer.getInt();
+    int compressedSize = buffer.remaining();
+    byte[] uncompressed = new byte[uncompressedSize];
+    IUnCompressor unCompressor = IUnCompressor.getUnCompressor(compressionType);
+    if (buffer.hasArray()) {
+      unCompressor.uncompress(
+          buffer.array(),
+          buffer.arrayOffset() + buffer.position(),
+          compressedSize,
+          uncompressed,
+          0);
+    } else {
+      byte[] compressed = new byte[compressedSize];
+      buffer.get(compressed);
+      unCompressor.uncompress(compressed, 0, compressedSize, uncompressed, 0);
+    }
+    MPPDataExchangeServiceMetrics.recordUncompression(System.nanoTime() - startTime);
+    return ByteBuffer.wrap(uncompressed);
+  }
+}
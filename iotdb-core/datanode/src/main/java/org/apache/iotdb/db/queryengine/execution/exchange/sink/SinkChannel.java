@@ -48,9 +48,12 @@ import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Map.Entry;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -96,6 +99,14 @@ public class SinkChannel implements ISinkChannel {
   // size for current TsBlock to reserve and free
   private long currentTsBlockSize;
 
+  // Bytes of TsBlocks that can still be pushed to the downstream SourceHandle along with the new
+  // data block events. It's decreased when a TsBlock is pushed and increased when it's acknowledged
+  private long pushCreditInBytes =
+      IoTDBDescriptor.getInstance().getConfig().getMppDataExchangePushCreditInBytes();
+
+  // sequence ID -> size of the pushed TsBlocks which have not been acknowledged
+  private final Map<Integer, Long> sequenceIdToPushedSize = new HashMap<>();
+
   private final IClientManager<TEndPoint, SyncDataNodeMPPDataExchangeServiceClient>
       mppDataExchangeServiceClientManager;
 
@@ -181,8 +192,10 @@ public class SinkChannel implements ISinkChannel {
     return nonCancellationPropagating(blocked);
   }
 
-  private void submitSendNewDataBlockEventTask(int startSequenceId, List<Long> blockSizes) {
-    executorService.submit(new SendNewDataBlockEventTask(startSequenceId, blockSizes));
+  private void submitSendNewDataBlockEventTask(
+      int startSequenceId, List<Long> blockSizes, TsBlock pushedTsBlock) {
+    executorService.submit(
+        new SendNewDataBlockEventTask(startSequenceId, blockSizes, pushedTsBlock));
   }
 
   @Override
@@ -220,7 +233,14 @@ public class SinkChannel implements ISinkChannel {
       nextSequenceId += 1;
       currentTsBlockSize = sizeInBytes;
 
-      submitSendNewDataBlockEventTask(startSequenceId, ImmutableList.of(sizeInBytes));
+      TsBlock pushedTsBlock = null;
+      if (sizeInBytes <= pushCreditInBytes) {
+        pushCreditInBytes -= sizeInBytes;
+        sequenceIdToPushedSize.put(startSequenceId, sizeInBytes);
+        pushedTsBlock = tsBlock;
+      }
+      submitSendNewDataBlockEventTask(
+          startSequenceId, ImmutableList.of(sizeInBytes), pushedTsBlock);
     } finally {
       DATA_EXCHANGE_COST_METRIC_SET.recordDataExchangeCost(
           SINK_HANDLE_SEND_TSBLOCK_REMOTE, System.nanoTime() - startTime);
@@ -247,6 +267,7 @@ public class SinkChannel implements ISinkChannel {
       return false;
     }
     sequenceIdToTsBlock.clear();
+    sequenceIdToPushedSize.clear();
     if (blocked != null) {
       bufferRetainedSizeInBytes -= localMemoryManager.getQueryPool().tryCancel(blocked);
     }
@@ -277,6 +298,7 @@ public class SinkChannel implements ISinkChannel {
       return false;
     }
     sequenceIdToTsBlock.clear();
+    sequenceIdToPushedSize.clear();
     if (blocked != null) {
       bufferRetainedSizeInBytes -= localMemoryManager.getQueryPool().tryCancel(blocked);
     }
@@ -378,6 +400,10 @@ public class SinkChannel implements ISinkChannel {
         freedBytes += entry.getValue().right;
         bufferRetainedSizeInBytes -= entry.getValue().right;
         iterator.remove();
+        Long pushedSize = sequenceIdToPushedSize.remove(entry.getKey());
+        if (pushedSize != null) {
+          pushCreditInBytes += pushedSize;
+        }
         if (LOGGER.isDebugEnabled()) {
           LOGGER.debug("[ACKTsBlock] {}.", entry.getKey());
         }
@@ -478,8 +504,10 @@ public class SinkChannel implements ISinkChannel {
 
     private final int startSequenceId;
     private final List<Long> blockSizes;
+    // null if the TsBlock is pulled by the downstream SourceHandle
+    private final TsBlock pushedTsBlock;
 
-    SendNewDataBlockEventTask(int startSequenceId, List<Long> blockSizes) {
+    SendNewDataBlockEventTask(int startSequenceId, List<Long> blockSizes, TsBlock pushedTsBlock) {
       Validate.isTrue(
           startSequenceId >= 0,
           "Start sequence ID should be greater than or equal to zero, but was: "
@@ -487,6 +515,7 @@ public class SinkChannel implements ISinkChannel {
               + ".");
       this.startSequenceId = startSequenceId;
       this.blockSizes = Validate.notNull(blockSizes);
+      this.pushedTsBlock = pushedTsBlock;
     }
 
     @Override
@@ -508,6 +537,15 @@ public class SinkChannel implements ISinkChannel {
                 localFragmentInstanceId,
                 startSequenceId,
                 blockSizes);
+        if (pushedTsBlock != null) {
+          try {
+            newDataBlockEvent.setTsBlocks(
+                Collections.singletonList(serde.serialize(pushedTsBlock)));
+          } catch (IOException e) {
+            // the downstream SourceHandle will pull the TsBlock instead
+            LOGGER.warn("Failed to serialize the TsBlock to push, it will be pulled instead", e);
+          }
+        }
         while (attempt < MAX_ATTEMPT_TIMES) {
           attempt += 1;
           long startTime = System.nanoTime();
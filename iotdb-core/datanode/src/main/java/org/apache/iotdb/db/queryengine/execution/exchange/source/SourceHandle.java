@@ -26,6 +26,7 @@ import org.apache.iotdb.commons.utils.TestOnly;
 import org.apache.iotdb.db.conf.IoTDBDescriptor;
 import org.apache.iotdb.db.queryengine.common.FragmentInstanceId;
 import org.apache.iotdb.db.queryengine.execution.exchange.MPPDataExchangeManager.SourceHandleListener;
+import org.apache.iotdb.db.queryengine.execution.exchange.TsBlockCompression;
 import org.apache.iotdb.db.queryengine.execution.memory.LocalMemoryManager;
 import org.apache.iotdb.db.queryengine.metric.DataExchangeCostMetricSet;
 import org.apache.iotdb.db.queryengine.metric.DataExchangeCountMetricSet;
@@ -39,6 +40,7 @@ import org.apache.iotdb.mpp.rpc.thrift.TGetDataBlockResponse;
 import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.SettableFuture;
 import org.apache.tsfile.external.commons.lang3.Validate;
+import org.apache.tsfile.file.metadata.enums.CompressionType;
 import org.apache.tsfile.read.common.block.TsBlock;
 import org.apache.tsfile.read.common.block.column.TsBlockSerde;
 import org.apache.tsfile.utils.Pair;
@@ -336,6 +338,59 @@ public class SourceHandle implements ISourceHandle {
     }
   }
 
+  /**
+   * Same as {@link #updatePendingDataBlockInfo(int, List)}, but the TsBlocks pushed by the upstream
+   * SinkChannel are buffered directly if memory can be reserved for them without blocking, so that
+   * they needn't be pulled.
+   */
+  public synchronized void updatePendingDataBlockInfo(
+      int startSequenceId, List<Long> dataBlockSizes, List<ByteBuffer> pushedTsBlocks) {
+    if (pushedTsBlocks == null
+        || pushedTsBlocks.size() != dataBlockSizes.size()
+        || !tryBufferPushedTsBlocks(startSequenceId, dataBlockSizes, pushedTsBlocks)) {
+      updatePendingDataBlockInfo(startSequenceId, dataBlockSizes);
+    }
+  }
+
+  private boolean tryBufferPushedTsBlocks(
+      int startSequenceId, List<Long> dataBlockSizes, List<ByteBuffer> pushedTsBlocks) {
+    // Only buffer the pushed TsBlocks right after the pulled ones to keep the order of TsBlocks
+    if (aborted
+        || closed
+        || startSequenceId != nextSequenceId
+        || (blockedOnMemory != null && !blockedOnMemory.isDone())) {
+      return false;
+    }
+    long bytesToReserve = 0L;
+    for (Long dataBlockSize : dataBlockSizes) {
+      bytesToReserve += dataBlockSize;
+    }
+    if (!localMemoryManager
+        .getQueryPool()
+        .tryReserveWithoutBlocking(
+            localFragmentInstanceId.getQueryId(),
+            fullFragmentInstanceId,
+            localPlanNodeId,
+            bytesToReserve,
+            maxBytesCanReserve)) {
+      return false;
+    }
+    bufferRetainedSizeInBytes += bytesToReserve;
+    for (int i = 0; i < dataBlockSizes.size(); i++) {
+      sequenceIdToDataBlockSize.put(startSequenceId + i, dataBlockSizes.get(i));
+      sequenceIdToTsBlock.put(startSequenceId + i, pushedTsBlocks.get(i));
+    }
+    nextSequenceId = startSequenceId + dataBlockSizes.size();
+    if (LOGGER.isDebugEnabled()) {
+      LOGGER.debug("[PutPushedTsBlocksIntoBuffer] [{}, {})", startSequenceId, nextSequenceId);
+    }
+    if (!blocked.isDone()) {
+      blocked.set(null);
+    }
+    executorService.submit(new SendAcknowledgeDataBlockEventTask(startSequenceId, nextSequenceId));
+    return true;
+  }
+
   @Override
   public synchronized void abort() {
     try (SetThreadName sourceHandleName = new SetThreadName(threadName)) {
@@ -548,6 +603,11 @@ public class SourceHandle implements ISourceHandle {
                 startSequenceId,
                 endSequenceId,
                 indexOfUpstreamSinkHandle);
+        CompressionType compressionType =
+            IoTDBDescriptor.getInstance().getConfig().getMppDataExchangeCompressionType();
+        if (compressionType != CompressionType.UNCOMPRESSED) {
+          req.setCompressionType(compressionType.serialize());
+        }
         int attempt = 0;
         while (attempt < MAX_ATTEMPT_TIMES) {
           attempt += 1;
@@ -571,7 +631,16 @@ public class SourceHandle implements ISourceHandle {
               return;
             }
             List<ByteBuffer> tsBlocks = new ArrayList<>(tsBlockNum);
-            tsBlocks.addAll(resp.getTsBlocks());
+            if (resp.isSetCompressionTypes()) {
+              for (int i = 0; i < tsBlockNum; i++) {
+                tsBlocks.add(
+                    TsBlockCompression.uncompress(
+                        resp.getTsBlocks().get(i),
+                        CompressionType.deserialize(resp.getCompressionTypes().get(i))));
+              }
+            } else {
+              tsBlocks.addAll(resp.getTsBlocks());
+            }
 
             if (LOGGER.isDebugEnabled()) {
               LOGGER.debug("[EndPullTsBlocksFromRemote] Count:{}", tsBlockNum);
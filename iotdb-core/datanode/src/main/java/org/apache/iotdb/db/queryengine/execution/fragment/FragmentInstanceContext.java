@@ -42,6 +42,7 @@ import org.apache.iotdb.db.queryengine.plan.planner.memory.MemoryReservationMana
 import org.apache.iotdb.db.queryengine.plan.planner.memory.ThreadSafeMemoryReservationManager;
 import org.apache.iotdb.db.queryengine.plan.planner.plan.TimePredicate;
 import org.apache.iotdb.db.storageengine.StorageEngine;
+import org.apache.iotdb.db.storageengine.buffer.ModsCache;
 import org.apache.iotdb.db.storageengine.dataregion.DataRegion;
 import org.apache.iotdb.db.storageengine.dataregion.IDataRegionForQuery;
 import org.apache.iotdb.db.storageengine.dataregion.modification.ModEntry;
@@ -109,6 +110,9 @@ public class FragmentInstanceContext extends QueryContext {
 
   private boolean singleSourcePath = false;
 
+  // whether this instance reads whole series, see FragmentInstanceManager#isFullScan
+  private boolean fullScan = false;
+
   // Used for region scan, relating methods are to be added.
   private Map<IDeviceID, DeviceContext> devicePathsToContext;
 
@@ -157,6 +161,8 @@ public class FragmentInstanceContext extends QueryContext {
   private int initQueryDataSourceRetryCount = 0;
   private final AtomicLong readyQueueTime = new AtomicLong(0);
   private final AtomicLong blockQueueTime = new AtomicLong(0);
+  // Time the drivers of this fragment instance run on the query worker threads
+  private final AtomicLong scheduledTime = new AtomicLong(0);
   private long unclosedSeqFileNum = 0;
   private long unclosedUnseqFileNum = 0;
   private long closedSeqFileNum = 0;
@@ -342,7 +348,8 @@ public class FragmentInstanceContext extends QueryContext {
   @Override
   protected PatternTreeMap<ModEntry, PatternTreeMapFactory.ModsSerializer> getAllModifications(
       TsFileResource resource) {
-    if (isSingleSourcePath() || memoryReservationManager == null) {
+    // the memory of the shared mods cache is accounted by itself, and looking it up is cheap
+    if (isSingleSourcePath() || memoryReservationManager == null || ModsCache.isEnabled()) {
       return loadAllModificationsFromDisk(resource);
     }
 
@@ -641,6 +648,14 @@ public class FragmentInstanceContext extends QueryContext {
           unClosedFilePaths = new HashSet<>();
           addUsedFilesForQuery((QueryDataSource) sharedQueryDataSource);
           ((QueryDataSource) sharedQueryDataSource).setSingleDevice(singleDeviceId != null);
+          if (fullScan
+              && isLargeScan(
+                  sourcePaths,
+                  (QueryDataSource) sharedQueryDataSource,
+                  CONFIG.getCacheBypassScanThreshold())) {
+            // keep the whole-series reads out of the caches used by point and last queries
+            setCacheBypassed(true);
+          }
           return true;
         } else {
           // failed to acquire lock within the specific time
@@ -656,6 +671,37 @@ public class FragmentInstanceContext extends QueryContext {
     }
   }
 
+  /**
+   * Whether reading the given series through all the files of the data source is expected to load
+   * at least {@code threshold} chunks and timeseries metadata from disk. Each series is assumed to
+   * cost one timeseries metadata and one chunk per file, and an aligned series one of each per
+   * column including the time column.
+   */
+  static boolean isLargeScan(
+      List<IFullPath> sourcePaths, QueryDataSource dataSource, long threshold) {
+    if (threshold <= 0) {
+      return false;
+    }
+    long seriesNum = 0;
+    for (IFullPath sourcePath : sourcePaths) {
+      seriesNum +=
+          sourcePath instanceof AlignedFullPath
+              ? ((AlignedFullPath) sourcePath).getColumnNum() + 1L
+              : 1L;
+    }
+    long fileNum =
+        (long) dataSource.getSeqResources().size() + dataSource.getUnseqResources().size();
+    return 2 * seriesNum * fileNum >= threshold;
+  }
+
+  /**
+   * Mark this instance as reading whole series, so that its reads bypass the caches once the data
+   * source shows the scan is large.
+   */
+  public void setFullScan(boolean fullScan) {
+    this.fullScan = fullScan;
+  }
+
   public boolean initRegionScanQueryDataSource(Map<IDeviceID, DeviceContext> devicePathsToContext) {
     long startTime = System.nanoTime();
     if (devicePathsToContext == null) {
@@ -973,6 +1019,7 @@ public class FragmentInstanceContext extends QueryContext {
         .recordTaskQueueTime(BLOCK_QUEUED_TIME, blockQueueTime.get());
     DriverSchedulerMetricSet.getInstance()
         .recordTaskQueueTime(READY_QUEUED_TIME, readyQueueTime.get());
+    DriverSchedulerMetricSet.getInstance().recordTaskScheduledTime(scheduledTime.get());
 
     QueryRelatedResourceMetricSet.getInstance().updateFragmentInstanceTime(durationTime);
 
@@ -1131,6 +1178,14 @@ public class FragmentInstanceContext extends QueryContext {
     return blockQueueTime.get();
   }
 
+  public void addScheduledTime(long time) {
+    scheduledTime.addAndGet(time);
+  }
+
+  public long getScheduledTime() {
+    return scheduledTime.get();
+  }
+
   public long getClosedSeqFileNum() {
     return closedSeqFileNum;
   }
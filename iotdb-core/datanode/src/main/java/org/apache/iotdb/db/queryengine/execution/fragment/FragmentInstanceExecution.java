@@ -160,6 +160,7 @@ public class FragmentInstanceExecution {
 
     statistics.setBlockQueuedTime(context.getBlockQueueTime());
     statistics.setReadyQueuedTime(context.getReadyQueueTime());
+    statistics.setScheduledTime(context.getScheduledTime());
 
     statistics.setInitDataQuerySourceCost(context.getInitQueryDataSourceCost());
     statistics.setInitDataQuerySourceRetryCount(context.getInitQueryDataSourceRetryCount());
@@ -41,6 +41,12 @@ import org.apache.iotdb.db.queryengine.metric.QueryRelatedResourceMetricSet;
 import org.apache.iotdb.db.queryengine.plan.planner.LocalExecutionPlanner;
 import org.apache.iotdb.db.queryengine.plan.planner.PipelineDriverFactory;
 import org.apache.iotdb.db.queryengine.plan.planner.plan.FragmentInstance;
+import org.apache.iotdb.db.queryengine.plan.planner.plan.TimePredicate;
+import org.apache.iotdb.db.queryengine.plan.planner.plan.node.PlanNode;
+import org.apache.iotdb.db.queryengine.plan.planner.plan.node.source.LastSeriesSourceNode;
+import org.apache.iotdb.db.queryengine.plan.planner.plan.node.source.SeriesScanSourceNode;
+import org.apache.iotdb.db.queryengine.plan.relational.planner.node.AggregationTableScanNode;
+import org.apache.iotdb.db.queryengine.plan.relational.planner.node.DeviceTableScanNode;
 import org.apache.iotdb.db.schemaengine.schemaregion.ISchemaRegion;
 import org.apache.iotdb.db.storageengine.dataregion.IDataRegionForQuery;
 import org.apache.iotdb.db.utils.SetThreadName;
@@ -53,7 +59,9 @@ import io.airlift.units.Duration;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
@@ -131,6 +139,38 @@ public class FragmentInstanceManager {
             "model-inference-executor");
   }
 
+  /**
+   * Whether the fragment reads whole series: it scans raw data without any time predicate, pushed
+   * down value filter or limit, and is not a last query.
+   */
+  static boolean isFullScan(PlanNode root, TimePredicate globalTimePredicate) {
+    if (globalTimePredicate != null) {
+      return false;
+    }
+    boolean hasFullScan = false;
+    Deque<PlanNode> nodes = new ArrayDeque<>();
+    nodes.push(root);
+    while (!nodes.isEmpty()) {
+      PlanNode node = nodes.pop();
+      if (node instanceof LastSeriesSourceNode) {
+        return false;
+      }
+      if (node instanceof SeriesScanSourceNode) {
+        SeriesScanSourceNode scanNode = (SeriesScanSourceNode) node;
+        hasFullScan |= scanNode.getPushDownLimit() <= 0 && scanNode.getPushDownPredicate() == null;
+      } else if (node instanceof DeviceTableScanNode
+          && !(node instanceof AggregationTableScanNode)) {
+        DeviceTableScanNode scanNode = (DeviceTableScanNode) node;
+        hasFullScan |=
+            !scanNode.getTimePredicate().isPresent()
+                && scanNode.getPushDownLimit() <= 0
+                && scanNode.getPushDownPredicate() == null;
+      }
+      node.getChildren().forEach(nodes::push);
+    }
+    return hasFullScan;
+  }
+
   @SuppressWarnings("squid:S1181")
   public FragmentInstanceInfo execDataQueryFragmentInstance(
       FragmentInstance instance, IDataRegionForQuery dataRegion) {
@@ -160,6 +200,13 @@ public class FragmentInstanceManager {
                                 dataRegion,
                                 instance.getGlobalTimePredicate(),
                                 dataNodeQueryContextMap));
+                if (IoTDBDescriptor.getInstance().getConfig().getCacheBypassScanThreshold() > 0
+                    && isFullScan(
+                        instance.getFragment().getPlanNodeTree(),
+                        instance.getGlobalTimePredicate())) {
+                  // the caches are bypassed once the data source shows the scan is large
+                  context.setFullScan(true);
+                }
 
                 try {
                   List<PipelineDriverFactory> driverFactories =
@@ -22,6 +22,8 @@ package org.apache.iotdb.db.queryengine.execution.fragment;
 import org.apache.iotdb.commons.exception.IllegalPathException;
 import org.apache.iotdb.commons.path.AlignedPath;
 import org.apache.iotdb.commons.path.PatternTreeMap;
+import org.apache.iotdb.db.conf.IoTDBDescriptor;
+import org.apache.iotdb.db.storageengine.buffer.ModsCache;
 import org.apache.iotdb.db.storageengine.dataregion.modification.ModEntry;
 import org.apache.iotdb.db.storageengine.dataregion.modification.TableDeletionEntry;
 import org.apache.iotdb.db.storageengine.dataregion.tsfile.TsFileID;
@@ -70,6 +72,10 @@ public class QueryContext {
 
   private volatile boolean isInterrupted = false;
 
+  // whether what this query loads from disk should be kept out of the caches, set either by the
+  // creator of the query or once the query turns out to be a large scan
+  private volatile boolean cacheBypassed = false;
+
   // for table model, it will be false
   // for tree model, it will be true
   private boolean ignoreAllNullRows = true;
@@ -119,8 +125,16 @@ public class QueryContext {
         resource.getTsFileID(), k -> loadAllModificationsFromDisk(resource));
   }
 
+  /**
+   * Get all the modifications of the TsFile from the {@link ModsCache} shared by queries if it is
+   * enabled, otherwise read and parse them from its mods files for this query only.
+   */
   public PatternTreeMap<ModEntry, ModsSerializer> loadAllModificationsFromDisk(
       TsFileResource resource) {
+    if (ModsCache.isEnabled()) {
+      // the shared entries keep the modifications of all tables
+      return ModsCache.getInstance().get(resource);
+    }
     PatternTreeMap<ModEntry, ModsSerializer> modifications =
         PatternTreeMapFactory.getModsPatternTreeMap();
     TsFileResource.ModIterator modEntryIterator = resource.getModEntryIterator();
@@ -243,6 +257,28 @@ public class QueryContext {
     isInterrupted = interrupted;
   }
 
+  /**
+   * Whether the chunks and timeseries metadata this query loads from disk should not be put into
+   * the caches. Cached entries are still returned to the query.
+   */
+  public boolean isCacheBypassed() {
+    if (!cacheBypassed) {
+      long threshold = IoTDBDescriptor.getInstance().getConfig().getCacheBypassScanThreshold();
+      if (threshold > 0
+          && queryStatistics.getLoadChunkFromDiskCount().get()
+                  + queryStatistics.getLoadTimeSeriesMetadataFromDiskCount().get()
+              >= threshold) {
+        cacheBypassed = true;
+      }
+    }
+    return cacheBypassed;
+  }
+
+  /** Mark the reads of this query as "do not cache". */
+  public void setCacheBypassed(boolean cacheBypassed) {
+    this.cacheBypassed = cacheBypassed;
+  }
+
   public QueryStatistics getQueryStatistics() {
     return this.queryStatistics;
   }
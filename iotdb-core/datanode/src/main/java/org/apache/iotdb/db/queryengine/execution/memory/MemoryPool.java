@@ -272,6 +272,32 @@ public class MemoryPool {
     }
   }
 
+  /**
+   * Reserve memory without blocking.
+   *
+   * @return true if the memory is reserved, otherwise nothing is reserved
+   */
+  public boolean tryReserveWithoutBlocking(
+      String queryId,
+      String fragmentInstanceId,
+      String planNodeId,
+      long bytesToReserve,
+      long maxBytesCanReserve) {
+    Validate.notNull(queryId, "queryId can not be null.");
+    Validate.notNull(fragmentInstanceId, "fragmentInstanceId can not be null.");
+    Validate.notNull(planNodeId, "planNodeId can not be null.");
+    if (bytesToReserve <= 0L
+        || bytesToReserve > maxBytesPerFragmentInstance
+        || bytesToReserve > maxBytesCanReserve) {
+      return false;
+    }
+    if (tryReserve(queryId, fragmentInstanceId, planNodeId, bytesToReserve, maxBytesCanReserve)) {
+      return true;
+    }
+    rollbackReserve(queryId, fragmentInstanceId, planNodeId, bytesToReserve);
+    return false;
+  }
+
   @TestOnly
   public boolean tryReserveForTest(
       String queryId,
@@ -19,12 +19,15 @@
 
 package org.apache.iotdb.db.queryengine.execution.operator.process.window;
 
+import org.apache.iotdb.db.queryengine.exception.MemoryNotEnoughException;
 import org.apache.iotdb.db.queryengine.execution.MemoryEstimationHelper;
 import org.apache.iotdb.db.queryengine.execution.operator.Operator;
 import org.apache.iotdb.db.queryengine.execution.operator.OperatorContext;
 import org.apache.iotdb.db.queryengine.execution.operator.process.ProcessOperator;
 import org.apache.iotdb.db.queryengine.execution.operator.process.window.function.WindowFunction;
 import org.apache.iotdb.db.queryengine.execution.operator.process.window.partition.PartitionExecutor;
+import org.apache.iotdb.db.queryengine.execution.operator.process.window.partition.SpilledTsBlockList;
+import org.apache.iotdb.db.queryengine.execution.operator.process.window.partition.StreamingPartitionExecutor;
 import org.apache.iotdb.db.queryengine.execution.operator.process.window.partition.frame.FrameInfo;
 import org.apache.iotdb.db.queryengine.execution.operator.process.window.utils.RowComparator;
 import org.apache.iotdb.db.queryengine.plan.planner.memory.MemoryReservationManager;
@@ -52,6 +55,12 @@ public class TableWindowOperator implements ProcessOperator {
   private static final long INSTANCE_SIZE =
       RamUsageEstimator.shallowSizeOfInstance(TableWindowOperator.class);
 
+  private static final String SPILLED_PARTITION_COUNT = "spilledPartitionCount";
+  private static final String SPILLED_DATA_SIZE = "spilledDataSize";
+
+  // Value of streamingLookback if the window functions can't be executed in streaming mode
+  public static final int NOT_STREAMING = -1;
+
   // Common fields
   private final OperatorContext operatorContext;
   private final Operator inputOperator;
@@ -67,7 +76,8 @@ public class TableWindowOperator implements ProcessOperator {
   // Partition
   private final List<Integer> partitionChannels;
   private final RowComparator partitionComparator;
-  private final List<TsBlock> cachedTsBlocks;
+  private List<TsBlock> cachedTsBlocks;
+  private long cachedTsBlocksMemorySize;
   private int startIndexInFirstBlock;
 
   // Sort
@@ -76,6 +86,21 @@ public class TableWindowOperator implements ProcessOperator {
   // Transformation
   private LinkedList<PartitionExecutor> cachedPartitionExecutors;
 
+  // Streaming, rows of a partition are processed as soon as they arrive
+  private final int streamingLookback;
+  private StreamingPartitionExecutor streamingPartitionExecutor;
+  private long streamingPartitionMemorySize;
+  // The last rows appended to streamingPartitionExecutor
+  private TsBlock lastStreamingTsBlock;
+  // Input TsBlock whose rows haven't all been appended to streamingPartitionExecutor
+  private TsBlock pendingTsBlock;
+  private int pendingIndex;
+
+  // Spill, null if the cached TsBlocks of a partition can't be spilled
+  private final String spillFilePrefix;
+  private int spilledPartitionCount;
+  private long spilledDataSize;
+
   // Misc
   private long totalMemorySize;
   private long maxUsedMemory;
@@ -91,6 +116,38 @@ public class TableWindowOperator implements ProcessOperator {
       List<FrameInfo> frameInfoList,
       List<Integer> partitionChannels,
       List<Integer> sortChannels) {
+    this(
+        operatorContext,
+        inputOperator,
+        inputDataTypes,
+        outputDataTypes,
+        outputChannels,
+        windowFunctions,
+        frameInfoList,
+        partitionChannels,
+        sortChannels,
+        NOT_STREAMING,
+        null);
+  }
+
+  /**
+   * @param streamingLookback max number of rows before the current row accessed by the window
+   *     functions if they can be executed in streaming mode, otherwise {@link #NOT_STREAMING}
+   * @param spillFilePrefix prefix of the files the partitions which exceed the memory limit are
+   *     spilled to, null if spilling is disabled
+   */
+  public TableWindowOperator(
+      OperatorContext operatorContext,
+      Operator inputOperator,
+      List<TSDataType> inputDataTypes,
+      List<TSDataType> outputDataTypes,
+      List<Integer> outputChannels,
+      List<WindowFunction> windowFunctions,
+      List<FrameInfo> frameInfoList,
+      List<Integer> partitionChannels,
+      List<Integer> sortChannels,
+      int streamingLookback,
+      String spillFilePrefix) {
     // Common part(among all other operators)
     this.operatorContext = operatorContext;
     this.inputOperator = inputOperator;
@@ -116,6 +173,8 @@ public class TableWindowOperator implements ProcessOperator {
 
     // Transformation part
     this.cachedPartitionExecutors = new LinkedList<>();
+    this.streamingLookback = streamingLookback;
+    this.spillFilePrefix = spillFilePrefix;
 
     // Misc
     this.cachedTsBlocks = new ArrayList<>();
@@ -144,6 +203,10 @@ public class TableWindowOperator implements ProcessOperator {
   public TsBlock next() throws Exception {
     long startTime = System.nanoTime();
 
+    if (streamingLookback != NOT_STREAMING) {
+      return nextInStreamingMode(startTime);
+    }
+
     // Transform is not finished
     if (!cachedPartitionExecutors.isEmpty()) {
       TsBlock tsBlock = transform(startTime);
@@ -186,7 +249,7 @@ public class TableWindowOperator implements ProcessOperator {
               frameInfoList,
               sortChannels);
       cachedPartitionExecutors.addLast(partitionExecutor);
-      cachedTsBlocks.clear();
+      resetCachedTsBlocks();
       releaseAllCachedTsBlockMemory();
 
       TsBlock tsBlock = transform(startTime);
@@ -211,6 +274,100 @@ public class TableWindowOperator implements ProcessOperator {
     return null;
   }
 
+  private TsBlock nextInStreamingMode(long startTime) throws Exception {
+    boolean inputConsumed = false;
+    while (System.nanoTime() - startTime < maxRuntime && !tsBlockBuilder.isFull()) {
+      if (streamingPartitionExecutor != null && streamingPartitionExecutor.hasNext()) {
+        streamingPartitionExecutor.processNextRow(tsBlockBuilder);
+      } else if (pendingTsBlock != null) {
+        evictStreamingTsBlocks();
+        appendPendingRows();
+      } else if (!inputConsumed && inputOperator.hasNextWithTimer()) {
+        // Consume at most one TsBlock of input each time
+        inputConsumed = true;
+        TsBlock tsBlock = inputOperator.nextWithTimer();
+        if (tsBlock != null && !tsBlock.isEmpty()) {
+          pendingTsBlock = tsBlock;
+          pendingIndex = 0;
+        }
+      } else {
+        break;
+      }
+    }
+
+    if (tsBlockBuilder.isEmpty()) {
+      return null;
+    }
+    if (tsBlockBuilder.isFull()
+        || System.nanoTime() - startTime >= maxRuntime
+        || !inputOperator.hasNextWithTimer()) {
+      return getTsBlockFromTsBlockBuilder();
+    }
+    return null;
+  }
+
+  /** Append the rows of pendingTsBlock belonging to the same partition. */
+  private void appendPendingRows() {
+    List<Column> partitionColumns = extractPartitionColumns(pendingTsBlock);
+    boolean samePartition =
+        lastStreamingTsBlock != null
+            && partitionComparator.equal(
+                partitionColumns,
+                pendingIndex,
+                extractPartitionColumns(lastStreamingTsBlock),
+                lastStreamingTsBlock.getPositionCount() - 1);
+    if (!samePartition) {
+      releaseStreamingPartitionMemory();
+      streamingPartitionExecutor =
+          new StreamingPartitionExecutor(
+              outputChannels, windowFunctions, frameInfoList, streamingLookback);
+    }
+
+    int count = pendingTsBlock.getPositionCount();
+    int partitionEnd = pendingIndex + 1;
+    while (partitionEnd < count
+        && partitionComparator.equalColumns(partitionColumns, pendingIndex, partitionEnd)) {
+      partitionEnd++;
+    }
+    TsBlock rows = pendingTsBlock.getRegion(pendingIndex, partitionEnd - pendingIndex);
+    long reserved = rows.getTotalInstanceSize();
+    memoryReservationManager.reserveMemoryCumulatively(reserved);
+    streamingPartitionMemorySize += reserved;
+    totalMemorySize += reserved;
+    maxUsedMemory = Math.max(maxUsedMemory, totalMemorySize);
+    operatorContext.recordSpecifiedInfo(MAX_RESERVED_MEMORY, Long.toString(maxUsedMemory));
+
+    streamingPartitionExecutor.addTsBlock(rows);
+    lastStreamingTsBlock = rows;
+    pendingIndex = partitionEnd;
+    if (partitionEnd == count) {
+      pendingTsBlock = null;
+    }
+  }
+
+  private void evictStreamingTsBlocks() {
+    if (streamingPartitionExecutor == null) {
+      return;
+    }
+    long released = 0;
+    for (TsBlock tsBlock : streamingPartitionExecutor.evict()) {
+      released += tsBlock.getTotalInstanceSize();
+    }
+    if (released != 0) {
+      memoryReservationManager.releaseMemoryCumulatively(released);
+      streamingPartitionMemorySize -= released;
+      totalMemorySize -= released;
+    }
+  }
+
+  private void releaseStreamingPartitionMemory() {
+    if (streamingPartitionMemorySize != 0) {
+      memoryReservationManager.releaseMemoryCumulatively(streamingPartitionMemorySize);
+      totalMemorySize -= streamingPartitionMemorySize;
+      streamingPartitionMemorySize = 0;
+    }
+  }
+
   private LinkedList<PartitionExecutor> partition(TsBlock tsBlock) {
     LinkedList<PartitionExecutor> partitionExecutors = new LinkedList<>();
 
@@ -242,7 +399,7 @@ public class TableWindowOperator implements ProcessOperator {
                 sortChannels);
 
         partitionExecutors.addLast(partitionExecutor);
-        cachedTsBlocks.clear();
+        resetCachedTsBlocks();
         releaseAllCachedTsBlockMemory();
         startIndexInFirstBlock = -1;
       }
@@ -288,7 +445,7 @@ public class TableWindowOperator implements ProcessOperator {
                   frameInfoList,
                   sortChannels);
           // Clear TsBlock of last partition
-          cachedTsBlocks.clear();
+          resetCachedTsBlocks();
           releaseAllCachedTsBlockMemory();
         }
         partitionExecutors.addLast(partitionExecutor);
@@ -326,6 +483,7 @@ public class TableWindowOperator implements ProcessOperator {
 
       if (!partitionExecutor.hasNext()) {
         cachedPartitionExecutors.removeFirst();
+        partitionExecutor.close();
       }
 
       if (System.nanoTime() - startTime >= maxRuntime || tsBlockBuilder.isFull()) {
@@ -357,6 +515,8 @@ public class TableWindowOperator implements ProcessOperator {
   @Override
   public boolean hasNext() throws Exception {
     return !cachedPartitionExecutors.isEmpty()
+        || pendingTsBlock != null
+        || (streamingPartitionExecutor != null && streamingPartitionExecutor.hasNext())
         || inputOperator.hasNext()
         || !cachedTsBlocks.isEmpty()
         || !tsBlockBuilder.isEmpty();
@@ -365,6 +525,12 @@ public class TableWindowOperator implements ProcessOperator {
   @Override
   public void close() throws Exception {
     inputOperator.close();
+    for (PartitionExecutor partitionExecutor : cachedPartitionExecutors) {
+      partitionExecutor.close();
+    }
+    if (cachedTsBlocks instanceof SpilledTsBlockList) {
+      ((SpilledTsBlockList) cachedTsBlocks).close();
+    }
     if (totalMemorySize != 0) {
       memoryReservationManager.releaseMemoryCumulatively(totalMemorySize);
     }
@@ -376,17 +542,58 @@ public class TableWindowOperator implements ProcessOperator {
   }
 
   private void reserveOneTsBlockMemory(TsBlock tsBlock) {
+    if (cachedTsBlocks instanceof SpilledTsBlockList) {
+      // The TsBlock will be written to the spilled file
+      return;
+    }
     long reserved = tsBlock.getTotalInstanceSize();
-    memoryReservationManager.reserveMemoryCumulatively(reserved);
+    try {
+      memoryReservationManager.reserveMemoryCumulatively(reserved);
+    } catch (MemoryNotEnoughException e) {
+      if (spillFilePrefix == null) {
+        throw e;
+      }
+      // The failed reservation is still pending in memoryReservationManager, account it as
+      // reserved and release it along with the cached TsBlocks
+      totalMemorySize += reserved;
+      cachedTsBlocksMemorySize += reserved;
+      spillCachedTsBlocks();
+      return;
+    }
     totalMemorySize += reserved;
+    cachedTsBlocksMemorySize += reserved;
     maxUsedMemory = Math.max(maxUsedMemory, totalMemorySize);
     operatorContext.recordSpecifiedInfo(MAX_RESERVED_MEMORY, Long.toString(maxUsedMemory));
   }
 
+  /** Write the cached TsBlocks of current partition and its following TsBlocks to file. */
+  private void spillCachedTsBlocks() {
+    SpilledTsBlockList spilledTsBlocks =
+        new SpilledTsBlockList(spillFilePrefix + "-" + spilledPartitionCount + ".windowTemp");
+    spilledTsBlocks.addAll(cachedTsBlocks);
+    cachedTsBlocks = spilledTsBlocks;
+    releaseAllCachedTsBlockMemory();
+
+    spilledPartitionCount++;
+    operatorContext.recordSpecifiedInfo(
+        SPILLED_PARTITION_COUNT, Integer.toString(spilledPartitionCount));
+  }
+
+  private void resetCachedTsBlocks() {
+    if (cachedTsBlocks instanceof SpilledTsBlockList) {
+      // The spilled file is deleted by the PartitionExecutor after processed
+      spilledDataSize += ((SpilledTsBlockList) cachedTsBlocks).getSpilledBytes();
+      operatorContext.recordSpecifiedInfo(SPILLED_DATA_SIZE, Long.toString(spilledDataSize));
+      cachedTsBlocks = new ArrayList<>();
+    } else {
+      cachedTsBlocks.clear();
+    }
+  }
+
   private void releaseAllCachedTsBlockMemory() {
-    long released = cachedTsBlocks.stream().mapToInt(TsBlock::getTotalInstanceSize).sum();
-    memoryReservationManager.releaseMemoryCumulatively(released);
-    totalMemorySize -= released;
+    memoryReservationManager.releaseMemoryCumulatively(cachedTsBlocksMemorySize);
+    totalMemorySize -= cachedTsBlocksMemorySize;
+    cachedTsBlocksMemorySize = 0;
     // No need to update maxUsedMemory
     operatorContext.recordSpecifiedInfo(MAX_RESERVED_MEMORY, Long.toString(maxUsedMemory));
   }
@@ -21,6 +21,7 @@ package org.apache.iotdb.db.queryengine.execution.operator.process.window.partit
 
 import org.apache.iotdb.db.queryengine.execution.operator.process.window.utils.ColumnList;
 
+import com.google.common.collect.Lists;
 import org.apache.tsfile.block.column.Column;
 import org.apache.tsfile.block.column.ColumnBuilder;
 import org.apache.tsfile.read.common.block.TsBlock;
@@ -33,8 +34,18 @@ import java.util.List;
 public class Partition {
   private final List<TsBlock> tsBlocks;
   private int cachedPositionCount = -1;
+  // rows evicted from the head of a streaming partition
+  private int evictedPositionCount = 0;
 
   public Partition(List<TsBlock> tsBlocks, int startIndexInFirstBlock, int endIndexInLastBlock) {
+    if (tsBlocks instanceof SpilledTsBlockList) {
+      // Spilled TsBlocks are read from file lazily
+      this.tsBlocks =
+          ((SpilledTsBlockList) tsBlocks)
+              .region(0, startIndexInFirstBlock, tsBlocks.size() - 1, endIndexInLastBlock);
+      return;
+    }
+
     if (tsBlocks.size() == 1) {
       int length = endIndexInLastBlock - startIndexInFirstBlock;
       this.tsBlocks =
@@ -55,12 +66,57 @@ public class Partition {
     this.tsBlocks.add(lastBlock);
   }
 
+  /** Creates an empty partition whose rows are appended and evicted while streaming. */
+  public Partition() {
+    this.tsBlocks = new ArrayList<>();
+  }
+
+  private Partition(SpilledTsBlockList.Region region) {
+    this.tsBlocks = region;
+  }
+
+  /** Append rows to a streaming partition. */
+  public void addTsBlock(TsBlock tsBlock) {
+    tsBlocks.add(tsBlock);
+    cachedPositionCount = -1;
+  }
+
+  /**
+   * Evict the TsBlocks of a streaming partition whose rows are all before rowIndex. The indexes of
+   * the remaining rows are not changed.
+   *
+   * @return the evicted TsBlocks
+   */
+  public List<TsBlock> evictTsBlocksBefore(int rowIndex) {
+    List<TsBlock> evicted = new ArrayList<>();
+    while (tsBlocks.size() > 1
+        && evictedPositionCount + tsBlocks.get(0).getPositionCount() <= rowIndex) {
+      TsBlock tsBlock = tsBlocks.remove(0);
+      evictedPositionCount += tsBlock.getPositionCount();
+      evicted.add(tsBlock);
+    }
+    return evicted;
+  }
+
+  private int getTsBlockPositionCount(int tsBlockIndex) {
+    return tsBlocks instanceof SpilledTsBlockList.Region
+        ? ((SpilledTsBlockList.Region) tsBlocks).getPositionCount(tsBlockIndex)
+        : tsBlocks.get(tsBlockIndex).getPositionCount();
+  }
+
+  /** Delete the spilled file of the partition if any. */
+  public void close() {
+    if (tsBlocks instanceof SpilledTsBlockList.Region) {
+      ((SpilledTsBlockList.Region) tsBlocks).close();
+    }
+  }
+
   public int getPositionCount() {
     if (cachedPositionCount == -1) {
       // Lazy initialized
-      cachedPositionCount = 0;
-      for (TsBlock block : tsBlocks) {
-        cachedPositionCount += block.getPositionCount();
+      cachedPositionCount = evictedPositionCount;
+      for (int i = 0; i < tsBlocks.size(); i++) {
+        cachedPositionCount += getTsBlockPositionCount(i);
       }
     }
 
@@ -76,6 +132,10 @@ public class Partition {
   }
 
   public List<Column[]> getAllColumns() {
+    if (tsBlocks instanceof SpilledTsBlockList.Region) {
+      // Don't read all the spilled TsBlocks into memory at once
+      return Lists.transform(tsBlocks, TsBlock::getAllColumns);
+    }
     List<Column[]> allColumns = new ArrayList<>();
     for (TsBlock block : tsBlocks) {
       allColumns.add(block.getAllColumns());
@@ -180,9 +240,19 @@ public class Partition {
     PartitionIndex startPartitionIndex = getPartitionIndex(start);
     PartitionIndex endPartitionIndex = getPartitionIndex(end);
 
-    List<TsBlock> tsBlockList = new ArrayList<>();
     int startTsBlockIndex = startPartitionIndex.getTsBlockIndex();
     int endTsBlockIndex = endPartitionIndex.getTsBlockIndex();
+    if (tsBlocks instanceof SpilledTsBlockList.Region) {
+      return new Partition(
+          ((SpilledTsBlockList.Region) tsBlocks)
+              .region(
+                  startTsBlockIndex,
+                  startPartitionIndex.getOffsetInTsBlock(),
+                  endTsBlockIndex,
+                  endPartitionIndex.getOffsetInTsBlock() + 1));
+    }
+
+    List<TsBlock> tsBlockList = new ArrayList<>();
     for (int i = startTsBlockIndex; i <= endTsBlockIndex; i++) {
       tsBlockList.add(tsBlocks.get(i));
     }
@@ -194,10 +264,13 @@ public class Partition {
 
   // rowIndex is index within partition
   public PartitionIndex getPartitionIndex(int rowIndex) {
+    if (rowIndex < evictedPositionCount) {
+      throw new IndexOutOfBoundsException("Index of Partition has been evicted!");
+    }
+    rowIndex -= evictedPositionCount;
     int tsBlockIndex = 0;
-    while (tsBlockIndex < tsBlocks.size()
-        && rowIndex >= tsBlocks.get(tsBlockIndex).getPositionCount()) {
-      rowIndex -= tsBlocks.get(tsBlockIndex).getPositionCount();
+    while (tsBlockIndex < tsBlocks.size() && rowIndex >= getTsBlockPositionCount(tsBlockIndex)) {
+      rowIndex -= getTsBlockPositionCount(tsBlockIndex);
       // Enter next TsBlock
       tsBlockIndex++;
     }
@@ -214,6 +287,11 @@ public class Partition {
     List<ColumnList> columnLists = new ArrayList<>();
 
     for (Integer sortedChannel : sortedChannels) {
+      if (tsBlocks instanceof SpilledTsBlockList.Region) {
+        columnLists.add(
+            new ColumnList(Lists.transform(tsBlocks, tsBlock -> tsBlock.getColumn(sortedChannel))));
+        continue;
+      }
       List<Column> columns = new ArrayList<>();
       for (TsBlock tsBlock : tsBlocks) {
         columns.add(tsBlock.getColumn(sortedChannel));
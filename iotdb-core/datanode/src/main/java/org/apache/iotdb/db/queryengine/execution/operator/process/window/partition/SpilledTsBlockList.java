@@ -0,0 +1,246 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iotdb.db.queryengine.execution.operator.process.window.partition;
+
+import org.apache.iotdb.commons.exception.IoTDBRuntimeException;
+import org.apache.iotdb.rpc.TSStatusCode;
+
+import org.apache.tsfile.read.common.block.TsBlock;
+import org.apache.tsfile.read.common.block.column.TsBlockSerde;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * TsBlocks of a window partition which doesn't fit in memory. The TsBlocks are appended to a file
+ * and read back on demand while the partition is processed, only a few recently used TsBlocks are
+ * kept in memory.
+ */
+public class SpilledTsBlockList extends AbstractList<TsBlock> implements AutoCloseable {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(SpilledTsBlockList.class);
+
+  private static final int CACHED_TSBLOCK_COUNT = 4;
+
+  private final Path filePath;
+  private final TsBlockSerde serde = new TsBlockSerde();
+  private FileChannel channel;
+
+  private final List<Long> offsets = new ArrayList<>();
+  private final List<Integer> positionCounts = new ArrayList<>();
+  private long fileSize = 0;
+
+  // recently used TsBlocks, in access order
+  private final Map<Integer, TsBlock> cachedTsBlocks =
+      new LinkedHashMap<Integer, TsBlock>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, TsBlock> eldest) {
+          return size() > CACHED_TSBLOCK_COUNT;
+        }
+      };
+
+  public SpilledTsBlockList(String filePath) {
+    this.filePath = Paths.get(filePath);
+  }
+
+  @Override
+  public boolean add(TsBlock tsBlock) {
+    try {
+      if (channel == null) {
+        Files.createDirectories(filePath.getParent());
+        channel =
+            FileChannel.open(
+                filePath,
+                StandardOpenOption.READ,
+                StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.CREATE);
+      }
+      ByteBuffer buffer = serde.serialize(tsBlock);
+      int length = buffer.remaining();
+      long position = fileSize;
+      while (buffer.hasRemaining()) {
+        position += channel.write(buffer, position);
+      }
+      offsets.add(fileSize);
+      fileSize += length;
+      positionCounts.add(tsBlock.getPositionCount());
+      cachedTsBlocks.put(offsets.size() - 1, tsBlock);
+      return true;
+    } catch (IOException e) {
+      throw new IoTDBRuntimeException(
+          "Can't write spilled window partition to file: " + filePath,
+          e,
+          TSStatusCode.INTERNAL_SERVER_ERROR.getStatusCode());
+    }
+  }
+
+  @Override
+  public TsBlock get(int index) {
+    TsBlock tsBlock = cachedTsBlocks.get(index);
+    if (tsBlock != null) {
+      return tsBlock;
+    }
+    long offset = offsets.get(index);
+    long end = index + 1 < offsets.size() ? offsets.get(index + 1) : fileSize;
+    ByteBuffer buffer = ByteBuffer.allocate((int) (end - offset));
+    try {
+      long position = offset;
+      while (buffer.hasRemaining()) {
+        int read = channel.read(buffer, position);
+        if (read < 0) {
+          throw new IOException("Unexpected end of file");
+        }
+        position += read;
+      }
+    } catch (IOException e) {
+      throw new IoTDBRuntimeException(
+          "Can't read spilled window partition from file: " + filePath,
+          e,
+          TSStatusCode.INTERNAL_SERVER_ERROR.getStatusCode());
+    }
+    buffer.flip();
+    tsBlock = serde.deserialize(buffer);
+    cachedTsBlocks.put(index, tsBlock);
+    return tsBlock;
+  }
+
+  @Override
+  public int size() {
+    return offsets.size();
+  }
+
+  /** Position count of the TsBlock without reading it from the file. */
+  public int getPositionCount(int index) {
+    return positionCounts.get(index);
+  }
+
+  public long getSpilledBytes() {
+    return fileSize;
+  }
+
+  /**
+   * @param fromIndex index of the first TsBlock
+   * @param startIndexInFirstBlock index of the first row in the first TsBlock
+   * @param toIndex index of the last TsBlock
+   * @param endIndexInLastBlock index after the last row in the last TsBlock
+   */
+  public Region region(
+      int fromIndex, int startIndexInFirstBlock, int toIndex, int endIndexInLastBlock) {
+    return new Region(fromIndex, startIndexInFirstBlock, toIndex, endIndexInLastBlock);
+  }
+
+  @Override
+  public void close() {
+    cachedTsBlocks.clear();
+    if (channel == null) {
+      return;
+    }
+    try {
+      channel.close();
+      Files.deleteIfExists(filePath);
+    } catch (IOException e) {
+      LOGGER.warn("Fail to close spilled window partition file {}", filePath, e);
+    }
+    channel = null;
+  }
+
+  /** Rows of consecutive spilled TsBlocks, the first and last TsBlocks may be partial. */
+  public class Region extends AbstractList<TsBlock> {
+    private final int fromIndex;
+    private final int startIndexInFirstBlock;
+    private final int toIndex;
+    private final int endIndexInLastBlock;
+
+    private TsBlock firstBlock;
+    private TsBlock lastBlock;
+
+    private Region(
+        int fromIndex, int startIndexInFirstBlock, int toIndex, int endIndexInLastBlock) {
+      this.fromIndex = fromIndex;
+      this.startIndexInFirstBlock = startIndexInFirstBlock;
+      this.toIndex = toIndex;
+      this.endIndexInLastBlock = endIndexInLastBlock;
+    }
+
+    @Override
+    public TsBlock get(int index) {
+      int startIndex = index == 0 ? startIndexInFirstBlock : 0;
+      if (fromIndex + index != toIndex) {
+        if (startIndex == 0) {
+          return SpilledTsBlockList.this.get(fromIndex + index);
+        }
+        if (firstBlock == null) {
+          firstBlock = SpilledTsBlockList.this.get(fromIndex).subTsBlock(startIndex);
+        }
+        return firstBlock;
+      }
+      if (lastBlock == null) {
+        lastBlock =
+            SpilledTsBlockList.this
+                .get(toIndex)
+                .getRegion(startIndex, endIndexInLastBlock - startIndex);
+      }
+      return lastBlock;
+    }
+
+    @Override
+    public int size() {
+      return toIndex - fromIndex + 1;
+    }
+
+    public int getPositionCount(int index) {
+      int startIndex = index == 0 ? startIndexInFirstBlock : 0;
+      int endIndex =
+          fromIndex + index == toIndex
+              ? endIndexInLastBlock
+              : SpilledTsBlockList.this.getPositionCount(fromIndex + index);
+      return endIndex - startIndex;
+    }
+
+    /** Same as {@link SpilledTsBlockList#region} with the indexes relative to this region. */
+    public Region region(
+        int fromIndex, int startIndexInFirstBlock, int toIndex, int endIndexInLastBlock) {
+      int offsetInFirstBlock = fromIndex == 0 ? this.startIndexInFirstBlock : 0;
+      int offsetInLastBlock = toIndex == 0 ? this.startIndexInFirstBlock : 0;
+      return SpilledTsBlockList.this.region(
+          this.fromIndex + fromIndex,
+          offsetInFirstBlock + startIndexInFirstBlock,
+          this.fromIndex + toIndex,
+          offsetInLastBlock + endIndexInLastBlock);
+    }
+
+    public void close() {
+      SpilledTsBlockList.this.close();
+    }
+  }
+}
@@ -0,0 +1,136 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iotdb.db.queryengine.execution.operator.process.window.partition;
+
+import org.apache.iotdb.db.queryengine.execution.operator.process.window.function.WindowFunction;
+import org.apache.iotdb.db.queryengine.execution.operator.process.window.partition.frame.Frame;
+import org.apache.iotdb.db.queryengine.execution.operator.process.window.partition.frame.FrameInfo;
+import org.apache.iotdb.db.queryengine.execution.operator.process.window.partition.frame.RowsFrame;
+import org.apache.iotdb.db.queryengine.execution.operator.process.window.utils.Range;
+
+import com.google.common.collect.ImmutableList;
+import org.apache.tsfile.block.column.Column;
+import org.apache.tsfile.block.column.ColumnBuilder;
+import org.apache.tsfile.read.common.block.TsBlock;
+import org.apache.tsfile.read.common.block.TsBlockBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Executes window functions on a partition while its rows are still arriving. It's only used when
+ * none of the window functions needs peer groups or rows after the current row, and each of them
+ * looks back at most a fixed number of rows, so the rows before that are evicted.
+ */
+public final class StreamingPartitionExecutor {
+  private final Partition partition;
+
+  private final List<WindowFunction> windowFunctions;
+  private final List<Frame> frames;
+  private final List<Integer> outputChannels;
+
+  // Max number of rows before the current row a window function may access
+  private final int lookback;
+
+  private int currentPosition;
+
+  public StreamingPartitionExecutor(
+      List<Integer> outputChannels,
+      List<WindowFunction> windowFunctions,
+      List<FrameInfo> frameInfoList,
+      int lookback) {
+    this.partition = new Partition();
+    this.outputChannels = ImmutableList.copyOf(outputChannels);
+    this.windowFunctions = ImmutableList.copyOf(windowFunctions);
+    this.lookback = lookback;
+    this.currentPosition = 0;
+
+    // Only ROWS frame can be streamed
+    this.frames = new ArrayList<>();
+    for (int i = 0; i < windowFunctions.size(); i++) {
+      frames.add(
+          windowFunctions.get(i).needFrame()
+              ? new RowsFrame(partition, frameInfoList.get(i))
+              : null);
+    }
+
+    // Window functions are shared among partitions
+    for (WindowFunction windowFunction : windowFunctions) {
+      windowFunction.reset();
+    }
+  }
+
+  public void addTsBlock(TsBlock tsBlock) {
+    partition.addTsBlock(tsBlock);
+  }
+
+  public boolean hasNext() {
+    return currentPosition < partition.getPositionCount();
+  }
+
+  public void processNextRow(TsBlockBuilder builder) {
+    // Copy origin data
+    Partition.PartitionIndex partitionIndex = partition.getPartitionIndex(currentPosition);
+    TsBlock tsBlock = partition.getTsBlock(partitionIndex.getTsBlockIndex());
+    int offsetInTsBlock = partitionIndex.getOffsetInTsBlock();
+
+    int channel = 0;
+    for (int i = 0; i < outputChannels.size(); i++) {
+      Column column = tsBlock.getColumn(outputChannels.get(i));
+      ColumnBuilder columnBuilder = builder.getColumnBuilder(i);
+      if (column.isNull(offsetInTsBlock)) {
+        columnBuilder.appendNull();
+      } else {
+        columnBuilder.write(column, offsetInTsBlock);
+      }
+      channel++;
+    }
+
+    for (int i = 0; i < windowFunctions.size(); i++) {
+      Frame frame = frames.get(i);
+      Range frameRange =
+          frame != null ? frame.getRange(currentPosition, -1, -1, -1) : new Range(-1, -1);
+      // No window function here needs peer group
+      windowFunctions
+          .get(i)
+          .transform(
+              partition,
+              builder.getColumnBuilder(channel),
+              currentPosition,
+              frameRange.getStart(),
+              frameRange.getEnd(),
+              currentPosition,
+              currentPosition);
+      channel++;
+    }
+
+    currentPosition++;
+    builder.declarePosition();
+  }
+
+  /**
+   * Evict the rows which can't be accessed by the remaining rows.
+   *
+   * @return the evicted TsBlocks
+   */
+  public List<TsBlock> evict() {
+    return partition.evictTsBlocksBefore(currentPosition - lookback);
+  }
+}
@@ -28,19 +28,19 @@ import static com.google.common.base.Preconditions.checkArgument;
 public class RowsFrame implements Frame {
   private final Partition partition;
   private final FrameInfo frameInfo;
-  private final int partitionSize;
 
   public RowsFrame(Partition partition, FrameInfo frameInfo) {
     checkArgument(frameInfo.getFrameType() == FrameInfo.FrameType.ROWS);
 
     this.partition = partition;
     this.frameInfo = frameInfo;
-    this.partitionSize = partition.getPositionCount();
   }
 
   @Override
   public Range getRange(
       int currentPosition, int currentGroup, int peerGroupStart, int peerGroupEnd) {
+    // Rows of a streaming partition keep growing
+    int partitionSize = partition.getPositionCount();
     int offset;
     int frameStart;
     switch (frameInfo.getStartType()) {
@@ -0,0 +1,306 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.queryengine.execution.operator.source.relational;
+
+import org.apache.iotdb.db.queryengine.execution.operator.AbstractOperator;
+import org.apache.iotdb.db.queryengine.execution.operator.Operator;
+import org.apache.iotdb.db.queryengine.execution.operator.OperatorContext;
+import org.apache.iotdb.db.queryengine.plan.planner.memory.MemoryReservationManager;
+
+import com.google.common.util.concurrent.ListenableFuture;
+import org.apache.tsfile.block.column.ColumnBuilder;
+import org.apache.tsfile.enums.TSDataType;
+import org.apache.tsfile.read.common.block.TsBlock;
+import org.apache.tsfile.read.common.block.TsBlockBuilder;
+import org.apache.tsfile.read.common.block.column.RunLengthEncodedColumn;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.apache.iotdb.db.queryengine.execution.operator.source.relational.JoinLookupSource.NO_MATCH;
+import static org.apache.iotdb.db.queryengine.execution.operator.source.relational.TableScanOperator.TIME_COLUMN_TEMPLATE;
+import static org.apache.iotdb.db.queryengine.plan.planner.plan.node.PlanGraphPrinter.MAX_RESERVED_MEMORY;
+
+/**
+ * Equi-join which reads all the data of the right child into a {@link JoinLookupSource}, then
+ * probes it with the rows of the left child. The children don't need to be sorted, the output keeps
+ * the order of the left child.
+ */
+public abstract class AbstractHashJoinOperator extends AbstractOperator {
+
+  private static final String BUILD_ROW_COUNT = "buildRowCount";
+  private static final String BUILD_COST = "buildCost/ns";
+
+  // match of the current probe row hasn't been looked up
+  private static final int NOT_PROBED = -2;
+
+  protected final Operator leftChild;
+  protected final int[] leftJoinKeyPositions;
+  protected final int[] leftOutputSymbolIdx;
+
+  protected final Operator rightChild;
+  protected final int[] rightJoinKeyPositions;
+  protected final int[] rightOutputSymbolIdx;
+  protected final TSDataType[] joinKeyTypes;
+
+  protected final TsBlockBuilder resultBuilder;
+
+  protected final MemoryReservationManager memoryReservationManager;
+  protected long usedMemory;
+
+  // blocks of the right child before the lookup source is built
+  private List<TsBlock> buildBlocks = new ArrayList<>();
+  private long buildCost;
+  protected JoinLookupSource lookupSource;
+
+  // domain of the join keys pushed to the scan of the left child, null if there is none
+  private JoinDynamicFilter dynamicFilter;
+
+  protected TsBlock probeBlock;
+  protected int probeIndex;
+  private int currentMatch = NOT_PROBED;
+  // whether the current probe row has matched any row of the right child
+  protected boolean currentProbeMatched;
+
+  protected boolean probeFinished;
+
+  protected AbstractHashJoinOperator(
+      OperatorContext operatorContext,
+      Operator leftChild,
+      int[] leftJoinKeyPositions,
+      int[] leftOutputSymbolIdx,
+      Operator rightChild,
+      int[] rightJoinKeyPositions,
+      int[] rightOutputSymbolIdx,
+      TSDataType[] joinKeyTypes,
+      List<TSDataType> dataTypes) {
+    this.operatorContext = operatorContext;
+    this.leftChild = leftChild;
+    this.leftJoinKeyPositions = leftJoinKeyPositions;
+    this.leftOutputSymbolIdx = leftOutputSymbolIdx;
+    this.rightChild = rightChild;
+    this.rightJoinKeyPositions = rightJoinKeyPositions;
+    this.rightOutputSymbolIdx = rightOutputSymbolIdx;
+    this.joinKeyTypes = joinKeyTypes;
+
+    this.memoryReservationManager =
+        operatorContext
+            .getDriverContext()
+            .getFragmentInstanceContext()
+            .getMemoryReservationContext();
+
+    this.resultBuilder = new TsBlockBuilder(dataTypes);
+  }
+
+  /**
+   * Called when all the rows of the right child matching the current probe row have been output.
+   * Outer join appends the probe row with nulls here if nothing matched.
+   */
+  protected abstract void onProbeRowFinished();
+
+  /**
+   * @return true if the result is known to be empty once the lookup source is built
+   */
+  protected abstract boolean emptyResultForEmptyLookupSource();
+
+  public void setDynamicFilter(JoinDynamicFilter dynamicFilter) {
+    this.dynamicFilter = dynamicFilter;
+  }
+
+  @Override
+  public ListenableFuture<?> isBlocked() {
+    if (lookupSource == null) {
+      return rightChild.isBlocked();
+    }
+    return probeBlockNotEmpty() ? NOT_BLOCKED : leftChild.isBlocked();
+  }
+
+  @Override
+  public boolean hasNext() throws Exception {
+    return retainedTsBlock != null || !probeFinished;
+  }
+
+  @Override
+  public boolean isFinished() throws Exception {
+    return !hasNext();
+  }
+
+  @Override
+  public TsBlock next() throws Exception {
+    if (retainedTsBlock != null) {
+      return getResultFromRetainedTsBlock();
+    }
+
+    if (lookupSource == null) {
+      buildLookupSource();
+      return null;
+    }
+
+    if (!probeBlockNotEmpty()) {
+      if (!leftChild.hasNextWithTimer()) {
+        probeFinished = true;
+        return null;
+      }
+      probeBlock = leftChild.nextWithTimer();
+      probeIndex = 0;
+      currentMatch = NOT_PROBED;
+      if (!probeBlockNotEmpty()) {
+        return null;
+      }
+    }
+
+    long maxRuntime = operatorContext.getMaxRunTime().roundTo(TimeUnit.NANOSECONDS);
+    long start = System.nanoTime();
+    while (probeBlockNotEmpty()
+        && !resultBuilder.isFull()
+        && System.nanoTime() - start <= maxRuntime) {
+      probeCurrentRow();
+    }
+
+    if (resultBuilder.isEmpty()) {
+      return null;
+    }
+
+    resultTsBlock =
+        resultBuilder.build(
+            new RunLengthEncodedColumn(TIME_COLUMN_TEMPLATE, resultBuilder.getPositionCount()));
+    resultBuilder.reset();
+    return checkTsBlockSizeAndGetResult();
+  }
+
+  /** Consume one block of the right child, build the lookup source if all are consumed. */
+  private void buildLookupSource() throws Exception {
+    long startTime = System.nanoTime();
+    if (rightChild.hasNextWithTimer()) {
+      TsBlock block = rightChild.nextWithTimer();
+      if (block != null && !block.isEmpty()) {
+        reserveMemory(block.getRetainedSizeInBytes());
+        buildBlocks.add(block);
+      }
+      buildCost += System.nanoTime() - startTime;
+      return;
+    }
+
+    int rowCount = buildBlocks.stream().mapToInt(TsBlock::getPositionCount).sum();
+    reserveMemory(JoinLookupSource.estimateSize(rowCount, joinKeyTypes));
+    lookupSource = new JoinLookupSource(buildBlocks, rightJoinKeyPositions, joinKeyTypes);
+    if (dynamicFilter != null) {
+      dynamicFilter.collect(buildBlocks, rightJoinKeyPositions);
+    }
+    buildBlocks = null;
+    buildCost += System.nanoTime() - startTime;
+    operatorContext.recordSpecifiedInfo(
+        BUILD_ROW_COUNT, Integer.toString(lookupSource.getRowCount()));
+    operatorContext.recordSpecifiedInfo(BUILD_COST, Long.toString(buildCost));
+
+    if (lookupSource.isEmpty() && emptyResultForEmptyLookupSource()) {
+      probeFinished = true;
+    }
+  }
+
+  private void probeCurrentRow() {
+    if (currentMatch == NOT_PROBED) {
+      currentMatch = lookupSource.getFirstMatch(probeBlock, leftJoinKeyPositions, probeIndex);
+      currentProbeMatched = false;
+    }
+    while (currentMatch != NO_MATCH && !resultBuilder.isFull()) {
+      appendLeftRow();
+      lookupSource.appendTo(
+          currentMatch, rightOutputSymbolIdx, resultBuilder, leftOutputSymbolIdx.length);
+      resultBuilder.declarePosition();
+      currentProbeMatched = true;
+      currentMatch =
+          lookupSource.getNextMatch(currentMatch, probeBlock, leftJoinKeyPositions, probeIndex);
+    }
+    if (currentMatch == NO_MATCH) {
+      onProbeRowFinished();
+      probeIndex++;
+      currentMatch = NOT_PROBED;
+    }
+  }
+
+  protected boolean probeBlockNotEmpty() {
+    return probeBlock != null && probeIndex < probeBlock.getPositionCount();
+  }
+
+  protected void appendLeftRow() {
+    for (int i = 0; i < leftOutputSymbolIdx.length; i++) {
+      ColumnBuilder columnBuilder = resultBuilder.getColumnBuilder(i);
+      if (probeBlock.getColumn(leftOutputSymbolIdx[i]).isNull(probeIndex)) {
+        columnBuilder.appendNull();
+      } else {
+        columnBuilder.write(probeBlock.getColumn(leftOutputSymbolIdx[i]), probeIndex);
+      }
+    }
+  }
+
+  protected void appendLeftRowWithEmptyRight() {
+    appendLeftRow();
+    for (int i = 0; i < rightOutputSymbolIdx.length; i++) {
+      resultBuilder.getColumnBuilder(leftOutputSymbolIdx.length + i).appendNull();
+    }
+    resultBuilder.declarePosition();
+  }
+
+  private void reserveMemory(long size) {
+    usedMemory += size;
+    memoryReservationManager.reserveMemoryCumulatively(size);
+    operatorContext.recordSpecifiedInfo(MAX_RESERVED_MEMORY, Long.toString(usedMemory));
+  }
+
+  @Override
+  public void close() throws Exception {
+    if (leftChild != null) {
+      leftChild.close();
+    }
+    if (rightChild != null) {
+      rightChild.close();
+    }
+    if (usedMemory > 0) {
+      memoryReservationManager.releaseMemoryCumulatively(usedMemory);
+      usedMemory = 0;
+    }
+    buildBlocks = null;
+    lookupSource = null;
+  }
+
+  @Override
+  public long calculateMaxPeekMemory() {
+    return Math.max(
+        Math.max(
+            leftChild.calculateMaxPeekMemoryWithCounter(),
+            rightChild.calculateMaxPeekMemoryWithCounter()),
+        calculateRetainedSizeAfterCallingNext() + calculateMaxReturnSize());
+  }
+
+  @Override
+  public long calculateMaxReturnSize() {
+    return maxReturnSize;
+  }
+
+  @Override
+  public long calculateRetainedSizeAfterCallingNext() {
+    return leftChild.calculateMaxReturnSize()
+        + leftChild.calculateRetainedSizeAfterCallingNext()
+        + rightChild.calculateMaxReturnSize()
+        + rightChild.calculateRetainedSizeAfterCallingNext()
+        + maxReturnSize;
+  }
+}
@@ -37,6 +37,7 @@ import org.apache.tsfile.enums.TSDataType;
 import org.apache.tsfile.read.common.block.TsBlock;
 import org.apache.tsfile.read.common.block.TsBlockBuilder;
 import org.apache.tsfile.read.common.block.column.LongColumn;
+import org.apache.tsfile.read.filter.basic.Filter;
 import org.apache.tsfile.utils.RamUsageEstimator;
 import org.apache.tsfile.write.schema.IMeasurementSchema;
 
@@ -58,6 +59,8 @@ public abstract class AbstractTableScanOperator extends AbstractSeriesScanOperat
 
   public static final String CURRENT_DEVICE_INDEX_STRING = "CurrentDeviceIndex";
 
+  private static final String DYNAMIC_FILTER_SKIPPED_DEVICES = "dynamicFilterSkippedDevices";
+
   public static final LongColumn TIME_COLUMN_TEMPLATE =
       new LongColumn(1, Optional.empty(), new long[] {0});
 
@@ -90,6 +93,14 @@ public abstract class AbstractTableScanOperator extends AbstractSeriesScanOperat
 
   private int currentDeviceIndex;
 
+  // whether any data of the current device has been read
+  private boolean currentDeviceStarted;
+
+  // domain of the join keys from the build side of a join, null if there is none
+  private JoinDynamicFilter dynamicFilter;
+  private boolean dynamicFilterApplied;
+  private int dynamicFilterSkippedDevices;
+
   public AbstractTableScanOperator(AbstractTableScanOperatorParameter parameter) {
     this.sourceId = parameter.sourceId;
     this.operatorContext = parameter.context;
@@ -127,6 +138,15 @@ public abstract class AbstractTableScanOperator extends AbstractSeriesScanOperat
       return getResultFromRetainedTsBlock();
     }
 
+    if (!currentDeviceStarted && dynamicFilterNotApplied()) {
+      // the current device may be skipped or scanned with a narrower time filter now
+      prepareForNextDevice();
+      if (currentDeviceIndex >= deviceCount) {
+        return null;
+      }
+    }
+    currentDeviceStarted = true;
+
     try {
 
       // start stopwatch
@@ -253,7 +273,44 @@ public abstract class AbstractTableScanOperator extends AbstractSeriesScanOperat
     this.measurementDataBuilder.setMaxTsBlockLineNumber(this.maxTsBlockLineNum);
   }
 
+  public void setDynamicFilter(JoinDynamicFilter dynamicFilter) {
+    this.dynamicFilter = dynamicFilter;
+  }
+
+  private boolean dynamicFilterNotApplied() {
+    return dynamicFilter != null && !dynamicFilterApplied && dynamicFilter.isReady();
+  }
+
+  private void skipDevicesByDynamicFilter() {
+    if (dynamicFilterNotApplied()) {
+      dynamicFilterApplied = true;
+      Filter timeFilter = dynamicFilter.getTimeFilter();
+      if (timeFilter != null) {
+        seriesScanOptions.addRuntimeTimeFilter(timeFilter);
+      }
+    }
+    if (!dynamicFilterApplied) {
+      return;
+    }
+    int startIndex = currentDeviceIndex;
+    while (currentDeviceIndex < deviceCount) {
+      DeviceEntry deviceEntry = deviceEntries.get(currentDeviceIndex);
+      if (dynamicFilter.mayMatchDevice(
+          idColumnIndex -> getNthIdColumnValue(deviceEntry, idColumnIndex))) {
+        break;
+      }
+      currentDeviceIndex++;
+    }
+    if (currentDeviceIndex > startIndex) {
+      dynamicFilterSkippedDevices += currentDeviceIndex - startIndex;
+      operatorContext.recordSpecifiedInfo(
+          DYNAMIC_FILTER_SKIPPED_DEVICES, Integer.toString(dynamicFilterSkippedDevices));
+    }
+  }
+
   private void prepareForNextDevice() {
+    currentDeviceStarted = false;
+    skipDevicesByDynamicFilter();
     if (currentDeviceIndex < deviceCount) {
       // construct AlignedSeriesScanUtil for next device
       constructAlignedSeriesScanUtil();
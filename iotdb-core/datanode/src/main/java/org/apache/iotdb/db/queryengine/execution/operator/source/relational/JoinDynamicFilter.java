@@ -0,0 +1,184 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iotdb.db.queryengine.execution.operator.source.relational;
+
+import org.apache.tsfile.block.column.Column;
+import org.apache.tsfile.common.conf.TSFileConfig;
+import org.apache.tsfile.read.common.block.TsBlock;
+import org.apache.tsfile.read.filter.basic.Filter;
+import org.apache.tsfile.read.filter.factory.TimeFilterApi;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.IntFunction;
+
+/**
+ * Domain of the join keys collected from the build side of a hash join, used by the table scan on
+ * the probe side to skip the devices and TsFiles which can't match any row of the build side.
+ *
+ * <p>The filter is published once by the join after its lookup source is built. The scan may check
+ * it at any time, rows read before the filter is ready are still filtered by the join itself.
+ */
+public class JoinDynamicFilter {
+
+  // tag values more than this are summarized by a bloom filter instead of being kept exactly
+  static final int MAX_DISTINCT_VALUES = 1024;
+
+  private static final int BLOOM_FILTER_BITS_PER_VALUE = 16;
+
+  // index of the join key which is the time column of the probe scan, -1 if there is none
+  private final int timeKeyIndex;
+
+  // id column index in the probe scan and the index of its join key
+  private final int[] tagColumnIndexes;
+  private final int[] tagKeyIndexes;
+
+  private volatile boolean ready;
+
+  private boolean empty;
+  private long minTime = Long.MAX_VALUE;
+  private long maxTime = Long.MIN_VALUE;
+  private TagValueSet[] tagValueSets;
+
+  public JoinDynamicFilter(int timeKeyIndex, int[] tagColumnIndexes, int[] tagKeyIndexes) {
+    this.timeKeyIndex = timeKeyIndex;
+    this.tagColumnIndexes = tagColumnIndexes;
+    this.tagKeyIndexes = tagKeyIndexes;
+  }
+
+  /**
+   * Collect the domain of the join keys from all the rows of the build side. Rows with null join
+   * keys never match, so they are skipped.
+   */
+  public void collect(List<TsBlock> buildBlocks, int[] buildKeyChannels) {
+    List<Set<String>> tagValues = new ArrayList<>(tagKeyIndexes.length);
+    for (int i = 0; i < tagKeyIndexes.length; i++) {
+      tagValues.add(new HashSet<>());
+    }
+    long rowCount = 0;
+    for (TsBlock block : buildBlocks) {
+      for (int position = 0, size = block.getPositionCount(); position < size; position++) {
+        if (JoinLookupSource.hasNullKey(block, buildKeyChannels, position)) {
+          continue;
+        }
+        rowCount++;
+        if (timeKeyIndex >= 0) {
+          long time = block.getColumn(buildKeyChannels[timeKeyIndex]).getLong(position);
+          minTime = Math.min(minTime, time);
+          maxTime = Math.max(maxTime, time);
+        }
+        for (int i = 0; i < tagKeyIndexes.length; i++) {
+          Column column = block.getColumn(buildKeyChannels[tagKeyIndexes[i]]);
+          tagValues
+              .get(i)
+              .add(column.getBinary(position).getStringValue(TSFileConfig.STRING_CHARSET));
+        }
+      }
+    }
+
+    empty = rowCount == 0;
+    tagValueSets = new TagValueSet[tagKeyIndexes.length];
+    for (int i = 0; i < tagKeyIndexes.length; i++) {
+      tagValueSets[i] = new TagValueSet(tagValues.get(i));
+    }
+    ready = true;
+  }
+
+  public boolean isReady() {
+    return ready;
+  }
+
+  /**
+   * @return time filter covering all the join key values of the time column, null if the time
+   *     column is not a join key
+   */
+  public Filter getTimeFilter() {
+    if (timeKeyIndex < 0 || empty) {
+      return null;
+    }
+    return TimeFilterApi.between(minTime, maxTime);
+  }
+
+  /**
+   * @param idColumnValueGetter returns the value of the nth id column of the device
+   * @return false if no row of the device could match the build side
+   */
+  public boolean mayMatchDevice(IntFunction<String> idColumnValueGetter) {
+    if (empty) {
+      return false;
+    }
+    for (int i = 0; i < tagColumnIndexes.length; i++) {
+      String value = idColumnValueGetter.apply(tagColumnIndexes[i]);
+      if (value == null || !tagValueSets[i].mayContain(value)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /** Set of tag values, exact when it is small, otherwise a bloom filter. */
+  static class TagValueSet {
+
+    private final Set<String> values;
+    private final long[] bloomFilter;
+
+    TagValueSet(Set<String> values) {
+      if (values.size() <= MAX_DISTINCT_VALUES) {
+        this.values = values;
+        this.bloomFilter = null;
+      } else {
+        this.values = null;
+        this.bloomFilter =
+            new long[Math.max(1, values.size() * BLOOM_FILTER_BITS_PER_VALUE / Long.SIZE)];
+        for (String value : values) {
+          long hash = hash(value);
+          setBit((int) hash);
+          setBit((int) (hash >>> 32));
+        }
+      }
+    }
+
+    boolean mayContain(String value) {
+      if (values != null) {
+        return values.contains(value);
+      }
+      long hash = hash(value);
+      return testBit((int) hash) && testBit((int) (hash >>> 32));
+    }
+
+    private void setBit(int hash) {
+      int bit = Math.floorMod(hash, bloomFilter.length * Long.SIZE);
+      bloomFilter[bit / Long.SIZE] |= 1L << (bit % Long.SIZE);
+    }
+
+    private boolean testBit(int hash) {
+      int bit = Math.floorMod(hash, bloomFilter.length * Long.SIZE);
+      return (bloomFilter[bit / Long.SIZE] & (1L << (bit % Long.SIZE))) != 0;
+    }
+
+    private static long hash(String value) {
+      long hash = value.hashCode() * 0xC2B2AE3D27D4EB4FL;
+      hash = Long.rotateLeft(hash, 31) * 0x9E3779B97F4A7C15L;
+      return hash ^ (hash >>> 29);
+    }
+  }
+}
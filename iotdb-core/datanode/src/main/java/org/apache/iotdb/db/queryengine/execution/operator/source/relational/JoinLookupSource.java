@@ -0,0 +1,317 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.queryengine.execution.operator.source.relational;
+
+import org.apache.tsfile.block.column.Column;
+import org.apache.tsfile.block.column.ColumnBuilder;
+import org.apache.tsfile.enums.TSDataType;
+import org.apache.tsfile.read.common.block.TsBlock;
+import org.apache.tsfile.read.common.block.TsBlockBuilder;
+import org.apache.tsfile.utils.RamUsageEstimator;
+import org.apache.tsfile.write.UnSupportedDataTypeException;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Hash table over the rows of the build side of a hash join. The rows stay in the TsBlocks of the
+ * build side, the table only keeps the row addresses and the chains of the rows in the same bucket
+ * in primitive arrays, so that it costs a few bytes per row besides the data itself.
+ *
+ * <p>When there is only one join key of INT32, DATE, INT64 or TIMESTAMP, the keys are copied into a
+ * long array too, and the probe compares them without touching the columns. Rows with null join key
+ * never match, so they are not put into the table.
+ */
+public class JoinLookupSource {
+
+  public static final int NO_MATCH = -1;
+
+  private static final long INSTANCE_SIZE =
+      RamUsageEstimator.shallowSizeOfInstance(JoinLookupSource.class);
+
+  private final List<TsBlock> blocks;
+  private final int[] keyChannels;
+  private final TSDataType[] keyTypes;
+
+  // index of the block in the high 32 bits and position in the low 32 bits
+  private final long[] addresses;
+  // only for a single primitive key
+  private final long[] primitiveKeys;
+
+  // head row of each bucket, NO_MATCH for empty bucket
+  private final int[] buckets;
+  // next row in the same bucket
+  private final int[] nextRows;
+  private final int mask;
+
+  public JoinLookupSource(List<TsBlock> blocks, int[] keyChannels, TSDataType[] keyTypes) {
+    this.blocks = blocks;
+    this.keyChannels = keyChannels;
+    this.keyTypes = keyTypes;
+
+    int rowCount = 0;
+    for (TsBlock block : blocks) {
+      for (int position = 0; position < block.getPositionCount(); position++) {
+        if (!hasNullKey(block, keyChannels, position)) {
+          rowCount++;
+        }
+      }
+    }
+
+    this.addresses = new long[rowCount];
+    this.primitiveKeys = isPrimitiveKey(keyTypes) ? new long[rowCount] : null;
+    this.nextRows = new int[rowCount];
+    int bucketCount = Integer.highestOneBit(Math.max(rowCount, 1) * 2 - 1) << 1;
+    this.buckets = new int[bucketCount];
+    Arrays.fill(buckets, NO_MATCH);
+    this.mask = bucketCount - 1;
+
+    int row = 0;
+    for (int blockIndex = 0; blockIndex < blocks.size(); blockIndex++) {
+      TsBlock block = blocks.get(blockIndex);
+      for (int position = 0; position < block.getPositionCount(); position++) {
+        if (hasNullKey(block, keyChannels, position)) {
+          continue;
+        }
+        addresses[row] = ((long) blockIndex << 32) | position;
+        long hash;
+        if (primitiveKeys != null) {
+          primitiveKeys[row] =
+              getPrimitiveKey(block.getColumn(keyChannels[0]), keyTypes[0], position);
+          hash = mix(primitiveKeys[row]);
+        } else {
+          hash = hash(block, keyChannels, keyTypes, position);
+        }
+        int bucket = (int) hash & mask;
+        nextRows[row] = buckets[bucket];
+        buckets[bucket] = row;
+        row++;
+      }
+    }
+  }
+
+  public int getRowCount() {
+    return addresses.length;
+  }
+
+  public boolean isEmpty() {
+    return addresses.length == 0;
+  }
+
+  /**
+   * @return the first row of the build side matching the probe row, or {@link #NO_MATCH}
+   */
+  public int getFirstMatch(TsBlock probeBlock, int[] probeKeyChannels, int position) {
+    if (hasNullKey(probeBlock, probeKeyChannels, position)) {
+      return NO_MATCH;
+    }
+    if (primitiveKeys != null) {
+      long key = getPrimitiveKey(probeBlock.getColumn(probeKeyChannels[0]), keyTypes[0], position);
+      return findPrimitive(buckets[(int) mix(key) & mask], key);
+    }
+    int bucket = (int) hash(probeBlock, probeKeyChannels, keyTypes, position) & mask;
+    return find(buckets[bucket], probeBlock, probeKeyChannels, position);
+  }
+
+  /**
+   * @return the next row of the build side after the matched row, or {@link #NO_MATCH}
+   */
+  public int getNextMatch(int row, TsBlock probeBlock, int[] probeKeyChannels, int position) {
+    if (primitiveKeys != null) {
+      return findPrimitive(nextRows[row], primitiveKeys[row]);
+    }
+    return find(nextRows[row], probeBlock, probeKeyChannels, position);
+  }
+
+  private int findPrimitive(int row, long key) {
+    while (row != NO_MATCH && primitiveKeys[row] != key) {
+      row = nextRows[row];
+    }
+    return row;
+  }
+
+  private int find(int row, TsBlock probeBlock, int[] probeKeyChannels, int position) {
+    while (row != NO_MATCH) {
+      long address = addresses[row];
+      TsBlock block = blocks.get((int) (address >>> 32));
+      if (keysEqual(block, (int) address, probeBlock, probeKeyChannels, position)) {
+        return row;
+      }
+      row = nextRows[row];
+    }
+    return row;
+  }
+
+  /** Append the output columns of the row into the result, starting from the column offset. */
+  public void appendTo(int row, int[] outputChannels, TsBlockBuilder builder, int columnOffset) {
+    long address = addresses[row];
+    TsBlock block = blocks.get((int) (address >>> 32));
+    int position = (int) address;
+    for (int i = 0; i < outputChannels.length; i++) {
+      ColumnBuilder columnBuilder = builder.getColumnBuilder(columnOffset + i);
+      Column column = block.getColumn(outputChannels[i]);
+      if (column.isNull(position)) {
+        columnBuilder.appendNull();
+      } else {
+        columnBuilder.write(column, position);
+      }
+    }
+  }
+
+  /** Size of the hash table, excluding the TsBlocks of the build side. */
+  public long getEstimatedSize() {
+    return INSTANCE_SIZE
+        + RamUsageEstimator.sizeOf(addresses)
+        + (primitiveKeys == null ? 0 : RamUsageEstimator.sizeOf(primitiveKeys))
+        + RamUsageEstimator.sizeOf(buckets)
+        + RamUsageEstimator.sizeOf(nextRows);
+  }
+
+  /** Estimated size of the hash table for the rows, used to reserve memory before building it. */
+  public static long estimateSize(int rowCount, TSDataType[] keyTypes) {
+    long bucketCount = Integer.highestOneBit(Math.max(rowCount, 1) * 2 - 1) << 1;
+    return INSTANCE_SIZE
+        + (long) rowCount * (Long.BYTES + Integer.BYTES)
+        + (isPrimitiveKey(keyTypes) ? (long) rowCount * Long.BYTES : 0)
+        + bucketCount * Integer.BYTES;
+  }
+
+  private boolean keysEqual(
+      TsBlock block, int position, TsBlock probeBlock, int[] probeKeyChannels, int probePosition) {
+    for (int i = 0; i < keyChannels.length; i++) {
+      Column column = block.getColumn(keyChannels[i]);
+      Column probeColumn = probeBlock.getColumn(probeKeyChannels[i]);
+      switch (keyTypes[i]) {
+        case INT32:
+        case DATE:
+          if (column.getInt(position) != probeColumn.getInt(probePosition)) {
+            return false;
+          }
+          break;
+        case INT64:
+        case TIMESTAMP:
+          if (column.getLong(position) != probeColumn.getLong(probePosition)) {
+            return false;
+          }
+          break;
+        case FLOAT:
+          // SQL equality: 0.0 equals -0.0 and NaN equals nothing, so '!=' rather than compare
+          if (column.getFloat(position) != probeColumn.getFloat(probePosition)) {
+            return false;
+          }
+          break;
+        case DOUBLE:
+          if (column.getDouble(position) != probeColumn.getDouble(probePosition)) {
+            return false;
+          }
+          break;
+        case BOOLEAN:
+          if (column.getBoolean(position) != probeColumn.getBoolean(probePosition)) {
+            return false;
+          }
+          break;
+        case TEXT:
+        case STRING:
+        case BLOB:
+          if (!column.getBinary(position).equals(probeColumn.getBinary(probePosition))) {
+            return false;
+          }
+          break;
+        default:
+          throw new UnSupportedDataTypeException(keyTypes[i].name());
+      }
+    }
+    return true;
+  }
+
+  private static long hash(TsBlock block, int[] channels, TSDataType[] types, int position) {
+    long hash = 0;
+    for (int i = 0; i < channels.length; i++) {
+      Column column = block.getColumn(channels[i]);
+      long valueHash;
+      switch (types[i]) {
+        case INT32:
+        case DATE:
+          valueHash = column.getInt(position);
+          break;
+        case INT64:
+        case TIMESTAMP:
+          valueHash = column.getLong(position);
+          break;
+        case FLOAT:
+          float floatValue = column.getFloat(position);
+          // 0.0 and -0.0 are equal keys and must hash the same
+          valueHash = floatValue == 0 ? 0 : Float.floatToIntBits(floatValue);
+          break;
+        case DOUBLE:
+          double doubleValue = column.getDouble(position);
+          valueHash = doubleValue == 0 ? 0 : Double.doubleToLongBits(doubleValue);
+          break;
+        case BOOLEAN:
+          valueHash = column.getBoolean(position) ? 1 : 0;
+          break;
+        case TEXT:
+        case STRING:
+        case BLOB:
+          valueHash = column.getBinary(position).hashCode();
+          break;
+        default:
+          throw new UnSupportedDataTypeException(types[i].name());
+      }
+      hash = hash * 31 + mix(valueHash);
+    }
+    return mix(hash);
+  }
+
+  private static long mix(long value) {
+    long hash = value * 0xC2B2AE3D27D4EB4FL;
+    hash = Long.rotateLeft(hash, 31) * 0x9E3779B97F4A7C15L;
+    return hash ^ (hash >>> 32);
+  }
+
+  private static boolean isPrimitiveKey(TSDataType[] keyTypes) {
+    if (keyTypes.length != 1) {
+      return false;
+    }
+    switch (keyTypes[0]) {
+      case INT32:
+      case DATE:
+      case INT64:
+      case TIMESTAMP:
+        return true;
+      default:
+        return false;
+    }
+  }
+
+  private static long getPrimitiveKey(Column column, TSDataType type, int position) {
+    return type == TSDataType.INT32 || type == TSDataType.DATE
+        ? column.getInt(position)
+        : column.getLong(position);
+  }
+
+  public static boolean hasNullKey(TsBlock block, int[] keyChannels, int position) {
+    for (int keyChannel : keyChannels) {
+      if (block.getColumn(keyChannel).isNull(position)) {
+        return true;
+      }
+    }
+    return false;
+  }
+}
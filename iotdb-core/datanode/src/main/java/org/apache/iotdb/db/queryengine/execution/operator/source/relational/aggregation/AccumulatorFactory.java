@@ -218,6 +218,7 @@ public class AccumulatorFactory {
             UDFDataTypeTransformer.transformToUDFDataTypeList(inputDataTypes), inputAttributes);
     aggregateFunction.beforeStart(functionArguments);
     return new GroupedUserDefinedAggregateAccumulator(
+        aggregateFunction.analyze(functionArguments),
         aggregateFunction,
         inputDataTypes.stream().map(TypeFactory::getType).collect(Collectors.toList()));
   }
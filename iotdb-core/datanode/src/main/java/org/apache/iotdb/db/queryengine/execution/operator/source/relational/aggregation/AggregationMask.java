@@ -127,6 +127,25 @@ public final class AggregationMask {
     return selectedPositions;
   }
 
+  /**
+   * Get whether each position is selected. The given array is reused if its length equals the
+   * position count, otherwise a new array is returned.
+   */
+  public boolean[] toSelection(boolean[] selection) {
+    if (selection == null || selection.length != positionCount) {
+      selection = new boolean[positionCount];
+    }
+    if (isSelectAll()) {
+      Arrays.fill(selection, true);
+      return selection;
+    }
+    Arrays.fill(selection, false);
+    for (int i = 0; i < selectedPositionCount; i++) {
+      selection[selectedPositions[i]] = true;
+    }
+    return selection;
+  }
+
   public void unselectNullPositions(Column column) {
     unselectPositions(column, false);
   }
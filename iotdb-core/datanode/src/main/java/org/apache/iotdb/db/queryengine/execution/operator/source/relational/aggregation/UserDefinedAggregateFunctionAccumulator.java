@@ -48,6 +48,10 @@ public class UserDefinedAggregateFunctionAccumulator implements TableAccumulator
   private final List<Type> inputDataTypes;
   private final State state;
 
+  // reused by vectorized input, all the elements of states are the same state
+  private State[] states = new State[0];
+  private boolean[] selection = new boolean[0];
+
   public UserDefinedAggregateFunctionAccumulator(
       AggregateFunctionAnalysis analysis,
       AggregateFunction aggregateFunction,
@@ -70,6 +74,16 @@ public class UserDefinedAggregateFunctionAccumulator implements TableAccumulator
 
   @Override
   public void addInput(Column[] arguments, AggregationMask mask) {
+    if (analysis.isVectorized()) {
+      int positionCount = mask.getPositionCount();
+      if (states.length != positionCount) {
+        states = new State[positionCount];
+        Arrays.fill(states, state);
+      }
+      selection = mask.toSelection(selection);
+      aggregateFunction.addInput(states, arguments, selection);
+      return;
+    }
     RecordIterator iterator =
         mask.isSelectAll()
             ? new RecordIterator(
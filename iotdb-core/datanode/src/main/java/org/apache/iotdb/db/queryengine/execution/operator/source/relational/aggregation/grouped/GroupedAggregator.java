@@ -93,6 +93,11 @@ public class GroupedAggregator {
     }
   }
 
+  /** Output the intermediate result regardless of the step, used when spilling the groups. */
+  public void evaluateIntermediate(int groupId, ColumnBuilder columnBuilder) {
+    accumulator.evaluateIntermediate(groupId, columnBuilder);
+  }
+
   public void prepareFinal() {
     accumulator.prepareFinal();
   }
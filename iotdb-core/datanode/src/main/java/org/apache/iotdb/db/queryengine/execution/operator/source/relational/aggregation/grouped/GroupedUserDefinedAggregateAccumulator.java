@@ -24,6 +24,7 @@ import org.apache.iotdb.db.queryengine.execution.operator.source.relational.aggr
 import org.apache.iotdb.db.queryengine.execution.operator.source.relational.aggregation.RecordIterator;
 import org.apache.iotdb.db.queryengine.execution.operator.source.relational.aggregation.grouped.array.ObjectBigArray;
 import org.apache.iotdb.udf.api.State;
+import org.apache.iotdb.udf.api.customizer.analysis.AggregateFunctionAnalysis;
 import org.apache.iotdb.udf.api.relational.AggregateFunction;
 import org.apache.iotdb.udf.api.utils.ResultValue;
 
@@ -45,12 +46,20 @@ public class GroupedUserDefinedAggregateAccumulator implements GroupedAccumulato
 
   private static final long INSTANCE_SIZE =
       RamUsageEstimator.shallowSizeOfInstance(GroupedUserDefinedAggregateAccumulator.class);
+  private final AggregateFunctionAnalysis analysis;
   private final AggregateFunction aggregateFunction;
   private final ObjectBigArray<State> stateArray;
   private final List<Type> inputDataTypes;
 
+  // reused by vectorized input
+  private State[] states = new State[0];
+  private boolean[] selection = new boolean[0];
+
   public GroupedUserDefinedAggregateAccumulator(
-      AggregateFunction aggregateFunction, List<Type> inputDataTypes) {
+      AggregateFunctionAnalysis analysis,
+      AggregateFunction aggregateFunction,
+      List<Type> inputDataTypes) {
+    this.analysis = analysis;
     this.aggregateFunction = aggregateFunction;
     this.stateArray = new ObjectBigArray<>();
     this.inputDataTypes = inputDataTypes;
@@ -77,6 +86,10 @@ public class GroupedUserDefinedAggregateAccumulator implements GroupedAccumulato
 
   @Override
   public void addInput(int[] groupIds, Column[] arguments, AggregationMask mask) {
+    if (analysis.isVectorized()) {
+      vectorizedAddInput(groupIds, arguments, mask);
+      return;
+    }
     RecordIterator iterator =
         mask.isSelectAll()
             ? new RecordIterator(
@@ -102,6 +115,19 @@ public class GroupedUserDefinedAggregateAccumulator implements GroupedAccumulato
     }
   }
 
+  private void vectorizedAddInput(int[] groupIds, Column[] arguments, AggregationMask mask) {
+    int positionCount = mask.getPositionCount();
+    if (states.length != positionCount) {
+      states = new State[positionCount];
+    }
+    selection = mask.toSelection(selection);
+    for (int i = 0; i < positionCount; i++) {
+      // the states of unselected positions are left null, so that no state is created for them
+      states[i] = selection[i] ? getOrCreateState(groupIds[i]) : null;
+    }
+    aggregateFunction.addInput(states, arguments, selection);
+  }
+
   @Override
   public void addIntermediate(int[] groupIds, Column argument) {
     checkArgument(
@@ -19,21 +19,26 @@
 
 package org.apache.iotdb.db.queryengine.execution.operator.source.relational.aggregation.grouped;
 
+import org.apache.iotdb.db.queryengine.exception.MemoryNotEnoughException;
 import org.apache.iotdb.db.queryengine.execution.MemoryEstimationHelper;
 import org.apache.iotdb.db.queryengine.execution.operator.AbstractOperator;
 import org.apache.iotdb.db.queryengine.execution.operator.Operator;
 import org.apache.iotdb.db.queryengine.execution.operator.OperatorContext;
 import org.apache.iotdb.db.queryengine.execution.operator.source.relational.aggregation.grouped.builder.HashAggregationBuilder;
+import org.apache.iotdb.db.queryengine.execution.operator.source.relational.aggregation.grouped.builder.HashAggregationSpiller;
 import org.apache.iotdb.db.queryengine.execution.operator.source.relational.aggregation.grouped.builder.InMemoryHashAggregationBuilder;
+import org.apache.iotdb.db.queryengine.execution.operator.source.relational.aggregation.grouped.builder.SpillableHashAggregationBuilder;
 import org.apache.iotdb.db.queryengine.plan.planner.memory.MemoryReservationManager;
 import org.apache.iotdb.db.queryengine.plan.relational.planner.node.AggregationNode;
 
 import com.google.common.collect.ImmutableList;
 import com.google.common.util.concurrent.ListenableFuture;
+import org.apache.tsfile.enums.TSDataType;
 import org.apache.tsfile.read.common.block.TsBlock;
 import org.apache.tsfile.read.common.type.Type;
 import org.apache.tsfile.utils.RamUsageEstimator;
 
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 
@@ -60,6 +65,12 @@ public class HashAggregationOperator extends AbstractOperator {
   private final boolean spillEnabled;
   private final long unspillMemoryLimit;
 
+  // used only when spill is enabled, merge the spilled intermediate results
+  private final List<GroupedAggregator> mergingAggregators;
+  private final List<TSDataType> intermediateTypes;
+  private final String spillFolderPath;
+  private final String spillFilePrefix;
+
   private HashAggregationBuilder aggregationBuilder;
 
   private final MemoryReservationManager memoryReservationManager;
@@ -79,6 +90,41 @@ public class HashAggregationOperator extends AbstractOperator {
       long maxPartialMemory,
       boolean spillEnabled,
       long unspillMemoryLimit) {
+    this(
+        operatorContext,
+        child,
+        groupByTypes,
+        groupByChannels,
+        aggregators,
+        step,
+        expectedGroups,
+        maxPartialMemory,
+        spillEnabled,
+        unspillMemoryLimit,
+        Collections.emptyList(),
+        Collections.emptyList(),
+        null,
+        null);
+  }
+
+  public HashAggregationOperator(
+      OperatorContext operatorContext,
+      Operator child,
+      List<Type> groupByTypes,
+      List<Integer> groupByChannels,
+      List<GroupedAggregator> aggregators,
+      AggregationNode.Step step,
+      int expectedGroups,
+      long maxPartialMemory,
+      boolean spillEnabled,
+      long unspillMemoryLimit,
+      List<GroupedAggregator> mergingAggregators,
+      List<TSDataType> intermediateTypes,
+      String spillFolderPath,
+      String spillFilePrefix) {
+    checkState(
+        !spillEnabled || mergingAggregators.size() == aggregators.size(),
+        "Merging aggregators are required when spill is enabled");
     super.operatorContext = operatorContext;
     this.child = child;
     this.groupByTypes = ImmutableList.copyOf(groupByTypes);
@@ -89,6 +135,10 @@ public class HashAggregationOperator extends AbstractOperator {
     this.maxPartialMemory = maxPartialMemory;
     this.spillEnabled = spillEnabled;
     this.unspillMemoryLimit = unspillMemoryLimit;
+    this.mergingAggregators = mergingAggregators;
+    this.intermediateTypes = intermediateTypes;
+    this.spillFolderPath = spillFolderPath;
+    this.spillFilePrefix = spillFilePrefix;
     this.memoryReservationManager =
         operatorContext
             .getDriverContext()
@@ -114,7 +164,19 @@ public class HashAggregationOperator extends AbstractOperator {
 
     if (aggregationBuilder == null) {
       if (spillEnabled) {
-        throw new UnsupportedOperationException();
+        aggregationBuilder =
+            new SpillableHashAggregationBuilder(
+                aggregators,
+                mergingAggregators,
+                intermediateTypes,
+                step,
+                expectedGroups,
+                groupByTypes,
+                groupByChannels,
+                operatorContext,
+                maxPartialMemory,
+                new HashAggregationSpiller(
+                    spillFolderPath, spillFilePrefix, HashAggregationSpiller.PARTITION_COUNT));
       } else {
         aggregationBuilder =
             new InMemoryHashAggregationBuilder(
@@ -148,6 +210,9 @@ public class HashAggregationOperator extends AbstractOperator {
     } else {
       // evaluate output
       resultTsBlock = getOutput();
+      if (aggregationBuilder != null) {
+        updateOccupiedMemorySize();
+      }
       return checkTsBlockSizeAndGetResult();
     }
   }
@@ -157,7 +222,19 @@ public class HashAggregationOperator extends AbstractOperator {
     operatorContext.recordSpecifiedInfo(CURRENT_USED_MEMORY, Long.toString(memorySize));
     long delta = memorySize - previousRetainedSize;
     if (delta > 0) {
-      memoryReservationManager.reserveMemoryCumulatively(delta);
+      try {
+        memoryReservationManager.reserveMemoryCumulatively(delta);
+      } catch (MemoryNotEnoughException e) {
+        if (!(aggregationBuilder instanceof SpillableHashAggregationBuilder)
+            || !((SpillableHashAggregationBuilder) aggregationBuilder).spill()) {
+          throw e;
+        }
+        // the failed reservation is still pending in the memoryReservationManager, account it as
+        // retained and release what the spill freed
+        previousRetainedSize = memorySize;
+        updateOccupiedMemorySize();
+        return;
+      }
     } else if (delta < 0) {
       memoryReservationManager.releaseMemoryCumulatively(-delta);
     }
@@ -195,7 +272,9 @@ public class HashAggregationOperator extends AbstractOperator {
   @Override
   public void close() throws Exception {
     child.close();
+    closeAggregationBuilder();
     aggregators.forEach(GroupedAggregator::close);
+    mergingAggregators.forEach(GroupedAggregator::close);
   }
 
   @Override
@@ -0,0 +1,186 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.queryengine.execution.operator.source.relational.aggregation.grouped.builder;
+
+import org.apache.iotdb.commons.exception.IoTDBRuntimeException;
+import org.apache.iotdb.rpc.TSStatusCode;
+
+import org.apache.tsfile.read.common.block.TsBlock;
+import org.apache.tsfile.read.common.block.column.TsBlockSerde;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Write the spilled groups of hash aggregation into one file per partition, and read them back
+ * partition by partition. Each TsBlock is written as its serialized length followed by the bytes.
+ */
+public class HashAggregationSpiller implements AutoCloseable {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(HashAggregationSpiller.class);
+
+  /** default number of partitions the spilled groups are split into */
+  public static final int PARTITION_COUNT = 16;
+
+  private static final String FILE_SUFFIX = ".aggTemp";
+
+  private final String folderPath;
+  private final String filePrefix;
+  private final FileChannel[] writeChannels;
+  private final TsBlockSerde serde = new TsBlockSerde();
+
+  private FileChannel readChannel;
+  private int readPartition = -1;
+
+  private long spilledBytes = 0;
+
+  public HashAggregationSpiller(String folderPath, String filePrefix, int partitionCount) {
+    this.folderPath = folderPath;
+    this.filePrefix = filePrefix + "-";
+    this.writeChannels = new FileChannel[partitionCount];
+  }
+
+  public int getPartitionCount() {
+    return writeChannels.length;
+  }
+
+  public long getSpilledBytes() {
+    return spilledBytes;
+  }
+
+  public void spill(int partition, TsBlock tsBlock) {
+    try {
+      if (writeChannels[partition] == null) {
+        Files.createDirectories(Paths.get(folderPath));
+        writeChannels[partition] =
+            FileChannel.open(
+                getFilePath(partition),
+                StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.CREATE);
+      }
+      ByteBuffer tsBlockBuffer = serde.serialize(tsBlock);
+      ByteBuffer length = ByteBuffer.allocate(Integer.BYTES);
+      length.putInt(tsBlockBuffer.remaining());
+      length.flip();
+      writeFully(writeChannels[partition], length);
+      writeFully(writeChannels[partition], tsBlockBuffer);
+      spilledBytes += Integer.BYTES + tsBlockBuffer.limit();
+    } catch (IOException e) {
+      throw new IoTDBRuntimeException(
+          "Can't write spilled groups to file: " + getFilePath(partition),
+          e,
+          TSStatusCode.INTERNAL_SERVER_ERROR.getStatusCode());
+    }
+  }
+
+  /**
+   * Read the next TsBlock of the partition, the partitions must be read in order after all the
+   * groups are spilled.
+   *
+   * @return null if all the TsBlocks of the partition have been read
+   */
+  public TsBlock read(int partition) {
+    try {
+      if (readPartition != partition) {
+        closeReadChannel();
+        readPartition = partition;
+        if (writeChannels[partition] == null) {
+          return null;
+        }
+        writeChannels[partition].close();
+        writeChannels[partition] = null;
+        readChannel = FileChannel.open(getFilePath(partition), StandardOpenOption.READ);
+      }
+      if (readChannel == null) {
+        return null;
+      }
+      ByteBuffer length = ByteBuffer.allocate(Integer.BYTES);
+      if (!readFully(readChannel, length)) {
+        closeReadChannel();
+        return null;
+      }
+      ByteBuffer tsBlockBuffer = ByteBuffer.allocate(length.getInt());
+      if (!readFully(readChannel, tsBlockBuffer)) {
+        throw new IOException("Unexpected end of file");
+      }
+      return serde.deserialize(tsBlockBuffer);
+    } catch (IOException e) {
+      throw new IoTDBRuntimeException(
+          "Can't read spilled groups from file: " + getFilePath(partition),
+          e,
+          TSStatusCode.INTERNAL_SERVER_ERROR.getStatusCode());
+    }
+  }
+
+  private Path getFilePath(int partition) {
+    return Paths.get(filePrefix + String.format("%05d", partition) + FILE_SUFFIX);
+  }
+
+  private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+    while (buffer.hasRemaining()) {
+      channel.write(buffer);
+    }
+  }
+
+  private static boolean readFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+    while (buffer.hasRemaining()) {
+      if (channel.read(buffer) < 0) {
+        return false;
+      }
+    }
+    buffer.flip();
+    return true;
+  }
+
+  private void closeReadChannel() throws IOException {
+    if (readChannel != null) {
+      readChannel.close();
+      readChannel = null;
+      Files.deleteIfExists(getFilePath(readPartition));
+    }
+  }
+
+  @Override
+  public void close() {
+    try {
+      closeReadChannel();
+    } catch (IOException e) {
+      LOGGER.warn("Fail to close spilled file of partition {}", readPartition, e);
+    }
+    for (int i = 0; i < writeChannels.length; i++) {
+      if (writeChannels[i] != null) {
+        try {
+          writeChannels[i].close();
+          Files.deleteIfExists(getFilePath(i));
+        } catch (IOException e) {
+          LOGGER.warn("Fail to close spilled file of partition {}", i, e);
+        }
+        writeChannels[i] = null;
+      }
+    }
+  }
+}
@@ -229,6 +229,24 @@ public class InMemoryHashAggregationBuilder implements HashAggregationBuilder {
     return types;
   }
 
+  public long getRawHash(int groupId) {
+    return groupByHash.getRawHash(groupId);
+  }
+
+  /**
+   * Append the group keys and the intermediate results of the group to the builder, whose columns
+   * are the group keys followed by the intermediate result of each aggregator.
+   */
+  public void appendIntermediateTo(int groupId, TsBlockBuilder builder) {
+    groupByHash.appendValuesTo(groupId, builder);
+    builder.declarePosition();
+    for (int i = 0; i < groupedAggregators.size(); i++) {
+      groupedAggregators
+          .get(i)
+          .evaluateIntermediate(groupId, builder.getColumnBuilder(groupByChannels.length + i));
+    }
+  }
+
   public int getCapacity() {
     return groupByHash.getCapacity();
   }
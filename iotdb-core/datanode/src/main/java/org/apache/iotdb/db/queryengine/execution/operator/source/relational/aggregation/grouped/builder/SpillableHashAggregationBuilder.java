@@ -0,0 +1,236 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.queryengine.execution.operator.source.relational.aggregation.grouped.builder;
+
+import org.apache.iotdb.db.queryengine.execution.operator.OperatorContext;
+import org.apache.iotdb.db.queryengine.execution.operator.source.relational.aggregation.grouped.GroupedAggregator;
+import org.apache.iotdb.db.queryengine.plan.relational.planner.node.AggregationNode;
+
+import org.apache.tsfile.block.column.Column;
+import org.apache.tsfile.block.column.ColumnBuilder;
+import org.apache.tsfile.enums.TSDataType;
+import org.apache.tsfile.read.common.block.TsBlock;
+import org.apache.tsfile.read.common.block.TsBlockBuilder;
+import org.apache.tsfile.read.common.block.column.RunLengthEncodedColumn;
+import org.apache.tsfile.read.common.type.Type;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.apache.iotdb.db.queryengine.execution.operator.source.relational.TableScanOperator.TIME_COLUMN_TEMPLATE;
+import static org.apache.iotdb.db.queryengine.execution.operator.source.relational.aggregation.grouped.UpdateMemory.NOOP;
+
+/**
+ * A {@link HashAggregationBuilder} which can spill its groups to disk when the memory can't be
+ * reserved. The spilled groups are written as group keys with the intermediate results of the
+ * aggregators, partitioned by the hash of the group keys. After all the input is consumed, each
+ * partition is read back and merged by the merging aggregators, whose input is the intermediate
+ * results. A group always lands in the same partition, so the partitions are merged one by one.
+ */
+public class SpillableHashAggregationBuilder implements HashAggregationBuilder {
+
+  private static final String SPILLED_DATA_SIZE = "spilledDataSize";
+  private static final String SPILL_COST = "spillCost/ns";
+  private static final String SPILL_COUNT = "spillCount";
+
+  private final InMemoryHashAggregationBuilder inMemoryBuilder;
+  private final InMemoryHashAggregationBuilder mergingBuilder;
+  private final HashAggregationSpiller spiller;
+  private final List<TSDataType> spillTypes;
+  private final OperatorContext operatorContext;
+
+  private int spillCount = 0;
+  private long spillCost = 0;
+
+  // partition being merged, -1 before the merging starts
+  private int mergingPartition = -1;
+  private boolean mergingPartitionFinished = true;
+
+  public SpillableHashAggregationBuilder(
+      List<GroupedAggregator> groupedAggregators,
+      List<GroupedAggregator> mergingAggregators,
+      List<TSDataType> intermediateTypes,
+      AggregationNode.Step step,
+      int expectedGroups,
+      List<Type> groupByTypes,
+      List<Integer> groupByChannels,
+      OperatorContext operatorContext,
+      long maxPartialMemory,
+      HashAggregationSpiller spiller) {
+    this.inMemoryBuilder =
+        new InMemoryHashAggregationBuilder(
+            groupedAggregators,
+            step,
+            expectedGroups,
+            groupByTypes,
+            groupByChannels,
+            Optional.empty(),
+            operatorContext,
+            maxPartialMemory,
+            NOOP);
+    // the spilled groups have the group keys in the first columns
+    this.mergingBuilder =
+        new InMemoryHashAggregationBuilder(
+            mergingAggregators,
+            AggregationNode.Step.partialInput(step),
+            expectedGroups,
+            groupByTypes,
+            IntStream.range(0, groupByTypes.size()).boxed().collect(Collectors.toList()),
+            Optional.empty(),
+            operatorContext,
+            maxPartialMemory,
+            NOOP);
+    this.spillTypes = new ArrayList<>(inMemoryBuilder.buildTypes().subList(0, groupByTypes.size()));
+    this.spillTypes.addAll(intermediateTypes);
+    this.spiller = spiller;
+    this.operatorContext = operatorContext;
+  }
+
+  @Override
+  public void processBlock(TsBlock block) {
+    inMemoryBuilder.processBlock(block);
+  }
+
+  /**
+   * Spill all the groups in memory to disk and reset the in-memory hash table.
+   *
+   * @return false if there is nothing to spill
+   */
+  public boolean spill() {
+    if (inMemoryBuilder.getGroupCount() == 0) {
+      return false;
+    }
+    long startTime = System.nanoTime();
+    int partitionCount = spiller.getPartitionCount();
+    TsBlockBuilder[] partitionBuilders = new TsBlockBuilder[partitionCount];
+    for (int groupId = 0; groupId < inMemoryBuilder.getGroupCount(); groupId++) {
+      int partition = getPartition(inMemoryBuilder.getRawHash(groupId), partitionCount);
+      if (partitionBuilders[partition] == null) {
+        partitionBuilders[partition] = new TsBlockBuilder(spillTypes);
+      }
+      TsBlockBuilder builder = partitionBuilders[partition];
+      inMemoryBuilder.appendIntermediateTo(groupId, builder);
+      if (builder.isFull()) {
+        spiller.spill(partition, build(builder));
+        builder.reset();
+      }
+    }
+    for (int partition = 0; partition < partitionCount; partition++) {
+      if (partitionBuilders[partition] != null && !partitionBuilders[partition].isEmpty()) {
+        spiller.spill(partition, build(partitionBuilders[partition]));
+      }
+    }
+    inMemoryBuilder.reset();
+    spillCount++;
+    spillCost += System.nanoTime() - startTime;
+    recordSpillInfo();
+    return true;
+  }
+
+  public boolean hasSpilled() {
+    return spillCount > 0;
+  }
+
+  private static int getPartition(long rawHash, int partitionCount) {
+    // the low bits are used by the hash table, mix the high bits in
+    return (int) ((rawHash ^ (rawHash >>> 32)) & Integer.MAX_VALUE) % partitionCount;
+  }
+
+  private static TsBlock build(TsBlockBuilder builder) {
+    return TsBlock.wrapBlocksWithoutCopy(
+        builder.getPositionCount(),
+        new RunLengthEncodedColumn(TIME_COLUMN_TEMPLATE, builder.getPositionCount()),
+        Arrays.stream(builder.getValueColumnBuilders())
+            .map(ColumnBuilder::build)
+            .toArray(Column[]::new));
+  }
+
+  private void recordSpillInfo() {
+    operatorContext.recordSpecifiedInfo(SPILL_COUNT, Integer.toString(spillCount));
+    operatorContext.recordSpecifiedInfo(
+        SPILLED_DATA_SIZE, Long.toString(spiller.getSpilledBytes()));
+    operatorContext.recordSpecifiedInfo(SPILL_COST, Long.toString(spillCost));
+  }
+
+  @Override
+  public TsBlock buildResult() {
+    if (!hasSpilled()) {
+      return inMemoryBuilder.buildResult();
+    }
+    if (mergingPartition == -1) {
+      // spill the rest, so that all the groups are merged in the same way
+      spill();
+    }
+    if (mergingPartitionFinished) {
+      // read the next non-empty partition into the merging hash table
+      mergingBuilder.reset();
+      while (mergingBuilder.getGroupCount() == 0
+          && mergingPartition < spiller.getPartitionCount() - 1) {
+        mergingPartition++;
+        TsBlock block;
+        while ((block = spiller.read(mergingPartition)) != null) {
+          mergingBuilder.processBlock(block);
+        }
+      }
+    }
+    TsBlock result = mergingBuilder.buildResult();
+    mergingPartitionFinished = mergingBuilder.finished();
+    return result;
+  }
+
+  @Override
+  public boolean finished() {
+    if (!hasSpilled()) {
+      return inMemoryBuilder.finished();
+    }
+    return mergingPartitionFinished && mergingPartition >= spiller.getPartitionCount() - 1;
+  }
+
+  @Override
+  public long getEstimatedSize() {
+    return inMemoryBuilder.getEstimatedSize() + mergingBuilder.getEstimatedSize();
+  }
+
+  @Override
+  public boolean isFull() {
+    return inMemoryBuilder.isFull();
+  }
+
+  @Override
+  public void updateMemory() {
+    inMemoryBuilder.updateMemory();
+  }
+
+  @Override
+  public void reset() {
+    inMemoryBuilder.reset();
+    mergingBuilder.reset();
+  }
+
+  @Override
+  public void close() {
+    inMemoryBuilder.close();
+    mergingBuilder.close();
+    spiller.close();
+  }
+}
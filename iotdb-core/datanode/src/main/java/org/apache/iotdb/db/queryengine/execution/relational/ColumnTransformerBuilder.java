@@ -1500,7 +1500,7 @@ public class ColumnTransformerBuilder
         Type returnType =
             UDFDataTypeTransformer.transformUDFDataTypeToReadType(analysis.getOutputDataType());
         return new UserDefineScalarFunctionTransformer(
-            returnType, scalarFunction, childrenColumnTransformer);
+            returnType, scalarFunction, childrenColumnTransformer, analysis.isVectorized());
       }
     }
     throw new IllegalArgumentException(
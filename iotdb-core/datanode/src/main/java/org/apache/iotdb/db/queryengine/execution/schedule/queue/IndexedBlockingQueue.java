@@ -155,7 +155,7 @@ public abstract class IndexedBlockingQueue<E extends IDIndexedAccessible> {
    *
    * @return the current queue size.
    */
-  public final synchronized int size() {
+  public synchronized int size() {
     return size;
   }
 
@@ -25,6 +25,7 @@ import org.apache.iotdb.db.queryengine.execution.schedule.task.DriverTask;
 
 import java.util.PriorityQueue;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntPredicate;
 
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkState;
@@ -107,14 +108,7 @@ public class MultilevelPriorityQueue extends IndexedBlockingReserveQueue<DriverT
 
     int level = task.getPriority().getLevel();
     if (levelWaitingSplits[level].isEmpty()) {
-      // Accesses to levelScheduledTime are not synchronized, so we have a data race
-      // here - our level time math will be off. However, the staleness is bounded by
-      // the fact that only running splits that complete during this computation
-      // can update the level time. Therefore, this is benign.
-      long level0Time = getLevel0TargetTime();
-      long levelExpectedTime = (long) (level0Time / Math.pow(levelTimeMultiplier, level));
-      long delta = levelExpectedTime - levelScheduledTime[level].get();
-      levelScheduledTime[level].addAndGet(delta);
+      catchUpLevelScheduledTime(level);
     }
     levelWaitingSplits[level].offer(task);
   }
@@ -137,8 +131,7 @@ public class MultilevelPriorityQueue extends IndexedBlockingReserveQueue<DriverT
         pushToQueue(result);
         continue;
       }
-      int selectedLevel = result.getPriority().getLevel();
-      levelMinScheduledTime[selectedLevel].set(result.getPriority().getLevelScheduledTime());
+      updateLevelMinScheduledTime(result);
       return result;
     }
   }
@@ -212,11 +205,28 @@ public class MultilevelPriorityQueue extends IndexedBlockingReserveQueue<DriverT
    * the DriverTask with the lowest scheduled time.
    */
   private DriverTask chooseLevelAndTask() {
+    int selectedLevel = selectLevel(level -> !levelWaitingSplits[level].isEmpty());
+    // selected level == -1 means that the queue is empty and this method is only called when the
+    // queue is not empty.
+    checkState(selectedLevel != -1, "selected level can not equal to -1");
+    DriverTask result = levelWaitingSplits[selectedLevel].poll();
+    checkState(result != null, "result driverTask cannot be null");
+    return result;
+  }
+
+  /**
+   * Select the level that has the lowest ratio of actual to the target time among the levels which
+   * have waiting tasks.
+   *
+   * @param hasWaitingTasks whether a level has waiting tasks
+   * @return the selected level, -1 if no level has waiting tasks
+   */
+  protected int selectLevel(IntPredicate hasWaitingTasks) {
     long targetScheduledTime = getLevel0TargetTime();
     double worstRatio = 1;
     int selectedLevel = -1;
     for (int level = 0; level < LEVEL_THRESHOLD_SECONDS.length; level++) {
-      if (!levelWaitingSplits[level].isEmpty()) {
+      if (hasWaitingTasks.test(level)) {
         long levelTime = levelScheduledTime[level].get();
         double ratio = levelTime == 0 ? 0 : targetScheduledTime / (1.0 * levelTime);
         if (selectedLevel == -1 || ratio > worstRatio) {
@@ -227,13 +237,28 @@ public class MultilevelPriorityQueue extends IndexedBlockingReserveQueue<DriverT
 
       targetScheduledTime /= levelTimeMultiplier;
     }
+    return selectedLevel;
+  }
 
-    // selected level == -1 means that the queue is empty and this method is only called when the
-    // queue is not empty.
-    checkState(selectedLevel != -1, "selected level can not equal to -1");
-    DriverTask result = levelWaitingSplits[selectedLevel].poll();
-    checkState(result != null, "result driverTask cannot be null");
-    return result;
+  /**
+   * Set the scheduled time of a level which is going to have waiting tasks again to its expected
+   * scheduled time.
+   */
+  protected void catchUpLevelScheduledTime(int level) {
+    // Accesses to levelScheduledTime are not synchronized, so we have a data race
+    // here - our level time math will be off. However, the staleness is bounded by
+    // the fact that only running splits that complete during this computation
+    // can update the level time. Therefore, this is benign.
+    long level0Time = getLevel0TargetTime();
+    long levelExpectedTime = (long) (level0Time / Math.pow(levelTimeMultiplier, level));
+    long delta = levelExpectedTime - levelScheduledTime[level].get();
+    levelScheduledTime[level].addAndGet(delta);
+  }
+
+  /** Record the scheduled time of the task selected to run as the minimum one of its level. */
+  protected void updateLevelMinScheduledTime(DriverTask task) {
+    levelMinScheduledTime[task.getPriority().getLevel()].set(
+        task.getPriority().getLevelScheduledTime());
   }
 
   /**
@@ -246,7 +271,7 @@ public class MultilevelPriorityQueue extends IndexedBlockingReserveQueue<DriverT
    *
    * @return the expected scheduled time of LEVEL0
    */
-  private synchronized long getLevel0TargetTime() {
+  private long getLevel0TargetTime() {
     long level0TargetTime = levelScheduledTime[0].get();
     double currentMultiplier = levelTimeMultiplier;
 
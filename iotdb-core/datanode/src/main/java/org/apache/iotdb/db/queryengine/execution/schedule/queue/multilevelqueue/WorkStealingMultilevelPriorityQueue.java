@@ -0,0 +1,343 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iotdb.db.queryengine.execution.schedule.queue.multilevelqueue;
+
+import org.apache.iotdb.db.queryengine.execution.schedule.queue.ID;
+import org.apache.iotdb.db.queryengine.execution.schedule.task.DriverTask;
+
+import com.google.common.base.Preconditions;
+
+import java.util.Iterator;
+import java.util.PriorityQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * A {@link MultilevelPriorityQueue} whose ready tasks are kept in several shards, each guarded by
+ * its own lock, instead of in one queue guarded by the monitor of the queue.
+ *
+ * <p>Each worker thread is bound to a shard on its first poll. It polls from its own shard and
+ * steals from the other shards when its own shard is empty. Tasks pushed by a worker thread (i.e.
+ * the ones yielding after their time slice) go back to the shard of the worker, other tasks are
+ * spread over the shards in turn.
+ *
+ * <p>The scheduled time of levels is shared by all the shards, so a shard selects the level to poll
+ * from in the same way as {@link MultilevelPriorityQueue} does, and the fairness between levels and
+ * between the tasks in a level is kept within each shard.
+ */
+public class WorkStealingMultilevelPriorityQueue extends MultilevelPriorityQueue {
+
+  private final Shard[] shards;
+
+  // The shard each worker thread is bound to, null for threads which have never polled
+  private final ThreadLocal<Shard> workerShard = new ThreadLocal<>();
+  private final AtomicInteger nextWorkerShard = new AtomicInteger(0);
+  private final AtomicInteger nextPushShard = new AtomicInteger(0);
+
+  // Number of waiting tasks of each level in all the shards
+  private final AtomicInteger[] levelWaitingTaskCount;
+
+  private final AtomicInteger readySize = new AtomicInteger(0);
+  private final AtomicInteger reservedSize = new AtomicInteger(0);
+
+  // Worker threads wait here when all the shards are empty
+  private final ReentrantLock idleLock = new ReentrantLock();
+  private final Condition notEmpty = idleLock.newCondition();
+  private final AtomicInteger idleWorkerCount = new AtomicInteger(0);
+
+  public WorkStealingMultilevelPriorityQueue(
+      double levelTimeMultiplier, int maxCapacity, DriverTask queryHolder, int shardNum) {
+    super(levelTimeMultiplier, maxCapacity, queryHolder);
+    checkArgument(shardNum > 0, "shardNum should be positive");
+    this.shards = new Shard[shardNum];
+    for (int i = 0; i < shardNum; i++) {
+      shards[i] = new Shard();
+    }
+    this.levelWaitingTaskCount = new AtomicInteger[getNumOfPriorityLevels()];
+    for (int level = 0; level < levelWaitingTaskCount.length; level++) {
+      levelWaitingTaskCount[level] = new AtomicInteger(0);
+    }
+  }
+
+  @Override
+  public DriverTask poll() throws InterruptedException {
+    Shard localShard = workerShard.get();
+    if (localShard == null) {
+      localShard = shards[Math.floorMod(nextWorkerShard.getAndIncrement(), shards.length)];
+      workerShard.set(localShard);
+    }
+    while (true) {
+      DriverTask task = localShard.poll();
+      if (task == null) {
+        task = steal(localShard);
+      }
+      if (task != null) {
+        readySize.decrementAndGet();
+        reservedSize.incrementAndGet();
+        return task;
+      }
+      awaitNotEmpty();
+    }
+  }
+
+  @Override
+  public void push(DriverTask element) {
+    if (element == null) {
+      throw new NullPointerException("pushed element is null");
+    }
+    Preconditions.checkState(
+        readySize.get() + reservedSize.get() < capacity, TOO_MANY_CONCURRENT_QUERIES_ERROR_MSG);
+    selectShardToPush().push(element);
+    readySize.incrementAndGet();
+    signalIdleWorker();
+  }
+
+  @Override
+  public void repush(DriverTask element) {
+    if (element == null) {
+      throw new NullPointerException("pushed element is null");
+    }
+    selectShardToPush().push(element);
+    reservedSize.decrementAndGet();
+    readySize.incrementAndGet();
+    signalIdleWorker();
+  }
+
+  @Override
+  public void decreaseReservedSize() {
+    reservedSize.decrementAndGet();
+  }
+
+  @Override
+  public DriverTask remove(ID id) {
+    // The queryHolder is shared, so it should be used by one thread at a time
+    synchronized (queryHolder) {
+      queryHolder.setId(id);
+      for (Shard shard : shards) {
+        DriverTask removed = shard.remove(queryHolder);
+        if (removed != null) {
+          Preconditions.checkState(
+              readySize.decrementAndGet() >= 0, "The size of readyQueue cannot be negative.");
+          return removed;
+        }
+      }
+      return null;
+    }
+  }
+
+  @Override
+  public void clear() {
+    for (Shard shard : shards) {
+      shard.clear();
+    }
+    readySize.set(0);
+  }
+
+  @Override
+  public int size() {
+    return readySize.get();
+  }
+
+  @Override
+  protected boolean isEmpty() {
+    return readySize.get() == 0;
+  }
+
+  private Shard selectShardToPush() {
+    Shard localShard = workerShard.get();
+    return localShard != null
+        ? localShard
+        : shards[Math.floorMod(nextPushShard.getAndIncrement(), shards.length)];
+  }
+
+  /** Steal a task from the other shards, starting from a random one to spread the stealers. */
+  private DriverTask steal(Shard localShard) {
+    int start = ThreadLocalRandom.current().nextInt(shards.length);
+    for (int i = 0; i < shards.length; i++) {
+      Shard victim = shards[(start + i) % shards.length];
+      if (victim == localShard || victim.isEmpty()) {
+        continue;
+      }
+      DriverTask task = victim.poll();
+      if (task != null) {
+        return task;
+      }
+    }
+    return null;
+  }
+
+  private void awaitNotEmpty() throws InterruptedException {
+    idleLock.lockInterruptibly();
+    try {
+      idleWorkerCount.incrementAndGet();
+      try {
+        while (readySize.get() == 0) {
+          notEmpty.await();
+        }
+      } finally {
+        idleWorkerCount.decrementAndGet();
+      }
+    } finally {
+      idleLock.unlock();
+    }
+  }
+
+  private void signalIdleWorker() {
+    // readySize is increased before checking idleWorkerCount, and a worker increases
+    // idleWorkerCount before checking readySize, so either the worker sees the new task or it's
+    // signaled here.
+    if (idleWorkerCount.get() > 0) {
+      idleLock.lock();
+      try {
+        notEmpty.signal();
+      } finally {
+        idleLock.unlock();
+      }
+    }
+  }
+
+  private class Shard {
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final PriorityQueue<DriverTask> highestPriorityTasks =
+        new PriorityQueue<>(new DriverTask.SchedulePriorityComparator());
+    private final PriorityQueue<DriverTask>[] levelWaitingTasks;
+
+    // Written under the lock, read without it to skip empty shards when stealing
+    private volatile int size;
+
+    @SuppressWarnings("unchecked")
+    private Shard() {
+      this.levelWaitingTasks = new PriorityQueue[getNumOfPriorityLevels()];
+      for (int level = 0; level < levelWaitingTasks.length; level++) {
+        levelWaitingTasks[level] = new PriorityQueue<>(new DriverTask.SchedulePriorityComparator());
+      }
+    }
+
+    private void push(DriverTask task) {
+      checkArgument(task != null, "DriverTask to be pushed is null");
+      lock.lock();
+      try {
+        pushToShard(task);
+        size++;
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    private void pushToShard(DriverTask task) {
+      if (task.isHighestPriority()) {
+        highestPriorityTasks.offer(task);
+        return;
+      }
+      int level = task.getPriority().getLevel();
+      if (levelWaitingTaskCount[level].getAndIncrement() == 0) {
+        catchUpLevelScheduledTime(level);
+      }
+      levelWaitingTasks[level].offer(task);
+    }
+
+    private DriverTask poll() {
+      lock.lock();
+      try {
+        if (!highestPriorityTasks.isEmpty()) {
+          size--;
+          return highestPriorityTasks.poll();
+        }
+        while (true) {
+          int level = selectLevel(l -> !levelWaitingTasks[l].isEmpty());
+          if (level == -1) {
+            return null;
+          }
+          DriverTask task = levelWaitingTasks[level].poll();
+          levelWaitingTaskCount[level].decrementAndGet();
+          if (task.updatePriority()) {
+            // The level of the DriverTaskHandle has changed, move the task to its new level
+            pushToShard(task);
+            continue;
+          }
+          updateLevelMinScheduledTime(task);
+          size--;
+          return task;
+        }
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    /** Remove the task with the same ID as the given one, and return the removed task. */
+    private DriverTask remove(DriverTask task) {
+      lock.lock();
+      try {
+        DriverTask removed = removeFromQueue(highestPriorityTasks, task);
+        if (removed != null) {
+          size--;
+          return removed;
+        }
+        for (int level = 0; level < levelWaitingTasks.length; level++) {
+          removed = removeFromQueue(levelWaitingTasks[level], task);
+          if (removed != null) {
+            levelWaitingTaskCount[level].decrementAndGet();
+            size--;
+            return removed;
+          }
+        }
+        return null;
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    private DriverTask removeFromQueue(PriorityQueue<DriverTask> queue, DriverTask task) {
+      Iterator<DriverTask> iterator = queue.iterator();
+      while (iterator.hasNext()) {
+        DriverTask element = iterator.next();
+        // task is the query holder, compare from its side as PriorityQueue#remove does
+        if (task.equals(element)) {
+          iterator.remove();
+          return element;
+        }
+      }
+      return null;
+    }
+
+    private void clear() {
+      lock.lock();
+      try {
+        highestPriorityTasks.clear();
+        for (int level = 0; level < levelWaitingTasks.length; level++) {
+          levelWaitingTaskCount[level].addAndGet(-levelWaitingTasks[level].size());
+          levelWaitingTasks[level].clear();
+        }
+        size = 0;
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    private boolean isEmpty() {
+      return size == 0;
+    }
+  }
+}
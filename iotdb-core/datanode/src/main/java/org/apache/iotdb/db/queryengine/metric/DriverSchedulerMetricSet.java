@@ -38,6 +38,7 @@ public class DriverSchedulerMetricSet implements IMetricSet {
 
   public static final String READY_QUEUED_TIME = "ready_queued_time";
   public static final String BLOCK_QUEUED_TIME = "block_queued_time";
+  public static final String SCHEDULED_TIME = "scheduled_time";
   public static final String READY_QUEUE_TASK_COUNT = "ready_queue_task_count";
   public static final String BLOCK_QUEUE_TASK_COUNT = "block_queue_task_count";
   private static final String TIMEOUT_QUEUE_SIZE = "timeout_queue_task_count";
@@ -45,6 +46,7 @@ public class DriverSchedulerMetricSet implements IMetricSet {
 
   private Timer readyQueuedTimeTimer = DoNothingMetricManager.DO_NOTHING_TIMER;
   private Timer blockQueuedTimeTimer = DoNothingMetricManager.DO_NOTHING_TIMER;
+  private Timer scheduledTimeTimer = DoNothingMetricManager.DO_NOTHING_TIMER;
 
   @Override
   public void bindTo(AbstractMetricService metricService) {
@@ -60,6 +62,12 @@ public class DriverSchedulerMetricSet implements IMetricSet {
             MetricLevel.IMPORTANT,
             Tag.NAME.toString(),
             BLOCK_QUEUED_TIME);
+    scheduledTimeTimer =
+        metricService.getOrCreateTimer(
+            Metric.DRIVER_SCHEDULER.toString(),
+            MetricLevel.IMPORTANT,
+            Tag.NAME.toString(),
+            SCHEDULED_TIME);
     metricService.createAutoGauge(
         Metric.DRIVER_SCHEDULER.toString(),
         MetricLevel.IMPORTANT,
@@ -94,6 +102,7 @@ public class DriverSchedulerMetricSet implements IMetricSet {
   public void unbindFrom(AbstractMetricService metricService) {
     readyQueuedTimeTimer = DoNothingMetricManager.DO_NOTHING_TIMER;
     blockQueuedTimeTimer = DoNothingMetricManager.DO_NOTHING_TIMER;
+    scheduledTimeTimer = DoNothingMetricManager.DO_NOTHING_TIMER;
     metricService.remove(
         MetricType.TIMER,
         Metric.DRIVER_SCHEDULER.toString(),
@@ -104,6 +113,8 @@ public class DriverSchedulerMetricSet implements IMetricSet {
         Metric.DRIVER_SCHEDULER.toString(),
         Tag.NAME.toString(),
         BLOCK_QUEUED_TIME);
+    metricService.remove(
+        MetricType.TIMER, Metric.DRIVER_SCHEDULER.toString(), Tag.NAME.toString(), SCHEDULED_TIME);
     metricService.remove(
         MetricType.AUTO_GAUGE,
         Metric.DRIVER_SCHEDULER.toString(),
@@ -139,6 +150,11 @@ public class DriverSchedulerMetricSet implements IMetricSet {
     }
   }
 
+  /** Record the time the drivers of a fragment instance run on the query worker threads. */
+  public void recordTaskScheduledTime(long scheduledTimeInNanos) {
+    scheduledTimeTimer.updateNanos(scheduledTimeInNanos);
+  }
+
   public static DriverSchedulerMetricSet getInstance() {
     return INSTANCE;
   }
@@ -0,0 +1,117 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iotdb.db.queryengine.metric;
+
+import org.apache.iotdb.commons.service.metric.enums.Metric;
+import org.apache.iotdb.commons.service.metric.enums.Tag;
+import org.apache.iotdb.db.storageengine.buffer.ModsCache;
+import org.apache.iotdb.metrics.AbstractMetricService;
+import org.apache.iotdb.metrics.metricsets.IMetricSet;
+import org.apache.iotdb.metrics.utils.MetricLevel;
+import org.apache.iotdb.metrics.utils.MetricType;
+
+import java.util.Objects;
+
+public class ModsCacheMetrics implements IMetricSet {
+
+  private static final String MODS = "mods";
+  private static final String MODS_CACHE_TOTAL_USAGE = "mods_cache_total_usage";
+
+  private final ModsCache modsCache;
+
+  public ModsCacheMetrics(ModsCache modsCache) {
+    this.modsCache = modsCache;
+  }
+
+  @Override
+  public void bindTo(AbstractMetricService metricService) {
+    metricService.createAutoGauge(
+        Metric.CACHE_HIT_RATE.toString(),
+        MetricLevel.IMPORTANT,
+        modsCache,
+        ModsCache::getHitRate,
+        Tag.NAME.toString(),
+        MODS);
+    metricService.createAutoGauge(
+        Metric.CACHE.toString(),
+        MetricLevel.IMPORTANT,
+        modsCache,
+        ModsCache::getHitCount,
+        Tag.NAME.toString(),
+        MODS,
+        Tag.TYPE.toString(),
+        "hit");
+    metricService.createAutoGauge(
+        Metric.CACHE.toString(),
+        MetricLevel.IMPORTANT,
+        modsCache,
+        ModsCache::getRequestCount,
+        Tag.NAME.toString(),
+        MODS,
+        Tag.TYPE.toString(),
+        "all");
+    metricService.createAutoGauge(
+        Metric.MEM.toString(),
+        MetricLevel.IMPORTANT,
+        modsCache,
+        ModsCache::getUsedMemory,
+        Tag.NAME.toString(),
+        MODS_CACHE_TOTAL_USAGE);
+  }
+
+  @Override
+  public void unbindFrom(AbstractMetricService metricService) {
+    metricService.remove(
+        MetricType.AUTO_GAUGE, Metric.CACHE_HIT_RATE.toString(), Tag.NAME.toString(), MODS);
+    metricService.remove(
+        MetricType.AUTO_GAUGE,
+        Metric.CACHE.toString(),
+        Tag.NAME.toString(),
+        MODS,
+        Tag.TYPE.toString(),
+        "hit");
+    metricService.remove(
+        MetricType.AUTO_GAUGE,
+        Metric.CACHE.toString(),
+        Tag.NAME.toString(),
+        MODS,
+        Tag.TYPE.toString(),
+        "all");
+    metricService.remove(
+        MetricType.AUTO_GAUGE, Metric.MEM.toString(), Tag.NAME.toString(), MODS_CACHE_TOTAL_USAGE);
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    ModsCacheMetrics that = (ModsCacheMetrics) o;
+    return Objects.equals(modsCache, that.modsCache);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(modsCache);
+  }
+}
@@ -1147,8 +1147,11 @@ public class SeriesScanCostMetricSet implements IMetricSet {
   private static final String ALL = "all";
   public static final String READ_CHUNK_CACHE = READ_CHUNK + "_" + CACHE;
   public static final String READ_CHUNK_FILE = READ_CHUNK + "_" + FILE;
+  private static final String DIRECT = "direct";
+  public static final String READ_CHUNK_DIRECT = READ_CHUNK + "_" + DIRECT;
   private Timer readChunkCacheTimer = DoNothingMetricManager.DO_NOTHING_TIMER;
   private Timer readChunkFileTimer = DoNothingMetricManager.DO_NOTHING_TIMER;
+  private Timer readChunkDirectTimer = DoNothingMetricManager.DO_NOTHING_TIMER;
 
   private void bindReadChunk(AbstractMetricService metricService) {
     readChunkCacheTimer =
@@ -1171,11 +1174,31 @@ public class SeriesScanCostMetricSet implements IMetricSet {
             NULL,
             Tag.FROM.toString(),
             FILE);
+    readChunkDirectTimer =
+        metricService.getOrCreateTimer(
+            Metric.SERIES_SCAN_COST.toString(),
+            MetricLevel.IMPORTANT,
+            Tag.STAGE.toString(),
+            READ_CHUNK_DIRECT,
+            Tag.TYPE.toString(),
+            NULL,
+            Tag.FROM.toString(),
+            FILE);
   }
 
   private void unbindReadChunk(AbstractMetricService metricService) {
     readChunkCacheTimer = DoNothingMetricManager.DO_NOTHING_TIMER;
     readChunkFileTimer = DoNothingMetricManager.DO_NOTHING_TIMER;
+    readChunkDirectTimer = DoNothingMetricManager.DO_NOTHING_TIMER;
+    metricService.remove(
+        MetricType.TIMER,
+        Metric.SERIES_SCAN_COST.toString(),
+        Tag.STAGE.toString(),
+        READ_CHUNK_DIRECT,
+        Tag.TYPE.toString(),
+        NULL,
+        Tag.FROM.toString(),
+        FILE);
     Arrays.asList(CACHE, FILE)
         .forEach(
             from ->
@@ -1615,6 +1638,9 @@ public class SeriesScanCostMetricSet implements IMetricSet {
       case READ_CHUNK_FILE:
         readChunkFileTimer.updateNanos(cost);
         break;
+      case READ_CHUNK_DIRECT:
+        readChunkDirectTimer.updateNanos(cost);
+        break;
       default:
         break;
     }
@@ -33,6 +33,7 @@ import org.apache.iotdb.commons.partition.SchemaNodeManagementPartition;
 import org.apache.iotdb.commons.partition.SchemaPartition;
 import org.apache.iotdb.commons.partition.executor.SeriesPartitionExecutor;
 import org.apache.iotdb.commons.path.PathPatternTree;
+import org.apache.iotdb.commons.service.metric.MetricService;
 import org.apache.iotdb.confignode.rpc.thrift.TDataPartitionReq;
 import org.apache.iotdb.confignode.rpc.thrift.TDataPartitionTableResp;
 import org.apache.iotdb.confignode.rpc.thrift.TSchemaNodeManagementReq;
@@ -96,6 +97,7 @@ public class ClusterPartitionFetcher implements IPartitionFetcher {
         SeriesPartitionExecutor.getSeriesPartitionExecutor(
             config.getSeriesPartitionExecutorClass(), config.getSeriesPartitionSlotNum());
     this.partitionCache = new PartitionCache();
+    MetricService.getInstance().addMetricSet(partitionCache.getCacheMetrics());
   }
 
   @Override
@@ -105,6 +107,9 @@ public class ClusterPartitionFetcher implements IPartitionFetcher {
     final List<IDeviceID> deviceIDs = patternTree.getAllDevicePatterns();
     final Map<String, List<IDeviceID>> storageGroupToDeviceMap =
         partitionCache.getDatabaseToDevice(deviceIDs, true, false, userName);
+    // taken before the cache lookup, so that a fetched partition invalidated meanwhile is
+    // not put into cache
+    final long cacheEpoch = partitionCache.getEpoch();
     SchemaPartition schemaPartition = partitionCache.getSchemaPartition(storageGroupToDeviceMap);
     if (null == schemaPartition) {
       try (final ConfigNodeClient client =
@@ -115,7 +120,7 @@ public class ClusterPartitionFetcher implements IPartitionFetcher {
             == TSStatusCode.SUCCESS_STATUS.getStatusCode()) {
           schemaPartition = parseSchemaPartitionTableResp(schemaPartitionTableResp);
           partitionCache.updateSchemaPartitionCache(
-              schemaPartitionTableResp.getSchemaPartitionTable());
+              cacheEpoch, schemaPartitionTableResp.getSchemaPartitionTable());
         } else {
           throw new IoTDBRuntimeException(
               schemaPartitionTableResp.getStatus().getMessage(),
@@ -149,6 +154,7 @@ public class ClusterPartitionFetcher implements IPartitionFetcher {
     final List<IDeviceID> deviceIDs = patternTree.getAllDevicePatterns();
     final Map<String, List<IDeviceID>> storageGroupToDeviceMap =
         partitionCache.getDatabaseToDevice(deviceIDs, true, true, userName);
+    final long cacheEpoch = partitionCache.getEpoch();
     SchemaPartition schemaPartition = partitionCache.getSchemaPartition(storageGroupToDeviceMap);
     if (null == schemaPartition) {
       try (final ConfigNodeClient client =
@@ -159,7 +165,7 @@ public class ClusterPartitionFetcher implements IPartitionFetcher {
             == TSStatusCode.SUCCESS_STATUS.getStatusCode()) {
           schemaPartition = parseSchemaPartitionTableResp(schemaPartitionTableResp);
           partitionCache.updateSchemaPartitionCache(
-              schemaPartitionTableResp.getSchemaPartitionTable());
+              cacheEpoch, schemaPartitionTableResp.getSchemaPartitionTable());
         } else {
           throw new IoTDBRuntimeException(
               schemaPartitionTableResp.getStatus().getMessage(),
@@ -196,6 +202,7 @@ public class ClusterPartitionFetcher implements IPartitionFetcher {
   @Override
   public DataPartition getDataPartition(
       final Map<String, List<DataPartitionQueryParam>> sgNameToQueryParamsMap) {
+    final long cacheEpoch = partitionCache.getEpoch();
     DataPartition dataPartition = partitionCache.getDataPartition(sgNameToQueryParamsMap);
     if (null == dataPartition) {
       try (ConfigNodeClient client =
@@ -205,7 +212,8 @@ public class ClusterPartitionFetcher implements IPartitionFetcher {
         if (dataPartitionTableResp.getStatus().getCode()
             == TSStatusCode.SUCCESS_STATUS.getStatusCode()) {
           dataPartition = parseDataPartitionResp(dataPartitionTableResp);
-          partitionCache.updateDataPartitionCache(dataPartitionTableResp.getDataPartitionTable());
+          partitionCache.updateDataPartitionCache(
+              cacheEpoch, dataPartitionTableResp.getDataPartitionTable());
         } else {
           throw new StatementAnalyzeException(
               "An error occurred when executing getDataPartition():"
@@ -246,6 +254,7 @@ public class ClusterPartitionFetcher implements IPartitionFetcher {
   @Override
   public DataPartition getOrCreateDataPartition(
       final Map<String, List<DataPartitionQueryParam>> sgNameToQueryParamsMap) {
+    final long cacheEpoch = partitionCache.getEpoch();
     DataPartition dataPartition = partitionCache.getDataPartition(sgNameToQueryParamsMap);
     if (null == dataPartition) {
       // Do not use data partition cache
@@ -256,7 +265,8 @@ public class ClusterPartitionFetcher implements IPartitionFetcher {
         if (dataPartitionTableResp.getStatus().getCode()
             == TSStatusCode.SUCCESS_STATUS.getStatusCode()) {
           dataPartition = parseDataPartitionResp(dataPartitionTableResp);
-          partitionCache.updateDataPartitionCache(dataPartitionTableResp.getDataPartitionTable());
+          partitionCache.updateDataPartitionCache(
+              cacheEpoch, dataPartitionTableResp.getDataPartitionTable());
         } else {
           throw new StatementAnalyzeException(
               "An error occurred when executing getOrCreateDataPartition():"
@@ -279,6 +289,7 @@ public class ClusterPartitionFetcher implements IPartitionFetcher {
       final Map<String, List<DataPartitionQueryParam>> splitDataPartitionQueryParams =
           splitDataPartitionQueryParam(
               dataPartitionQueryParams, config.isAutoCreateSchemaEnabled(), userName);
+      final long cacheEpoch = partitionCache.getEpoch();
       dataPartition = partitionCache.getDataPartition(splitDataPartitionQueryParams);
 
       if (null == dataPartition) {
@@ -289,7 +300,8 @@ public class ClusterPartitionFetcher implements IPartitionFetcher {
         if (dataPartitionTableResp.getStatus().getCode()
             == TSStatusCode.SUCCESS_STATUS.getStatusCode()) {
           dataPartition = parseDataPartitionResp(dataPartitionTableResp);
-          partitionCache.updateDataPartitionCache(dataPartitionTableResp.getDataPartitionTable());
+          partitionCache.updateDataPartitionCache(
+              cacheEpoch, dataPartitionTableResp.getDataPartitionTable());
         } else {
           throw new IoTDBRuntimeException(
               dataPartitionTableResp.getStatus().getMessage(),
@@ -317,6 +329,10 @@ public class ClusterPartitionFetcher implements IPartitionFetcher {
     partitionCache.invalidAllCache();
   }
 
+  public void invalidCache(final String database) {
+    partitionCache.invalidCache(database);
+  }
+
   @Override
   public SchemaPartition getOrCreateSchemaPartition(
       final String database, final List<IDeviceID> deviceIDs, final String userName) {
@@ -339,6 +355,7 @@ public class ClusterPartitionFetcher implements IPartitionFetcher {
     try (final ConfigNodeClient client =
         configNodeClientManager.borrowClient(ConfigNodeInfo.CONFIG_REGION_ID)) {
       partitionCache.checkAndAutoCreateDatabase(database, isAutoCreate, userName);
+      final long cacheEpoch = partitionCache.getEpoch();
       SchemaPartition schemaPartition =
           Objects.nonNull(deviceIDs)
               ? partitionCache.getSchemaPartition(Collections.singletonMap(database, deviceIDs))
@@ -361,7 +378,7 @@ public class ClusterPartitionFetcher implements IPartitionFetcher {
             == TSStatusCode.SUCCESS_STATUS.getStatusCode()) {
           schemaPartition = parseSchemaPartitionTableResp(schemaPartitionTableResp);
           partitionCache.updateSchemaPartitionCache(
-              schemaPartitionTableResp.getSchemaPartitionTable());
+              cacheEpoch, schemaPartitionTableResp.getSchemaPartitionTable());
         } else {
           throw new IoTDBRuntimeException(
               schemaPartitionTableResp.getStatus().getMessage(),
@@ -80,7 +80,7 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.atomic.AtomicLong;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
 
 public class PartitionCache {
 
@@ -96,8 +96,8 @@ public class PartitionCache {
   private final int seriesPartitionSlotNum = config.getSeriesPartitionSlotNum();
   private final SeriesPartitionExecutor partitionExecutor;
 
-  /** the cache of database */
-  private final Set<String> databaseCache = new HashSet<>();
+  /** the cache of database, an immutable snapshot which is replaced when updated */
+  private volatile Set<String> databaseCache = Collections.emptySet();
 
   /** database -> schemaPartitionTable */
   private final Cache<String, SchemaPartitionTable> schemaPartitionCache;
@@ -108,15 +108,28 @@ public class PartitionCache {
   /** the latest time when groupIdToReplicaSetMap updated. */
   private final AtomicLong latestUpdateTime = new AtomicLong(0);
 
-  /** TConsensusGroupId -> TRegionReplicaSet */
-  private final Map<TConsensusGroupId, TRegionReplicaSet> groupIdToReplicaSetMap = new HashMap<>();
+  /**
+   * TConsensusGroupId -> TRegionReplicaSet, an immutable snapshot which is replaced when updated
+   */
+  private volatile Map<TConsensusGroupId, TRegionReplicaSet> groupIdToReplicaSetMap =
+      Collections.emptyMap();
 
-  /** The lock of cache */
-  private final ReentrantReadWriteLock databaseCacheLock = new ReentrantReadWriteLock();
+  /**
+   * Increased by each invalidation. The partitions fetched from configNode are only put into cache
+   * if no invalidation happened since the fetch began, so that an invalidated partition is not put
+   * back by a concurrent fetch.
+   */
+  private final AtomicLong epoch = new AtomicLong(0);
 
-  private final ReentrantReadWriteLock schemaPartitionCacheLock = new ReentrantReadWriteLock();
-  private final ReentrantReadWriteLock dataPartitionCacheLock = new ReentrantReadWriteLock();
-  private final ReentrantReadWriteLock regionReplicaSetLock = new ReentrantReadWriteLock();
+  /**
+   * The locks of cache. They are only taken by the writers of cache, the readers read the caches
+   * without locking.
+   */
+  private final ReentrantLock databaseCacheLock = new ReentrantLock();
+
+  private final ReentrantLock schemaPartitionCacheLock = new ReentrantLock();
+  private final ReentrantLock dataPartitionCacheLock = new ReentrantLock();
+  private final ReentrantLock regionReplicaSetLock = new ReentrantLock();
 
   private final IClientManager<ConfigRegionId, ConfigNodeClient> configNodeClientManager =
       ConfigNodeClientManager.getInstance();
@@ -194,11 +207,12 @@ public class PartitionCache {
   /**
    * get database of device
    *
+   * @param databases the snapshot of database cache
    * @param deviceID the path of device
    * @return database name, return {@code null} if cache miss
    */
-  private String getDatabaseName(final IDeviceID deviceID) {
-    for (final String database : databaseCache) {
+  private String getDatabaseName(final Set<String> databases, final IDeviceID deviceID) {
+    for (final String database : databases) {
       if (PathUtils.isStartWith(deviceID, database)) {
         return database;
       }
@@ -213,12 +227,7 @@ public class PartitionCache {
    * @return {@code true} if this database exists
    */
   private boolean containsDatabase(final String database) {
-    databaseCacheLock.readLock().lock();
-    try {
-      return databaseCache.contains(database);
-    } finally {
-      databaseCacheLock.readLock().unlock();
-    }
+    return databaseCache.contains(database);
   }
 
   /**
@@ -230,7 +239,7 @@ public class PartitionCache {
   private void fetchDatabaseAndUpdateCache(
       final DatabaseCacheResult<?, ?> result, final List<IDeviceID> deviceIDs)
       throws ClientManagerException, TException {
-    databaseCacheLock.writeLock().lock();
+    databaseCacheLock.lock();
     try (final ConfigNodeClient client =
         configNodeClientManager.borrowClient(ConfigNodeInfo.CONFIG_REGION_ID)) {
       result.reset();
@@ -249,13 +258,13 @@ public class PartitionCache {
         }
       }
     } finally {
-      databaseCacheLock.writeLock().unlock();
+      databaseCacheLock.unlock();
     }
   }
 
   /** get all database from configNode and update database cache. */
   private void fetchDatabaseAndUpdateCache() throws ClientManagerException, TException {
-    databaseCacheLock.writeLock().lock();
+    databaseCacheLock.lock();
     try (final ConfigNodeClient client =
         configNodeClientManager.borrowClient(ConfigNodeInfo.CONFIG_REGION_ID)) {
       final TGetDatabaseReq req =
@@ -268,7 +277,7 @@ public class PartitionCache {
         updateDatabaseCache(databaseSchemaResp.getDatabaseSchemaMap().keySet());
       }
     } finally {
-      databaseCacheLock.writeLock().unlock();
+      databaseCacheLock.unlock();
     }
   }
 
@@ -285,7 +294,7 @@ public class PartitionCache {
       final List<IDeviceID> deviceIDs,
       final String userName)
       throws ClientManagerException, MetadataException, TException {
-    databaseCacheLock.writeLock().lock();
+    databaseCacheLock.lock();
     try (final ConfigNodeClient client =
         configNodeClientManager.borrowClient(ConfigNodeInfo.CONFIG_REGION_ID)) {
       // Try to check whether database need to be created
@@ -352,7 +361,7 @@ public class PartitionCache {
         getDatabaseMap(result, deviceIDs, false);
       }
     } finally {
-      databaseCacheLock.writeLock().unlock();
+      databaseCacheLock.unlock();
     }
   }
 
@@ -365,7 +374,7 @@ public class PartitionCache {
    */
   private void createDatabaseAndUpdateCache(final String database, final String userName)
       throws ClientManagerException, TException {
-    databaseCacheLock.writeLock().lock();
+    databaseCacheLock.lock();
     try (final ConfigNodeClient client =
         configNodeClientManager.borrowClient(ConfigNodeInfo.CONFIG_REGION_ID)) {
       long startTime = System.nanoTime();
@@ -390,7 +399,7 @@ public class PartitionCache {
         throw new IoTDBRuntimeException(tsStatus.message, tsStatus.code);
       }
     } finally {
-      databaseCacheLock.writeLock().unlock();
+      databaseCacheLock.unlock();
     }
   }
 
@@ -406,42 +415,38 @@ public class PartitionCache {
       final DatabaseCacheResult<?, ?> result,
       final List<IDeviceID> deviceIDs,
       final boolean failFast) {
-    databaseCacheLock.readLock().lock();
-    try {
-      // reset result before try
-      result.reset();
-      boolean status = true;
-      for (final IDeviceID devicePath : deviceIDs) {
-        final String databaseName = getDatabaseName(devicePath);
-        if (null == databaseName) {
-          if (logger.isDebugEnabled()) {
-            logger.debug(
-                "[{} Cache] miss when search device {}",
-                CacheMetrics.DATABASE_CACHE_NAME,
-                devicePath);
-          }
-          status = false;
-          if (failFast) {
-            break;
-          } else {
-            result.addMissedDevice(devicePath);
-          }
+    final Set<String> databases = databaseCache;
+    // reset result before try
+    result.reset();
+    boolean status = true;
+    for (final IDeviceID devicePath : deviceIDs) {
+      final String databaseName = getDatabaseName(databases, devicePath);
+      if (null == databaseName) {
+        if (logger.isDebugEnabled()) {
+          logger.debug(
+              "[{} Cache] miss when search device {}",
+              CacheMetrics.DATABASE_CACHE_NAME,
+              devicePath);
+        }
+        status = false;
+        if (failFast) {
+          break;
         } else {
-          result.put(devicePath, databaseName);
+          result.addMissedDevice(devicePath);
         }
+      } else {
+        result.put(devicePath, databaseName);
       }
-      // setFailed the result when miss
-      if (!status) {
-        result.setFailed();
-      }
-      if (logger.isDebugEnabled()) {
-        logger.debug(
-            "[{} Cache] hit when search device {}", CacheMetrics.DATABASE_CACHE_NAME, deviceIDs);
-      }
-      cacheMetrics.record(status, CacheMetrics.DATABASE_CACHE_NAME);
-    } finally {
-      databaseCacheLock.readLock().unlock();
     }
+    // setFailed the result when miss
+    if (!status) {
+      result.setFailed();
+    }
+    if (logger.isDebugEnabled()) {
+      logger.debug(
+          "[{} Cache] hit when search device {}", CacheMetrics.DATABASE_CACHE_NAME, deviceIDs);
+    }
+    cacheMetrics.record(status, CacheMetrics.DATABASE_CACHE_NAME);
   }
 
   /**
@@ -535,21 +540,42 @@ public class PartitionCache {
    * @param databaseNames the database names that need to update
    */
   public void updateDatabaseCache(final Set<String> databaseNames) {
-    databaseCacheLock.writeLock().lock();
+    databaseCacheLock.lock();
     try {
-      databaseCache.addAll(databaseNames);
+      if (!databaseCache.containsAll(databaseNames)) {
+        final Set<String> newDatabaseCache = new HashSet<>(databaseCache);
+        newDatabaseCache.addAll(databaseNames);
+        databaseCache = Collections.unmodifiableSet(newDatabaseCache);
+      }
     } finally {
-      databaseCacheLock.writeLock().unlock();
+      databaseCacheLock.unlock();
     }
   }
 
   /** invalidate all database cache */
   public void removeFromDatabaseCache() {
-    databaseCacheLock.writeLock().lock();
+    databaseCacheLock.lock();
+    try {
+      databaseCache = Collections.emptySet();
+    } finally {
+      databaseCacheLock.unlock();
+    }
+  }
+
+  /**
+   * invalidate the databases in database cache
+   *
+   * @param databaseNames the database names that need to invalidate
+   */
+  private void removeFromDatabaseCache(final Set<String> databaseNames) {
+    databaseCacheLock.lock();
     try {
-      databaseCache.clear();
+      final Set<String> newDatabaseCache = new HashSet<>(databaseCache);
+      if (newDatabaseCache.removeAll(databaseNames)) {
+        databaseCache = Collections.unmodifiableSet(newDatabaseCache);
+      }
     } finally {
-      databaseCacheLock.writeLock().unlock();
+      databaseCacheLock.unlock();
     }
   }
 
@@ -569,17 +595,11 @@ public class PartitionCache {
     if (consensusGroupIds.isEmpty()) {
       return Collections.emptyList();
     }
-    List<TRegionReplicaSet> result;
     // try to get regionReplicaSet from cache
-    regionReplicaSetLock.readLock().lock();
-    try {
-      result = getRegionReplicaSetInternal(consensusGroupIds);
-    } finally {
-      regionReplicaSetLock.readLock().unlock();
-    }
+    List<TRegionReplicaSet> result = getRegionReplicaSetInternal(consensusGroupIds);
     if (result.isEmpty()) {
       // if not hit then try to get regionReplicaSet from configNode
-      regionReplicaSetLock.writeLock().lock();
+      regionReplicaSetLock.lock();
       try {
         // double check after getting the write lock
         result = getRegionReplicaSetInternal(consensusGroupIds);
@@ -608,7 +628,7 @@ public class PartitionCache {
           }
         }
       } finally {
-        regionReplicaSetLock.writeLock().unlock();
+        regionReplicaSetLock.unlock();
       }
     }
     // try to get regionReplicaSet by consensusGroupId
@@ -617,9 +637,10 @@ public class PartitionCache {
 
   private List<TRegionReplicaSet> getRegionReplicaSetInternal(
       List<TConsensusGroupId> consensusGroupIds) {
+    Map<TConsensusGroupId, TRegionReplicaSet> replicaSetMap = groupIdToReplicaSetMap;
     List<TRegionReplicaSet> result = new ArrayList<>(consensusGroupIds.size());
     for (TConsensusGroupId groupId : consensusGroupIds) {
-      TRegionReplicaSet replicaSet = groupIdToReplicaSetMap.get(groupId);
+      TRegionReplicaSet replicaSet = replicaSetMap.get(groupId);
       if (replicaSet != null) {
         result.add(replicaSet);
       } else {
@@ -638,27 +659,26 @@ public class PartitionCache {
    */
   public boolean updateGroupIdToReplicaSetMap(
       long timestamp, Map<TConsensusGroupId, TRegionReplicaSet> map) {
-    regionReplicaSetLock.writeLock().lock();
+    regionReplicaSetLock.lock();
     try {
       boolean result = (timestamp == latestUpdateTime.accumulateAndGet(timestamp, Math::max));
       // if timestamp is greater than latestUpdateTime, then update
       if (result) {
-        groupIdToReplicaSetMap.clear();
-        groupIdToReplicaSetMap.putAll(map);
+        groupIdToReplicaSetMap = Collections.unmodifiableMap(new HashMap<>(map));
       }
       return result;
     } finally {
-      regionReplicaSetLock.writeLock().unlock();
+      regionReplicaSetLock.unlock();
     }
   }
 
   /** invalidate replicaSetCache */
   public void invalidReplicaSetCache() {
-    regionReplicaSetLock.writeLock().lock();
+    regionReplicaSetLock.lock();
     try {
-      groupIdToReplicaSetMap.clear();
+      groupIdToReplicaSetMap = Collections.emptyMap();
     } finally {
-      regionReplicaSetLock.writeLock().unlock();
+      regionReplicaSetLock.unlock();
     }
   }
 
@@ -674,69 +694,63 @@ public class PartitionCache {
    */
   public SchemaPartition getSchemaPartition(
       final Map<String, List<IDeviceID>> databaseToDeviceMap) {
-    schemaPartitionCacheLock.readLock().lock();
-    try {
-      if (databaseToDeviceMap.isEmpty()) {
+    if (databaseToDeviceMap.isEmpty()) {
+      cacheMetrics.record(false, CacheMetrics.SCHEMA_PARTITION_CACHE_NAME);
+      return null;
+    }
+    final Map<String, Map<TSeriesPartitionSlot, TRegionReplicaSet>> schemaPartitionMap =
+        new HashMap<>();
+    // check cache for each database
+    for (final Map.Entry<String, List<IDeviceID>> entry : databaseToDeviceMap.entrySet()) {
+      final String databaseName = entry.getKey();
+      final Map<TSeriesPartitionSlot, TRegionReplicaSet> regionReplicaSetMap =
+          schemaPartitionMap.computeIfAbsent(databaseName, k -> new HashMap<>());
+      final SchemaPartitionTable schemaPartitionTable =
+          schemaPartitionCache.getIfPresent(databaseName);
+      if (null == schemaPartitionTable) {
+        // if database not find, then return cache miss.
+        if (logger.isDebugEnabled()) {
+          logger.debug(
+              "[{} Cache] miss when search database {}",
+              CacheMetrics.SCHEMA_PARTITION_CACHE_NAME,
+              databaseName);
+        }
         cacheMetrics.record(false, CacheMetrics.SCHEMA_PARTITION_CACHE_NAME);
         return null;
       }
-      final Map<String, Map<TSeriesPartitionSlot, TRegionReplicaSet>> schemaPartitionMap =
-          new HashMap<>();
-      // check cache for each database
-      for (final Map.Entry<String, List<IDeviceID>> entry : databaseToDeviceMap.entrySet()) {
-        final String databaseName = entry.getKey();
-        final Map<TSeriesPartitionSlot, TRegionReplicaSet> regionReplicaSetMap =
-            schemaPartitionMap.computeIfAbsent(databaseName, k -> new HashMap<>());
-        final SchemaPartitionTable schemaPartitionTable =
-            schemaPartitionCache.getIfPresent(databaseName);
-        if (null == schemaPartitionTable) {
-          // if database not find, then return cache miss.
+      final Map<TSeriesPartitionSlot, TConsensusGroupId> map =
+          schemaPartitionTable.getSchemaPartitionMap();
+      // check cache for each device
+      List<TSeriesPartitionSlot> seriesPartitionSlots = new ArrayList<>(entry.getValue().size());
+      List<TConsensusGroupId> consensusGroupIds = new ArrayList<>(entry.getValue().size());
+      for (final IDeviceID device : entry.getValue()) {
+        final TSeriesPartitionSlot seriesPartitionSlot =
+            partitionExecutor.getSeriesPartitionSlot(device);
+        if (!map.containsKey(seriesPartitionSlot)) {
+          // if one device not find, then return cache miss.
           if (logger.isDebugEnabled()) {
             logger.debug(
-                "[{} Cache] miss when search database {}",
+                "[{} Cache] miss when search device {}",
                 CacheMetrics.SCHEMA_PARTITION_CACHE_NAME,
-                databaseName);
+                device);
           }
           cacheMetrics.record(false, CacheMetrics.SCHEMA_PARTITION_CACHE_NAME);
           return null;
         }
-        final Map<TSeriesPartitionSlot, TConsensusGroupId> map =
-            schemaPartitionTable.getSchemaPartitionMap();
-        // check cache for each device
-        List<TSeriesPartitionSlot> seriesPartitionSlots = new ArrayList<>(entry.getValue().size());
-        List<TConsensusGroupId> consensusGroupIds = new ArrayList<>(entry.getValue().size());
-        for (final IDeviceID device : entry.getValue()) {
-          final TSeriesPartitionSlot seriesPartitionSlot =
-              partitionExecutor.getSeriesPartitionSlot(device);
-          if (!map.containsKey(seriesPartitionSlot)) {
-            // if one device not find, then return cache miss.
-            if (logger.isDebugEnabled()) {
-              logger.debug(
-                  "[{} Cache] miss when search device {}",
-                  CacheMetrics.SCHEMA_PARTITION_CACHE_NAME,
-                  device);
-            }
-            cacheMetrics.record(false, CacheMetrics.SCHEMA_PARTITION_CACHE_NAME);
-            return null;
-          }
-          seriesPartitionSlots.add(seriesPartitionSlot);
-          consensusGroupIds.add(map.get(seriesPartitionSlot));
-        }
-        List<TRegionReplicaSet> replicaSets = getRegionReplicaSet(consensusGroupIds);
-        for (int i = 0; i < replicaSets.size(); i++) {
-          regionReplicaSetMap.put(seriesPartitionSlots.get(i), replicaSets.get(i));
-        }
+        seriesPartitionSlots.add(seriesPartitionSlot);
+        consensusGroupIds.add(map.get(seriesPartitionSlot));
       }
-      if (logger.isDebugEnabled()) {
-        logger.debug("[{} Cache] hit", CacheMetrics.SCHEMA_PARTITION_CACHE_NAME);
+      List<TRegionReplicaSet> replicaSets = getRegionReplicaSet(consensusGroupIds);
+      for (int i = 0; i < replicaSets.size(); i++) {
+        regionReplicaSetMap.put(seriesPartitionSlots.get(i), replicaSets.get(i));
       }
-      // cache hit
-      cacheMetrics.record(true, CacheMetrics.SCHEMA_PARTITION_CACHE_NAME);
-      return new SchemaPartition(
-          schemaPartitionMap, seriesSlotExecutorName, seriesPartitionSlotNum);
-    } finally {
-      schemaPartitionCacheLock.readLock().unlock();
     }
+    if (logger.isDebugEnabled()) {
+      logger.debug("[{} Cache] hit", CacheMetrics.SCHEMA_PARTITION_CACHE_NAME);
+    }
+    // cache hit
+    cacheMetrics.record(true, CacheMetrics.SCHEMA_PARTITION_CACHE_NAME);
+    return new SchemaPartition(schemaPartitionMap, seriesSlotExecutorName, seriesPartitionSlotNum);
   }
 
   /**
@@ -746,45 +760,38 @@ public class PartitionCache {
    * @return SchemaPartition of databaseToDeviceMap
    */
   public SchemaPartition getSchemaPartition(String database) {
-    schemaPartitionCacheLock.readLock().lock();
-    try {
-      SchemaPartitionTable schemaPartitionTable = schemaPartitionCache.getIfPresent(database);
-      if (null == schemaPartitionTable) {
-        // if database not find, then return cache miss.
-        if (logger.isDebugEnabled()) {
-          logger.debug(
-              "[{} Cache] miss when search database {}",
-              CacheMetrics.SCHEMA_PARTITION_CACHE_NAME,
-              database);
-        }
-        cacheMetrics.record(false, CacheMetrics.SCHEMA_PARTITION_CACHE_NAME);
-        return null;
-      }
-      Map<String, Map<TSeriesPartitionSlot, TRegionReplicaSet>> schemaPartitionMap =
-          new HashMap<>();
-      Map<TSeriesPartitionSlot, TRegionReplicaSet> regionReplicaSetMap =
-          schemaPartitionMap.computeIfAbsent(database, k -> new HashMap<>());
-
-      Map<TSeriesPartitionSlot, TConsensusGroupId> orderedMap =
-          new LinkedHashMap<>(schemaPartitionTable.getSchemaPartitionMap());
-      List<TConsensusGroupId> orderedGroupIds = new ArrayList<>(orderedMap.values());
-      List<TRegionReplicaSet> regionReplicaSets = getRegionReplicaSet(orderedGroupIds);
-
-      int index = 0;
-      for (Map.Entry<TSeriesPartitionSlot, TConsensusGroupId> entry : orderedMap.entrySet()) {
-        regionReplicaSetMap.put(entry.getKey(), regionReplicaSets.get(index++));
-      }
-
+    SchemaPartitionTable schemaPartitionTable = schemaPartitionCache.getIfPresent(database);
+    if (null == schemaPartitionTable) {
+      // if database not find, then return cache miss.
       if (logger.isDebugEnabled()) {
-        logger.debug("[{} Cache] hit", CacheMetrics.SCHEMA_PARTITION_CACHE_NAME);
+        logger.debug(
+            "[{} Cache] miss when search database {}",
+            CacheMetrics.SCHEMA_PARTITION_CACHE_NAME,
+            database);
       }
-      // cache hit
-      cacheMetrics.record(true, CacheMetrics.SCHEMA_PARTITION_CACHE_NAME);
-      return new SchemaPartition(
-          schemaPartitionMap, seriesSlotExecutorName, seriesPartitionSlotNum);
-    } finally {
-      schemaPartitionCacheLock.readLock().unlock();
+      cacheMetrics.record(false, CacheMetrics.SCHEMA_PARTITION_CACHE_NAME);
+      return null;
     }
+    Map<String, Map<TSeriesPartitionSlot, TRegionReplicaSet>> schemaPartitionMap = new HashMap<>();
+    Map<TSeriesPartitionSlot, TRegionReplicaSet> regionReplicaSetMap =
+        schemaPartitionMap.computeIfAbsent(database, k -> new HashMap<>());
+
+    Map<TSeriesPartitionSlot, TConsensusGroupId> orderedMap =
+        new LinkedHashMap<>(schemaPartitionTable.getSchemaPartitionMap());
+    List<TConsensusGroupId> orderedGroupIds = new ArrayList<>(orderedMap.values());
+    List<TRegionReplicaSet> regionReplicaSets = getRegionReplicaSet(orderedGroupIds);
+
+    int index = 0;
+    for (Map.Entry<TSeriesPartitionSlot, TConsensusGroupId> entry : orderedMap.entrySet()) {
+      regionReplicaSetMap.put(entry.getKey(), regionReplicaSets.get(index++));
+    }
+
+    if (logger.isDebugEnabled()) {
+      logger.debug("[{} Cache] hit", CacheMetrics.SCHEMA_PARTITION_CACHE_NAME);
+    }
+    // cache hit
+    cacheMetrics.record(true, CacheMetrics.SCHEMA_PARTITION_CACHE_NAME);
+    return new SchemaPartition(schemaPartitionMap, seriesSlotExecutorName, seriesPartitionSlotNum);
   }
 
   /**
@@ -794,8 +801,24 @@ public class PartitionCache {
    */
   public void updateSchemaPartitionCache(
       final Map<String, Map<TSeriesPartitionSlot, TConsensusGroupId>> schemaPartitionTable) {
-    schemaPartitionCacheLock.writeLock().lock();
+    updateSchemaPartitionCache(epoch.get(), schemaPartitionTable);
+  }
+
+  /**
+   * update schemaPartitionCache by schemaPartition fetched from configNode, the update is dropped
+   * if the cache has been invalidated since the fetch began.
+   *
+   * @param fetchEpoch the epoch got by {@link #getEpoch()} before fetching
+   * @param schemaPartitionTable database to SeriesPartitionSlot to ConsensusGroupId map
+   */
+  public void updateSchemaPartitionCache(
+      final long fetchEpoch,
+      final Map<String, Map<TSeriesPartitionSlot, TConsensusGroupId>> schemaPartitionTable) {
+    schemaPartitionCacheLock.lock();
     try {
+      if (fetchEpoch != epoch.get()) {
+        return;
+      }
       for (final Map.Entry<String, Map<TSeriesPartitionSlot, TConsensusGroupId>> entry1 :
           schemaPartitionTable.entrySet()) {
         final String databaseName = entry1.getKey();
@@ -809,17 +832,18 @@ public class PartitionCache {
         seriesPartitionSlotTConsensusGroupIdMap.putAll(entry1.getValue());
       }
     } finally {
-      schemaPartitionCacheLock.writeLock().unlock();
+      schemaPartitionCacheLock.unlock();
     }
   }
 
   /** invalid all schemaPartitionCache */
   public void invalidAllSchemaPartitionCache() {
-    schemaPartitionCacheLock.writeLock().lock();
+    epoch.incrementAndGet();
+    schemaPartitionCacheLock.lock();
     try {
       schemaPartitionCache.invalidateAll();
     } finally {
-      schemaPartitionCacheLock.writeLock().unlock();
+      schemaPartitionCacheLock.unlock();
     }
   }
 
@@ -835,124 +859,118 @@ public class PartitionCache {
    */
   public DataPartition getDataPartition(
       Map<String, List<DataPartitionQueryParam>> databaseToQueryParamsMap) {
-    dataPartitionCacheLock.readLock().lock();
-    try {
-      if (databaseToQueryParamsMap.isEmpty()) {
+    if (databaseToQueryParamsMap.isEmpty()) {
+      cacheMetrics.record(false, CacheMetrics.DATA_PARTITION_CACHE_NAME);
+      return null;
+    }
+
+    final Set<TConsensusGroupId> allConsensusGroupIds = new HashSet<>();
+    final Map<TConsensusGroupId, HashSet<TimeSlotRegionInfo>> consensusGroupToTimeSlotMap =
+        new HashMap<>();
+
+    for (Map.Entry<String, List<DataPartitionQueryParam>> entry :
+        databaseToQueryParamsMap.entrySet()) {
+      String databaseName = entry.getKey();
+      List<DataPartitionQueryParam> params = entry.getValue();
+
+      if (null == params || params.isEmpty()) {
         cacheMetrics.record(false, CacheMetrics.DATA_PARTITION_CACHE_NAME);
         return null;
       }
 
-      final Set<TConsensusGroupId> allConsensusGroupIds = new HashSet<>();
-      final Map<TConsensusGroupId, HashSet<TimeSlotRegionInfo>> consensusGroupToTimeSlotMap =
-          new HashMap<>();
+      DataPartitionTable dataPartitionTable = dataPartitionCache.getIfPresent(databaseName);
+      if (null == dataPartitionTable) {
+        if (logger.isDebugEnabled()) {
+          logger.debug(
+              "[{} Cache] miss when search database {}",
+              CacheMetrics.DATA_PARTITION_CACHE_NAME,
+              databaseName);
+        }
+        cacheMetrics.record(false, CacheMetrics.DATA_PARTITION_CACHE_NAME);
+        return null;
+      }
 
-      for (Map.Entry<String, List<DataPartitionQueryParam>> entry :
-          databaseToQueryParamsMap.entrySet()) {
-        String databaseName = entry.getKey();
-        List<DataPartitionQueryParam> params = entry.getValue();
+      Map<TSeriesPartitionSlot, SeriesPartitionTable> cachedDatabasePartitionMap =
+          dataPartitionTable.getDataPartitionMap();
 
-        if (null == params || params.isEmpty()) {
-          cacheMetrics.record(false, CacheMetrics.DATA_PARTITION_CACHE_NAME);
+      for (DataPartitionQueryParam param : params) {
+        TSeriesPartitionSlot seriesPartitionSlot;
+        if (null != param.getDeviceID()) {
+          seriesPartitionSlot = partitionExecutor.getSeriesPartitionSlot(param.getDeviceID());
+        } else {
           return null;
         }
 
-        DataPartitionTable dataPartitionTable = dataPartitionCache.getIfPresent(databaseName);
-        if (null == dataPartitionTable) {
+        SeriesPartitionTable cachedSeriesPartitionTable =
+            cachedDatabasePartitionMap.get(seriesPartitionSlot);
+        if (null == cachedSeriesPartitionTable) {
           if (logger.isDebugEnabled()) {
             logger.debug(
-                "[{} Cache] miss when search database {}",
+                "[{} Cache] miss when search device {}",
                 CacheMetrics.DATA_PARTITION_CACHE_NAME,
-                databaseName);
+                param.getDeviceID());
           }
           cacheMetrics.record(false, CacheMetrics.DATA_PARTITION_CACHE_NAME);
           return null;
         }
 
-        Map<TSeriesPartitionSlot, SeriesPartitionTable> cachedDatabasePartitionMap =
-            dataPartitionTable.getDataPartitionMap();
+        Map<TTimePartitionSlot, List<TConsensusGroupId>> cachedTimePartitionSlot =
+            cachedSeriesPartitionTable.getSeriesPartitionMap();
 
-        for (DataPartitionQueryParam param : params) {
-          TSeriesPartitionSlot seriesPartitionSlot;
-          if (null != param.getDeviceID()) {
-            seriesPartitionSlot = partitionExecutor.getSeriesPartitionSlot(param.getDeviceID());
-          } else {
-            return null;
-          }
+        if (param.getTimePartitionSlotList().isEmpty()) {
+          return null;
+        }
 
-          SeriesPartitionTable cachedSeriesPartitionTable =
-              cachedDatabasePartitionMap.get(seriesPartitionSlot);
-          if (null == cachedSeriesPartitionTable) {
+        for (TTimePartitionSlot timePartitionSlot : param.getTimePartitionSlotList()) {
+          List<TConsensusGroupId> cacheConsensusGroupIds =
+              cachedTimePartitionSlot.get(timePartitionSlot);
+          if (null == cacheConsensusGroupIds
+              || cacheConsensusGroupIds.isEmpty()
+              || null == timePartitionSlot) {
             if (logger.isDebugEnabled()) {
               logger.debug(
-                  "[{} Cache] miss when search device {}",
+                  "[{} Cache] miss when search time partition {}",
                   CacheMetrics.DATA_PARTITION_CACHE_NAME,
-                  param.getDeviceID());
+                  timePartitionSlot);
             }
             cacheMetrics.record(false, CacheMetrics.DATA_PARTITION_CACHE_NAME);
             return null;
           }
 
-          Map<TTimePartitionSlot, List<TConsensusGroupId>> cachedTimePartitionSlot =
-              cachedSeriesPartitionTable.getSeriesPartitionMap();
-
-          if (param.getTimePartitionSlotList().isEmpty()) {
-            return null;
-          }
-
-          for (TTimePartitionSlot timePartitionSlot : param.getTimePartitionSlotList()) {
-            List<TConsensusGroupId> cacheConsensusGroupIds =
-                cachedTimePartitionSlot.get(timePartitionSlot);
-            if (null == cacheConsensusGroupIds
-                || cacheConsensusGroupIds.isEmpty()
-                || null == timePartitionSlot) {
-              if (logger.isDebugEnabled()) {
-                logger.debug(
-                    "[{} Cache] miss when search time partition {}",
-                    CacheMetrics.DATA_PARTITION_CACHE_NAME,
-                    timePartitionSlot);
-              }
-              cacheMetrics.record(false, CacheMetrics.DATA_PARTITION_CACHE_NAME);
-              return null;
-            }
-
-            for (TConsensusGroupId groupId : cacheConsensusGroupIds) {
-              allConsensusGroupIds.add(groupId);
-              consensusGroupToTimeSlotMap
-                  .computeIfAbsent(groupId, k -> new HashSet<>())
-                  .add(
-                      new TimeSlotRegionInfo(databaseName, seriesPartitionSlot, timePartitionSlot));
-            }
+          for (TConsensusGroupId groupId : cacheConsensusGroupIds) {
+            allConsensusGroupIds.add(groupId);
+            consensusGroupToTimeSlotMap
+                .computeIfAbsent(groupId, k -> new HashSet<>())
+                .add(new TimeSlotRegionInfo(databaseName, seriesPartitionSlot, timePartitionSlot));
           }
         }
       }
+    }
 
-      final List<TConsensusGroupId> consensusGroupIds = new ArrayList<>(allConsensusGroupIds);
-      final List<TRegionReplicaSet> allRegionReplicaSets = getRegionReplicaSet(consensusGroupIds);
+    final List<TConsensusGroupId> consensusGroupIds = new ArrayList<>(allConsensusGroupIds);
+    final List<TRegionReplicaSet> allRegionReplicaSets = getRegionReplicaSet(consensusGroupIds);
 
-      Map<String, Map<TSeriesPartitionSlot, Map<TTimePartitionSlot, List<TRegionReplicaSet>>>>
-          dataPartitionMap = new HashMap<>();
+    Map<String, Map<TSeriesPartitionSlot, Map<TTimePartitionSlot, List<TRegionReplicaSet>>>>
+        dataPartitionMap = new HashMap<>();
 
-      for (int i = 0; i < allRegionReplicaSets.size(); i++) {
-        TConsensusGroupId groupId = consensusGroupIds.get(i);
-        TRegionReplicaSet replicaSet = allRegionReplicaSets.get(i);
+    for (int i = 0; i < allRegionReplicaSets.size(); i++) {
+      TConsensusGroupId groupId = consensusGroupIds.get(i);
+      TRegionReplicaSet replicaSet = allRegionReplicaSets.get(i);
 
-        for (TimeSlotRegionInfo info : consensusGroupToTimeSlotMap.get(groupId)) {
-          dataPartitionMap
-              .computeIfAbsent(info.databaseName, k -> new HashMap<>())
-              .computeIfAbsent(info.seriesPartitionSlot, k -> new HashMap<>())
-              .computeIfAbsent(info.timePartitionSlot, k -> new ArrayList<>())
-              .add(replicaSet);
-        }
+      for (TimeSlotRegionInfo info : consensusGroupToTimeSlotMap.get(groupId)) {
+        dataPartitionMap
+            .computeIfAbsent(info.databaseName, k -> new HashMap<>())
+            .computeIfAbsent(info.seriesPartitionSlot, k -> new HashMap<>())
+            .computeIfAbsent(info.timePartitionSlot, k -> new ArrayList<>())
+            .add(replicaSet);
       }
+    }
 
-      if (logger.isDebugEnabled()) {
-        logger.debug("[{} Cache] hit", CacheMetrics.DATA_PARTITION_CACHE_NAME);
-      }
-      cacheMetrics.record(true, CacheMetrics.DATA_PARTITION_CACHE_NAME);
-      return new DataPartition(dataPartitionMap, seriesSlotExecutorName, seriesPartitionSlotNum);
-    } finally {
-      dataPartitionCacheLock.readLock().unlock();
+    if (logger.isDebugEnabled()) {
+      logger.debug("[{} Cache] hit", CacheMetrics.DATA_PARTITION_CACHE_NAME);
     }
+    cacheMetrics.record(true, CacheMetrics.DATA_PARTITION_CACHE_NAME);
+    return new DataPartition(dataPartitionMap, seriesSlotExecutorName, seriesPartitionSlotNum);
   }
 
   private static class TimeSlotRegionInfo {
@@ -999,8 +1017,26 @@ public class PartitionCache {
   public void updateDataPartitionCache(
       Map<String, Map<TSeriesPartitionSlot, Map<TTimePartitionSlot, List<TConsensusGroupId>>>>
           dataPartitionTable) {
-    dataPartitionCacheLock.writeLock().lock();
+    updateDataPartitionCache(epoch.get(), dataPartitionTable);
+  }
+
+  /**
+   * update dataPartitionCache by dataPartition fetched from configNode, the update is dropped if
+   * the cache has been invalidated since the fetch began.
+   *
+   * @param fetchEpoch the epoch got by {@link #getEpoch()} before fetching
+   * @param dataPartitionTable database to seriesPartitionSlot to timePartitionSlot to
+   *     ConsensusGroupId map
+   */
+  public void updateDataPartitionCache(
+      long fetchEpoch,
+      Map<String, Map<TSeriesPartitionSlot, Map<TTimePartitionSlot, List<TConsensusGroupId>>>>
+          dataPartitionTable) {
+    dataPartitionCacheLock.lock();
     try {
+      if (fetchEpoch != epoch.get()) {
+        return;
+      }
       for (Map.Entry<
               String, Map<TSeriesPartitionSlot, Map<TTimePartitionSlot, List<TConsensusGroupId>>>>
           entry1 : dataPartitionTable.entrySet()) {
@@ -1039,22 +1075,76 @@ public class PartitionCache {
         }
       }
     } finally {
-      dataPartitionCacheLock.writeLock().unlock();
+      dataPartitionCacheLock.unlock();
     }
   }
 
   /** invalid all dataPartitionCache */
   public void invalidAllDataPartitionCache() {
-    dataPartitionCacheLock.writeLock().lock();
+    epoch.incrementAndGet();
+    dataPartitionCacheLock.lock();
     try {
       dataPartitionCache.invalidateAll();
     } finally {
-      dataPartitionCacheLock.writeLock().unlock();
+      dataPartitionCacheLock.unlock();
     }
   }
 
   // endregion
 
+  /**
+   * Get the epoch of cache, which should be got before fetching partitions from configNode and be
+   * passed to the update of cache.
+   */
+  public long getEpoch() {
+    return epoch.get();
+  }
+
+  /** The metrics of cache, which should be registered only once by the owner of cache. */
+  public CacheMetrics getCacheMetrics() {
+    return cacheMetrics;
+  }
+
+  /**
+   * invalidate the cache of one database. The caches of other databases are kept, so that they need
+   * not be fetched from configNode again.
+   *
+   * @param database the name of database
+   */
+  public void invalidCache(final String database) {
+    if (logger.isDebugEnabled()) {
+      logger.debug("[Partition Cache] invalid database {}", database);
+    }
+    epoch.incrementAndGet();
+    // the database may be qualified or not
+    final Set<String> databaseNames = new HashSet<>();
+    databaseNames.add(database);
+    databaseNames.add(PathUtils.unQualifyDatabaseName(database));
+    removeFromDatabaseCache(databaseNames);
+    schemaPartitionCacheLock.lock();
+    try {
+      schemaPartitionCache.invalidateAll(databaseNames);
+    } finally {
+      schemaPartitionCacheLock.unlock();
+    }
+    dataPartitionCacheLock.lock();
+    try {
+      dataPartitionCache.invalidateAll(databaseNames);
+    } finally {
+      dataPartitionCacheLock.unlock();
+    }
+    // the regions of the database are no longer referred to, the replicaSetCache is kept
+    long avoidedRefetchNum =
+        schemaPartitionCache.estimatedSize() + dataPartitionCache.estimatedSize();
+    if (!databaseCache.isEmpty()) {
+      avoidedRefetchNum++;
+    }
+    if (!groupIdToReplicaSetMap.isEmpty()) {
+      avoidedRefetchNum++;
+    }
+    cacheMetrics.recordAvoidedRefetch(avoidedRefetchNum);
+  }
+
   public void invalidAllCache() {
     if (logger.isDebugEnabled()) {
       logger.debug("[Partition Cache] invalid");
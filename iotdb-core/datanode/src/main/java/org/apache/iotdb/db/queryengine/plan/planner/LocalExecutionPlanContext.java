@@ -28,6 +28,7 @@ import org.apache.iotdb.db.queryengine.execution.fragment.DataNodeQueryContext;
 import org.apache.iotdb.db.queryengine.execution.fragment.FragmentInstanceContext;
 import org.apache.iotdb.db.queryengine.execution.operator.Operator;
 import org.apache.iotdb.db.queryengine.execution.operator.source.ExchangeOperator;
+import org.apache.iotdb.db.queryengine.execution.operator.source.relational.JoinDynamicFilter;
 import org.apache.iotdb.db.queryengine.plan.analyze.TemplatedInfo;
 import org.apache.iotdb.db.queryengine.plan.analyze.TypeProvider;
 import org.apache.iotdb.db.queryengine.plan.planner.memory.PipelineMemoryEstimator;
@@ -50,6 +51,7 @@ import javax.annotation.Nullable;
 
 import java.time.ZoneId;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
@@ -101,6 +103,9 @@ public class LocalExecutionPlanContext {
   private Map<PlanNodeId, List<PipelineMemoryEstimator>> parentPlanNodeIdToMemoryEstimator =
       new ConcurrentHashMap<>();
 
+  /** Dynamic filters of joins, keyed by the id of the scan node on the probe side. */
+  private Map<PlanNodeId, JoinDynamicFilter> dynamicFilters = new HashMap<>();
+
   // for data region
   public LocalExecutionPlanContext(
       TypeProvider typeProvider,
@@ -131,6 +136,7 @@ public class LocalExecutionPlanContext {
     this.dataNodeQueryContext = parentContext.dataNodeQueryContext;
     this.timePartitions = parentContext.timePartitions;
     this.parentPlanNodeIdToMemoryEstimator = parentContext.parentPlanNodeIdToMemoryEstimator;
+    this.dynamicFilters = parentContext.dynamicFilters;
   }
 
   // for schema region
@@ -351,6 +357,14 @@ public class LocalExecutionPlanContext {
     return parentPlanNodeIdToMemoryEstimator;
   }
 
+  public void addDynamicFilter(PlanNodeId scanNodeId, JoinDynamicFilter dynamicFilter) {
+    dynamicFilters.put(scanNodeId, dynamicFilter);
+  }
+
+  public JoinDynamicFilter getDynamicFilter(PlanNodeId scanNodeId) {
+    return dynamicFilters.get(scanNodeId);
+  }
+
   public void invalidateParentPlanNodeIdToMemoryEstimator() {
     parentPlanNodeIdToMemoryEstimator = null;
   }
@@ -116,12 +116,16 @@ import org.apache.iotdb.db.queryengine.execution.operator.source.AbstractDataSou
 import org.apache.iotdb.db.queryengine.execution.operator.source.ExchangeOperator;
 import org.apache.iotdb.db.queryengine.execution.operator.source.SeriesScanOperator;
 import org.apache.iotdb.db.queryengine.execution.operator.source.relational.AbstractAggTableScanOperator;
+import org.apache.iotdb.db.queryengine.execution.operator.source.relational.AbstractHashJoinOperator;
 import org.apache.iotdb.db.queryengine.execution.operator.source.relational.AbstractTableScanOperator;
 import org.apache.iotdb.db.queryengine.execution.operator.source.relational.AsofMergeSortInnerJoinOperator;
 import org.apache.iotdb.db.queryengine.execution.operator.source.relational.AsofMergeSortLeftJoinOperator;
 import org.apache.iotdb.db.queryengine.execution.operator.source.relational.DefaultAggTableScanOperator;
 import org.apache.iotdb.db.queryengine.execution.operator.source.relational.DeviceIteratorScanOperator;
+import org.apache.iotdb.db.queryengine.execution.operator.source.relational.HashInnerJoinOperator;
+import org.apache.iotdb.db.queryengine.execution.operator.source.relational.HashLeftJoinOperator;
 import org.apache.iotdb.db.queryengine.execution.operator.source.relational.InformationSchemaTableScanOperator;
+import org.apache.iotdb.db.queryengine.execution.operator.source.relational.JoinDynamicFilter;
 import org.apache.iotdb.db.queryengine.execution.operator.source.relational.LastQueryAggTableScanOperator;
 import org.apache.iotdb.db.queryengine.execution.operator.source.relational.MarkDistinctOperator;
 import org.apache.iotdb.db.queryengine.execution.operator.source.relational.MergeSortFullOuterJoinOperator;
@@ -227,11 +231,15 @@ import org.apache.iotdb.db.queryengine.plan.relational.planner.rowpattern.Logica
 import org.apache.iotdb.db.queryengine.plan.relational.planner.rowpattern.MatchNumberValuePointer;
 import org.apache.iotdb.db.queryengine.plan.relational.planner.rowpattern.ScalarValuePointer;
 import org.apache.iotdb.db.queryengine.plan.relational.planner.rowpattern.ValuePointer;
+import org.apache.iotdb.db.queryengine.plan.relational.sql.ast.Cast;
 import org.apache.iotdb.db.queryengine.plan.relational.sql.ast.ComparisonExpression;
 import org.apache.iotdb.db.queryengine.plan.relational.sql.ast.Expression;
+import org.apache.iotdb.db.queryengine.plan.relational.sql.ast.FrameBound;
 import org.apache.iotdb.db.queryengine.plan.relational.sql.ast.FunctionCall;
 import org.apache.iotdb.db.queryengine.plan.relational.sql.ast.Literal;
 import org.apache.iotdb.db.queryengine.plan.relational.sql.ast.LongLiteral;
+import org.apache.iotdb.db.queryengine.plan.relational.sql.ast.SymbolReference;
+import org.apache.iotdb.db.queryengine.plan.relational.sql.ast.WindowFrame;
 import org.apache.iotdb.db.queryengine.plan.relational.type.InternalTypeManager;
 import org.apache.iotdb.db.queryengine.plan.statement.component.Ordering;
 import org.apache.iotdb.db.queryengine.transformation.dag.column.ColumnTransformer;
@@ -308,6 +316,7 @@ import static java.util.Objects.requireNonNull;
 import static org.apache.iotdb.commons.schema.table.column.TsTableColumnCategory.FIELD;
 import static org.apache.iotdb.commons.schema.table.column.TsTableColumnCategory.TIME;
 import static org.apache.iotdb.commons.udf.builtin.relational.TableBuiltinAggregationFunction.getAggregationTypeByFuncName;
+import static org.apache.iotdb.commons.udf.builtin.relational.TableBuiltinAggregationFunction.getIntermediateType;
 import static org.apache.iotdb.db.queryengine.common.DataNodeEndPoints.isSameNode;
 import static org.apache.iotdb.db.queryengine.execution.operator.process.join.merge.MergeSortComparator.getComparatorForTable;
 import static org.apache.iotdb.db.queryengine.execution.operator.process.rowpattern.PhysicalValuePointer.CLASSIFIER;
@@ -1072,6 +1081,8 @@ public class TableOperatorGenerator extends PlanVisitor<Operator, LocalExecution
 
     TreeAlignedDeviceViewScanOperator treeAlignedDeviceViewScanOperator =
         new TreeAlignedDeviceViewScanOperator(parameter, idColumnValueExtractor);
+    treeAlignedDeviceViewScanOperator.setDynamicFilter(
+        context.getDynamicFilter(node.getPlanNodeId()));
 
     addSource(
         treeAlignedDeviceViewScanOperator,
@@ -1215,6 +1226,7 @@ public class TableOperatorGenerator extends PlanVisitor<Operator, LocalExecution
         constructAbstractTableScanOperatorParameter(node, context);
 
     TableScanOperator tableScanOperator = new TableScanOperator(parameter);
+    tableScanOperator.setDynamicFilter(context.getDynamicFilter(node.getPlanNodeId()));
 
     context.getInstanceContext().collectTable(node.getQualifiedObjectName().getObjectName());
     addSource(
@@ -2041,6 +2053,9 @@ public class TableOperatorGenerator extends PlanVisitor<Operator, LocalExecution
   public Operator visitJoin(JoinNode node, LocalExecutionPlanContext context) {
     List<TSDataType> dataTypes = getOutputColumnTypes(node, context.getTypeProvider());
 
+    // must be registered before the scan of the left child is planned
+    JoinDynamicFilter dynamicFilter = createDynamicFilter(node, context);
+
     Operator leftChild = node.getLeftChild().accept(this, context);
     Operator rightChild = node.getRightChild().accept(this, context);
 
@@ -2191,6 +2206,25 @@ public class TableOperatorGenerator extends PlanVisitor<Operator, LocalExecution
       }
     }
 
+    if (node.isHashJoin()) {
+      AbstractHashJoinOperator hashJoinOperator =
+          buildHashJoinOperator(
+              node,
+              context,
+              leftChild,
+              leftJoinKeyPositions,
+              leftOutputSymbolIdx,
+              rightChild,
+              rightJoinKeyPositions,
+              rightOutputSymbolIdx,
+              joinKeyTypes.stream()
+                  .map(InternalTypeManager::getTSDataType)
+                  .toArray(TSDataType[]::new),
+              dataTypes);
+      hashJoinOperator.setDynamicFilter(dynamicFilter);
+      return hashJoinOperator;
+    }
+
     if (requireNonNull(node.getJoinType()) == JoinNode.JoinType.INNER) {
       OperatorContext operatorContext =
           context
@@ -2251,6 +2285,114 @@ public class TableOperatorGenerator extends PlanVisitor<Operator, LocalExecution
     throw new IllegalStateException("Unsupported join type: " + node.getJoinType());
   }
 
+  /**
+   * Create the dynamic filter of an inner hash join if the left child is a table scan in the same
+   * fragment whose devices or TsFiles can be skipped by the join keys, i.e. a join key is a tag or
+   * the time column of the scan. The filter is registered in the context for the scan.
+   */
+  private JoinDynamicFilter createDynamicFilter(JoinNode node, LocalExecutionPlanContext context) {
+    if (!node.isHashJoin()
+        || node.getJoinType() != JoinNode.JoinType.INNER
+        || !IoTDBDescriptor.getInstance().getConfig().isEnableJoinDynamicFilter()) {
+      return null;
+    }
+
+    // project and filter keep the values of the symbols they output, so the rows which can't
+    // match the build side can be skipped below them too
+    PlanNode probeNode = node.getLeftChild();
+    while (probeNode instanceof ProjectNode || probeNode instanceof FilterNode) {
+      probeNode = probeNode.getChildren().get(0);
+    }
+    if (probeNode.getClass() != DeviceTableScanNode.class
+        && probeNode.getClass() != TreeAlignedDeviceViewScanNode.class) {
+      return null;
+    }
+    DeviceTableScanNode scanNode = (DeviceTableScanNode) probeNode;
+    // skipping rows before the pushed down limit and offset changes the rows they return
+    if (scanNode.getPushDownLimit() > 0 || scanNode.getPushDownOffset() > 0) {
+      return null;
+    }
+
+    int timeKeyIndex = -1;
+    List<Integer> tagColumnIndexes = new ArrayList<>();
+    List<Integer> tagKeyIndexes = new ArrayList<>();
+    for (int i = 0; i < node.getCriteria().size(); i++) {
+      Symbol leftKey = node.getCriteria().get(i).getLeft();
+      ColumnSchema columnSchema = scanNode.getAssignments().get(leftKey);
+      if (columnSchema == null) {
+        continue;
+      }
+      if (columnSchema.getColumnCategory() == TIME) {
+        timeKeyIndex = i;
+      } else if (columnSchema.getColumnCategory() == TsTableColumnCategory.TAG) {
+        tagColumnIndexes.add(scanNode.getTagAndAttributeIndexMap().get(leftKey));
+        tagKeyIndexes.add(i);
+      }
+    }
+    if (timeKeyIndex < 0 && tagKeyIndexes.isEmpty()) {
+      return null;
+    }
+
+    JoinDynamicFilter dynamicFilter =
+        new JoinDynamicFilter(
+            timeKeyIndex,
+            tagColumnIndexes.stream().mapToInt(Integer::intValue).toArray(),
+            tagKeyIndexes.stream().mapToInt(Integer::intValue).toArray());
+    context.addDynamicFilter(scanNode.getPlanNodeId(), dynamicFilter);
+    return dynamicFilter;
+  }
+
+  private AbstractHashJoinOperator buildHashJoinOperator(
+      JoinNode node,
+      LocalExecutionPlanContext context,
+      Operator leftChild,
+      int[] leftJoinKeyPositions,
+      int[] leftOutputSymbolIdx,
+      Operator rightChild,
+      int[] rightJoinKeyPositions,
+      int[] rightOutputSymbolIdx,
+      TSDataType[] joinKeyTypes,
+      List<TSDataType> dataTypes) {
+    if (requireNonNull(node.getJoinType()) == JoinNode.JoinType.INNER) {
+      OperatorContext operatorContext =
+          context
+              .getDriverContext()
+              .addOperatorContext(
+                  context.getNextOperatorId(),
+                  node.getPlanNodeId(),
+                  HashInnerJoinOperator.class.getSimpleName());
+      return new HashInnerJoinOperator(
+          operatorContext,
+          leftChild,
+          leftJoinKeyPositions,
+          leftOutputSymbolIdx,
+          rightChild,
+          rightJoinKeyPositions,
+          rightOutputSymbolIdx,
+          joinKeyTypes,
+          dataTypes);
+    } else if (node.getJoinType() == JoinNode.JoinType.LEFT) {
+      OperatorContext operatorContext =
+          context
+              .getDriverContext()
+              .addOperatorContext(
+                  context.getNextOperatorId(),
+                  node.getPlanNodeId(),
+                  HashLeftJoinOperator.class.getSimpleName());
+      return new HashLeftJoinOperator(
+          operatorContext,
+          leftChild,
+          leftJoinKeyPositions,
+          leftOutputSymbolIdx,
+          rightChild,
+          rightJoinKeyPositions,
+          rightOutputSymbolIdx,
+          joinKeyTypes,
+          dataTypes);
+    }
+    throw new IllegalStateException("Unsupported hash join type: " + node.getJoinType());
+  }
+
   private void semanticCheckForJoin(JoinNode node) {
     try {
       checkArgument(
@@ -2720,6 +2862,58 @@ public class TableOperatorGenerator extends PlanVisitor<Operator, LocalExecution
                 node.getPlanNodeId(),
                 HashAggregationOperator.class.getSimpleName());
 
+    // the intermediate results of DISTINCT and ORDER BY aggregations can't be merged
+    boolean spillEnabled =
+        IoTDBDescriptor.getInstance().getConfig().isEnableHashAggregationSpill()
+            && node.getAggregations().values().stream()
+                .noneMatch(
+                    aggregation ->
+                        aggregation.isDistinct() || aggregation.getOrderingScheme().isPresent());
+    if (!spillEnabled) {
+      return new HashAggregationOperator(
+          operatorContext,
+          child,
+          groupByTypes,
+          groupByChannels,
+          aggregatorBuilder.build(),
+          node.getStep(),
+          DEFAULT_GROUP_NUMBER,
+          Long.MAX_VALUE,
+          false,
+          Long.MAX_VALUE);
+    }
+
+    // the spilled groups are the group keys followed by the intermediate result of each aggregation
+    ImmutableList.Builder<GroupedAggregator> mergingAggregatorBuilder =
+        new ImmutableList.Builder<>();
+    ImmutableList.Builder<TSDataType> intermediateTypesBuilder = new ImmutableList.Builder<>();
+    int inputChannel = groupByChannels.size();
+    for (Map.Entry<Symbol, AggregationNode.Aggregation> entry : node.getAggregations().entrySet()) {
+      AggregationNode.Aggregation aggregation = entry.getValue();
+      mergingAggregatorBuilder.add(
+          new GroupedAggregator(
+              buildGroupedAccumulator(aggregation),
+              AggregationNode.Step.partialInput(node.getStep()),
+              getTSDataType(typeProvider.getTableModelType(entry.getKey())),
+              Collections.singletonList(inputChannel++),
+              OptionalInt.empty()));
+      intermediateTypesBuilder.add(
+          getTSDataType(
+              getIntermediateType(
+                  aggregation.getResolvedFunction().getSignature().getName(),
+                  aggregation.getResolvedFunction().getSignature().getArgumentTypes())));
+    }
+
+    String spillFolderPath =
+        IoTDBDescriptor.getInstance().getConfig().getSortTmpDir()
+            + File.separator
+            + operatorContext.getDriverContext().getFragmentInstanceContext().getId().getFullId()
+            + File.separator
+            + operatorContext.getDriverContext().getPipelineId()
+            + File.separator;
+    context.getDriverContext().setHaveTmpFile(true);
+    context.getDriverContext().getFragmentInstanceContext().setMayHaveTmpFile(true);
+
     return new HashAggregationOperator(
         operatorContext,
         child,
@@ -2729,8 +2923,12 @@ public class TableOperatorGenerator extends PlanVisitor<Operator, LocalExecution
         node.getStep(),
         DEFAULT_GROUP_NUMBER,
         Long.MAX_VALUE,
-        false,
-        Long.MAX_VALUE);
+        true,
+        Long.MAX_VALUE,
+        mergingAggregatorBuilder.build(),
+        intermediateTypesBuilder.build(),
+        spillFolderPath,
+        spillFolderPath + operatorContext.getOperatorId());
   }
 
   private Comparator<SortKey> genGroupKeyComparator(
@@ -2763,34 +2961,35 @@ public class TableOperatorGenerator extends PlanVisitor<Operator, LocalExecution
       argumentChannels.add(childLayout.get(argumentSymbol));
     }
 
-    String functionName = aggregation.getResolvedFunction().getSignature().getName();
-    List<TSDataType> originalArgumentTypes =
-        aggregation.getResolvedFunction().getSignature().getArgumentTypes().stream()
-            .map(InternalTypeManager::getTSDataType)
-            .collect(Collectors.toList());
-    GroupedAccumulator accumulator =
-        createGroupedAccumulator(
-            functionName,
-            getAggregationTypeByFuncName(functionName),
-            originalArgumentTypes,
-            Collections.emptyList(),
-            Collections.emptyMap(),
-            true,
-            aggregation.isDistinct());
-
     OptionalInt maskChannel = OptionalInt.empty();
     if (aggregation.hasMask()) {
       maskChannel = OptionalInt.of(childLayout.get(aggregation.getMask().get()));
     }
 
     return new GroupedAggregator(
-        accumulator,
+        buildGroupedAccumulator(aggregation),
         step,
         getTSDataType(typeProvider.getTableModelType(symbol)),
         argumentChannels,
         maskChannel);
   }
 
+  private GroupedAccumulator buildGroupedAccumulator(AggregationNode.Aggregation aggregation) {
+    String functionName = aggregation.getResolvedFunction().getSignature().getName();
+    List<TSDataType> originalArgumentTypes =
+        aggregation.getResolvedFunction().getSignature().getArgumentTypes().stream()
+            .map(InternalTypeManager::getTSDataType)
+            .collect(Collectors.toList());
+    return createGroupedAccumulator(
+        functionName,
+        getAggregationTypeByFuncName(functionName),
+        originalArgumentTypes,
+        Collections.emptyList(),
+        Collections.emptyMap(),
+        true,
+        aggregation.isDistinct());
+  }
+
   @Override
   public Operator visitAggregationTreeDeviceViewScan(
       AggregationTreeDeviceViewScanNode node, LocalExecutionPlanContext context) {
@@ -4108,6 +4307,23 @@ public class TableOperatorGenerator extends PlanVisitor<Operator, LocalExecution
     }
 
     outputDataTypes.addAll(windowFunctionOutputDataTypes);
+
+    int streamingLookback = getWindowStreamingLookback(node);
+    String spillFilePrefix = null;
+    if (streamingLookback == TableWindowOperator.NOT_STREAMING
+        && IoTDBDescriptor.getInstance().getConfig().isEnableWindowSpill()) {
+      spillFilePrefix =
+          IoTDBDescriptor.getInstance().getConfig().getSortTmpDir()
+              + File.separator
+              + operatorContext.getDriverContext().getFragmentInstanceContext().getId().getFullId()
+              + File.separator
+              + operatorContext.getDriverContext().getPipelineId()
+              + File.separator
+              + operatorContext.getOperatorId();
+      context.getDriverContext().setHaveTmpFile(true);
+      context.getDriverContext().getFragmentInstanceContext().setMayHaveTmpFile(true);
+    }
+
     return new TableWindowOperator(
         operatorContext,
         child,
@@ -4117,7 +4333,118 @@ public class TableOperatorGenerator extends PlanVisitor<Operator, LocalExecution
         windowFunctions,
         frameInfoList,
         partitionChannels,
-        sortChannels);
+        sortChannels,
+        streamingLookback,
+        spillFilePrefix);
+  }
+
+  /**
+   * Returns the max number of rows before the current row accessed by the window functions, or
+   * {@link TableWindowOperator#NOT_STREAMING} if some function needs rows after the current row or
+   * all the rows of the partition.
+   */
+  public static int getWindowStreamingLookback(WindowNode node) {
+    int lookback = 0;
+    for (WindowNode.Function function : node.getWindowFunctions().values()) {
+      int functionLookback = getWindowStreamingLookback(node, function);
+      if (functionLookback == TableWindowOperator.NOT_STREAMING) {
+        return TableWindowOperator.NOT_STREAMING;
+      }
+      lookback = Math.max(lookback, functionLookback);
+    }
+    return lookback;
+  }
+
+  private static int getWindowStreamingLookback(WindowNode node, WindowNode.Function function) {
+    ResolvedFunction resolvedFunction = function.getResolvedFunction();
+    String functionName = resolvedFunction.getSignature().getName();
+    boolean isAggregate = resolvedFunction.getFunctionKind() == FunctionKind.AGGREGATE;
+    if ("row_number".equals(functionName)) {
+      return 0;
+    }
+    if ("lag".equals(functionName)) {
+      if (function.isIgnoreNulls()) {
+        return TableWindowOperator.NOT_STREAMING;
+      }
+      if (function.getArguments().size() < 2) {
+        return 1;
+      }
+      return getConstantWindowOffset(node, Symbol.from(function.getArguments().get(1)))
+          .orElse(TableWindowOperator.NOT_STREAMING);
+    }
+    if (!isAggregate
+        && !"first_value".equals(functionName)
+        && !"last_value".equals(functionName)
+        && !"nth_value".equals(functionName)) {
+      // rank, dense_rank, percent_rank, cume_dist, ntile and lead
+      return TableWindowOperator.NOT_STREAMING;
+    }
+
+    WindowNode.Frame frame = function.getFrame();
+    if (frame.getType() != WindowFrame.Type.ROWS) {
+      return TableWindowOperator.NOT_STREAMING;
+    }
+
+    int endLookback;
+    if (frame.getEndType() == FrameBound.Type.CURRENT_ROW) {
+      endLookback = 0;
+    } else if (frame.getEndType() == FrameBound.Type.PRECEDING && frame.getEndValue().isPresent()) {
+      endLookback =
+          getConstantWindowOffset(node, frame.getEndValue().get())
+              .orElse(TableWindowOperator.NOT_STREAMING);
+    } else {
+      return TableWindowOperator.NOT_STREAMING;
+    }
+    if (endLookback == TableWindowOperator.NOT_STREAMING) {
+      return TableWindowOperator.NOT_STREAMING;
+    }
+
+    switch (frame.getStartType()) {
+      case CURRENT_ROW:
+        // The row leaving the frame is removed from the aggregation
+        return 1;
+      case PRECEDING:
+        if (!frame.getStartValue().isPresent()) {
+          return TableWindowOperator.NOT_STREAMING;
+        }
+        int startLookback =
+            getConstantWindowOffset(node, frame.getStartValue().get())
+                .orElse(TableWindowOperator.NOT_STREAMING);
+        return startLookback == TableWindowOperator.NOT_STREAMING
+            ? TableWindowOperator.NOT_STREAMING
+            : startLookback + 1;
+      case UNBOUNDED_PRECEDING:
+        // Aggregations only add the rows entering the frame, while value functions read the first
+        // rows of the partition
+        return isAggregate ? endLookback + 1 : TableWindowOperator.NOT_STREAMING;
+      default:
+        return TableWindowOperator.NOT_STREAMING;
+    }
+  }
+
+  /** Find the non-negative constant projected to the symbol below the window node. */
+  private static Optional<Integer> getConstantWindowOffset(WindowNode node, Symbol symbol) {
+    PlanNode current = node.getChild();
+    while (current instanceof SingleChildProcessNode) {
+      if (current instanceof ProjectNode) {
+        Expression expression = ((ProjectNode) current).getAssignments().get(symbol);
+        if (expression instanceof Cast) {
+          expression = ((Cast) expression).getExpression();
+        }
+        if (expression instanceof LongLiteral) {
+          long value = ((LongLiteral) expression).getParsedValue();
+          return value >= 0 && value < Integer.MAX_VALUE
+              ? Optional.of((int) value)
+              : Optional.empty();
+        }
+        if (!(expression instanceof SymbolReference)) {
+          return Optional.empty();
+        }
+        symbol = Symbol.from(expression);
+      }
+      current = ((SingleChildProcessNode) current).getChild();
+    }
+    return Optional.empty();
   }
 
   private WindowAggregator buildWindowAggregator(
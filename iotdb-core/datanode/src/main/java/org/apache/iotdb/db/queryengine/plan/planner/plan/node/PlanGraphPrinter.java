@@ -1002,6 +1002,9 @@ public class PlanGraphPrinter extends PlanVisitor<List<String>, PlanGraphPrinter
     } else {
       boxValue.add(String.format("JoinType: %s", node.getJoinType()));
     }
+    if (node.isHashJoin()) {
+      boxValue.add("JoinAlgorithm: HASH");
+    }
     boxValue.add(String.format("JoinCriteria: %s", node.getCriteria()));
     boxValue.add(String.format("LeftOutputSymbols: %s", node.getLeftOutputSymbols()));
     boxValue.add(String.format("RightOutputSymbols: %s", node.getRightOutputSymbols()));
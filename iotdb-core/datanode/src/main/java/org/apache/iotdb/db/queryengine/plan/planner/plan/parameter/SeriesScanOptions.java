@@ -37,7 +37,7 @@ import java.util.concurrent.atomic.AtomicBoolean;
 public class SeriesScanOptions {
 
   private Filter globalTimeFilter;
-  private final Filter originalTimeFilter;
+  private Filter originalTimeFilter;
 
   private final AtomicBoolean timeFilterUpdatedByTtl = new AtomicBoolean(false);
 
@@ -140,6 +140,17 @@ public class SeriesScanOptions {
     this.ttlForTableView = ttlForTableView;
   }
 
+  /**
+   * Narrow the global time filter with a time filter only known at runtime, e.g. the domain of the
+   * build side of a join. Only the SeriesScanUtils constructed after this call are affected.
+   */
+  public void addRuntimeTimeFilter(Filter timeFilter) {
+    this.globalTimeFilter =
+        globalTimeFilter == null ? timeFilter : FilterFactory.and(globalTimeFilter, timeFilter);
+    this.originalTimeFilter =
+        originalTimeFilter == null ? timeFilter : FilterFactory.and(originalTimeFilter, timeFilter);
+  }
+
   /**
    * @return an updated filter concerning TTL
    */
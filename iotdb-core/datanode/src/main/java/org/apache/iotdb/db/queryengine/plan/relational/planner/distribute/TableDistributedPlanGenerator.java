@@ -596,8 +596,9 @@ public class TableDistributedPlanGenerator
 
     List<PlanNode> leftChildrenNodes = node.getLeftChild().accept(this, context);
     List<PlanNode> rightChildrenNodes = node.getRightChild().accept(this, context);
-    if (!node.isCrossJoin()) {
-      // child of JoinNode(excluding CrossJoin) must be SortNode, so after rewritten, the child must
+    if (!node.isCrossJoin() && !node.isHashJoin()) {
+      // child of JoinNode(excluding CrossJoin and HashJoin) must be SortNode, so after rewritten,
+      // the child must
       // be MergeSortNode or
       // SortNode
       checkArgument(
@@ -610,12 +611,12 @@ public class TableDistributedPlanGenerator
     OrderingScheme leftChildOrdering = nodeOrderingMap.get(node.getLeftChild().getPlanNodeId());
     OrderingScheme rightChildOrdering = nodeOrderingMap.get(node.getRightChild().getPlanNodeId());
 
-    // For CrossJoinNode, we need to merge children nodes(It's safe for other JoinNodes here since
-    // the size of their children is always 1.)
+    // For CrossJoinNode and HashJoin, we need to merge children nodes(It's safe for other JoinNodes
+    // here since the size of their children is always 1.)
     node.setLeftChild(mergeChildrenViaCollectOrMergeSort(leftChildOrdering, leftChildrenNodes));
     node.setRightChild(mergeChildrenViaCollectOrMergeSort(rightChildOrdering, rightChildrenNodes));
 
-    // Now the join implement but CROSS is MergeSortJoin, so it can keep order
+    // Now the join implement but CROSS is MergeSortJoin or HashJoin, both keep the order of left
     if (!node.isCrossJoin() && !node.getAsofCriteria().isPresent()) {
       switch (node.getJoinType()) {
         case FULL:
@@ -624,8 +625,10 @@ public class TableDistributedPlanGenerator
           break;
         case INNER:
         case LEFT:
-          if (ImmutableSet.copyOf(node.getLeftOutputSymbols())
-              .containsAll(leftChildOrdering.getOrderBy())) {
+          // hash join keeps the order of left child, which may be unordered
+          if (leftChildOrdering != null
+              && ImmutableSet.copyOf(node.getLeftOutputSymbols())
+                  .containsAll(leftChildOrdering.getOrderBy())) {
             nodeOrderingMap.put(node.getPlanNodeId(), leftChildOrdering);
           }
           break;
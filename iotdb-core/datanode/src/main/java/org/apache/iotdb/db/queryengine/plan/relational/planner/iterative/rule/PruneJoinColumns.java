@@ -48,6 +48,7 @@ public class PruneJoinColumns extends ProjectOffPushDownRule<JoinNode> {
             filteredCopy(joinNode.getLeftOutputSymbols(), referencedOutputs::contains),
             filteredCopy(joinNode.getRightOutputSymbols(), referencedOutputs::contains),
             joinNode.getFilter(),
-            joinNode.isSpillable()));
+            joinNode.isSpillable(),
+            joinNode.isHashJoin()));
   }
 }
@@ -58,6 +58,8 @@ public class JoinNode extends TwoChildProcessNode {
   // some filter like 'a.xx_column < b.yy_column'
   private final Optional<Expression> filter;
   private final Optional<Boolean> spillable;
+  // use hash join instead of merge sort join, then the children don't need to be sorted
+  private final boolean hashJoin;
 
   // private final boolean maySkipOutputDuplicates;
   // private final Optional<Symbol> leftHashSymbol;
@@ -76,6 +78,32 @@ public class JoinNode extends TwoChildProcessNode {
       List<Symbol> rightOutputSymbols,
       Optional<Expression> filter,
       Optional<Boolean> spillable) {
+    this(
+        id,
+        joinType,
+        leftChild,
+        rightChild,
+        criteria,
+        asofCriteria,
+        leftOutputSymbols,
+        rightOutputSymbols,
+        filter,
+        spillable,
+        false);
+  }
+
+  public JoinNode(
+      PlanNodeId id,
+      JoinType joinType,
+      PlanNode leftChild,
+      PlanNode rightChild,
+      List<EquiJoinClause> criteria,
+      Optional<AsofJoinClause> asofCriteria,
+      List<Symbol> leftOutputSymbols,
+      List<Symbol> rightOutputSymbols,
+      Optional<Expression> filter,
+      Optional<Boolean> spillable,
+      boolean hashJoin) {
     super(id);
     requireNonNull(joinType, "type is null");
     requireNonNull(leftChild, "left is null");
@@ -104,6 +132,7 @@ public class JoinNode extends TwoChildProcessNode {
     this.rightOutputSymbols = ImmutableList.copyOf(rightOutputSymbols);
     this.filter = filter;
     this.spillable = spillable;
+    this.hashJoin = hashJoin;
     // this.maySkipOutputDuplicates = maySkipOutputDuplicates;
     // this.leftHashSymbol = leftHashSymbol;
     // this.rightHashSymbol = rightHashSymbol;
@@ -141,7 +170,8 @@ public class JoinNode extends TwoChildProcessNode {
       List<EquiJoinClause> criteria,
       Optional<AsofJoinClause> asofCriteria,
       List<Symbol> leftOutputSymbols,
-      List<Symbol> rightOutputSymbols) {
+      List<Symbol> rightOutputSymbols,
+      boolean hashJoin) {
     super(id);
     requireNonNull(joinType, "type is null");
     requireNonNull(criteria, "criteria is null");
@@ -150,6 +180,7 @@ public class JoinNode extends TwoChildProcessNode {
     this.rightOutputSymbols = rightOutputSymbols;
     this.filter = Optional.empty();
     this.spillable = Optional.empty();
+    this.hashJoin = hashJoin;
 
     this.joinType = joinType;
     this.criteria = criteria;
@@ -170,7 +201,8 @@ public class JoinNode extends TwoChildProcessNode {
         rightOutputSymbols,
         leftOutputSymbols,
         filter,
-        spillable);
+        spillable,
+        hashJoin);
   }
 
   @Override
@@ -191,7 +223,8 @@ public class JoinNode extends TwoChildProcessNode {
         leftOutputSymbols,
         rightOutputSymbols,
         filter,
-        spillable);
+        spillable,
+        hashJoin);
   }
 
   @Override
@@ -215,7 +248,8 @@ public class JoinNode extends TwoChildProcessNode {
             leftOutputSymbols,
             rightOutputSymbols,
             filter,
-            spillable);
+            spillable,
+            hashJoin);
     joinNode.setLeftChild(null);
     joinNode.setRightChild(null);
     return joinNode;
@@ -256,6 +290,7 @@ public class JoinNode extends TwoChildProcessNode {
     for (Symbol rightOutputSymbol : rightOutputSymbols) {
       Symbol.serialize(rightOutputSymbol, byteBuffer);
     }
+    ReadWriteIOUtils.write(hashJoin, byteBuffer);
   }
 
   @Override
@@ -288,6 +323,7 @@ public class JoinNode extends TwoChildProcessNode {
     for (Symbol rightOutputSymbol : rightOutputSymbols) {
       Symbol.serialize(rightOutputSymbol, stream);
     }
+    ReadWriteIOUtils.write(hashJoin, stream);
   }
 
   public static JoinNode deserialize(ByteBuffer byteBuffer) {
@@ -320,10 +356,17 @@ public class JoinNode extends TwoChildProcessNode {
     while (size-- > 0) {
       rightOutputSymbols.add(Symbol.deserialize(byteBuffer));
     }
+    boolean hashJoin = ReadWriteIOUtils.readBool(byteBuffer);
 
     PlanNodeId planNodeId = PlanNodeId.deserialize(byteBuffer);
     return new JoinNode(
-        planNodeId, joinType, criteria, asofJoinClause, leftOutputSymbols, rightOutputSymbols);
+        planNodeId,
+        joinType,
+        criteria,
+        asofJoinClause,
+        leftOutputSymbols,
+        rightOutputSymbols,
+        hashJoin);
   }
 
   public JoinType getJoinType() {
@@ -354,6 +397,10 @@ public class JoinNode extends TwoChildProcessNode {
     return spillable;
   }
 
+  public boolean isHashJoin() {
+    return hashJoin;
+  }
+
   public boolean isCrossJoin() {
     return !asofCriteria.isPresent()
         && criteria.isEmpty()
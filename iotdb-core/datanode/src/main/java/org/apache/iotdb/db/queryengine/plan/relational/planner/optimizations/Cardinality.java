@@ -53,4 +53,19 @@ public class Cardinality {
   public boolean isAtMost(long maxCardinality) {
     return Range.closed(0L, maxCardinality).encloses(cardinalityRange);
   }
+
+  /**
+   * @return true if this is known to have fewer rows than the other, that is, this is bounded and
+   *     the other is either unbounded or has more rows at least
+   */
+  public boolean isSmallerThan(Cardinality other) {
+    if (!cardinalityRange.hasUpperBound()) {
+      return false;
+    }
+    if (!other.cardinalityRange.hasUpperBound()) {
+      return true;
+    }
+    return other.cardinalityRange.hasLowerBound()
+        && cardinalityRange.upperEndpoint() < other.cardinalityRange.lowerEndpoint();
+  }
 }
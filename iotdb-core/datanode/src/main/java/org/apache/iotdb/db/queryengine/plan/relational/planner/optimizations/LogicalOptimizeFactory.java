@@ -366,6 +366,7 @@ public class LogicalOptimizeFactory {
         new PushLimitOffsetIntoTableScan(),
         new TransformAggregationToStreamable(),
         new PushAggregationIntoTableScan(),
+        new TransformJoinToHashJoin(),
         new TransformSortToStreamSort(),
         new IterativeOptimizer(
             plannerContext,
@@ -0,0 +1,128 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.queryengine.plan.relational.planner.optimizations;
+
+import org.apache.iotdb.db.conf.IoTDBDescriptor;
+import org.apache.iotdb.db.queryengine.plan.planner.plan.node.PlanNode;
+import org.apache.iotdb.db.queryengine.plan.planner.plan.node.PlanVisitor;
+import org.apache.iotdb.db.queryengine.plan.relational.planner.Symbol;
+import org.apache.iotdb.db.queryengine.plan.relational.planner.node.JoinNode;
+import org.apache.iotdb.db.queryengine.plan.relational.planner.node.SortNode;
+
+import com.google.common.collect.ImmutableList;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.apache.iotdb.db.queryengine.plan.relational.planner.optimizations.QueryCardinalityUtil.extractCardinality;
+
+/**
+ * <b>Optimization phase:</b> Logical plan planning.
+ *
+ * <p>When enable_hash_join is set, INNER and LEFT equi-joins are executed by hash join instead of
+ * merge sort join, and the SortNodes appended for the merge sort join are removed.
+ * <li>The right child is the build side, which is kept in memory. For INNER join, the children are
+ *     swapped if the left child is known to have fewer rows than the right child according to the
+ *     {@link Cardinality} of them.
+ * <li>ASOF join and FULL join always use merge sort join.
+ *
+ *     <p>Attention: This optimizer should be used after {@link PushPredicateIntoTableScan}, which
+ *     appends the SortNodes, and before {@link TransformSortToStreamSort}.
+ */
+public class TransformJoinToHashJoin implements PlanOptimizer {
+
+  @Override
+  public PlanNode optimize(PlanNode plan, PlanOptimizer.Context context) {
+    if (!context.getAnalysis().isQuery()
+        || !IoTDBDescriptor.getInstance().getConfig().isEnableHashJoin()) {
+      return plan;
+    }
+
+    return plan.accept(new Rewriter(), null);
+  }
+
+  private static class Rewriter extends PlanVisitor<PlanNode, Void> {
+
+    @Override
+    public PlanNode visitPlan(PlanNode node, Void context) {
+      PlanNode newNode = node.clone();
+      for (PlanNode child : node.getChildren()) {
+        newNode.addChild(child.accept(this, context));
+      }
+      return newNode;
+    }
+
+    @Override
+    public PlanNode visitJoin(JoinNode node, Void context) {
+      PlanNode leftChild = node.getLeftChild().accept(this, context);
+      PlanNode rightChild = node.getRightChild().accept(this, context);
+      if (!canUseHashJoin(node, leftChild, rightChild)) {
+        return node.replaceChildren(ImmutableList.of(leftChild, rightChild));
+      }
+
+      JoinNode hashJoinNode =
+          new JoinNode(
+              node.getPlanNodeId(),
+              node.getJoinType(),
+              ((SortNode) leftChild).getChild(),
+              ((SortNode) rightChild).getChild(),
+              node.getCriteria(),
+              node.getAsofCriteria(),
+              node.getLeftOutputSymbols(),
+              node.getRightOutputSymbols(),
+              node.getFilter(),
+              node.isSpillable(),
+              true);
+      if (node.getJoinType() == JoinNode.JoinType.INNER
+          && extractCardinality(hashJoinNode.getLeftChild())
+              .isSmallerThan(extractCardinality(hashJoinNode.getRightChild()))) {
+        // build the hash table on the smaller side
+        return hashJoinNode.flip();
+      }
+      return hashJoinNode;
+    }
+
+    private static boolean canUseHashJoin(JoinNode node, PlanNode leftChild, PlanNode rightChild) {
+      if (node.isCrossJoin()
+          || node.getAsofCriteria().isPresent()
+          || node.getCriteria().isEmpty()
+          || node.getFilter().isPresent()
+          || (node.getJoinType() != JoinNode.JoinType.INNER
+              && node.getJoinType() != JoinNode.JoinType.LEFT)) {
+        return false;
+      }
+      // the children must be the SortNodes appended for merge sort join
+      return isSortByJoinKeys(
+              leftChild,
+              node.getCriteria().stream()
+                  .map(JoinNode.EquiJoinClause::getLeft)
+                  .collect(Collectors.toList()))
+          && isSortByJoinKeys(
+              rightChild,
+              node.getCriteria().stream()
+                  .map(JoinNode.EquiJoinClause::getRight)
+                  .collect(Collectors.toList()));
+    }
+
+    private static boolean isSortByJoinKeys(PlanNode child, List<Symbol> joinKeys) {
+      return child instanceof SortNode
+          && ((SortNode) child).getOrderingScheme().getOrderBy().equals(joinKeys);
+    }
+  }
+}
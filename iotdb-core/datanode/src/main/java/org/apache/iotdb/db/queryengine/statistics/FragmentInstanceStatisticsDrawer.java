@@ -140,9 +140,10 @@ public class FragmentInstanceStatisticsDrawer {
           singleFragmentInstanceArea,
           1,
           String.format(
-              "ready queued time: %.3f ms, blocked queued time: %.3f ms",
+              "ready queued time: %.3f ms, blocked queued time: %.3f ms, scheduled time: %.3f ms",
               statistics.getReadyQueuedTime() * NS_TO_MS_FACTOR,
-              statistics.getBlockQueuedTime() * NS_TO_MS_FACTOR));
+              statistics.getBlockQueuedTime() * NS_TO_MS_FACTOR,
+              statistics.getScheduledTime() * NS_TO_MS_FACTOR));
       if (verbose) {
         renderQueryStatistics(statistics.getQueryStatistics(), singleFragmentInstanceArea);
       }
@@ -29,6 +29,7 @@ import org.apache.tsfile.block.column.Column;
 import org.apache.tsfile.block.column.ColumnBuilder;
 import org.apache.tsfile.read.common.type.Type;
 
+import java.util.Arrays;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -36,20 +37,36 @@ public class UserDefineScalarFunctionTransformer extends MultiColumnTransformer
 
   private final ScalarFunction scalarFunction;
   private final List<Type> inputTypes;
+  // whether the function evaluates a whole batch of columns at a time
+  private final boolean vectorized;
+
+  // all true and exactly as long as the input, used as the selection of vectorized evaluation
+  // without selection
+  private boolean[] selectAll = new boolean[0];
 
   public UserDefineScalarFunctionTransformer(
       Type returnType,
       ScalarFunction scalarFunction,
-      List<ColumnTransformer> childrenTransformers) {
+      List<ColumnTransformer> childrenTransformers,
+      boolean vectorized) {
     super(returnType, childrenTransformers);
     this.scalarFunction = scalarFunction;
     this.inputTypes =
         childrenTransformers.stream().map(ColumnTransformer::getType).collect(Collectors.toList());
+    this.vectorized = vectorized;
   }
 
   @Override
   protected void doTransform(
       List<Column> childrenColumns, ColumnBuilder builder, int positionCount) {
+    if (vectorized) {
+      if (selectAll.length != positionCount) {
+        selectAll = new boolean[positionCount];
+        Arrays.fill(selectAll, true);
+      }
+      vectorizedTransform(childrenColumns, builder, positionCount, selectAll);
+      return;
+    }
     RecordIterator iterator = new RecordIterator(childrenColumns, inputTypes, positionCount);
     while (iterator.hasNext()) {
       try {
@@ -71,12 +88,16 @@ public class UserDefineScalarFunctionTransformer extends MultiColumnTransformer
   @Override
   protected void doTransform(
       List<Column> childrenColumns, ColumnBuilder builder, int positionCount, boolean[] selection) {
+    if (vectorized) {
+      vectorizedTransform(childrenColumns, builder, positionCount, selection);
+      return;
+    }
     RecordIterator iterator = new RecordIterator(childrenColumns, inputTypes, positionCount);
     int i = 0;
     while (iterator.hasNext()) {
       try {
         Record input = iterator.next();
-        if (selection[i++]) {
+        if (!selection[i++]) {
           builder.appendNull();
           continue;
         }
@@ -95,6 +116,24 @@ public class UserDefineScalarFunctionTransformer extends MultiColumnTransformer
     }
   }
 
+  private void vectorizedTransform(
+      List<Column> childrenColumns, ColumnBuilder builder, int positionCount, boolean[] selection) {
+    try {
+      scalarFunction.evaluate(childrenColumns.toArray(new Column[0]), selection, builder);
+    } catch (Throwable e) {
+      throw new RuntimeException(
+          "Error occurs when evaluating user-defined scalar function "
+              + scalarFunction.getClass().getName(),
+          e);
+    }
+    if (builder.getPositionCount() != positionCount) {
+      throw new RuntimeException(
+          String.format(
+              "User-defined scalar function %s is expected to output %d values, but got %d",
+              scalarFunction.getClass().getName(), positionCount, builder.getPositionCount()));
+    }
+  }
+
   @Override
   public void close() {
     super.close();
@@ -34,14 +34,17 @@ public class CacheMetrics implements IMetricSet {
   public static final String DATABASE_CACHE_NAME = "Database";
   public static final String SCHEMA_PARTITION_CACHE_NAME = "SchemaPartition";
   public static final String DATA_PARTITION_CACHE_NAME = "DataPartition";
+  public static final String PARTITION_CACHE_NAME = "Partition";
   private static final String HIT = "hit";
   private static final String ALL = "all";
+  private static final String AVOIDED_REFETCH = "avoided_refetch";
   private Counter databaseCacheHitCounter = DoNothingMetricManager.DO_NOTHING_COUNTER;
   private Counter schemaPartitionCacheHitCounter = DoNothingMetricManager.DO_NOTHING_COUNTER;
   private Counter dataPartitionCacheHitCounter = DoNothingMetricManager.DO_NOTHING_COUNTER;
   private Counter databaseCacheTotalCounter = DoNothingMetricManager.DO_NOTHING_COUNTER;
   private Counter schemaPartitionCacheTotalCounter = DoNothingMetricManager.DO_NOTHING_COUNTER;
   private Counter dataPartitionCacheTotalCounter = DoNothingMetricManager.DO_NOTHING_COUNTER;
+  private Counter avoidedRefetchCounter = DoNothingMetricManager.DO_NOTHING_COUNTER;
 
   @Override
   public void bindTo(AbstractMetricService metricService) {
@@ -93,6 +96,14 @@ public class CacheMetrics implements IMetricSet {
             DATA_PARTITION_CACHE_NAME,
             Tag.TYPE.toString(),
             ALL);
+    avoidedRefetchCounter =
+        metricService.getOrCreateCounter(
+            Metric.CACHE.toString(),
+            MetricLevel.IMPORTANT,
+            Tag.NAME.toString(),
+            PARTITION_CACHE_NAME,
+            Tag.TYPE.toString(),
+            AVOIDED_REFETCH);
   }
 
   @Override
@@ -115,12 +126,20 @@ public class CacheMetrics implements IMetricSet {
                   Tag.TYPE.toString(),
                   ALL);
             });
+    metricService.remove(
+        MetricType.COUNTER,
+        Metric.CACHE.toString(),
+        Tag.NAME.toString(),
+        PARTITION_CACHE_NAME,
+        Tag.TYPE.toString(),
+        AVOIDED_REFETCH);
     databaseCacheHitCounter = DoNothingMetricManager.DO_NOTHING_COUNTER;
     schemaPartitionCacheHitCounter = DoNothingMetricManager.DO_NOTHING_COUNTER;
     dataPartitionCacheHitCounter = DoNothingMetricManager.DO_NOTHING_COUNTER;
     databaseCacheTotalCounter = DoNothingMetricManager.DO_NOTHING_COUNTER;
     schemaPartitionCacheTotalCounter = DoNothingMetricManager.DO_NOTHING_COUNTER;
     dataPartitionCacheTotalCounter = DoNothingMetricManager.DO_NOTHING_COUNTER;
+    avoidedRefetchCounter = DoNothingMetricManager.DO_NOTHING_COUNTER;
   }
 
   public void record(boolean result, String name) {
@@ -147,4 +166,12 @@ public class CacheMetrics implements IMetricSet {
         break;
     }
   }
+
+  /**
+   * Record the caches kept by the invalidation of a single database, which would otherwise be
+   * fetched from configNode again.
+   */
+  public void recordAvoidedRefetch(long count) {
+    avoidedRefetchCounter.inc(count);
+  }
 }
@@ -40,7 +40,6 @@ import org.apache.iotdb.metrics.utils.MetricLevel;
 import org.apache.iotdb.metrics.utils.MetricType;
 
 import java.util.Arrays;
-import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
 
@@ -174,6 +173,43 @@ public class WritingMetrics implements IMetricSet {
 
   // endregion
 
+  // region data region insert lock metrics
+  public static final String INSERT_LOCK_WAIT = "wait";
+  public static final String INSERT_LOCK_HOLD = "hold";
+
+  private Timer insertLockWaitTimer = DoNothingMetricManager.DO_NOTHING_TIMER;
+  private Timer insertLockHoldTimer = DoNothingMetricManager.DO_NOTHING_TIMER;
+
+  private void bindInsertLockMetrics(AbstractMetricService metricService) {
+    insertLockWaitTimer =
+        metricService.getOrCreateTimer(
+            Metric.DATA_REGION_INSERT_LOCK_COST.toString(),
+            MetricLevel.IMPORTANT,
+            Tag.TYPE.toString(),
+            INSERT_LOCK_WAIT);
+    insertLockHoldTimer =
+        metricService.getOrCreateTimer(
+            Metric.DATA_REGION_INSERT_LOCK_COST.toString(),
+            MetricLevel.IMPORTANT,
+            Tag.TYPE.toString(),
+            INSERT_LOCK_HOLD);
+  }
+
+  private void unbindInsertLockMetrics(AbstractMetricService metricService) {
+    insertLockWaitTimer = DoNothingMetricManager.DO_NOTHING_TIMER;
+    insertLockHoldTimer = DoNothingMetricManager.DO_NOTHING_TIMER;
+    Arrays.asList(INSERT_LOCK_WAIT, INSERT_LOCK_HOLD)
+        .forEach(
+            type ->
+                metricService.remove(
+                    MetricType.TIMER,
+                    Metric.DATA_REGION_INSERT_LOCK_COST.toString(),
+                    Tag.TYPE.toString(),
+                    type));
+  }
+
+  // endregion
+
   // region wal overview metrics
   public static final String WAL_NODES_NUM = "wal_nodes_num";
   public static final String USED_RATIO = "used_ratio";
@@ -321,15 +357,22 @@ public class WritingMetrics implements IMetricSet {
   public static final String MAKE_CHECKPOINT = "make_checkpoint";
   public static final String SERIALIZE_WAL_ENTRY = "serialize_wal_entry";
   public static final String SERIALIZE_WAL_ENTRY_TOTAL = "serialize_wal_entry_total";
+  public static final String SERIALIZE_WAL_ENTRY_WAIT = "serialize_wal_entry_wait";
+  public static final String SWITCH_WAL_BUFFER = "switch_wal_buffer";
+  public static final String SWITCH_WAL_BUFFER_WAIT = "switch_wal_buffer_wait";
   public static final String SYNC_WAL_BUFFER = "sync_wal_buffer";
   public static final String SYNC = "sync";
   public static final String FSYNC = "fsync";
+  public static final String FORCE = "force";
   private Timer globalMemoryTableInfoTimer = DoNothingMetricManager.DO_NOTHING_TIMER;
   private Timer createMemoryTableTimer = DoNothingMetricManager.DO_NOTHING_TIMER;
   private Timer flushMemoryTableTimer = DoNothingMetricManager.DO_NOTHING_TIMER;
   private Timer serializeWalEntryTotalTimer = DoNothingMetricManager.DO_NOTHING_TIMER;
+  private Timer serializeWalEntryWaitTimer = DoNothingMetricManager.DO_NOTHING_TIMER;
+  private Timer switchWalBufferWaitTimer = DoNothingMetricManager.DO_NOTHING_TIMER;
   private Timer syncTimer = DoNothingMetricManager.DO_NOTHING_TIMER;
   private Timer fsyncTimer = DoNothingMetricManager.DO_NOTHING_TIMER;
+  private Timer forceTimer = DoNothingMetricManager.DO_NOTHING_TIMER;
 
   private void bindWALCostMetrics(AbstractMetricService metricService) {
     globalMemoryTableInfoTimer =
@@ -364,6 +407,22 @@ public class WritingMetrics implements IMetricSet {
             SERIALIZE_WAL_ENTRY,
             Tag.TYPE.toString(),
             SERIALIZE_WAL_ENTRY_TOTAL);
+    serializeWalEntryWaitTimer =
+        metricService.getOrCreateTimer(
+            Metric.WAL_COST.toString(),
+            MetricLevel.IMPORTANT,
+            Tag.STAGE.toString(),
+            SERIALIZE_WAL_ENTRY,
+            Tag.TYPE.toString(),
+            SERIALIZE_WAL_ENTRY_WAIT);
+    switchWalBufferWaitTimer =
+        metricService.getOrCreateTimer(
+            Metric.WAL_COST.toString(),
+            MetricLevel.IMPORTANT,
+            Tag.STAGE.toString(),
+            SWITCH_WAL_BUFFER,
+            Tag.TYPE.toString(),
+            SWITCH_WAL_BUFFER_WAIT);
     syncTimer =
         metricService.getOrCreateTimer(
             Metric.WAL_COST.toString(),
@@ -380,6 +439,14 @@ public class WritingMetrics implements IMetricSet {
             SYNC_WAL_BUFFER,
             Tag.TYPE.toString(),
             FSYNC);
+    forceTimer =
+        metricService.getOrCreateTimer(
+            Metric.WAL_COST.toString(),
+            MetricLevel.IMPORTANT,
+            Tag.STAGE.toString(),
+            SYNC_WAL_BUFFER,
+            Tag.TYPE.toString(),
+            FORCE);
   }
 
   private void unbindWALCostMetrics(AbstractMetricService metricService) {
@@ -387,8 +454,11 @@ public class WritingMetrics implements IMetricSet {
     createMemoryTableTimer = DoNothingMetricManager.DO_NOTHING_TIMER;
     flushMemoryTableTimer = DoNothingMetricManager.DO_NOTHING_TIMER;
     serializeWalEntryTotalTimer = DoNothingMetricManager.DO_NOTHING_TIMER;
+    serializeWalEntryWaitTimer = DoNothingMetricManager.DO_NOTHING_TIMER;
+    switchWalBufferWaitTimer = DoNothingMetricManager.DO_NOTHING_TIMER;
     syncTimer = DoNothingMetricManager.DO_NOTHING_TIMER;
     fsyncTimer = DoNothingMetricManager.DO_NOTHING_TIMER;
+    forceTimer = DoNothingMetricManager.DO_NOTHING_TIMER;
     Arrays.asList(
             CheckpointType.GLOBAL_MEMORY_TABLE_INFO.toString(),
             CheckpointType.CREATE_MEMORY_TABLE.toString(),
@@ -402,7 +472,7 @@ public class WritingMetrics implements IMetricSet {
                     MAKE_CHECKPOINT,
                     Tag.TYPE.toString(),
                     type));
-    Collections.singletonList(SERIALIZE_WAL_ENTRY_TOTAL)
+    Arrays.asList(SERIALIZE_WAL_ENTRY_TOTAL, SERIALIZE_WAL_ENTRY_WAIT)
         .forEach(
             type ->
                 metricService.remove(
@@ -412,7 +482,14 @@ public class WritingMetrics implements IMetricSet {
                     SERIALIZE_WAL_ENTRY,
                     Tag.TYPE.toString(),
                     type));
-    Arrays.asList(SYNC, FSYNC)
+    metricService.remove(
+        MetricType.TIMER,
+        Metric.WAL_COST.toString(),
+        Tag.STAGE.toString(),
+        SWITCH_WAL_BUFFER,
+        Tag.TYPE.toString(),
+        SWITCH_WAL_BUFFER_WAIT);
+    Arrays.asList(SYNC, FSYNC, FORCE)
         .forEach(
             type ->
                 metricService.remove(
@@ -870,6 +947,14 @@ public class WritingMetrics implements IMetricSet {
     }
   }
 
+  public void recordInsertLockWaitCost(long costTimeInNanos) {
+    insertLockWaitTimer.updateNanos(costTimeInNanos);
+  }
+
+  public void recordInsertLockHoldCost(long costTimeInNanos) {
+    insertLockHoldTimer.updateNanos(costTimeInNanos);
+  }
+
   public void recordMakeCheckpointCost(CheckpointType type, long costTimeInNanos) {
     switch (type) {
       case GLOBAL_MEMORY_TABLE_INFO:
@@ -891,6 +976,18 @@ public class WritingMetrics implements IMetricSet {
     serializeWalEntryTotalTimer.updateNanos(costTimeInNanos);
   }
 
+  public void recordSerializeWALEntryWaitCost(long costTimeInNanos) {
+    serializeWalEntryWaitTimer.updateNanos(costTimeInNanos);
+  }
+
+  public void recordSwitchWALBufferWaitCost(long costTimeInNanos) {
+    switchWalBufferWaitTimer.updateNanos(costTimeInNanos);
+  }
+
+  public void recordForceWALCost(long costTimeInNanos) {
+    forceTimer.updateNanos(costTimeInNanos);
+  }
+
   public void recordCompressWALBufferCost(long costTimeInNanos) {
     walCompressCostHistogram.update(costTimeInNanos);
   }
@@ -985,6 +1082,7 @@ public class WritingMetrics implements IMetricSet {
   public void bindTo(AbstractMetricService metricService) {
     bindFlushMetrics(metricService);
     bindFlushSubTaskMetrics(metricService);
+    bindInsertLockMetrics(metricService);
     bindWALMetrics(metricService);
     bindWALCostMetrics(metricService);
     bindDataRegionMetrics();
@@ -994,6 +1092,7 @@ public class WritingMetrics implements IMetricSet {
   public void unbindFrom(AbstractMetricService metricService) {
     unbindFlushMetrics(metricService);
     unbindFlushSubTaskMetrics(metricService);
+    unbindInsertLockMetrics(metricService);
     unbindWALMetrics(metricService);
     unbindWALCostMetrics(metricService);
     unbindDataRegionMetrics();
@@ -24,6 +24,9 @@ import org.apache.iotdb.commons.service.metric.enums.Metric;
 import org.apache.iotdb.commons.service.metric.enums.Tag;
 import org.apache.iotdb.db.conf.DataNodeMemoryConfig;
 import org.apache.iotdb.db.conf.IoTDBDescriptor;
+import org.apache.iotdb.db.storageengine.rescon.memory.OffHeapArrayManager;
+import org.apache.iotdb.db.storageengine.rescon.memory.PrimitiveArrayManager;
+import org.apache.iotdb.db.storageengine.rescon.memory.PrimitiveArrayManager.StripeStatistics;
 import org.apache.iotdb.metrics.AbstractMetricService;
 import org.apache.iotdb.metrics.impl.DoNothingMetricManager;
 import org.apache.iotdb.metrics.metricsets.IMetricSet;
@@ -45,6 +48,8 @@ public class StorageEngineMemoryMetrics implements IMetricSet {
       "StorageEngine-Write-Memtable-BufferedArrays";
   private static final String STORAGE_ENGINE_WRITE_MEMTABLE_WAL_BUFFER_QUEUE =
       "StorageEngine-Write-Memtable-WalBufferQueue";
+  private static final String STORAGE_ENGINE_WRITE_MEMTABLE_OFF_HEAP_ARRAYS =
+      "StorageEngine-Write-Memtable-OffHeapArrays";
   private static final String STORAGE_ENGINE_WRITE_TIME_PARTITION_INFO =
       "StorageEngine-Write-TimePartitionInfo";
   private static final String STORAGE_ENGINE_COMPACTION = "StorageEngine-Compaction";
@@ -54,6 +59,7 @@ public class StorageEngineMemoryMetrics implements IMetricSet {
       "StorageEngine-PamAllocationFailure";
   private static final String STORAGE_ENGINE_PAM_RELEASE_FAILURE =
       "StorageEngine-PamReleaseFailure";
+  private static final String STORAGE_ENGINE_PAM_STRIPE = "StorageEngine-PamStripe";
 
   private Counter pamAllocationCounter = DoNothingMetricManager.DO_NOTHING_COUNTER;
   private Counter pamReleaseCounter = DoNothingMetricManager.DO_NOTHING_COUNTER;
@@ -77,6 +83,7 @@ public class StorageEngineMemoryMetrics implements IMetricSet {
     bindStorageEngineDividedMetrics(metricService);
     bindWriteDividedMetrics(metricService);
     bindMemtableDividedMetrics(metricService);
+    bindPamStripeMetrics(metricService);
   }
 
   @Override
@@ -93,6 +100,7 @@ public class StorageEngineMemoryMetrics implements IMetricSet {
     unbindStorageEngineDividedMetrics(metricService);
     unbindWriteDividedMetric(metricService);
     unbindMemtableDividedMetrics(metricService);
+    unbindPamStripeMetrics(metricService);
   }
 
   // region Storage Engine Divided Memory Metrics
@@ -368,6 +376,18 @@ public class StorageEngineMemoryMetrics implements IMetricSet {
         GlobalMemoryMetrics.ON_HEAP,
         Tag.LEVEL.toString(),
         GlobalMemoryMetrics.LEVELS[4]);
+    // direct buffers of the off-heap TVLists, including the pooled ones
+    metricService.createAutoGauge(
+        Metric.MEMORY_ACTUAL_SIZE.toString(),
+        MetricLevel.IMPORTANT,
+        OffHeapArrayManager.class,
+        clazz -> OffHeapArrayManager.getAllocatedSizeInBytes(),
+        Tag.NAME.toString(),
+        STORAGE_ENGINE_WRITE_MEMTABLE_OFF_HEAP_ARRAYS,
+        Tag.TYPE.toString(),
+        GlobalMemoryMetrics.OFF_HEAP,
+        Tag.LEVEL.toString(),
+        GlobalMemoryMetrics.LEVELS[4]);
   }
 
   private void unbindMemtableDividedMetrics(AbstractMetricService metricService) {
@@ -396,8 +416,74 @@ public class StorageEngineMemoryMetrics implements IMetricSet {
                   Tag.LEVEL.toString(),
                   GlobalMemoryMetrics.LEVELS[4]);
             });
+    metricService.remove(
+        MetricType.AUTO_GAUGE,
+        Metric.MEMORY_ACTUAL_SIZE.toString(),
+        Tag.NAME.toString(),
+        STORAGE_ENGINE_WRITE_MEMTABLE_OFF_HEAP_ARRAYS,
+        Tag.TYPE.toString(),
+        GlobalMemoryMetrics.OFF_HEAP,
+        Tag.LEVEL.toString(),
+        GlobalMemoryMetrics.LEVELS[4]);
+  }
+
+  // region Primitive Array Manager Stripe Metrics
+
+  private void bindPamStripeMetrics(AbstractMetricService metricService) {
+    for (int i = 0; i < PrimitiveArrayManager.getStripeNum(); i++) {
+      StripeStatistics statistics = PrimitiveArrayManager.getStripeStatistics(i);
+      String stripeIndex = String.valueOf(i);
+      metricService.createAutoGauge(
+          Metric.PAM_STRIPE_ALLOCATED_COUNT.toString(),
+          MetricLevel.NORMAL,
+          statistics,
+          StripeStatistics::getAllocationCount,
+          Tag.NAME.toString(),
+          STORAGE_ENGINE_PAM_STRIPE,
+          Tag.INDEX.toString(),
+          stripeIndex);
+      metricService.createAutoGauge(
+          Metric.PAM_STRIPE_HIT_COUNT.toString(),
+          MetricLevel.NORMAL,
+          statistics,
+          StripeStatistics::getHitCount,
+          Tag.NAME.toString(),
+          STORAGE_ENGINE_PAM_STRIPE,
+          Tag.INDEX.toString(),
+          stripeIndex);
+      metricService.createAutoGauge(
+          Metric.PAM_STRIPE_STEAL_COUNT.toString(),
+          MetricLevel.NORMAL,
+          statistics,
+          StripeStatistics::getStealCount,
+          Tag.NAME.toString(),
+          STORAGE_ENGINE_PAM_STRIPE,
+          Tag.INDEX.toString(),
+          stripeIndex);
+    }
+  }
+
+  private void unbindPamStripeMetrics(AbstractMetricService metricService) {
+    for (int i = 0; i < PrimitiveArrayManager.getStripeNum(); i++) {
+      String stripeIndex = String.valueOf(i);
+      Arrays.asList(
+              Metric.PAM_STRIPE_ALLOCATED_COUNT,
+              Metric.PAM_STRIPE_HIT_COUNT,
+              Metric.PAM_STRIPE_STEAL_COUNT)
+          .forEach(
+              metric ->
+                  metricService.remove(
+                      MetricType.AUTO_GAUGE,
+                      metric.toString(),
+                      Tag.NAME.toString(),
+                      STORAGE_ENGINE_PAM_STRIPE,
+                      Tag.INDEX.toString(),
+                      stripeIndex));
+    }
   }
 
+  // endregion
+
   public void incPamAllocation() {
     pamAllocationCounter.inc();
   }
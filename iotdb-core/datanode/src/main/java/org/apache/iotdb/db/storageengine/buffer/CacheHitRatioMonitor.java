@@ -62,6 +62,16 @@ public class CacheHitRatioMonitor implements CacheHitRatioMonitorMXBean, IServic
     return ChunkCache.getInstance().calculateChunkHitRatio();
   }
 
+  @Override
+  public double getChunkPointQueryHitRatio() {
+    return ChunkCache.getInstance().calculatePointQueryHitRatio();
+  }
+
+  @Override
+  public double getChunkScanQueryHitRatio() {
+    return ChunkCache.getInstance().calculateScanQueryHitRatio();
+  }
+
   @Override
   public long getChunkEvictionCount() {
     return ChunkCache.getInstance().getEvictionCount();
@@ -88,6 +98,16 @@ public class CacheHitRatioMonitor implements CacheHitRatioMonitorMXBean, IServic
     return TimeSeriesMetadataCache.getInstance().calculateTimeSeriesMetadataHitRatio();
   }
 
+  @Override
+  public double getTimeSeriesMetadataPointQueryHitRatio() {
+    return TimeSeriesMetadataCache.getInstance().calculatePointQueryHitRatio();
+  }
+
+  @Override
+  public double getTimeSeriesMetadataScanQueryHitRatio() {
+    return TimeSeriesMetadataCache.getInstance().calculateScanQueryHitRatio();
+  }
+
   @Override
   public long getTimeSeriesMetadataCacheEvictionCount() {
     return TimeSeriesMetadataCache.getInstance().getEvictionCount();
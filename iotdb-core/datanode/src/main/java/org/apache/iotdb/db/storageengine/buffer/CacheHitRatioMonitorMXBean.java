@@ -23,6 +23,10 @@ public interface CacheHitRatioMonitorMXBean {
 
   double getChunkHitRatio();
 
+  double getChunkPointQueryHitRatio();
+
+  double getChunkScanQueryHitRatio();
+
   long getChunkEvictionCount();
 
   long getChunkCacheMaxMemory();
@@ -33,6 +37,10 @@ public interface CacheHitRatioMonitorMXBean {
 
   double getTimeSeriesMetadataHitRatio();
 
+  double getTimeSeriesMetadataPointQueryHitRatio();
+
+  double getTimeSeriesMetadataScanQueryHitRatio();
+
   long getTimeSeriesMetadataCacheEvictionCount();
 
   long getTimeSeriesMetadataCacheMaxMemory();
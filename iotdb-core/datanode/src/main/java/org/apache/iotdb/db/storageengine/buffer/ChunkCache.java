@@ -29,6 +29,7 @@ import org.apache.iotdb.db.conf.IoTDBDescriptor;
 import org.apache.iotdb.db.queryengine.execution.fragment.QueryContext;
 import org.apache.iotdb.db.queryengine.metric.ChunkCacheMetrics;
 import org.apache.iotdb.db.queryengine.metric.SeriesScanCostMetricSet;
+import org.apache.iotdb.db.storageengine.dataregion.read.control.DirectReadTsFileReader;
 import org.apache.iotdb.db.storageengine.dataregion.read.control.FileReaderManager;
 import org.apache.iotdb.db.storageengine.dataregion.tsfile.TsFileID;
 
@@ -50,6 +51,7 @@ import java.util.function.Function;
 import java.util.function.LongConsumer;
 
 import static org.apache.iotdb.db.queryengine.metric.SeriesScanCostMetricSet.READ_CHUNK_CACHE;
+import static org.apache.iotdb.db.queryengine.metric.SeriesScanCostMetricSet.READ_CHUNK_DIRECT;
 import static org.apache.iotdb.db.queryengine.metric.SeriesScanCostMetricSet.READ_CHUNK_FILE;
 
 /**
@@ -72,6 +74,8 @@ public class ChunkCache {
   // to save memory footprint, we don't save measurementId in ChunkHeader of Chunk
   private final Cache<ChunkCacheKey, Chunk> lruCache;
 
+  private final QueryClassHitCounter queryClassHitCounter = new QueryClassHitCounter();
+
   static {
     CACHE_MEMORY_BLOCK =
         MEMORY_CONFIG
@@ -117,6 +121,7 @@ public class ChunkCache {
         timeRangeList,
         chunkStatistic,
         false,
+        false,
         emptyConsumer,
         emptyConsumer,
         emptyConsumer);
@@ -139,6 +144,7 @@ public class ChunkCache {
         timeRangeList,
         chunkStatistic,
         queryContext.isDebug(),
+        queryContext.isCacheBypassed(),
         ioSizeRecorder,
         cacheHitAdder,
         cacheMissAdder);
@@ -149,6 +155,7 @@ public class ChunkCache {
       List<TimeRange> timeRangeList,
       Statistics chunkStatistic,
       boolean debug,
+      boolean cacheBypassed,
       LongConsumer ioSizeRecorder,
       LongConsumer cacheHitAdder,
       LongConsumer cacheMissAdder)
@@ -161,7 +168,17 @@ public class ChunkCache {
         return constructChunk(chunk, timeRangeList, chunkStatistic);
       }
 
-      Chunk chunk = lruCache.get(chunkCacheKey, chunkLoader);
+      Chunk chunk;
+      if (cacheBypassed) {
+        // large scans still use the cached chunks, but neither evict the others with theirs nor
+        // weigh on the statistics and the eviction policy of the cache
+        chunk = lruCache.policy().getIfPresentQuietly(chunkCacheKey);
+        if (chunk == null) {
+          chunk = chunkLoader.apply(chunkCacheKey);
+        }
+      } else {
+        chunk = lruCache.get(chunkCacheKey, chunkLoader);
+      }
 
       if (debug) {
         DEBUG_LOGGER.info("get chunk from cache whose key is: {}", chunkCacheKey);
@@ -171,6 +188,9 @@ public class ChunkCache {
     } catch (IoTDBIORuntimeException e) {
       throw e.getCause();
     } finally {
+      if (CACHE_ENABLE) {
+        queryClassHitCounter.record(cacheBypassed, !chunkLoader.isCacheMiss());
+      }
       if (chunkLoader.isCacheMiss()) {
         cacheMissAdder.accept(1);
         SERIES_SCAN_COST_METRIC_SET.recordSeriesScanCost(
@@ -197,6 +217,14 @@ public class ChunkCache {
     return lruCache.stats().hitRate();
   }
 
+  public double calculatePointQueryHitRatio() {
+    return queryClassHitCounter.getPointQueryHitRatio();
+  }
+
+  public double calculateScanQueryHitRatio() {
+    return queryClassHitCounter.getScanQueryHitRatio();
+  }
+
   public long getEvictionCount() {
     return lruCache.stats().evictionCount();
   }
@@ -213,6 +241,7 @@ public class ChunkCache {
   public void clear() {
     lruCache.invalidateAll();
     lruCache.cleanUp();
+    queryClassHitCounter.reset();
   }
 
   @TestOnly
@@ -220,6 +249,11 @@ public class ChunkCache {
     return lruCache.asMap().isEmpty();
   }
 
+  @TestOnly
+  public long getRequestCount() {
+    return lruCache.stats().requestCount();
+  }
+
   public static class ChunkCacheKey {
 
     private static final long INSTANCE_SIZE =
@@ -309,7 +343,17 @@ public class ChunkCache {
         TsFileSequenceReader reader =
             FileReaderManager.getInstance()
                 .get(key.getFilePath(), key.tsFileID, key.closed, ioSizeRecorder);
-        Chunk chunk = reader.readMemChunk(key.offsetOfChunkHeader, ioSizeRecorder);
+        Chunk chunk;
+        if (reader instanceof DirectReadTsFileReader) {
+          long directReadStartTime = System.nanoTime();
+          chunk =
+              ((DirectReadTsFileReader) reader)
+                  .readMemChunkDirectly(key.offsetOfChunkHeader, ioSizeRecorder);
+          SERIES_SCAN_COST_METRIC_SET.recordSeriesScanCost(
+              READ_CHUNK_DIRECT, System.nanoTime() - directReadStartTime);
+        } else {
+          chunk = reader.readMemChunk(key.offsetOfChunkHeader, ioSizeRecorder);
+        }
         // to save memory footprint, we don't save measurementId in ChunkHeader of Chunk
         chunk.getHeader().setMeasurementID(null);
         return chunk;
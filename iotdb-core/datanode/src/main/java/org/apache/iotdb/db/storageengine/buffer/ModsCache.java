@@ -0,0 +1,242 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iotdb.db.storageengine.buffer;
+
+import org.apache.iotdb.commons.path.PatternTreeMap;
+import org.apache.iotdb.commons.service.metric.MetricService;
+import org.apache.iotdb.commons.utils.TestOnly;
+import org.apache.iotdb.db.conf.IoTDBConfig;
+import org.apache.iotdb.db.conf.IoTDBDescriptor;
+import org.apache.iotdb.db.queryengine.metric.ModsCacheMetrics;
+import org.apache.iotdb.db.queryengine.plan.planner.LocalExecutionPlanner;
+import org.apache.iotdb.db.storageengine.dataregion.modification.ModEntry;
+import org.apache.iotdb.db.storageengine.dataregion.modification.ModificationFile;
+import org.apache.iotdb.db.storageengine.dataregion.tsfile.TsFileID;
+import org.apache.iotdb.db.storageengine.dataregion.tsfile.TsFileResource;
+import org.apache.iotdb.db.utils.datastructure.PatternTreeMapFactory;
+import org.apache.iotdb.db.utils.datastructure.PatternTreeMapFactory.ModsSerializer;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalListener;
+import com.github.benmanes.caffeine.cache.Weigher;
+import org.apache.tsfile.utils.RamUsageEstimator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * This class caches the parsed modifications of TsFiles for all the queries of the DataNode, so
+ * that the mods files of a TsFile are not read and parsed again by each query touching it.
+ *
+ * <p>An entry remembers the versions of the mods files it is parsed from. The mods files increase
+ * their versions when they are written, truncated, compacted or removed, and an entry whose mods
+ * files have changed since it was parsed is dropped and parsed again on the next access.
+ *
+ * <p>The memory of the cached entries is taken from the memory for query operators, an entry is not
+ * cached if the memory is not enough.
+ */
+@SuppressWarnings("squid:S6548")
+public class ModsCache {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(ModsCache.class);
+  private static final IoTDBConfig CONFIG = IoTDBDescriptor.getInstance().getConfig();
+  private static final boolean CACHE_ENABLE = CONFIG.isEnableSharedModsCache();
+
+  private final Cache<TsFileID, CachedMods> lruCache;
+
+  private final LongAdder hitCount = new LongAdder();
+  private final LongAdder requestCount = new LongAdder();
+  private final AtomicLong usedMemory = new AtomicLong(0);
+
+  private ModsCache() {
+    if (CACHE_ENABLE) {
+      LOGGER.info("ModsCache size = {}", CONFIG.getSharedModsCacheSizeInBytes());
+    }
+    lruCache =
+        Caffeine.newBuilder()
+            .maximumWeight(CONFIG.getSharedModsCacheSizeInBytes())
+            .weigher(
+                (Weigher<TsFileID, CachedMods>)
+                    (tsFileID, cachedMods) -> (int) Math.min(Integer.MAX_VALUE, cachedMods.size))
+            // release the memory in the thread removing the entry, so that the memory is
+            // returned before the next allocation of the same thread
+            .executor(Runnable::run)
+            .removalListener(
+                (RemovalListener<TsFileID, CachedMods>)
+                    (tsFileID, cachedMods, cause) -> {
+                      if (cachedMods != null) {
+                        usedMemory.addAndGet(-cachedMods.size);
+                        LocalExecutionPlanner.getInstance()
+                            .releaseToFreeMemoryForOperators(cachedMods.size);
+                      }
+                    })
+            .build();
+
+    // add metrics
+    MetricService.getInstance().addMetricSet(new ModsCacheMetrics(this));
+  }
+
+  public static ModsCache getInstance() {
+    return ModsCacheHolder.INSTANCE;
+  }
+
+  public static boolean isEnabled() {
+    return CACHE_ENABLE;
+  }
+
+  /**
+   * Get all the modifications of the TsFile, parse its mods files if they are not cached or have
+   * changed. The returned PatternTreeMap is shared by queries and must not be modified.
+   */
+  public PatternTreeMap<ModEntry, ModsSerializer> get(TsFileResource resource) {
+    requestCount.increment();
+    TsFileID tsFileID = resource.getTsFileID();
+    // the versions are taken before reading the files, so the entry is parsed again later if the
+    // files are changed during reading
+    ModificationFile exclusiveModFile = resource.getExclusiveModFile();
+    ModificationFile sharedModFile = resource.getSharedModFile();
+    long exclusiveModFileVersion = exclusiveModFile.getVersion();
+    long sharedModFileVersion = sharedModFile == null ? 0 : sharedModFile.getVersion();
+
+    CachedMods cachedMods = lruCache.getIfPresent(tsFileID);
+    if (cachedMods != null) {
+      if (cachedMods.isParsedFrom(
+          exclusiveModFile, exclusiveModFileVersion, sharedModFile, sharedModFileVersion)) {
+        hitCount.increment();
+        return cachedMods.modifications;
+      }
+      // the mods files have changed
+      lruCache.asMap().remove(tsFileID, cachedMods);
+    }
+
+    PatternTreeMap<ModEntry, ModsSerializer> modifications = loadFromDisk(resource);
+    long size =
+        RamUsageEstimator.sizeOfObject(modifications)
+            + RamUsageEstimator.SHALLOW_SIZE_OF_CONCURRENT_HASHMAP_ENTRY;
+    if (size > CONFIG.getSharedModsCacheSizeInBytes()
+        || !LocalExecutionPlanner.getInstance().forceAllocateFreeMemoryForOperators(size)) {
+      return modifications;
+    }
+    usedMemory.addAndGet(size);
+    CachedMods newCachedMods =
+        new CachedMods(
+            modifications,
+            exclusiveModFile,
+            exclusiveModFileVersion,
+            sharedModFile,
+            sharedModFileVersion,
+            size);
+    CachedMods existing = lruCache.asMap().putIfAbsent(tsFileID, newCachedMods);
+    if (existing != null) {
+      // parsed by another query at the same time
+      usedMemory.addAndGet(-size);
+      LocalExecutionPlanner.getInstance().releaseToFreeMemoryForOperators(size);
+    }
+    return modifications;
+  }
+
+  private static PatternTreeMap<ModEntry, ModsSerializer> loadFromDisk(TsFileResource resource) {
+    PatternTreeMap<ModEntry, ModsSerializer> modifications =
+        PatternTreeMapFactory.getModsPatternTreeMap();
+    TsFileResource.ModIterator modEntryIterator = resource.getModEntryIterator();
+    while (modEntryIterator.hasNext()) {
+      ModEntry modification = modEntryIterator.next();
+      modifications.append(modification.keyOfPatternTree(), modification);
+    }
+    return modifications;
+  }
+
+  public long getHitCount() {
+    return hitCount.sum();
+  }
+
+  public long getRequestCount() {
+    return requestCount.sum();
+  }
+
+  public double getHitRate() {
+    long requests = requestCount.sum();
+    return requests == 0 ? 100 : (double) hitCount.sum() / requests * 100;
+  }
+
+  public long getUsedMemory() {
+    return usedMemory.get();
+  }
+
+  public long getEntriesCount() {
+    return lruCache.estimatedSize();
+  }
+
+  /** clear LRUCache. */
+  public void clear() {
+    lruCache.invalidateAll();
+    lruCache.cleanUp();
+  }
+
+  @TestOnly
+  public boolean isEmpty() {
+    return lruCache.asMap().isEmpty();
+  }
+
+  private static class CachedMods {
+
+    private final PatternTreeMap<ModEntry, ModsSerializer> modifications;
+    private final ModificationFile exclusiveModFile;
+    private final long exclusiveModFileVersion;
+    private final ModificationFile sharedModFile;
+    private final long sharedModFileVersion;
+    private final long size;
+
+    private CachedMods(
+        PatternTreeMap<ModEntry, ModsSerializer> modifications,
+        ModificationFile exclusiveModFile,
+        long exclusiveModFileVersion,
+        ModificationFile sharedModFile,
+        long sharedModFileVersion,
+        long size) {
+      this.modifications = modifications;
+      this.exclusiveModFile = exclusiveModFile;
+      this.exclusiveModFileVersion = exclusiveModFileVersion;
+      this.sharedModFile = sharedModFile;
+      this.sharedModFileVersion = sharedModFileVersion;
+      this.size = size;
+    }
+
+    private boolean isParsedFrom(
+        ModificationFile exclusiveModFile,
+        long exclusiveModFileVersion,
+        ModificationFile sharedModFile,
+        long sharedModFileVersion) {
+      return this.exclusiveModFile == exclusiveModFile
+          && this.exclusiveModFileVersion == exclusiveModFileVersion
+          && this.sharedModFile == sharedModFile
+          && this.sharedModFileVersion == sharedModFileVersion;
+    }
+  }
+
+  /** singleton pattern. */
+  private static class ModsCacheHolder {
+
+    private static final ModsCache INSTANCE = new ModsCache();
+  }
+}
@@ -0,0 +1,62 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.storageengine.buffer;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Hit and miss counts of a cache for two classes of queries: the point queries whose reads are put
+ * into the cache, and the scans whose reads bypass it, see {@code QueryContext#isCacheBypassed}.
+ */
+class QueryClassHitCounter {
+
+  private final LongAdder pointQueryHitCount = new LongAdder();
+  private final LongAdder pointQueryMissCount = new LongAdder();
+  private final LongAdder scanQueryHitCount = new LongAdder();
+  private final LongAdder scanQueryMissCount = new LongAdder();
+
+  void record(boolean scanQuery, boolean hit) {
+    if (scanQuery) {
+      (hit ? scanQueryHitCount : scanQueryMissCount).increment();
+    } else {
+      (hit ? pointQueryHitCount : pointQueryMissCount).increment();
+    }
+  }
+
+  void reset() {
+    pointQueryHitCount.reset();
+    pointQueryMissCount.reset();
+    scanQueryHitCount.reset();
+    scanQueryMissCount.reset();
+  }
+
+  double getPointQueryHitRatio() {
+    return hitRatio(pointQueryHitCount.sum(), pointQueryMissCount.sum());
+  }
+
+  double getScanQueryHitRatio() {
+    return hitRatio(scanQueryHitCount.sum(), scanQueryMissCount.sum());
+  }
+
+  private static double hitRatio(long hitCount, long missCount) {
+    long requestCount = hitCount + missCount;
+    // same as the hit rate of caffeine when there is no request
+    return requestCount == 0 ? 1.0 : (double) hitCount / requestCount;
+  }
+}
@@ -72,6 +72,8 @@ public class TimeSeriesMetadataCache {
 
   private final Cache<TimeSeriesMetadataCacheKey, TimeseriesMetadata> lruCache;
 
+  private final QueryClassHitCounter queryClassHitCounter = new QueryClassHitCounter();
+
   private final AtomicLong entryAverageSize = new AtomicLong(0);
 
   private final Map<String, WeakReference<String>> devices =
@@ -125,6 +127,7 @@ public class TimeSeriesMetadataCache {
     LongConsumer bloomFilterIoSizeRecorder =
         queryContext.getQueryStatistics().getLoadBloomFilterActualIOSize()::addAndGet;
     boolean cacheHit = true;
+    boolean cacheBypassed = queryContext.isCacheBypassed();
     try {
       if (!CACHE_ENABLE) {
         String deviceStringFormat = key.device.toString();
@@ -152,7 +155,7 @@ public class TimeSeriesMetadataCache {
             : timeseriesMetadata;
       }
 
-      TimeseriesMetadata timeseriesMetadata = lruCache.getIfPresent(key);
+      TimeseriesMetadata timeseriesMetadata = getIfPresent(key, cacheBypassed);
 
       if (timeseriesMetadata == null) {
         if (debug) {
@@ -165,7 +168,7 @@ public class TimeSeriesMetadataCache {
             devices.computeIfAbsent(
                 deviceStringFormat + SEPARATOR + filePath, WeakReference::new)) {
           // double check
-          timeseriesMetadata = lruCache.getIfPresent(key);
+          timeseriesMetadata = getIfPresent(key, cacheBypassed);
           if (timeseriesMetadata == null) {
             cacheHit = false;
 
@@ -207,7 +210,8 @@ public class TimeSeriesMetadataCache {
               TimeSeriesMetadataCacheKey k =
                   new TimeSeriesMetadataCacheKey(
                       key.tsFileID, key.device, metadata.getMeasurementId());
-              if (metadata.getStatistics().getCount() != 0) {
+              // large scans don't evict the cached ones with their metadata
+              if (!cacheBypassed && metadata.getStatistics().getCount() != 0) {
                 lruCache.put(k, metadata);
               }
               if (metadata.getMeasurementId().equals(key.measurement)) {
@@ -235,6 +239,9 @@ public class TimeSeriesMetadataCache {
       }
     } finally {
       queryContext.getQueryStatistics().getLoadBloomFilterTime().getAndAdd(loadBloomFilterTime);
+      if (CACHE_ENABLE) {
+        queryClassHitCounter.record(cacheBypassed, cacheHit);
+      }
       if (cacheHit) {
         queryContext
             .getQueryStatistics()
@@ -261,6 +268,19 @@ public class TimeSeriesMetadataCache {
     return lruCache.stats().hitRate();
   }
 
+  private TimeseriesMetadata getIfPresent(TimeSeriesMetadataCacheKey key, boolean cacheBypassed) {
+    // large scans don't weigh on the statistics and the eviction policy of the cache
+    return cacheBypassed ? lruCache.policy().getIfPresentQuietly(key) : lruCache.getIfPresent(key);
+  }
+
+  public double calculatePointQueryHitRatio() {
+    return queryClassHitCounter.getPointQueryHitRatio();
+  }
+
+  public double calculateScanQueryHitRatio() {
+    return queryClassHitCounter.getScanQueryHitRatio();
+  }
+
   public long getEvictionCount() {
     return lruCache.stats().evictionCount();
   }
@@ -285,6 +305,7 @@ public class TimeSeriesMetadataCache {
   public void clear() {
     lruCache.invalidateAll();
     lruCache.cleanUp();
+    queryClassHitCounter.reset();
   }
 
   public void remove(TimeSeriesMetadataCacheKey key) {
@@ -296,6 +317,11 @@ public class TimeSeriesMetadataCache {
     return lruCache.asMap().isEmpty();
   }
 
+  @TestOnly
+  public long getRequestCount() {
+    return lruCache.stats().requestCount();
+  }
+
   public static class TimeSeriesMetadataCacheKey {
 
     private static final long INSTANCE_SIZE =
@@ -98,6 +98,7 @@ import org.apache.iotdb.db.service.metrics.WritingMetrics;
 import org.apache.iotdb.db.storageengine.StorageEngine;
 import org.apache.iotdb.db.storageengine.buffer.BloomFilterCache;
 import org.apache.iotdb.db.storageengine.buffer.ChunkCache;
+import org.apache.iotdb.db.storageengine.buffer.ModsCache;
 import org.apache.iotdb.db.storageengine.buffer.TimeSeriesMetadataCache;
 import org.apache.iotdb.db.storageengine.dataregion.compaction.constant.CompactionTaskType;
 import org.apache.iotdb.db.storageengine.dataregion.compaction.execute.recover.CompactionRecoverManager;
@@ -209,6 +210,7 @@ import java.util.TreeMap;
 import java.util.concurrent.Callable;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
@@ -219,6 +221,7 @@ import java.util.concurrent.locks.Condition;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.stream.Collectors;
+import java.util.stream.LongStream;
 import java.util.stream.Stream;
 
 import static org.apache.iotdb.commons.conf.IoTDBConstant.FILE_NAME_SEPARATOR;
@@ -274,6 +277,15 @@ public class DataRegion implements IDataRegionForQuery {
   /** Condition to safely delete data region. */
   private final Condition deletedCondition = insertLock.writeLock().newCondition();
 
+  /**
+   * Locks of the time partitions hashed to each stripe, null if insertions are serialized by the
+   * write lock of insertLock. If not null, an insertion holds the read lock of insertLock and the
+   * write locks of the stripes it writes to, while a query holds the read locks of insertLock and
+   * all the stripes, so that insertions into different stripes don't block each other, and flush,
+   * deletion and TTL holding the write lock of insertLock still exclude all insertions.
+   */
+  private final ReadWriteLock[] insertLockStripes = createInsertLockStripes();
+
   /** Data region has been deleted or not. */
   private volatile boolean deleted = false;
 
@@ -281,10 +293,12 @@ public class DataRegion implements IDataRegionForQuery {
   private final Object closeStorageGroupCondition = new Object();
 
   /** time partition id in the database -> {@link TsFileProcessor} for this time partition. */
-  private final TreeMap<Long, TsFileProcessor> workSequenceTsFileProcessors = new TreeMap<>();
+  private final ConcurrentSkipListMap<Long, TsFileProcessor> workSequenceTsFileProcessors =
+      new ConcurrentSkipListMap<>();
 
   /** time partition id in the database -> {@link TsFileProcessor} for this time partition. */
-  private final TreeMap<Long, TsFileProcessor> workUnsequenceTsFileProcessors = new TreeMap<>();
+  private final ConcurrentSkipListMap<Long, TsFileProcessor> workUnsequenceTsFileProcessors =
+      new ConcurrentSkipListMap<>();
 
   /** sequence {@link TsFileProcessor}s which are closing. */
   private final Set<TsFileProcessor> closingSequenceTsFileProcessor = ConcurrentHashMap.newKeySet();
@@ -729,6 +743,7 @@ public class DataRegion implements IDataRegionForQuery {
         long partitionNum = resource.getTimePartition();
         updatePartitionFileVersion(partitionNum, resource.getVersion());
       }
+      tsFileManager.indexSealedTsFiles();
     } catch (IOException e) {
       // signal wal recover manager to recover this region's files
       WALRecoverManager.getInstance()
@@ -1149,9 +1164,12 @@ public class DataRegion implements IDataRegionForQuery {
           insertRowNode.getTime(), (CommonDateTimeUtils.currentTime() - ttl));
     }
     StorageEngine.blockInsertionIfReject();
-    long startTime = System.nanoTime();
-    writeLock("InsertRow");
-    PERFORMANCE_OVERVIEW_METRICS.recordScheduleLockCost(System.nanoTime() - startTime);
+    int[] lockedStripes =
+        insertLock(
+            "InsertRow",
+            LongStream.of(TimePartitionUtils.getTimePartitionId(insertRowNode.getTime())));
+    long lockedTime = System.nanoTime();
+    long startTime;
     try {
       if (deleted) {
         return;
@@ -1182,7 +1200,7 @@ public class DataRegion implements IDataRegionForQuery {
             System.nanoTime() - startTime);
       }
     } finally {
-      writeUnlock();
+      insertUnlock(lockedStripes, lockedTime);
     }
   }
 
@@ -1311,9 +1329,11 @@ public class DataRegion implements IDataRegionForQuery {
   public void insertTablet(InsertTabletNode insertTabletNode)
       throws BatchProcessException, WriteProcessException {
     StorageEngine.blockInsertionIfReject();
-    long startTime = System.nanoTime();
-    writeLock("insertTablet");
-    PERFORMANCE_OVERVIEW_METRICS.recordScheduleLockCost(System.nanoTime() - startTime);
+    int[] lockedStripes =
+        insertLock(
+            "insertTablet",
+            getTimePartitionIds(insertTabletNode.getTimes(), insertTabletNode.getRowCount()));
+    long lockedTime = System.nanoTime();
     try {
       if (deleted) {
         logger.info(
@@ -1335,7 +1355,7 @@ public class DataRegion implements IDataRegionForQuery {
         throw new BatchProcessException(results);
       }
     } finally {
-      writeUnlock();
+      insertUnlock(lockedStripes, lockedTime);
     }
   }
 
@@ -1768,7 +1788,9 @@ public class DataRegion implements IDataRegionForQuery {
    * @param sequence whether is sequence or not
    */
   private TsFileProcessor getOrCreateTsFileProcessorIntern(
-      long timeRangeId, TreeMap<Long, TsFileProcessor> tsFileProcessorTreeMap, boolean sequence)
+      long timeRangeId,
+      ConcurrentSkipListMap<Long, TsFileProcessor> tsFileProcessorTreeMap,
+      boolean sequence)
       throws IOException, DiskSpaceInsufficientException {
 
     TsFileProcessor res = tsFileProcessorTreeMap.get(timeRangeId);
@@ -2243,7 +2265,7 @@ public class DataRegion implements IDataRegionForQuery {
       throws QueryProcessException {
 
     Pair<List<TsFileResource>, List<TsFileResource>> pair =
-        tsFileManager.getAllTsFileListForQuery(timePartitions, globalTimeFilter);
+        tsFileManager.getAllTsFileListForQuery(timePartitions, globalTimeFilter, singleDeviceId);
 
     List<TsFileResource> seqTsFileResouceList = pair.left;
     List<TsFileResource> unSeqTsFileResouceList = pair.right;
@@ -2570,10 +2592,15 @@ public class DataRegion implements IDataRegionForQuery {
       // memtable
       long startTime = System.nanoTime();
       if (insertLock.readLock().tryLock(waitMillis, TimeUnit.MILLISECONDS)) {
+        if (!tryReadLockInsertLockStripes(startTime, waitMillis)) {
+          insertLock.readLock().unlock();
+          return false;
+        }
         // minus already consumed time
         waitMillis -= (System.nanoTime() - startTime) / 1_000_000;
         // no remaining time slice
         if (waitMillis <= 0) {
+          readUnlockInsertLockStripes();
           insertLock.readLock().unlock();
           return false;
         }
@@ -2587,6 +2614,41 @@ public class DataRegion implements IDataRegionForQuery {
     }
   }
 
+  /**
+   * Lock the read locks of all the insert lock stripes, give up after waitMillis since startTime
+   */
+  private boolean tryReadLockInsertLockStripes(long startTime, long waitMillis) {
+    if (insertLockStripes == null) {
+      return true;
+    }
+    for (int i = 0; i < insertLockStripes.length; i++) {
+      boolean locked;
+      try {
+        long remainingNanos =
+            TimeUnit.MILLISECONDS.toNanos(waitMillis) - (System.nanoTime() - startTime);
+        locked = insertLockStripes[i].readLock().tryLock(remainingNanos, TimeUnit.NANOSECONDS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        locked = false;
+      }
+      if (!locked) {
+        for (int j = i - 1; j >= 0; j--) {
+          insertLockStripes[j].readLock().unlock();
+        }
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private void readUnlockInsertLockStripes() {
+    if (insertLockStripes != null) {
+      for (int i = insertLockStripes.length - 1; i >= 0; i--) {
+        insertLockStripes[i].readLock().unlock();
+      }
+    }
+  }
+
   private boolean tryGetTsFileManagerReadLock(long waitMillis) {
     // apply read lock for TsFileResource list
     try {
@@ -2594,11 +2656,13 @@ public class DataRegion implements IDataRegionForQuery {
         return true;
       } else {
         // failed to acquire tsFileManager read lock, we also need to unlock the insertLock
+        readUnlockInsertLockStripes();
         insertLock.readLock().unlock();
         return false;
       }
     } catch (InterruptedException e) {
       // failed to acquire tsFileManager read lock, we also need to unlock the insertLock
+      readUnlockInsertLockStripes();
       insertLock.readLock().unlock();
       Thread.currentThread().interrupt();
       return false;
@@ -2609,6 +2673,7 @@ public class DataRegion implements IDataRegionForQuery {
   @Override
   public void readUnlock() {
     tsFileManager.readUnlock();
+    readUnlockInsertLockStripes();
     insertLock.readLock().unlock();
   }
 
@@ -2624,6 +2689,69 @@ public class DataRegion implements IDataRegionForQuery {
     insertLock.writeLock().unlock();
   }
 
+  private static ReadWriteLock[] createInsertLockStripes() {
+    int stripeNum = config.getDataRegionInsertLockStripeNum();
+    if (stripeNum <= 1) {
+      return null;
+    }
+    ReadWriteLock[] stripes = new ReadWriteLock[stripeNum];
+    for (int i = 0; i < stripeNum; i++) {
+      stripes[i] = new ReentrantReadWriteLock();
+    }
+    return stripes;
+  }
+
+  /**
+   * Lock this data region for an insertion into the given time partitions.
+   *
+   * @return the locked stripes which should be passed to {@link #insertUnlock}, null if the write
+   *     lock of the insert lock is held
+   */
+  private int[] insertLock(String holder, LongStream timePartitionIds) {
+    long startTime = System.nanoTime();
+    int[] lockedStripes = null;
+    if (insertLockStripes == null) {
+      writeLock(holder);
+    } else {
+      // Stripes are always locked in ascending order to avoid deadlock
+      lockedStripes =
+          timePartitionIds
+              .mapToInt(id -> (int) Math.floorMod(id, (long) insertLockStripes.length))
+              .distinct()
+              .sorted()
+              .toArray();
+      insertLock.readLock().lock();
+      for (int stripe : lockedStripes) {
+        insertLockStripes[stripe].writeLock().lock();
+      }
+    }
+    long costTime = System.nanoTime() - startTime;
+    PERFORMANCE_OVERVIEW_METRICS.recordScheduleLockCost(costTime);
+    WritingMetrics.getInstance().recordInsertLockWaitCost(costTime);
+    return lockedStripes;
+  }
+
+  private void insertUnlock(int[] lockedStripes, long lockedTime) {
+    if (lockedStripes == null) {
+      writeUnlock();
+    } else {
+      for (int i = lockedStripes.length - 1; i >= 0; i--) {
+        insertLockStripes[lockedStripes[i]].writeLock().unlock();
+      }
+      insertLock.readLock().unlock();
+    }
+    WritingMetrics.getInstance().recordInsertLockHoldCost(System.nanoTime() - lockedTime);
+  }
+
+  private static LongStream getTimePartitionIds(long[] times, int rowCount) {
+    return Arrays.stream(times, 0, rowCount).map(TimePartitionUtils::getTimePartitionId);
+  }
+
+  private static LongStream getTimePartitionIds(List<InsertRowNode> insertRowNodes) {
+    return insertRowNodes.stream()
+        .mapToLong(insertRowNode -> TimePartitionUtils.getTimePartitionId(insertRowNode.getTime()));
+  }
+
   /**
    * @param tsFileResources includes sealed and unsealed tsfile resources
    * @return fill unsealed tsfile resources with memory data and ChunkMetadataList of data in disk
@@ -3308,6 +3436,8 @@ public class DataRegion implements IDataRegionForQuery {
     }
     if (isEmptyFile || isValidateTsFileFailed) {
       tsFileManager.remove(tsFileProcessor.getTsFileResource(), tsFileProcessor.isSequence());
+    } else {
+      tsFileManager.indexSealedTsFiles();
     }
 
     // closingSequenceTsFileProcessor is a thread safety class.
@@ -3558,6 +3688,7 @@ public class DataRegion implements IDataRegionForQuery {
     ChunkCache.getInstance().clear();
     TimeSeriesMetadataCache.getInstance().clear();
     BloomFilterCache.getInstance().clear();
+    ModsCache.getInstance().clear();
   }
 
   public static Optional<String> getNonSystemDatabaseName(String databaseName) {
@@ -4196,9 +4327,12 @@ public class DataRegion implements IDataRegionForQuery {
   public void insert(InsertRowsOfOneDeviceNode insertRowsOfOneDeviceNode)
       throws WriteProcessException, BatchProcessException {
     StorageEngine.blockInsertionIfReject();
-    long startTime = System.nanoTime();
-    writeLock("InsertRowsOfOneDevice");
-    PERFORMANCE_OVERVIEW_METRICS.recordScheduleLockCost(System.nanoTime() - startTime);
+    int[] lockedStripes =
+        insertLock(
+            "InsertRowsOfOneDevice",
+            getTimePartitionIds(insertRowsOfOneDeviceNode.getInsertRowNodeList()));
+    long lockedTime = System.nanoTime();
+    long startTime;
     try {
       if (deleted) {
         return;
@@ -4303,7 +4437,7 @@ public class DataRegion implements IDataRegionForQuery {
             System.nanoTime() - startTime);
       }
     } finally {
-      writeUnlock();
+      insertUnlock(lockedStripes, lockedTime);
     }
     if (!insertRowsOfOneDeviceNode.getResults().isEmpty()) {
       throw new BatchProcessException("Partial failed inserting rows of one device");
@@ -4313,9 +4447,10 @@ public class DataRegion implements IDataRegionForQuery {
   public void insert(InsertRowsNode insertRowsNode)
       throws BatchProcessException, WriteProcessRejectException {
     StorageEngine.blockInsertionIfReject();
-    long startTime = System.nanoTime();
-    writeLock("InsertRows");
-    PERFORMANCE_OVERVIEW_METRICS.recordScheduleLockCost(System.nanoTime() - startTime);
+    int[] lockedStripes =
+        insertLock("InsertRows", getTimePartitionIds(insertRowsNode.getInsertRowNodeList()));
+    long lockedTime = System.nanoTime();
+    long startTime;
     try {
       if (deleted) {
         return;
@@ -4384,7 +4519,7 @@ public class DataRegion implements IDataRegionForQuery {
         throw new BatchProcessException("Partial failed inserting rows");
       }
     } finally {
-      writeUnlock();
+      insertUnlock(lockedStripes, lockedTime);
     }
   }
 
@@ -4397,9 +4532,15 @@ public class DataRegion implements IDataRegionForQuery {
       throws BatchProcessException, WriteProcessRejectException {
 
     StorageEngine.blockInsertionIfReject();
-    long startTime = System.nanoTime();
-    writeLock("insertTablets");
-    PERFORMANCE_OVERVIEW_METRICS.recordScheduleLockCost(System.nanoTime() - startTime);
+    int[] lockedStripes =
+        insertLock(
+            "insertTablets",
+            insertMultiTabletsNode.getInsertTabletNodeList().stream()
+                .flatMapToLong(
+                    insertTabletNode ->
+                        getTimePartitionIds(
+                            insertTabletNode.getTimes(), insertTabletNode.getRowCount())));
+    long lockedTime = System.nanoTime();
     try {
       if (deleted) {
         logger.info(
@@ -4444,7 +4585,7 @@ public class DataRegion implements IDataRegionForQuery {
       updateTsFileProcessorMetric(insertMultiTabletsNode, infoForMetrics);
 
     } finally {
-      writeUnlock();
+      insertUnlock(lockedStripes, lockedTime);
     }
 
     if (!insertMultiTabletsNode.getResults().isEmpty()) {
@@ -32,6 +32,7 @@ public class FlushManagerMetrics implements IMetricSet {
   private FlushManager flushManager;
 
   private static final String FLUSH = "flush";
+  private static final String FLUSH_ENCODING_WORKER = "flush_encoding_worker";
 
   public FlushManagerMetrics(FlushManager flushManager) {
     this.flushManager = flushManager;
@@ -57,6 +58,15 @@ public class FlushManagerMetrics implements IMetricSet {
         FLUSH,
         Tag.STATUS.toString(),
         "running");
+    metricService.createAutoGauge(
+        Metric.QUEUE.toString(),
+        MetricLevel.IMPORTANT,
+        flushManager,
+        manager -> MemTableFlushTask.getRunningEncodingWorkerNum(),
+        Tag.NAME.toString(),
+        FLUSH_ENCODING_WORKER,
+        Tag.STATUS.toString(),
+        "running");
   }
 
   @Override
@@ -75,6 +85,13 @@ public class FlushManagerMetrics implements IMetricSet {
         FLUSH,
         Tag.STATUS.toString(),
         "running");
+    metricService.remove(
+        MetricType.AUTO_GAUGE,
+        Metric.QUEUE.toString(),
+        Tag.NAME.toString(),
+        FLUSH_ENCODING_WORKER,
+        Tag.STATUS.toString(),
+        "running");
   }
 
   @Override
@@ -52,11 +52,19 @@ import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * flush task to flush one memtable using a pipeline model to flush, which is sort memtable ->
  * encoding -> write to disk (io task)
+ *
+ * <p>When flush_encoding_thread_num_per_memtable is larger than 1, the devices of the memtable are
+ * sorted and encoded by several encoding workers in parallel. Each worker encodes a whole device
+ * into its own queue of chunk writers, and the flush thread forwards these queues to the io task in
+ * device order, so the layout of the flushed file is the same as the one of the serial pipeline.
  */
 public class MemTableFlushTask {
 
@@ -70,6 +78,11 @@ public class MemTableFlushTask {
 
   /* storage group name -> last time */
   private static final Map<String, Long> flushPointsCache = new ConcurrentHashMap<>();
+
+  /* number of encoding workers of all the memtables being flushed in parallel mode */
+  private static final AtomicInteger RUNNING_ENCODING_WORKER_NUM = new AtomicInteger(0);
+
+  private final int encodingThreadNum = config.getFlushEncodingThreadNumPerMemTable();
   private final Future<?> encodingTaskFuture;
   private final Future<?> ioTaskFuture;
   private RestorableTsFileIOWriter writer;
@@ -105,7 +118,9 @@ public class MemTableFlushTask {
     this.writer = writer;
     this.storageGroup = storageGroup;
     this.dataRegionId = dataRegionId;
-    this.encodingTaskFuture = SUB_TASK_POOL_MANAGER.submit(encodingTask);
+    // in parallel mode, the encoding workers are submitted when the devices to flush are known
+    this.encodingTaskFuture =
+        encodingThreadNum > 1 ? null : SUB_TASK_POOL_MANAGER.submit(encodingTask);
     this.ioTaskFuture = SUB_TASK_POOL_MANAGER.submit(ioTask);
 
     long MAX_NUMBER_OF_POINTS_IN_CHUNK = config.getTargetChunkPointNum();
@@ -149,13 +164,54 @@ public class MemTableFlushTask {
       SystemInfo.getInstance().applyTemporaryMemoryForFlushing(estimatedTemporaryMemSize);
     }
     long start = System.currentTimeMillis();
-    long sortTime = 0;
 
-    // for map do not use get(key) to iterate
-    Map<IDeviceID, IWritableMemChunkGroup> memTableMap = memTable.getMemTableMap();
+    if (encodingThreadNum > 1) {
+      parallelEncodeMemTable();
+    } else {
+      serialEncodeMemTable();
+    }
+
+    ioTaskFuture.get();
+
+    try {
+      long writePlanIndicesStartTime = System.currentTimeMillis();
+      writer.writePlanIndices();
+      WRITING_METRICS.recordFlushCost(
+          WritingMetrics.WRITE_PLAN_INDICES,
+          System.currentTimeMillis() - writePlanIndicesStartTime);
+    } catch (IOException e) {
+      throw new ExecutionException(e);
+    }
+
+    if (estimatedTemporaryMemSize != 0) {
+      SystemInfo.getInstance().releaseTemporaryMemoryForFlushing(estimatedTemporaryMemSize);
+    }
+    SystemInfo.getInstance().setEncodingFasterThanIo(ioTime >= memSerializeTime);
+
+    MetricService.getInstance()
+        .timer(
+            System.currentTimeMillis() - start,
+            TimeUnit.MILLISECONDS,
+            Metric.COST_TASK.toString(),
+            MetricLevel.CORE,
+            Tag.NAME.toString(),
+            "flush");
+  }
+
+  private List<IDeviceID> getSortedDeviceIDList(
+      Map<IDeviceID, IWritableMemChunkGroup> memTableMap) {
     List<IDeviceID> deviceIDList = new ArrayList<>(memTableMap.keySet());
     // sort the IDeviceID in lexicographical order
     Collections.sort(deviceIDList);
+    return deviceIDList;
+  }
+
+  private void serialEncodeMemTable() throws ExecutionException, InterruptedException {
+    long sortTime = 0;
+
+    // for map do not use get(key) to iterate
+    Map<IDeviceID, IWritableMemChunkGroup> memTableMap = memTable.getMemTableMap();
+    List<IDeviceID> deviceIDList = getSortedDeviceIDList(memTableMap);
     for (IDeviceID deviceID : deviceIDList) {
       final Map<String, IWritableMemChunk> value = memTableMap.get(deviceID).getMemChunkMap();
       // skip the empty device/chunk group
@@ -200,32 +256,110 @@ public class MemTableFlushTask {
       }
       throw e;
     }
+  }
 
-    ioTaskFuture.get();
+  /**
+   * Sort and encode the devices by encoding workers in parallel, and forward the encoded chunks of
+   * each device to the io task in device order.
+   */
+  private void parallelEncodeMemTable() throws ExecutionException, InterruptedException {
+    Map<IDeviceID, IWritableMemChunkGroup> memTableMap = memTable.getMemTableMap();
+    List<DeviceEncodingTask> deviceTasks = new ArrayList<>();
+    for (IDeviceID deviceID : getSortedDeviceIDList(memTableMap)) {
+      IWritableMemChunkGroup memChunkGroup = memTableMap.get(deviceID);
+      // skip the empty device/chunk group
+      if (memChunkGroup.isEmpty() || memChunkGroup.getMemChunkMap().isEmpty()) {
+        continue;
+      }
+      deviceTasks.add(new DeviceEncodingTask(deviceID, memChunkGroup.getMemChunkMap()));
+    }
 
+    int workerNum = Math.min(encodingThreadNum, deviceTasks.size());
+    // a worker takes a permit before claiming a device and the permit is released after the device
+    // is forwarded to the io task, so at most this number of encoded devices are kept in memory.
+    // The lowest device not forwarded is always claimed by a permit holder, so it can't deadlock.
+    Semaphore encodingWindow = new Semaphore(workerNum * 2);
+    // the encoded devices in the window wait in unbounded queues until they are forwarded, so
+    // reserve memory for them as the serial mode does for the bounded io task queue
+    long encodingWindowMemSize =
+        deviceTasks.isEmpty()
+            ? 0
+            : memTable.memSize()
+                / deviceTasks.size()
+                * Math.min(deviceTasks.size(), workerNum * 2L);
+    SystemInfo.getInstance().applyTemporaryMemoryForFlushing(encodingWindowMemSize);
     try {
-      long writePlanIndicesStartTime = System.currentTimeMillis();
-      writer.writePlanIndices();
-      WRITING_METRICS.recordFlushCost(
-          WritingMetrics.WRITE_PLAN_INDICES,
-          System.currentTimeMillis() - writePlanIndicesStartTime);
-    } catch (IOException e) {
-      throw new ExecutionException(e);
+      encodeDevicesInParallel(deviceTasks, workerNum, encodingWindow);
+    } finally {
+      SystemInfo.getInstance().releaseTemporaryMemoryForFlushing(encodingWindowMemSize);
     }
+  }
 
-    if (estimatedTemporaryMemSize != 0) {
-      SystemInfo.getInstance().releaseTemporaryMemoryForFlushing(estimatedTemporaryMemSize);
+  private void encodeDevicesInParallel(
+      List<DeviceEncodingTask> deviceTasks, int workerNum, Semaphore encodingWindow)
+      throws ExecutionException, InterruptedException {
+    AtomicInteger nextDevice = new AtomicInteger(0);
+    AtomicLong sortTime = new AtomicLong(0);
+    AtomicLong encodingTime = new AtomicLong(0);
+    long encodingStartTime = System.currentTimeMillis();
+    List<Future<?>> workerFutures = new ArrayList<>(workerNum);
+    for (int i = 0; i < workerNum; i++) {
+      workerFutures.add(
+          SUB_TASK_POOL_MANAGER.submit(
+              new EncodingWorker(deviceTasks, nextDevice, encodingWindow, sortTime, encodingTime)));
     }
-    SystemInfo.getInstance().setEncodingFasterThanIo(ioTime >= memSerializeTime);
 
-    MetricService.getInstance()
-        .timer(
-            System.currentTimeMillis() - start,
-            TimeUnit.MILLISECONDS,
-            Metric.COST_TASK.toString(),
-            MetricLevel.CORE,
-            Tag.NAME.toString(),
-            "flush");
+    try {
+      for (DeviceEncodingTask deviceTask : deviceTasks) {
+        ioTaskQueue.put(new StartFlushGroupIOTask(deviceTask.deviceID));
+        while (true) {
+          Object encoded = deviceTask.encodedChunkQueue.take();
+          if (encoded instanceof Throwable) {
+            throw new ExecutionException((Throwable) encoded);
+          }
+          ioTaskQueue.put(encoded);
+          if (encoded instanceof EndChunkGroupIoTask) {
+            break;
+          }
+        }
+        encodingWindow.release();
+      }
+      ioTaskQueue.put(new TaskEnd());
+    } catch (InterruptedException | ExecutionException e) {
+      workerFutures.forEach(future -> future.cancel(true));
+      ioTaskFuture.cancel(true);
+      if (e instanceof InterruptedException) {
+        Thread.currentThread().interrupt();
+      }
+      throw e;
+    }
+
+    for (Future<?> workerFuture : workerFutures) {
+      workerFuture.get();
+    }
+    // compared with the io time, which is the wall-clock time of the io task, so the time of the
+    // workers encoding in parallel isn't summed up
+    memSerializeTime = System.currentTimeMillis() - encodingStartTime;
+    LOGGER.debug(
+        "Database {} memtable flushing into file {}: data sort time cost {} ms, encoding time cost"
+            + " {} ms, {} ms in total by {} workers.",
+        storageGroup,
+        writer.getFile().getName(),
+        sortTime.get(),
+        memSerializeTime,
+        encodingTime.get(),
+        workerNum);
+    WRITING_METRICS.recordFlushCost(WritingMetrics.FLUSH_STAGE_SORT, sortTime.get());
+    WRITING_METRICS.recordFlushCost(WritingMetrics.FLUSH_STAGE_ENCODING, memSerializeTime);
+    DataRegion.getNonSystemDatabaseName(storageGroup)
+        .ifPresent(
+            databaseName ->
+                recordFlushPointsMetricInternal(
+                    memTable.getTotalPointsNum(), databaseName, dataRegionId));
+  }
+
+  public static int getRunningEncodingWorkerNum() {
+    return RUNNING_ENCODING_WORKER_NUM.get();
   }
 
   /** encoding task (second task of pipeline) */
@@ -370,6 +504,113 @@ public class MemTableFlushTask {
         WRITING_METRICS.recordFlushCost(WritingMetrics.FLUSH_STAGE_IO, ioTime);
       };
 
+  /** the series of one device to encode and the chunks encoded from them */
+  private static class DeviceEncodingTask {
+
+    private final IDeviceID deviceID;
+    private final Map<String, IWritableMemChunk> memChunkMap;
+    // chunk writers of the device ended by an EndChunkGroupIoTask, or the error of encoding
+    private final BlockingQueue<Object> encodedChunkQueue = new LinkedBlockingQueue<>();
+
+    private DeviceEncodingTask(IDeviceID deviceID, Map<String, IWritableMemChunk> memChunkMap) {
+      this.deviceID = deviceID;
+      this.memChunkMap = memChunkMap;
+    }
+  }
+
+  /** encoding worker of the parallel mode, claims devices in order and encodes them one by one */
+  private class EncodingWorker implements Runnable {
+
+    private final List<DeviceEncodingTask> deviceTasks;
+    private final AtomicInteger nextDevice;
+    private final Semaphore encodingWindow;
+    private final AtomicLong sortTime;
+    private final AtomicLong encodingTime;
+
+    // the encode info is modified during encoding, so each worker has its own
+    private final BatchEncodeInfo workerEncodeInfo;
+    private long[] workerTimes;
+
+    private EncodingWorker(
+        List<DeviceEncodingTask> deviceTasks,
+        AtomicInteger nextDevice,
+        Semaphore encodingWindow,
+        AtomicLong sortTime,
+        AtomicLong encodingTime) {
+      this.deviceTasks = deviceTasks;
+      this.nextDevice = nextDevice;
+      this.encodingWindow = encodingWindow;
+      this.sortTime = sortTime;
+      this.encodingTime = encodingTime;
+      this.workerEncodeInfo =
+          new BatchEncodeInfo(
+              0,
+              0,
+              0,
+              MAX_NUMBER_OF_POINTS_IN_PAGE,
+              config.getTargetChunkPointNum(),
+              config.getTargetChunkSize());
+    }
+
+    @Override
+    public void run() {
+      RUNNING_ENCODING_WORKER_NUM.incrementAndGet();
+      try {
+        while (true) {
+          encodingWindow.acquire();
+          int index = nextDevice.getAndIncrement();
+          if (index >= deviceTasks.size()) {
+            encodingWindow.release();
+            return;
+          }
+          DeviceEncodingTask deviceTask = deviceTasks.get(index);
+          try {
+            encodeDevice(deviceTask);
+          } catch (Exception e) {
+            LOGGER.error(
+                "Database {} memtable flushing to file {}, failed to encode device {}.",
+                storageGroup,
+                writer.getFile().getName(),
+                deviceTask.deviceID,
+                e);
+            deviceTask.encodedChunkQueue.add(e);
+            return;
+          }
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      } finally {
+        RUNNING_ENCODING_WORKER_NUM.decrementAndGet();
+      }
+    }
+
+    private void encodeDevice(DeviceEncodingTask deviceTask) {
+      List<String> seriesInOrder = new ArrayList<>(deviceTask.memChunkMap.keySet());
+      Collections.sort(seriesInOrder);
+      for (String seriesId : seriesInOrder) {
+        IWritableMemChunk series = deviceTask.memChunkMap.get(seriesId);
+        if (series.count() == 0) {
+          continue;
+        }
+        long startTime = System.currentTimeMillis();
+        series.sortTvListForFlush();
+        long sortTaskTime = System.currentTimeMillis() - startTime;
+        sortTime.addAndGet(sortTaskTime);
+        WRITING_METRICS.recordFlushSubTaskCost(WritingMetrics.SORT_TASK, sortTaskTime);
+
+        startTime = System.currentTimeMillis();
+        if (series instanceof AlignedWritableMemChunk && workerTimes == null) {
+          workerTimes = new long[MAX_NUMBER_OF_POINTS_IN_PAGE];
+        }
+        series.encode(deviceTask.encodedChunkQueue, workerEncodeInfo, workerTimes);
+        long encodingTaskTime = System.currentTimeMillis() - startTime;
+        encodingTime.addAndGet(encodingTaskTime);
+        WRITING_METRICS.recordFlushSubTaskCost(WritingMetrics.ENCODING_TASK, encodingTaskTime);
+      }
+      deviceTask.encodedChunkQueue.add(new EndChunkGroupIoTask());
+    }
+  }
+
   static class TaskEnd {
 
     TaskEnd() {}
@@ -49,6 +49,7 @@ import java.util.Map;
 import java.util.Map.Entry;
 import java.util.NoSuchElementException;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.stream.Collectors;
 
@@ -74,6 +75,9 @@ public class ModificationFile implements AutoCloseable {
   private boolean fileExists = false;
   private final boolean updateMetrics;
   private boolean removed = false;
+  // increased whenever the content of the file changes, so that the mods parsed from an older
+  // version of the file can be told apart
+  private final AtomicLong version = new AtomicLong(0);
 
   private Set<ModificationFile> cascadeFiles = null;
 
@@ -119,6 +123,7 @@ public class ModificationFile implements AutoCloseable {
           cascadeFile.write(entry);
         }
       }
+      version.incrementAndGet();
       if (!fileExists) {
         fileExists = true;
         updateFileNum = 1;
@@ -152,6 +157,7 @@ public class ModificationFile implements AutoCloseable {
           cascadeFile.write(entries);
         }
       }
+      version.incrementAndGet();
       if (!fileExists) {
         updateFileNum = 1;
         fileExists = true;
@@ -215,6 +221,10 @@ public class ModificationFile implements AutoCloseable {
     }
   }
 
+  public long getVersion() {
+    return version.get();
+  }
+
   public static String composeFileName(long levelNum, long modFileNum) {
     return levelNum + "-" + modFileNum + FILE_SUFFIX;
   }
@@ -341,6 +351,7 @@ public class ModificationFile implements AutoCloseable {
       }
       fileExists = false;
       removed = true;
+      version.incrementAndGet();
     } finally {
       lock.writeLock().unlock();
     }
@@ -372,6 +383,7 @@ public class ModificationFile implements AutoCloseable {
     try {
       if (channel != null) {
         channel.truncate(size);
+        version.incrementAndGet();
       }
     } finally {
       lock.writeLock().unlock();
@@ -406,6 +418,7 @@ public class ModificationFile implements AutoCloseable {
         fileExists = true;
         // rename new mods file to origin name
         Files.move(new File(newModsFileName).toPath(), file.toPath());
+        version.incrementAndGet();
         LOGGER.info("{} settle successful", file);
 
         if (getFileLength() > COMPACT_THRESHOLD) {
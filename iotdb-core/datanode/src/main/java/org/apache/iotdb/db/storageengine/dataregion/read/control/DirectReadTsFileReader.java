@@ -0,0 +1,68 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.storageengine.dataregion.read.control;
+
+import org.apache.tsfile.encrypt.EncryptParameter;
+import org.apache.tsfile.file.header.ChunkHeader;
+import org.apache.tsfile.read.TsFileSequenceReader;
+import org.apache.tsfile.read.common.Chunk;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.function.LongConsumer;
+
+/**
+ * A reader of sealed TsFiles which reads the chunk data into direct buffers. The file channel fills
+ * the direct buffer in place, while reading into a heap buffer goes through a temporary direct
+ * buffer of the JDK and is copied once more. The pages are decoded from the returned buffer
+ * directly.
+ */
+public class DirectReadTsFileReader extends TsFileSequenceReader {
+
+  public DirectReadTsFileReader(
+      String file, LongConsumer ioSizeRecorder, EncryptParameter encryptParam) throws IOException {
+    super(file, ioSizeRecorder, encryptParam);
+  }
+
+  /**
+   * Read the chunk header and the chunk data at offset, the data is held by a direct buffer.
+   *
+   * @param offset the offset of the chunk header
+   * @param ioSizeRecorder can be null
+   */
+  public Chunk readMemChunkDirectly(long offset, LongConsumer ioSizeRecorder) throws IOException {
+    ChunkHeader header = ChunkHeader.deserializeFrom(tsFileInput, offset);
+    int headerSize = header.getSerializedSize();
+    ByteBuffer data = ByteBuffer.allocateDirect(header.getDataSize());
+    long dataOffset = offset + headerSize;
+    while (data.hasRemaining()) {
+      if (tsFileInput.read(data, dataOffset + data.position()) < 0) {
+        throw new EOFException(
+            String.format(
+                "Reach the end of %s when reading the chunk at %d", getFileName(), offset));
+      }
+    }
+    data.flip();
+    if (ioSizeRecorder != null) {
+      ioSizeRecorder.accept((long) headerSize + data.limit());
+    }
+    return new Chunk(header, data, null, null, getEncryptParam());
+  }
+}
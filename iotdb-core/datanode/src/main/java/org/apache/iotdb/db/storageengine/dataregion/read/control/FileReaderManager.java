@@ -20,6 +20,7 @@
 package org.apache.iotdb.db.storageengine.dataregion.read.control;
 
 import org.apache.iotdb.commons.utils.TestOnly;
+import org.apache.iotdb.db.conf.IoTDBDescriptor;
 import org.apache.iotdb.db.storageengine.dataregion.tsfile.TsFileID;
 import org.apache.iotdb.db.storageengine.dataregion.tsfile.TsFileResource;
 import org.apache.iotdb.db.utils.EncryptDBUtils;
@@ -154,6 +155,12 @@ public class FileReaderManager {
                 filePath,
                 EncryptDBUtils.getFirstEncryptParamFromTSFilePath(filePath),
                 ioSizeRecorder);
+      } else if (IoTDBDescriptor.getInstance().getConfig().isChunkDirectReadEnabled()) {
+        tsFileReader =
+            new DirectReadTsFileReader(
+                filePath,
+                ioSizeRecorder,
+                EncryptDBUtils.getFirstEncryptParamFromTSFilePath(filePath));
       } else {
         // already do the version check in TsFileSequenceReader's constructor
         tsFileReader =
@@ -0,0 +1,323 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iotdb.db.storageengine.dataregion.tsfile;
+
+import org.apache.iotdb.db.storageengine.dataregion.tsfile.timeindex.ITimeIndex;
+
+import org.apache.tsfile.file.metadata.IDeviceID;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Queue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Index from device and time to the sealed {@link TsFileResource}s of a {@link TsFileManager}, so
+ * that the files of a single device query are selected without checking the time index of every
+ * file.
+ *
+ * <p>The time intervals of a device are kept in a map sorted by start time together with the
+ * longest length of the current intervals, so the files overlapping [start, end] are among the ones
+ * starting in [start - maxLength, end]. Files whose time index is (or is degraded to) a {@link
+ * ITimeIndex#FILE_TIME_INDEX_TYPE} are indexed by their file time range for all devices. Unsealed
+ * files are always returned since their time index is still changing.
+ *
+ * <p>The index may return more files than needed, so callers should still check each returned file
+ * by {@link TsFileResource#isSatisfied}. All methods except {@link #onTimeIndexDegraded} must be
+ * called under the lock of the {@link TsFileManager}.
+ */
+public class TsFileIntervalIndex {
+
+  private static final long ORDER_KEY_GAP = 1L << 20;
+
+  private final Map<IDeviceID, Intervals> deviceIntervals = new HashMap<>();
+
+  // Files which are indexed by their file time range
+  private final Intervals fileIntervals = new Intervals();
+
+  // Devices each file is indexed by, empty for files in fileIntervals
+  private final Map<TsFileResource, IDeviceID[]> indexedResources = new IdentityHashMap<>();
+
+  // Files which are not sealed when added
+  private final Set<TsFileResource> unsealedResources =
+      Collections.newSetFromMap(new IdentityHashMap<>());
+
+  // Position of each file in its TsFileResourceList, used to keep the order of query result
+  private final Map<TsFileResource, Long> orderKeys = new IdentityHashMap<>();
+
+  // Files whose time index is degraded, their device intervals are replaced by the file interval
+  // lazily at next modification of the index
+  private final Queue<TsFileResource> degradedResources = new ConcurrentLinkedQueue<>();
+
+  /** Add a file which has just been inserted into its TsFileResourceList. */
+  public void add(TsFileResource resource) {
+    applyDegradedResources();
+    updateOrderKey(resource);
+    resource.setIntervalIndex(this);
+    if (resource.isClosed()) {
+      index(resource);
+    } else {
+      unsealedResources.add(resource);
+    }
+  }
+
+  public void remove(TsFileResource resource) {
+    applyDegradedResources();
+    orderKeys.remove(resource);
+    unsealedResources.remove(resource);
+    unindex(resource);
+  }
+
+  /** Index the files which have been sealed since they were added. */
+  public void indexSealedResources() {
+    applyDegradedResources();
+    List<TsFileResource> sealedResources = new ArrayList<>();
+    for (TsFileResource resource : unsealedResources) {
+      if (resource.isClosed()) {
+        sealedResources.add(resource);
+      }
+    }
+    for (TsFileResource resource : sealedResources) {
+      unsealedResources.remove(resource);
+      index(resource);
+    }
+  }
+
+  public void clear() {
+    deviceIntervals.clear();
+    fileIntervals.clear();
+    indexedResources.clear();
+    unsealedResources.clear();
+    orderKeys.clear();
+    degradedResources.clear();
+  }
+
+  /** Called by the memory control of TsFileResource, may be called without lock. */
+  public void onTimeIndexDegraded(TsFileResource resource) {
+    degradedResources.add(resource);
+  }
+
+  /**
+   * @param timePartitions null for all time partitions
+   * @return the files which may contain data of the device in [startTime, endTime], in the order of
+   *     their TsFileResourceLists
+   */
+  public List<TsFileResource> query(
+      IDeviceID deviceId,
+      long startTime,
+      long endTime,
+      boolean sequence,
+      Collection<Long> timePartitions) {
+    Set<Long> partitions = timePartitions == null ? null : new HashSet<>(timePartitions);
+    List<TsFileResource> result = new ArrayList<>();
+    Intervals intervals = deviceIntervals.get(deviceId);
+    if (intervals != null) {
+      intervals.collect(startTime, endTime, sequence, partitions, result);
+    }
+    fileIntervals.collect(startTime, endTime, sequence, partitions, result);
+    for (TsFileResource resource : unsealedResources) {
+      if (resource.isSeq() == sequence
+          && (partitions == null || partitions.contains(resource.getTimePartition()))) {
+        result.add(resource);
+      }
+    }
+    result.sort(
+        Comparator.comparingLong(TsFileResource::getTimePartition)
+            .thenComparingLong(resource -> orderKeys.getOrDefault(resource, 0L)));
+    return result;
+  }
+
+  private void index(TsFileResource resource) {
+    ITimeIndex timeIndex = resource.getTimeIndex();
+    if (timeIndex.getTimeIndexType() == ITimeIndex.FILE_TIME_INDEX_TYPE) {
+      fileIntervals.add(timeIndex.getMinStartTime(), timeIndex.getMaxEndTime(), resource);
+      indexedResources.put(resource, new IDeviceID[0]);
+      return;
+    }
+    Set<IDeviceID> devices = resource.getDevices();
+    IDeviceID[] indexedDevices = new IDeviceID[devices.size()];
+    int i = 0;
+    for (IDeviceID device : devices) {
+      long deviceStartTime = resource.getStartTime(device).orElse(Long.MIN_VALUE);
+      long deviceEndTime = resource.getEndTime(device).orElse(Long.MAX_VALUE);
+      deviceIntervals
+          .computeIfAbsent(device, k -> new Intervals())
+          .add(deviceStartTime, deviceEndTime, resource);
+      indexedDevices[i++] = device;
+    }
+    indexedResources.put(resource, indexedDevices);
+  }
+
+  private void unindex(TsFileResource resource) {
+    IDeviceID[] indexedDevices = indexedResources.remove(resource);
+    if (indexedDevices == null) {
+      return;
+    }
+    if (indexedDevices.length == 0) {
+      fileIntervals.remove(resource);
+      return;
+    }
+    for (IDeviceID device : indexedDevices) {
+      Intervals intervals = deviceIntervals.get(device);
+      if (intervals != null) {
+        intervals.remove(resource);
+        if (intervals.isEmpty()) {
+          deviceIntervals.remove(device);
+        }
+      }
+    }
+  }
+
+  private void applyDegradedResources() {
+    TsFileResource resource;
+    while ((resource = degradedResources.poll()) != null) {
+      IDeviceID[] indexedDevices = indexedResources.get(resource);
+      if (indexedDevices != null && indexedDevices.length > 0) {
+        unindex(resource);
+        index(resource);
+      }
+    }
+  }
+
+  /** Assign a key between the ones of its neighbours in the TsFileResourceList. */
+  private void updateOrderKey(TsFileResource resource) {
+    Long prevKey = resource.prev == null ? null : orderKeys.get(resource.prev);
+    Long nextKey = resource.next == null ? null : orderKeys.get(resource.next);
+    if (resource.prev == null && resource.next == null) {
+      orderKeys.put(resource, 0L);
+    } else if (resource.next == null && prevKey != null) {
+      orderKeys.put(resource, prevKey + ORDER_KEY_GAP);
+    } else if (resource.prev == null && nextKey != null) {
+      orderKeys.put(resource, nextKey - ORDER_KEY_GAP);
+    } else if (prevKey != null && nextKey != null && nextKey - prevKey > 1) {
+      orderKeys.put(resource, prevKey + (nextKey - prevKey) / 2);
+    } else {
+      // No gap between the neighbours, renumber the whole list
+      TsFileResource header = resource;
+      while (header.prev != null) {
+        header = header.prev;
+      }
+      long key = 0;
+      for (TsFileResource current = header; current != null; current = current.next) {
+        orderKeys.put(current, key);
+        key += ORDER_KEY_GAP;
+      }
+    }
+  }
+
+  /** Time intervals of files, sorted by start time. */
+  private static class Intervals {
+
+    private final NavigableMap<Long, List<Interval>> startTimeToIntervals = new TreeMap<>();
+    private final Map<TsFileResource, Interval> resourceToInterval = new IdentityHashMap<>();
+
+    // Number of intervals of each length, the last key is the longest length of the remaining
+    // intervals. A query scans the start times in [start - longest length, end], so a long
+    // interval that is removed must not keep widening the scan.
+    private final NavigableMap<Long, Integer> lengthToCount = new TreeMap<>();
+
+    private void add(long startTime, long endTime, TsFileResource resource) {
+      Interval interval = new Interval(startTime, endTime, resource);
+      startTimeToIntervals.computeIfAbsent(startTime, k -> new ArrayList<>(1)).add(interval);
+      resourceToInterval.put(resource, interval);
+      lengthToCount.merge(interval.length(), 1, Integer::sum);
+    }
+
+    private void remove(TsFileResource resource) {
+      Interval interval = resourceToInterval.remove(resource);
+      if (interval == null) {
+        return;
+      }
+      List<Interval> intervals = startTimeToIntervals.get(interval.startTime);
+      intervals.remove(interval);
+      if (intervals.isEmpty()) {
+        startTimeToIntervals.remove(interval.startTime);
+      }
+      lengthToCount.computeIfPresent(interval.length(), (k, count) -> count > 1 ? count - 1 : null);
+    }
+
+    private boolean isEmpty() {
+      return resourceToInterval.isEmpty();
+    }
+
+    private void clear() {
+      startTimeToIntervals.clear();
+      resourceToInterval.clear();
+      lengthToCount.clear();
+    }
+
+    private long maxLength() {
+      return lengthToCount.isEmpty() ? 0 : lengthToCount.lastKey();
+    }
+
+    private void collect(
+        long startTime,
+        long endTime,
+        boolean sequence,
+        Set<Long> partitions,
+        List<TsFileResource> result) {
+      if (startTimeToIntervals.isEmpty() || startTime > endTime) {
+        return;
+      }
+      long maxLength = maxLength();
+      long fromStartTime =
+          startTime - maxLength > startTime ? Long.MIN_VALUE : startTime - maxLength;
+      for (List<Interval> intervals :
+          startTimeToIntervals.subMap(fromStartTime, true, endTime, true).values()) {
+        for (Interval interval : intervals) {
+          TsFileResource resource = interval.resource;
+          if (interval.endTime >= startTime
+              && resource.isSeq() == sequence
+              && (partitions == null || partitions.contains(resource.getTimePartition()))) {
+            result.add(resource);
+          }
+        }
+      }
+    }
+  }
+
+  private static class Interval {
+    private final long startTime;
+    private final long endTime;
+    private final TsFileResource resource;
+
+    private Interval(long startTime, long endTime, TsFileResource resource) {
+      this.startTime = startTime;
+      this.endTime = endTime;
+      this.resource = resource;
+    }
+
+    private long length() {
+      long length = endTime - startTime;
+      // Overflow means the interval covers almost all the time
+      return length < 0 ? Long.MAX_VALUE : length;
+    }
+  }
+}
@@ -20,12 +20,15 @@
 package org.apache.iotdb.db.storageengine.dataregion.tsfile;
 
 import org.apache.iotdb.commons.utils.TimePartitionUtils;
+import org.apache.iotdb.db.conf.IoTDBDescriptor;
 import org.apache.iotdb.db.pipe.resource.PipeDataNodeResourceManager;
 import org.apache.iotdb.db.storageengine.dataregion.modification.ModFileManagement;
 import org.apache.iotdb.db.storageengine.dataregion.modification.PartitionLevelModFileManager;
 import org.apache.iotdb.db.storageengine.dataregion.tsfile.timeindex.FileTimeIndexCacheRecorder;
 import org.apache.iotdb.db.storageengine.rescon.memory.TsFileResourceManager;
 
+import org.apache.tsfile.file.metadata.IDeviceID;
+import org.apache.tsfile.read.common.TimeRange;
 import org.apache.tsfile.read.filter.basic.Filter;
 import org.apache.tsfile.utils.Pair;
 
@@ -55,6 +58,11 @@ public class TsFileManager {
   private final TreeMap<Long, TsFileResourceList> sequenceFiles = new TreeMap<>();
   private final TreeMap<Long, TsFileResourceList> unsequenceFiles = new TreeMap<>();
   private final TreeMap<Long, ModFileManagement> modFileManagementMap = new TreeMap<>();
+  // device -> time intervals of tsfiles, null if disabled
+  private final TsFileIntervalIndex intervalIndex =
+      IoTDBDescriptor.getInstance().getConfig().isEnableTsFileIntervalIndex()
+          ? new TsFileIntervalIndex()
+          : null;
 
   private volatile boolean allowCompaction = true;
   private final AtomicLong currentCompactionTaskSerialId = new AtomicLong(0);
@@ -136,6 +144,43 @@ public class TsFileManager {
     return new Pair<>(seq, unSeq);
   }
 
+  /**
+   * Same as {@link #getAllTsFileListForQuery(List, Filter)}, but only returns the tsfiles that may
+   * contain data of the device if the interval index is enabled. The caller should still check each
+   * returned tsfile.
+   */
+  public Pair<List<TsFileResource>, List<TsFileResource>> getAllTsFileListForQuery(
+      List<Long> timePartitions, Filter timeFilter, IDeviceID deviceId) {
+    if (intervalIndex == null || deviceId == null) {
+      return getAllTsFileListForQuery(timePartitions, timeFilter);
+    }
+    long startTime = Long.MIN_VALUE;
+    long endTime = Long.MAX_VALUE;
+    if (timeFilter != null) {
+      List<TimeRange> timeRanges = timeFilter.getTimeRanges();
+      if (!timeRanges.isEmpty()) {
+        startTime = timeRanges.get(0).getMin();
+        endTime = timeRanges.get(timeRanges.size() - 1).getMax();
+      }
+    }
+    return new Pair<>(
+        intervalIndex.query(deviceId, startTime, endTime, true, timePartitions),
+        intervalIndex.query(deviceId, startTime, endTime, false, timePartitions));
+  }
+
+  /** Index the tsfiles which have been sealed since they were added to this manager. */
+  public void indexSealedTsFiles() {
+    if (intervalIndex == null) {
+      return;
+    }
+    writeLock("indexSealedTsFiles");
+    try {
+      intervalIndex.indexSealedResources();
+    } finally {
+      writeUnlock();
+    }
+  }
+
   public List<TsFileResource> getTsFileListSnapshot(long timePartition, boolean sequence) {
     readLock();
     try {
@@ -167,7 +212,8 @@ public class TsFileManager {
   public TsFileResourceList getOrCreateSequenceListByTimePartition(long timePartition) {
     writeLock("getOrCreateSequenceListByTimePartition");
     try {
-      return sequenceFiles.computeIfAbsent(timePartition, l -> new TsFileResourceList());
+      return sequenceFiles.computeIfAbsent(
+          timePartition, l -> new TsFileResourceList(intervalIndex));
     } finally {
       writeUnlock();
     }
@@ -176,7 +222,8 @@ public class TsFileManager {
   public TsFileResourceList getOrCreateUnsequenceListByTimePartition(long timePartition) {
     writeLock("getOrCreateUnsequenceListByTimePartition");
     try {
-      return unsequenceFiles.computeIfAbsent(timePartition, l -> new TsFileResourceList());
+      return unsequenceFiles.computeIfAbsent(
+          timePartition, l -> new TsFileResourceList(intervalIndex));
     } finally {
       writeUnlock();
     }
@@ -229,7 +276,7 @@ public class TsFileManager {
     try {
       Map<Long, TsFileResourceList> selectedMap = sequence ? sequenceFiles : unsequenceFiles;
       TsFileResourceList tsFileResources =
-          selectedMap.computeIfAbsent(timePartition, o -> new TsFileResourceList());
+          selectedMap.computeIfAbsent(timePartition, o -> new TsFileResourceList(intervalIndex));
       tsFileResources.set(insertPos, tsFileResource);
       if (tsFileResource.getModFileManagement() == null) {
         tsFileResource.setModFileManagement(
@@ -247,7 +294,8 @@ public class TsFileManager {
     try {
       Map<Long, TsFileResourceList> selectedMap = sequence ? sequenceFiles : unsequenceFiles;
       selectedMap
-          .computeIfAbsent(tsFileResource.getTimePartition(), o -> new TsFileResourceList())
+          .computeIfAbsent(
+              tsFileResource.getTimePartition(), o -> new TsFileResourceList(intervalIndex))
           .add(tsFileResource);
       if (tsFileResource.getModFileManagement() == null) {
         tsFileResource.setModFileManagement(
@@ -265,7 +313,8 @@ public class TsFileManager {
     try {
       Map<Long, TsFileResourceList> selectedMap = sequence ? sequenceFiles : unsequenceFiles;
       selectedMap
-          .computeIfAbsent(tsFileResource.getTimePartition(), o -> new TsFileResourceList())
+          .computeIfAbsent(
+              tsFileResource.getTimePartition(), o -> new TsFileResourceList(intervalIndex))
           .keepOrderInsert(tsFileResource);
       if (tsFileResource.getModFileManagement() == null) {
         tsFileResource.setModFileManagement(
@@ -319,11 +368,11 @@ public class TsFileManager {
           TsFileResourceManager.getInstance().registerSealedTsFileResource(resource);
           if (resource.isSeq()) {
             sequenceFiles
-                .computeIfAbsent(timePartition, t -> new TsFileResourceList())
+                .computeIfAbsent(timePartition, t -> new TsFileResourceList(intervalIndex))
                 .keepOrderInsert(resource);
           } else {
             unsequenceFiles
-                .computeIfAbsent(timePartition, t -> new TsFileResourceList())
+                .computeIfAbsent(timePartition, t -> new TsFileResourceList(intervalIndex))
                 .keepOrderInsert(resource);
           }
           FileTimeIndexCacheRecorder.getInstance().logFileTimeIndex(resource);
@@ -367,6 +416,9 @@ public class TsFileManager {
     try {
       sequenceFiles.clear();
       unsequenceFiles.clear();
+      if (intervalIndex != null) {
+        intervalIndex.clear();
+      }
     } finally {
       writeUnlock();
     }
@@ -135,6 +135,8 @@ public class TsFileResource implements PersistentResource, Cloneable {
 
   private ModFileManagement modFileManagement;
 
+  private volatile TsFileIntervalIndex intervalIndex;
+
   @SuppressWarnings("squid:S3077")
   private volatile ModificationFile exclusiveModFile;
 
@@ -1363,6 +1365,10 @@ public class TsFileResource implements PersistentResource, Cloneable {
     long endTime = timeIndex.getMaxEndTime();
     // replace the DeviceTimeIndex with FileTimeIndex
     timeIndex = new FileTimeIndex(startTime, endTime);
+    TsFileIntervalIndex index = intervalIndex;
+    if (index != null) {
+      index.onTimeIndexDegraded(this);
+    }
     // deviceTimeIndexRamSize has already been calculated before
     return deviceTimeIndexRamSize - timeIndex.calculateRamSize();
   }
@@ -1574,6 +1580,10 @@ public class TsFileResource implements PersistentResource, Cloneable {
     return modFileManagement;
   }
 
+  public void setIntervalIndex(TsFileIntervalIndex intervalIndex) {
+    this.intervalIndex = intervalIndex;
+  }
+
   public void setCompactionModFile(ModificationFile compactionModFile) {
     this.compactionModFile = compactionModFile;
   }
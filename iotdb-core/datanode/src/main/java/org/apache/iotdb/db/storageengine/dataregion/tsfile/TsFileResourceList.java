@@ -40,6 +40,17 @@ public class TsFileResourceList implements List<TsFileResource> {
   private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
   private int count = 0;
 
+  // null if the list is not indexed
+  private final TsFileIntervalIndex intervalIndex;
+
+  public TsFileResourceList() {
+    this(null);
+  }
+
+  public TsFileResourceList(TsFileIntervalIndex intervalIndex) {
+    this.intervalIndex = intervalIndex;
+  }
+
   /**
    * Insert a new node before an existing node
    *
@@ -59,6 +70,7 @@ public class TsFileResourceList implements List<TsFileResource> {
     }
     node.prev = newNode;
     count++;
+    onInserted(newNode);
   }
 
   /**
@@ -77,6 +89,7 @@ public class TsFileResourceList implements List<TsFileResource> {
     }
     node.next = newNode;
     count++;
+    onInserted(newNode);
   }
 
   @Override
@@ -126,6 +139,7 @@ public class TsFileResourceList implements List<TsFileResource> {
       header = newNode;
       tail = newNode;
       count++;
+      onInserted(newNode);
     } else {
       insertAfter(tail, newNode);
     }
@@ -147,6 +161,7 @@ public class TsFileResourceList implements List<TsFileResource> {
       header = newNode;
       tail = newNode;
       count++;
+      onInserted(newNode);
     } else {
       TsFileNameGenerator.TsFileName newTsFileName =
           TsFileNameGenerator.getTsFileName(newNode.getTsFile().getName());
@@ -221,9 +236,18 @@ public class TsFileResourceList implements List<TsFileResource> {
     tsFileResource.prev = null;
     tsFileResource.next = null;
     count--;
+    if (intervalIndex != null) {
+      intervalIndex.remove(tsFileResource);
+    }
     return true;
   }
 
+  private void onInserted(TsFileResource newNode) {
+    if (intervalIndex != null) {
+      intervalIndex.add(newNode);
+    }
+  }
+
   @Override
   public boolean containsAll(Collection<?> c) {
     return false;
@@ -243,6 +267,11 @@ public class TsFileResourceList implements List<TsFileResource> {
 
   @Override
   public void clear() {
+    if (intervalIndex != null) {
+      for (TsFileResource current = header; current != null; current = current.next) {
+        intervalIndex.remove(current);
+      }
+    }
     header = null;
     tail = null;
     count = 0;
@@ -79,6 +79,8 @@ public class WALBuffer extends AbstractWALBuffer {
   public static final int ONE_THIRD_WAL_BUFFER_SIZE = config.getWalBufferSize() / 3;
   private static final double FSYNC_BUFFER_RATIO = 0.95;
   private static final WritingMetrics WRITING_METRICS = WritingMetrics.getInstance();
+  // weight of the latest fsync cost in the moving average, as 1 / 2^FSYNC_COST_SMOOTHING_SHIFT
+  private static final int FSYNC_COST_SMOOTHING_SHIFT = 3;
 
   // whether close method is called
   private volatile boolean isClosed = false;
@@ -93,6 +95,9 @@ public class WALBuffer extends AbstractWALBuffer {
   // last writer position when fsync is called, help record each entry's position
   private long lastFsyncPosition;
 
+  // exponential moving average of the fsync cost, only updated by syncBufferThread
+  private volatile long avgFsyncCostInNanos = 0;
+
   // region these variables should be protected by buffersLock
   /** two buffers switch between three statuses (there is always 1 buffer working). */
   // buffer in working status, only updated by serializeThread
@@ -205,8 +210,14 @@ public class WALBuffer extends AbstractWALBuffer {
       walEntry.getWalFlushListener().fail(new WALNodeClosedException(identifier));
       return;
     }
+    // in the group commit mode, writers serialize their own entries in parallel and the
+    // serializeThread only copies the bytes into workingBuffer
+    if (config.isWalGroupCommitEnabled() && canSerializeByWriter(walEntry)) {
+      serializeByWriter(walEntry);
+    }
     // just add this WALEntry to queue
     try {
+      walEntry.setEnqueueTimeInNanos(System.nanoTime());
       walEntries.put(walEntry);
     } catch (InterruptedException e) {
       logger.warn("Interrupted when waiting for adding WALEntry to buffer.");
@@ -214,6 +225,31 @@ public class WALBuffer extends AbstractWALBuffer {
     }
   }
 
+  private boolean canSerializeByWriter(WALEntry walEntry) {
+    if (walEntry.isSignal()) {
+      return false;
+    }
+    switch (walEntry.getType()) {
+      case MEMORY_TABLE_CHECKPOINT:
+      case MEMORY_TABLE_SNAPSHOT:
+        // checkpoints are not serialized and snapshots are too large to be copied twice
+        return false;
+      default:
+        return true;
+    }
+  }
+
+  private void serializeByWriter(WALEntry walEntry) {
+    try {
+      HeapByteBufferView view = new HeapByteBufferView(walEntry.serializedSize());
+      walEntry.serialize(view);
+      walEntry.setSerializedBuffer(view.getBuffer());
+    } catch (Exception e) {
+      // leave it to serializeThread, which reports the failure to the listener
+      walEntry.setSerializedBuffer(null);
+    }
+  }
+
   // region Task of serializeThread
   /** This info class traverses some extra info from serializeThread to syncBufferThread. */
   private static class SerializeInfo {
@@ -267,8 +303,7 @@ public class WALBuffer extends AbstractWALBuffer {
             walEntry =
                 walEntries.poll(config.getWalAsyncModeFsyncDelayInMs(), TimeUnit.MILLISECONDS);
           } else {
-            walEntry =
-                walEntries.poll(config.getWalSyncModeFsyncDelayInMs(), TimeUnit.MILLISECONDS);
+            walEntry = walEntries.poll(getSyncModeFsyncDelayInNanos(), TimeUnit.NANOSECONDS);
           }
         } catch (InterruptedException e) {
           logger.warn(
@@ -310,6 +345,10 @@ public class WALBuffer extends AbstractWALBuffer {
 
     /** Handle a normal info WALEntry. */
     private void handleInfoEntry(WALEntry walEntry) {
+      if (walEntry.getEnqueueTimeInNanos() > 0) {
+        WRITING_METRICS.recordSerializeWALEntryWaitCost(
+            System.nanoTime() - walEntry.getEnqueueTimeInNanos());
+      }
       if (walEntry.getType() == WALEntryType.MEMORY_TABLE_CHECKPOINT) {
         info.checkpoints.add((Checkpoint) walEntry.getValue());
         return;
@@ -318,7 +357,13 @@ public class WALBuffer extends AbstractWALBuffer {
       int startPosition = byteBufferView.position();
       int size;
       try {
-        walEntry.serialize(byteBufferView);
+        ByteBuffer serializedBuffer = walEntry.getSerializedBuffer();
+        if (serializedBuffer != null) {
+          byteBufferView.put(serializedBuffer);
+          walEntry.setSerializedBuffer(null);
+        } else {
+          walEntry.serialize(byteBufferView);
+        }
         size = byteBufferView.position() - startPosition;
       } catch (Exception e) {
         logger.error(
@@ -436,6 +481,23 @@ public class WALBuffer extends AbstractWALBuffer {
       }
     }
 
+    /** Copy the remaining bytes of src, src is consumed afterwards. */
+    public void put(ByteBuffer src) {
+      while (true) {
+        int leftCapacity = workingBuffer.remaining();
+        if (leftCapacity >= src.remaining()) {
+          workingBuffer.put(src);
+          break;
+        } else {
+          ByteBuffer slice = src.duplicate();
+          slice.limit(slice.position() + leftCapacity);
+          workingBuffer.put(slice);
+          src.position(src.position() + leftCapacity);
+          rollBuffer();
+        }
+      }
+    }
+
     @Override
     public void putChar(char value) {
       ensureEnoughSpace(Character.BYTES);
@@ -478,6 +540,108 @@ public class WALBuffer extends AbstractWALBuffer {
     }
   }
 
+  /**
+   * This view serializes a WALEntry into a heap buffer on the writer thread, the buffer grows when
+   * the serialized size of the entry is underestimated.
+   */
+  private static class HeapByteBufferView extends IWALByteBufferView {
+    private ByteBuffer buffer;
+
+    private HeapByteBufferView(int initialCapacity) {
+      buffer = ByteBuffer.allocate(Math.max(initialCapacity, Long.BYTES));
+    }
+
+    private ByteBuffer getBuffer() {
+      buffer.flip();
+      return buffer;
+    }
+
+    private void ensureEnoughSpace(int bytesNum) {
+      if (buffer.remaining() < bytesNum) {
+        ByteBuffer newBuffer =
+            ByteBuffer.allocate(Math.max(buffer.capacity() * 2, buffer.position() + bytesNum));
+        buffer.flip();
+        newBuffer.put(buffer);
+        buffer = newBuffer;
+      }
+    }
+
+    @Override
+    public void write(int b) {
+      put((byte) b);
+    }
+
+    @Override
+    public void write(byte[] b) {
+      put(b);
+    }
+
+    @Override
+    public void put(byte b) {
+      ensureEnoughSpace(Byte.BYTES);
+      buffer.put(b);
+    }
+
+    @Override
+    public void put(byte[] src) {
+      ensureEnoughSpace(src.length);
+      buffer.put(src);
+    }
+
+    @Override
+    public void putChar(char value) {
+      ensureEnoughSpace(Character.BYTES);
+      buffer.putChar(value);
+    }
+
+    @Override
+    public void putShort(short value) {
+      ensureEnoughSpace(Short.BYTES);
+      buffer.putShort(value);
+    }
+
+    @Override
+    public void putInt(int value) {
+      ensureEnoughSpace(Integer.BYTES);
+      buffer.putInt(value);
+    }
+
+    @Override
+    public void putLong(long value) {
+      ensureEnoughSpace(Long.BYTES);
+      buffer.putLong(value);
+    }
+
+    @Override
+    public void putFloat(float value) {
+      ensureEnoughSpace(Float.BYTES);
+      buffer.putFloat(value);
+    }
+
+    @Override
+    public void putDouble(double value) {
+      ensureEnoughSpace(Double.BYTES);
+      buffer.putDouble(value);
+    }
+
+    @Override
+    public int position() {
+      return buffer.position();
+    }
+  }
+
+  /**
+   * In the group commit mode, there is no point in waiting for more entries longer than an fsync
+   * takes, so the configured delay is bounded by the recent fsync cost.
+   */
+  private long getSyncModeFsyncDelayInNanos() {
+    long configuredDelay = TimeUnit.MILLISECONDS.toNanos(config.getWalSyncModeFsyncDelayInMs());
+    if (!config.isWalGroupCommitEnabled() || avgFsyncCostInNanos <= 0) {
+      return configuredDelay;
+    }
+    return Math.min(configuredDelay, avgFsyncCostInNanos);
+  }
+
   /** Notice: this method only called when buffer is exhausted by SerializeTask. */
   private void syncWorkingBuffer(long searchIndex, WALFileStatus fileStatus) {
     switchWorkingBufferToFlushing();
@@ -494,11 +658,13 @@ public class WALBuffer extends AbstractWALBuffer {
 
   // only called by serializeThread
   private void switchWorkingBufferToFlushing() {
+    long startTime = System.nanoTime();
     buffersLock.lock();
     try {
       while (idleBuffer == null) {
         idleBufferReadyCondition.await();
       }
+      WRITING_METRICS.recordSwitchWALBufferWaitCost(System.nanoTime() - startTime);
       syncingBuffer = workingBuffer;
       workingBuffer = idleBuffer;
       workingBuffer.clear();
@@ -592,7 +758,15 @@ public class WALBuffer extends AbstractWALBuffer {
       } else if (forceFlag) { // force os cache to the storage device, avoid force twice by judging
         // after rolling file
         try {
+          long forceStartTime = System.nanoTime();
           currentWALFileWriter.force();
+          long forceCost = System.nanoTime() - forceStartTime;
+          avgFsyncCostInNanos =
+              avgFsyncCostInNanos <= 0
+                  ? forceCost
+                  : avgFsyncCostInNanos
+                      + ((forceCost - avgFsyncCostInNanos) >> FSYNC_COST_SMOOTHING_SHIFT);
+          WRITING_METRICS.recordForceWALCost(forceCost);
           forceSuccess = true;
         } catch (IOException e) {
           logger.error(
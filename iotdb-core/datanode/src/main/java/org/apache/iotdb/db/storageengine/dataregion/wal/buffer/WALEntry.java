@@ -58,6 +58,11 @@ public abstract class WALEntry implements SerializedSize {
   // listen whether this WALEntry has been written to the filesystem
   // null iff this WALEntry is deserialized from .wal file
   protected final WALFlushListener walFlushListener;
+  // bytes of this WALEntry serialized by the writer thread in the group commit mode, null if the
+  // WALEntry should be serialized by the serialize thread of WALBuffer
+  private ByteBuffer serializedBuffer;
+  // when this WALEntry is put into the queue of WALBuffer, 0 means unknown
+  private long enqueueTimeInNanos;
 
   protected WALEntry(long memTableId, WALEntryValue value, boolean wait) {
     this.memTableId = memTableId;
@@ -201,6 +206,22 @@ public abstract class WALEntry implements SerializedSize {
     return walFlushListener;
   }
 
+  public ByteBuffer getSerializedBuffer() {
+    return serializedBuffer;
+  }
+
+  public void setSerializedBuffer(ByteBuffer serializedBuffer) {
+    this.serializedBuffer = serializedBuffer;
+  }
+
+  public long getEnqueueTimeInNanos() {
+    return enqueueTimeInNanos;
+  }
+
+  public void setEnqueueTimeInNanos(long enqueueTimeInNanos) {
+    this.enqueueTimeInNanos = enqueueTimeInNanos;
+  }
+
   public abstract boolean isSignal();
 
   public abstract long getMemorySize();
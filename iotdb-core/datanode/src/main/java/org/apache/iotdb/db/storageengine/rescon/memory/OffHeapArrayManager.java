@@ -0,0 +1,184 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.storageengine.rescon.memory;
+
+import org.apache.iotdb.db.conf.IoTDBConfig;
+import org.apache.iotdb.db.conf.IoTDBDescriptor;
+import org.apache.iotdb.db.utils.MmapUtil;
+
+import org.apache.tsfile.enums.TSDataType;
+import org.apache.tsfile.write.UnSupportedDataTypeException;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.apache.iotdb.db.storageengine.rescon.memory.PrimitiveArrayManager.ARRAY_SIZE;
+
+/**
+ * Manage the direct buffers which replace the primitive value arrays of the fixed-width TVLists
+ * when tvlist_off_heap_enabled is set. Each buffer holds {@link PrimitiveArrayManager#ARRAY_SIZE}
+ * values, in native byte order.
+ *
+ * <p>Released buffers are pooled for reuse up to the size of the buffered arrays memory, the rest
+ * are freed at once instead of waiting for the GC to collect them.
+ */
+public class OffHeapArrayManager {
+
+  private static final IoTDBConfig CONFIG = IoTDBDescriptor.getInstance().getConfig();
+
+  private static final long POOLED_BUFFERS_THRESHOLD_IN_BYTES =
+      IoTDBDescriptor.getInstance()
+          .getMemoryConfig()
+          .getBufferedArraysMemoryManager()
+          .getTotalMemorySizeInBytes();
+
+  /** pooled buffers of 4 bytes values (INT32, DATE, FLOAT) */
+  private static final Queue<ByteBuffer> POOLED_INT_BUFFERS = new ConcurrentLinkedQueue<>();
+
+  /** pooled buffers of 8 bytes values (INT64, TIMESTAMP, DOUBLE) */
+  private static final Queue<ByteBuffer> POOLED_LONG_BUFFERS = new ConcurrentLinkedQueue<>();
+
+  /** total size of the buffers in use and in the pools */
+  private static final AtomicLong ALLOCATED_SIZE_IN_BYTES = new AtomicLong(0);
+
+  private static final AtomicLong POOLED_SIZE_IN_BYTES = new AtomicLong(0);
+
+  private OffHeapArrayManager() {
+    // util class
+  }
+
+  /** Whether the TVLists created from now on store their values off heap. */
+  public static boolean isEnabled() {
+    return CONFIG.isTvListOffHeapEnabled();
+  }
+
+  /**
+   * Get or allocate a direct buffer for ARRAY_SIZE values of the data type.
+   *
+   * @return a buffer whose position is 0 and limit is its capacity
+   */
+  public static ByteBuffer allocate(TSDataType dataType) {
+    int valueSize = getValueSize(dataType);
+    ByteBuffer buffer = getPool(valueSize).poll();
+    if (buffer != null) {
+      POOLED_SIZE_IN_BYTES.addAndGet(-buffer.capacity());
+      return buffer;
+    }
+    buffer = ByteBuffer.allocateDirect(ARRAY_SIZE * valueSize).order(ByteOrder.nativeOrder());
+    ALLOCATED_SIZE_IN_BYTES.addAndGet(buffer.capacity());
+    return buffer;
+  }
+
+  /**
+   * This method is called when bringing back a buffer, the buffer must not be used afterwards.
+   *
+   * @param buffer buffer returned by {@link #allocate(TSDataType)}
+   */
+  public static void release(ByteBuffer buffer) {
+    int capacity = buffer.capacity();
+    if (POOLED_SIZE_IN_BYTES.addAndGet(capacity) <= POOLED_BUFFERS_THRESHOLD_IN_BYTES) {
+      buffer.clear();
+      getPool(capacity / ARRAY_SIZE).add(buffer);
+      return;
+    }
+    POOLED_SIZE_IN_BYTES.addAndGet(-capacity);
+    ALLOCATED_SIZE_IN_BYTES.addAndGet(-capacity);
+    MmapUtil.clean(buffer);
+  }
+
+  /** Copy the whole buffer into a new one of the same data type, used by TVList#clone. */
+  public static ByteBuffer copy(ByteBuffer buffer, TSDataType dataType) {
+    ByteBuffer copy = allocate(dataType);
+    copy.put(buffer.duplicate());
+    copy.clear();
+    return copy;
+  }
+
+  /** Free all the pooled buffers. */
+  public static void close() {
+    for (Queue<ByteBuffer> pool : Arrays.asList(POOLED_INT_BUFFERS, POOLED_LONG_BUFFERS)) {
+      ByteBuffer buffer;
+      while ((buffer = pool.poll()) != null) {
+        POOLED_SIZE_IN_BYTES.addAndGet(-buffer.capacity());
+        ALLOCATED_SIZE_IN_BYTES.addAndGet(-buffer.capacity());
+        MmapUtil.clean(buffer);
+      }
+    }
+  }
+
+  public static long getAllocatedSizeInBytes() {
+    return ALLOCATED_SIZE_IN_BYTES.get();
+  }
+
+  public static long getPooledSizeInBytes() {
+    return POOLED_SIZE_IN_BYTES.get();
+  }
+
+  private static Queue<ByteBuffer> getPool(int valueSize) {
+    return valueSize == Long.BYTES ? POOLED_LONG_BUFFERS : POOLED_INT_BUFFERS;
+  }
+
+  private static int getValueSize(TSDataType dataType) {
+    switch (dataType) {
+      case INT32:
+      case DATE:
+      case FLOAT:
+        return Integer.BYTES;
+      case INT64:
+      case TIMESTAMP:
+      case DOUBLE:
+        return Long.BYTES;
+      default:
+        throw new UnSupportedDataTypeException(dataType.name());
+    }
+  }
+
+  // region bulk copy of primitive arrays into buffers
+
+  public static void putLongs(ByteBuffer buffer, int index, long[] src, int offset, int length) {
+    ByteBuffer duplicate = buffer.duplicate().order(ByteOrder.nativeOrder());
+    duplicate.position(index * Long.BYTES);
+    duplicate.asLongBuffer().put(src, offset, length);
+  }
+
+  public static void putDoubles(
+      ByteBuffer buffer, int index, double[] src, int offset, int length) {
+    ByteBuffer duplicate = buffer.duplicate().order(ByteOrder.nativeOrder());
+    duplicate.position(index * Double.BYTES);
+    duplicate.asDoubleBuffer().put(src, offset, length);
+  }
+
+  public static void putInts(ByteBuffer buffer, int index, int[] src, int offset, int length) {
+    ByteBuffer duplicate = buffer.duplicate().order(ByteOrder.nativeOrder());
+    duplicate.position(index * Integer.BYTES);
+    duplicate.asIntBuffer().put(src, offset, length);
+  }
+
+  public static void putFloats(ByteBuffer buffer, int index, float[] src, int offset, int length) {
+    ByteBuffer duplicate = buffer.duplicate().order(ByteOrder.nativeOrder());
+    duplicate.position(index * Float.BYTES);
+    duplicate.asFloatBuffer().put(src, offset, length);
+  }
+
+  // endregion
+}
@@ -32,11 +32,23 @@ import org.apache.tsfile.write.UnSupportedDataTypeException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.ArrayDeque;
 import java.util.Arrays;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
 
-/** Manage all primitive data lists in memory, including get and release operations. */
+/**
+ * Manage all primitive data lists in memory, including get and release operations.
+ *
+ * <p>The pooled arrays are kept in stripes and a shared depot. Every thread is mapped to a stripe,
+ * which caches up to {@link #STRIPE_CAPACITY} arrays of each data type, and falls back to the depot
+ * when its stripe is empty (on allocation) or full (on release). If the depot is empty too, arrays
+ * are stolen from the other stripes before a new one is created. No lock is taken on these paths,
+ * and the total number of pooled arrays of each data type is still bounded by LIMITS.
+ */
 public class PrimitiveArrayManager {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(PrimitiveArrayManager.class);
@@ -66,33 +78,70 @@ public class PrimitiveArrayManager {
   private static final double POOLED_ARRAYS_MEMORY_THRESHOLD =
       POOLED_ARRAYS_MEMORY_BLOCK.getTotalMemorySizeInBytes() / AMPLIFICATION_FACTOR;
 
-  /** TSDataType#serialize() -> ArrayDeque<Array>, VECTOR and UNKNOWN are ignored */
-  private static final ArrayDeque[] POOLED_ARRAYS = new ArrayDeque[TSDataType.values().length];
+  /** max number of arrays of each data type cached by one stripe */
+  private static final int STRIPE_CAPACITY = 16;
+
+  /** number of stripes, always a power of 2 so that a thread can be mapped by a mask */
+  private static final int STRIPE_NUM =
+      roundUpToPowerOfTwo(CONFIG.getPrimitiveArrayPoolStripeNum());
+
+  private static final int STRIPE_MASK = STRIPE_NUM - 1;
 
-  /** TSDataType#serialize() -> max size of ArrayDeque<Array>, VECTOR and UNKNOWN are ignored */
+  private static final Stripe[] STRIPES = new Stripe[STRIPE_NUM];
+
+  static {
+    for (int i = 0; i < STRIPE_NUM; ++i) {
+      STRIPES[i] = new Stripe();
+    }
+  }
+
+  /**
+   * TSDataType#serialize() -> arrays shared by all the stripes, VECTOR and UNKNOWN are ignored.
+   * Arrays are put here when the stripe of the releasing thread is full.
+   */
+  @SuppressWarnings("unchecked")
+  private static final Queue<Object>[] DEPOT = new Queue[TSDataType.values().length];
+
+  /**
+   * TSDataType#serialize() -> number of arrays in the stripes and the depot, which is no more than
+   * LIMITS, VECTOR and UNKNOWN are ignored
+   */
+  private static final AtomicInteger[] POOLED_ARRAY_COUNTS =
+      new AtomicInteger[TSDataType.values().length];
+
+  /** TSDataType#serialize() -> max number of pooled arrays, VECTOR and UNKNOWN are ignored */
   private static final int[] LIMITS = new int[TSDataType.values().length];
 
-  /** LIMITS should be updated if (TOTAL_ALLOCATION_REQUEST_COUNT.get() > limitUpdateThreshold) */
-  private static long limitUpdateThreshold;
+  /** LIMITS should be updated if (total count of allocation requests > limitUpdateThreshold) */
+  private static volatile long limitUpdateThreshold;
+
+  /**
+   * The allocation request counts are checked against limitUpdateThreshold once every
+   * (LIMIT_CHECK_MASK + 1) allocations of a stripe, summing them on every allocation is too costly.
+   */
+  private static final long LIMIT_CHECK_MASK = 63;
 
   /** TSDataType#serialize() -> count of allocation requests, VECTOR is ignored */
-  private static final AtomicLong[] ALLOCATION_REQUEST_COUNTS =
-      new AtomicLong[TSDataType.values().length];
+  private static final LongAdder[] ALLOCATION_REQUEST_COUNTS =
+      new LongAdder[TSDataType.values().length];
 
   static {
     for (int i = 0; i < ALLOCATION_REQUEST_COUNTS.length; ++i) {
-      ALLOCATION_REQUEST_COUNTS[i] = new AtomicLong(0);
+      ALLOCATION_REQUEST_COUNTS[i] = new LongAdder();
+      DEPOT[i] = new ConcurrentLinkedQueue<>();
+      POOLED_ARRAY_COUNTS[i] = new AtomicInteger(0);
     }
   }
 
-  private static final AtomicLong TOTAL_ALLOCATION_REQUEST_COUNT = new AtomicLong(0);
-
   static {
     init();
   }
 
   private static void init() {
-    LOGGER.info("BufferedArraySizeThreshold is {}", POOLED_ARRAYS_MEMORY_THRESHOLD);
+    LOGGER.info(
+        "BufferedArraySizeThreshold is {}, stripe num of array pool is {}",
+        POOLED_ARRAYS_MEMORY_THRESHOLD,
+        STRIPE_NUM);
 
     // POOLED_ARRAYS_MEMORY_THRESHOLD = ∑(datatype[i].getDataTypeSize() * ARRAY_SIZE * LIMITS[i])
     // we init all LIMITS[i] with the same value, so we have
@@ -112,15 +161,17 @@ public class PrimitiveArrayManager {
     // limitUpdateThreshold = ∑(LIMITS[i])
     limitUpdateThreshold = (long) ((TSDataType.values().length - 2) * limit);
 
-    for (int i = 0; i < POOLED_ARRAYS.length; ++i) {
-      POOLED_ARRAYS[i] = new ArrayDeque<>((int) limit);
+    for (Stripe stripe : STRIPES) {
+      stripe.clear();
     }
-
-    for (AtomicLong allocationRequestCount : ALLOCATION_REQUEST_COUNTS) {
-      allocationRequestCount.set(0);
+    for (int i = 0; i < DEPOT.length; ++i) {
+      DEPOT[i].clear();
+      POOLED_ARRAY_COUNTS[i].set(0);
     }
 
-    TOTAL_ALLOCATION_REQUEST_COUNT.set(0);
+    for (LongAdder allocationRequestCount : ALLOCATION_REQUEST_COUNTS) {
+      allocationRequestCount.reset();
+    }
   }
 
   private PrimitiveArrayManager() {
@@ -137,23 +188,20 @@ public class PrimitiveArrayManager {
       throw new UnSupportedDataTypeException(dataType.name());
     }
 
-    if (TOTAL_ALLOCATION_REQUEST_COUNT.get() > limitUpdateThreshold) {
-      synchronized (TOTAL_ALLOCATION_REQUEST_COUNT) {
-        if (TOTAL_ALLOCATION_REQUEST_COUNT.get() > limitUpdateThreshold) {
+    int order = dataType.serialize();
+    Stripe stripe = STRIPES[getStripeIndex()];
+
+    ALLOCATION_REQUEST_COUNTS[order].increment();
+    if ((stripe.statistics.allocationCount.incrementAndGet() & LIMIT_CHECK_MASK) == 0
+        && getTotalAllocationRequestCount() > limitUpdateThreshold) {
+      synchronized (LIMITS) {
+        if (getTotalAllocationRequestCount() > limitUpdateThreshold) {
           updateLimits();
         }
       }
     }
 
-    int order = dataType.serialize();
-
-    ALLOCATION_REQUEST_COUNTS[order].incrementAndGet();
-    TOTAL_ALLOCATION_REQUEST_COUNT.incrementAndGet();
-
-    Object array;
-    synchronized (POOLED_ARRAYS[order]) {
-      array = POOLED_ARRAYS[order].poll();
-    }
+    Object array = poll(stripe, order);
     StorageEngineMemoryMetrics.getInstance().incPamAllocation();
     if (array == null) {
       array = createPrimitiveArray(dataType);
@@ -163,12 +211,64 @@ public class PrimitiveArrayManager {
     return array;
   }
 
+  /**
+   * Take an array from the stripe of the current thread, or from the depot, or steal one from the
+   * other stripes, in this order.
+   *
+   * @return null if there is no pooled array of the data type
+   */
+  private static Object poll(Stripe stripe, int order) {
+    Object array = stripe.poll(order);
+    if (array != null) {
+      stripe.statistics.hitCount.incrementAndGet();
+    } else {
+      array = DEPOT[order].poll();
+      // the other stripes are only scanned if some of them hold arrays of the data type
+      if (array == null && POOLED_ARRAY_COUNTS[order].get() > 0) {
+        array = steal(stripe, order);
+      }
+    }
+    if (array != null) {
+      POOLED_ARRAY_COUNTS[order].decrementAndGet();
+    }
+    return array;
+  }
+
+  private static Object steal(Stripe thief, int order) {
+    int index = getStripeIndex();
+    for (int i = 1; i < STRIPE_NUM; ++i) {
+      Object array = STRIPES[(index + i) & STRIPE_MASK].poll(order);
+      if (array != null) {
+        thief.statistics.stealCount.incrementAndGet();
+        return array;
+      }
+    }
+    return null;
+  }
+
+  private static int getStripeIndex() {
+    return (int) Thread.currentThread().getId() & STRIPE_MASK;
+  }
+
+  private static long getTotalAllocationRequestCount() {
+    long total = 0;
+    for (LongAdder allocationRequestCount : ALLOCATION_REQUEST_COUNTS) {
+      total += allocationRequestCount.sum();
+    }
+    return total;
+  }
+
   private static void updateLimits() {
     // we want to update LIMITS[i] according to ratios[i]
+    long[] allocationRequestCounts = new long[ALLOCATION_REQUEST_COUNTS.length];
+    long totalAllocationRequestCount = 0;
+    for (int i = 0; i < ALLOCATION_REQUEST_COUNTS.length; ++i) {
+      allocationRequestCounts[i] = ALLOCATION_REQUEST_COUNTS[i].sumThenReset();
+      totalAllocationRequestCount += allocationRequestCounts[i];
+    }
     double[] ratios = new double[ALLOCATION_REQUEST_COUNTS.length];
     for (int i = 0; i < ALLOCATION_REQUEST_COUNTS.length; ++i) {
-      ratios[i] =
-          ALLOCATION_REQUEST_COUNTS[i].get() / (double) TOTAL_ALLOCATION_REQUEST_COUNT.get();
+      ratios[i] = allocationRequestCounts[i] / (double) totalAllocationRequestCount;
     }
 
     // initially we have:
@@ -199,7 +299,7 @@ public class PrimitiveArrayManager {
 
       if (LOGGER.isDebugEnabled() && oldLimit != newLimit) {
         LOGGER.debug(
-            "limit of {} array deque size updated: {} -> {}",
+            "limit of pooled {} arrays updated: {} -> {}",
             TSDataType.deserialize((byte) i).name(),
             oldLimit,
             newLimit);
@@ -208,22 +308,17 @@ public class PrimitiveArrayManager {
 
     long oldLimitUpdateThreshold = limitUpdateThreshold;
     // limitUpdateThreshold = ∑(LIMITS[i])
-    limitUpdateThreshold = 0;
+    long newLimitUpdateThreshold = 0;
     for (int limit : LIMITS) {
-      limitUpdateThreshold += limit;
+      newLimitUpdateThreshold += limit;
     }
+    limitUpdateThreshold = newLimitUpdateThreshold;
     if (LOGGER.isDebugEnabled() && oldLimitUpdateThreshold != limitUpdateThreshold) {
       LOGGER.debug(
           "limitUpdateThreshold of PrimitiveArrayManager updated: {} -> {}",
           oldLimitUpdateThreshold,
           limitUpdateThreshold);
     }
-
-    for (AtomicLong allocationRequestCount : ALLOCATION_REQUEST_COUNTS) {
-      allocationRequestCount.set(0);
-    }
-
-    TOTAL_ALLOCATION_REQUEST_COUNT.set(0);
   }
 
   private static Object createPrimitiveArray(TSDataType dataType) {
@@ -284,12 +379,25 @@ public class PrimitiveArrayManager {
     }
 
     StorageEngineMemoryMetrics.getInstance().incPamRelease();
-    synchronized (POOLED_ARRAYS[order]) {
-      ArrayDeque<Object> arrays = POOLED_ARRAYS[order];
-      if (arrays.size() < LIMITS[order]) {
-        arrays.add(array);
-      } else {
-        StorageEngineMemoryMetrics.getInstance().incPamReleaseFailure();
+    if (!tryReserve(order)) {
+      StorageEngineMemoryMetrics.getInstance().incPamReleaseFailure();
+      return;
+    }
+    if (!STRIPES[getStripeIndex()].offer(order, array)) {
+      DEPOT[order].add(array);
+    }
+  }
+
+  /** Count one more pooled array of the data type if LIMITS allows it. */
+  private static boolean tryReserve(int order) {
+    AtomicInteger pooledArrayCount = POOLED_ARRAY_COUNTS[order];
+    while (true) {
+      int count = pooledArrayCount.get();
+      if (count >= LIMITS[order]) {
+        return false;
+      }
+      if (pooledArrayCount.compareAndSet(count, count + 1)) {
+        return true;
       }
     }
   }
@@ -357,4 +465,104 @@ public class PrimitiveArrayManager {
   public static int getArrayRowCount(int size) {
     return size / ARRAY_SIZE + (size % ARRAY_SIZE == 0 ? 0 : 1);
   }
+
+  public static int getStripeNum() {
+    return STRIPE_NUM;
+  }
+
+  public static StripeStatistics getStripeStatistics(int stripeIndex) {
+    return STRIPES[stripeIndex].statistics;
+  }
+
+  private static int roundUpToPowerOfTwo(int value) {
+    if (value <= 1) {
+      return 1;
+    }
+    return Integer.highestOneBit(value - 1) << 1;
+  }
+
+  /** Arrays cached for the threads mapped to one stripe, each slot holds an array or null. */
+  private static class Stripe {
+
+    /** TSDataType#serialize() -> slots of the cached arrays */
+    private final AtomicReferenceArray<?>[] slots =
+        new AtomicReferenceArray<?>[TSDataType.values().length];
+
+    private final StripeStatistics statistics = new StripeStatistics();
+
+    private Stripe() {
+      for (int i = 0; i < slots.length; ++i) {
+        slots[i] = new AtomicReferenceArray<>(STRIPE_CAPACITY);
+      }
+    }
+
+    @SuppressWarnings("unchecked")
+    private AtomicReferenceArray<Object> getSlots(int order) {
+      return (AtomicReferenceArray<Object>) slots[order];
+    }
+
+    private Object poll(int order) {
+      AtomicReferenceArray<Object> arrays = getSlots(order);
+      for (int i = 0; i < STRIPE_CAPACITY; ++i) {
+        if (arrays.get(i) != null) {
+          Object array = arrays.getAndSet(i, null);
+          if (array != null) {
+            return array;
+          }
+        }
+      }
+      return null;
+    }
+
+    private boolean offer(int order, Object array) {
+      AtomicReferenceArray<Object> arrays = getSlots(order);
+      for (int i = 0; i < STRIPE_CAPACITY; ++i) {
+        if (arrays.get(i) == null && arrays.compareAndSet(i, null, array)) {
+          return true;
+        }
+      }
+      return false;
+    }
+
+    private void clear() {
+      for (int order = 0; order < slots.length; ++order) {
+        AtomicReferenceArray<Object> arrays = getSlots(order);
+        for (int i = 0; i < STRIPE_CAPACITY; ++i) {
+          arrays.set(i, null);
+        }
+      }
+      statistics.reset();
+    }
+  }
+
+  /** Allocation statistics of one stripe, exposed as metrics. */
+  public static class StripeStatistics {
+
+    /** number of allocation requests from the threads of the stripe */
+    private final AtomicLong allocationCount = new AtomicLong(0);
+
+    /** number of allocation requests served by the stripe itself */
+    private final AtomicLong hitCount = new AtomicLong(0);
+
+    /** number of allocation requests served by an array stolen from another stripe */
+    private final AtomicLong stealCount = new AtomicLong(0);
+
+    public long getAllocationCount() {
+      return allocationCount.get();
+    }
+
+    public long getHitCount() {
+      return hitCount.get();
+    }
+
+    public long getStealCount() {
+      return stealCount.get();
+    }
+
+    private void reset() {
+      allocationCount.set(0);
+      hitCount.set(0);
+      stealCount.set(0);
+    }
+  }
 }
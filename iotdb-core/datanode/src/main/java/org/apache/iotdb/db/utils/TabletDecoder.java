@@ -112,8 +112,12 @@ public class TabletDecoder {
     TSDataType dataType = TSDataType.INT64;
     TSEncoding encodingType = columnEncodings.get(0);
 
-    Decoder decoder = Decoder.getDecoderByType(encodingType, dataType);
     long[] result = new long[rowCount];
+    if (encodingType == TSEncoding.PLAIN) {
+      readPlainLongs(buffer, result);
+      return result;
+    }
+    Decoder decoder = Decoder.getDecoderByType(encodingType, dataType);
     for (int i = 0; i < rowCount; i++) {
       result[i] = decoder.readLong(buffer);
     }
@@ -149,10 +153,9 @@ public class TabletDecoder {
       case INT32:
         int[] intCol = new int[rowSize];
         if (encoding == TSEncoding.PLAIN) {
-          // PlainEncoder uses var int, which may cause compatibility problem
-          for (int j = 0; j < rowSize; j++) {
-            intCol[j] = ReadWriteIOUtils.readInt(uncompressed);
-          }
+          // PlainEncoder uses var int, which may cause compatibility problem, so the values are
+          // written as fixed-width ints
+          readPlainInts(uncompressed, intCol);
         } else {
           for (int j = 0; j < rowSize; j++) {
             intCol[j] = decoder.readInt(uncompressed);
@@ -163,22 +166,34 @@ public class TabletDecoder {
       case INT64:
       case TIMESTAMP:
         long[] longCol = new long[rowSize];
-        for (int j = 0; j < rowSize; j++) {
-          longCol[j] = decoder.readLong(uncompressed);
+        if (encoding == TSEncoding.PLAIN) {
+          readPlainLongs(uncompressed, longCol);
+        } else {
+          for (int j = 0; j < rowSize; j++) {
+            longCol[j] = decoder.readLong(uncompressed);
+          }
         }
         column = longCol;
         break;
       case FLOAT:
         float[] floatCol = new float[rowSize];
-        for (int j = 0; j < rowSize; j++) {
-          floatCol[j] = decoder.readFloat(uncompressed);
+        if (encoding == TSEncoding.PLAIN) {
+          readPlainFloats(uncompressed, floatCol);
+        } else {
+          for (int j = 0; j < rowSize; j++) {
+            floatCol[j] = decoder.readFloat(uncompressed);
+          }
         }
         column = floatCol;
         break;
       case DOUBLE:
         double[] doubleCol = new double[rowSize];
-        for (int j = 0; j < rowSize; j++) {
-          doubleCol[j] = decoder.readDouble(uncompressed);
+        if (encoding == TSEncoding.PLAIN) {
+          readPlainDoubles(uncompressed, doubleCol);
+        } else {
+          for (int j = 0; j < rowSize; j++) {
+            doubleCol[j] = decoder.readDouble(uncompressed);
+          }
         }
         column = doubleCol;
         break;
@@ -212,4 +227,28 @@ public class TabletDecoder {
     }
     return column;
   }
+
+  // PLAIN fixed-width values are laid out as big-endian primitives, the same as the ByteBuffer, so
+  // they are copied into the column in bulk through a view of the buffer instead of being read one
+  // by one through the Decoder.
+
+  private static void readPlainInts(ByteBuffer buffer, int[] column) {
+    buffer.asIntBuffer().get(column);
+    buffer.position(buffer.position() + column.length * Integer.BYTES);
+  }
+
+  private static void readPlainLongs(ByteBuffer buffer, long[] column) {
+    buffer.asLongBuffer().get(column);
+    buffer.position(buffer.position() + column.length * Long.BYTES);
+  }
+
+  private static void readPlainFloats(ByteBuffer buffer, float[] column) {
+    buffer.asFloatBuffer().get(column);
+    buffer.position(buffer.position() + column.length * Float.BYTES);
+  }
+
+  private static void readPlainDoubles(ByteBuffer buffer, double[] column) {
+    buffer.asDoubleBuffer().get(column);
+    buffer.position(buffer.position() + column.length * Double.BYTES);
+  }
 }
@@ -20,6 +20,7 @@ package org.apache.iotdb.db.utils.datastructure;
 
 import org.apache.iotdb.db.storageengine.dataregion.wal.buffer.IWALByteBufferView;
 import org.apache.iotdb.db.storageengine.dataregion.wal.utils.WALWriteUtils;
+import org.apache.iotdb.db.storageengine.rescon.memory.OffHeapArrayManager;
 import org.apache.iotdb.db.storageengine.rescon.memory.PrimitiveArrayManager;
 import org.apache.iotdb.db.utils.MathUtils;
 
@@ -34,6 +35,7 @@ import org.apache.tsfile.utils.TsPrimitiveType;
 
 import java.io.DataInputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.stream.IntStream;
@@ -47,9 +49,16 @@ public abstract class FloatTVList extends TVList {
   // index relation: arrayIndex -> elementIndex
   protected List<float[]> values;
 
+  // list of direct buffers used instead of values when tvlist_off_heap_enabled is set, null
+  // otherwise
+  protected List<ByteBuffer> offHeapValues;
+
   FloatTVList() {
     super();
     values = new ArrayList<>();
+    if (OffHeapArrayManager.isEnabled()) {
+      offHeapValues = new ArrayList<>();
+    }
   }
 
   public static FloatTVList newList() {
@@ -71,6 +80,11 @@ public abstract class FloatTVList extends TVList {
     for (float[] valueArray : values) {
       cloneList.values.add(cloneValue(valueArray));
     }
+    if (offHeapValues != null) {
+      for (ByteBuffer valueBuffer : offHeapValues) {
+        cloneList.offHeapValues.add(OffHeapArrayManager.copy(valueBuffer, TSDataType.FLOAT));
+      }
+    }
     return cloneList;
   }
 
@@ -88,7 +102,11 @@ public abstract class FloatTVList extends TVList {
     maxTime = Math.max(maxTime, timestamp);
     minTime = Math.min(minTime, timestamp);
     timestamps.get(arrayIndex)[elementIndex] = timestamp;
-    values.get(arrayIndex)[elementIndex] = value;
+    if (offHeapValues != null) {
+      offHeapValues.get(arrayIndex).putFloat(elementIndex * Float.BYTES, value);
+    } else {
+      values.get(arrayIndex)[elementIndex] = value;
+    }
     if (indices != null) {
       indices.get(arrayIndex)[elementIndex] = rowCount;
     }
@@ -110,6 +128,9 @@ public abstract class FloatTVList extends TVList {
     int valueIndex = getValueIndex(index);
     int arrayIndex = valueIndex / ARRAY_SIZE;
     int elementIndex = valueIndex % ARRAY_SIZE;
+    if (offHeapValues != null) {
+      return offHeapValues.get(arrayIndex).getFloat(elementIndex * Float.BYTES);
+    }
     return values.get(arrayIndex)[elementIndex];
   }
 
@@ -121,6 +142,12 @@ public abstract class FloatTVList extends TVList {
       }
       values.clear();
     }
+    if (offHeapValues != null) {
+      for (ByteBuffer valueBuffer : offHeapValues) {
+        OffHeapArrayManager.release(valueBuffer);
+      }
+      offHeapValues.clear();
+    }
   }
 
   @Override
@@ -128,7 +155,11 @@ public abstract class FloatTVList extends TVList {
     if (indices != null) {
       indices.add((int[]) getPrimitiveArraysByType(TSDataType.INT32));
     }
-    values.add((float[]) getPrimitiveArraysByType(TSDataType.FLOAT));
+    if (offHeapValues != null) {
+      offHeapValues.add(OffHeapArrayManager.allocate(TSDataType.FLOAT));
+    } else {
+      values.add((float[]) getPrimitiveArraysByType(TSDataType.FLOAT));
+    }
     if (bitMap != null) {
       bitMap.add(null);
     }
@@ -205,7 +236,7 @@ public abstract class FloatTVList extends TVList {
         // the remaining inputs can fit the last array, copy all remaining inputs into last array
         System.arraycopy(
             time, idx - timeIdxOffset, timestamps.get(arrayIdx), elementIdx, inputRemaining);
-        System.arraycopy(value, idx, values.get(arrayIdx), elementIdx, inputRemaining);
+        copyValues(value, idx, arrayIdx, elementIdx, inputRemaining);
         if (indices != null) {
           int[] indexes = IntStream.range(rowCount, rowCount + inputRemaining).toArray();
           System.arraycopy(indexes, 0, indices.get(arrayIdx), elementIdx, inputRemaining);
@@ -217,7 +248,7 @@ public abstract class FloatTVList extends TVList {
         // one and enter the next loop
         System.arraycopy(
             time, idx - timeIdxOffset, timestamps.get(arrayIdx), elementIdx, internalRemaining);
-        System.arraycopy(value, idx, values.get(arrayIdx), elementIdx, internalRemaining);
+        copyValues(value, idx, arrayIdx, elementIdx, internalRemaining);
         if (indices != null) {
           int[] indexes = IntStream.range(rowCount, rowCount + internalRemaining).toArray();
           System.arraycopy(indexes, 0, indices.get(arrayIdx), elementIdx, internalRemaining);
@@ -229,6 +260,14 @@ public abstract class FloatTVList extends TVList {
     }
   }
 
+  private void copyValues(float[] value, int idx, int arrayIdx, int elementIdx, int length) {
+    if (offHeapValues != null) {
+      OffHeapArrayManager.putFloats(offHeapValues.get(arrayIdx), elementIdx, value, idx, length);
+    } else {
+      System.arraycopy(value, idx, values.get(arrayIdx), elementIdx, length);
+    }
+  }
+
   // move null values to the end of time array and value array, then return number of null values
   int dropNullValThenUpdateMinMaxTimeAndSorted(
       long[] time, float[] values, BitMap bitMap, int start, int end, int tIdxOffset) {
@@ -20,6 +20,7 @@ package org.apache.iotdb.db.utils.datastructure;
 
 import org.apache.iotdb.db.storageengine.dataregion.wal.buffer.IWALByteBufferView;
 import org.apache.iotdb.db.storageengine.dataregion.wal.utils.WALWriteUtils;
+import org.apache.iotdb.db.storageengine.rescon.memory.OffHeapArrayManager;
 import org.apache.iotdb.db.storageengine.rescon.memory.PrimitiveArrayManager;
 
 import org.apache.tsfile.enums.TSDataType;
@@ -33,6 +34,7 @@ import org.apache.tsfile.utils.TsPrimitiveType;
 
 import java.io.DataInputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.stream.IntStream;
@@ -46,9 +48,16 @@ public abstract class IntTVList extends TVList {
   // index relation: arrayIndex -> elementIndex
   protected List<int[]> values;
 
+  // list of direct buffers used instead of values when tvlist_off_heap_enabled is set, null
+  // otherwise
+  protected List<ByteBuffer> offHeapValues;
+
   IntTVList() {
     super();
     values = new ArrayList<>();
+    if (OffHeapArrayManager.isEnabled()) {
+      offHeapValues = new ArrayList<>();
+    }
   }
 
   public static IntTVList newList() {
@@ -70,6 +79,11 @@ public abstract class IntTVList extends TVList {
     for (int[] valueArray : values) {
       cloneList.values.add(cloneValue(valueArray));
     }
+    if (offHeapValues != null) {
+      for (ByteBuffer valueBuffer : offHeapValues) {
+        cloneList.offHeapValues.add(OffHeapArrayManager.copy(valueBuffer, TSDataType.INT32));
+      }
+    }
     return cloneList;
   }
 
@@ -87,7 +101,11 @@ public abstract class IntTVList extends TVList {
     maxTime = Math.max(maxTime, timestamp);
     minTime = Math.min(minTime, timestamp);
     timestamps.get(arrayIndex)[elementIndex] = timestamp;
-    values.get(arrayIndex)[elementIndex] = value;
+    if (offHeapValues != null) {
+      offHeapValues.get(arrayIndex).putInt(elementIndex * Integer.BYTES, value);
+    } else {
+      values.get(arrayIndex)[elementIndex] = value;
+    }
     if (indices != null) {
       indices.get(arrayIndex)[elementIndex] = rowCount;
     }
@@ -109,6 +127,9 @@ public abstract class IntTVList extends TVList {
     int valueIndex = getValueIndex(index);
     int arrayIndex = valueIndex / ARRAY_SIZE;
     int elementIndex = valueIndex % ARRAY_SIZE;
+    if (offHeapValues != null) {
+      return offHeapValues.get(arrayIndex).getInt(elementIndex * Integer.BYTES);
+    }
     return values.get(arrayIndex)[elementIndex];
   }
 
@@ -120,6 +141,12 @@ public abstract class IntTVList extends TVList {
       }
       values.clear();
     }
+    if (offHeapValues != null) {
+      for (ByteBuffer valueBuffer : offHeapValues) {
+        OffHeapArrayManager.release(valueBuffer);
+      }
+      offHeapValues.clear();
+    }
   }
 
   @Override
@@ -127,7 +154,11 @@ public abstract class IntTVList extends TVList {
     if (indices != null) {
       indices.add((int[]) getPrimitiveArraysByType(TSDataType.INT32));
     }
-    values.add((int[]) getPrimitiveArraysByType(TSDataType.INT32));
+    if (offHeapValues != null) {
+      offHeapValues.add(OffHeapArrayManager.allocate(TSDataType.INT32));
+    } else {
+      values.add((int[]) getPrimitiveArraysByType(TSDataType.INT32));
+    }
     if (bitMap != null) {
       bitMap.add(null);
     }
@@ -197,7 +228,7 @@ public abstract class IntTVList extends TVList {
         // the remaining inputs can fit the last array, copy all remaining inputs into last array
         System.arraycopy(
             time, idx - timeIdxOffset, timestamps.get(arrayIdx), elementIdx, inputRemaining);
-        System.arraycopy(value, idx, values.get(arrayIdx), elementIdx, inputRemaining);
+        copyValues(value, idx, arrayIdx, elementIdx, inputRemaining);
         if (indices != null) {
           int[] indexes = IntStream.range(rowCount, rowCount + inputRemaining).toArray();
           System.arraycopy(indexes, 0, indices.get(arrayIdx), elementIdx, inputRemaining);
@@ -209,7 +240,7 @@ public abstract class IntTVList extends TVList {
         // one and enter the next loop
         System.arraycopy(
             time, idx - timeIdxOffset, timestamps.get(arrayIdx), elementIdx, internalRemaining);
-        System.arraycopy(value, idx, values.get(arrayIdx), elementIdx, internalRemaining);
+        copyValues(value, idx, arrayIdx, elementIdx, internalRemaining);
         if (indices != null) {
           int[] indexes = IntStream.range(rowCount, rowCount + internalRemaining).toArray();
           System.arraycopy(indexes, 0, indices.get(arrayIdx), elementIdx, internalRemaining);
@@ -221,6 +252,14 @@ public abstract class IntTVList extends TVList {
     }
   }
 
+  private void copyValues(int[] value, int idx, int arrayIdx, int elementIdx, int length) {
+    if (offHeapValues != null) {
+      OffHeapArrayManager.putInts(offHeapValues.get(arrayIdx), elementIdx, value, idx, length);
+    } else {
+      System.arraycopy(value, idx, values.get(arrayIdx), elementIdx, length);
+    }
+  }
+
   // move null values to the end of time array and value array, then return number of null values
   int dropNullValThenUpdateMinMaxTimeAndSorted(
       long[] time, int[] values, BitMap bitMap, int start, int end, int tIdxOffset) {
@@ -0,0 +1,108 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iotdb.db.pipe.agent.task.connection;
+
+import org.apache.iotdb.commons.conf.CommonConfig;
+import org.apache.iotdb.commons.conf.CommonDescriptor;
+import org.apache.iotdb.commons.pipe.agent.task.connection.UnboundedBlockingPendingQueue;
+import org.apache.iotdb.commons.pipe.datastructure.pattern.PrefixTreePattern;
+import org.apache.iotdb.db.pipe.event.common.tsfile.PipeTsFileInsertionEvent;
+import org.apache.iotdb.db.pipe.metric.source.PipeDataRegionEventCounter;
+import org.apache.iotdb.db.storageengine.dataregion.tsfile.TsFileResource;
+import org.apache.iotdb.pipe.api.event.Event;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
+
+public class PipeEventCollectorTest {
+
+  private static final CommonConfig COMMON_CONFIG = CommonDescriptor.getInstance().getConfig();
+
+  @Rule public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  private boolean isPipeTsFileRawChunkTransferEnabled;
+
+  @Before
+  public void setUp() {
+    isPipeTsFileRawChunkTransferEnabled = COMMON_CONFIG.isPipeTsFileRawChunkTransferEnabled();
+    COMMON_CONFIG.setPipeTsFileRawChunkTransferEnabled(true);
+  }
+
+  @After
+  public void tearDown() {
+    COMMON_CONFIG.setPipeTsFileRawChunkTransferEnabled(isPipeTsFileRawChunkTransferEnabled);
+  }
+
+  @Test
+  public void testParseTsFileIntoTabletsWhenSlicingFails() throws Exception {
+    // The slicer fails to read a broken TsFile
+    final File tsFile = temporaryFolder.newFile("0-0-0-0.tsfile");
+    Files.write(tsFile.toPath(), "broken".getBytes(StandardCharsets.UTF_8));
+
+    final PipeTsFileInsertionEvent event =
+        spy(
+            new PipeTsFileInsertionEvent(
+                false,
+                "root.sg",
+                new TsFileResource(tsFile),
+                null,
+                false,
+                false,
+                false,
+                null,
+                null,
+                0,
+                null,
+                new PrefixTreePattern("root.sg.d1"),
+                null,
+                null,
+                null,
+                null,
+                true,
+                0,
+                100));
+    doReturn(true).when(event).waitForTsFileClose();
+    doNothing().when(event).consumeTabletInsertionEventsWithRetry(any(), anyString());
+
+    final UnboundedBlockingPendingQueue<Event> pendingQueue =
+        new UnboundedBlockingPendingQueue<>(new PipeDataRegionEventCounter());
+    new PipeEventCollector(pendingQueue, 0, 1, false, false, false).collect(event);
+
+    // The TsFile is parsed into tablets instead, and no sliced event is collected
+    verify(event).consumeTabletInsertionEventsWithRetry(any(), anyString());
+    verify(event).close();
+    Assert.assertTrue(pendingQueue.isEmpty());
+  }
+}
@@ -19,21 +19,31 @@
 
 package org.apache.iotdb.db.pipe.event;
 
+import org.apache.iotdb.commons.path.MeasurementPath;
 import org.apache.iotdb.commons.path.PartialPath;
 import org.apache.iotdb.commons.pipe.datastructure.pattern.IoTDBTreePattern;
 import org.apache.iotdb.commons.pipe.datastructure.pattern.PrefixTreePattern;
 import org.apache.iotdb.commons.pipe.datastructure.pattern.TreePattern;
+import org.apache.iotdb.db.pipe.event.common.tablet.PipeRawTabletInsertionEvent;
+import org.apache.iotdb.db.pipe.event.common.tsfile.PipeSlicedTsFileInsertionEvent;
 import org.apache.iotdb.db.pipe.event.common.tsfile.PipeTsFileInsertionEvent;
 import org.apache.iotdb.db.pipe.event.common.tsfile.parser.TsFileInsertionEventParser;
+import org.apache.iotdb.db.pipe.event.common.tsfile.parser.query.TsFileInsertionEventParallelQueryParser;
 import org.apache.iotdb.db.pipe.event.common.tsfile.parser.query.TsFileInsertionEventQueryParser;
 import org.apache.iotdb.db.pipe.event.common.tsfile.parser.scan.TsFileInsertionEventScanParser;
+import org.apache.iotdb.db.pipe.event.common.tsfile.slicer.TsFileChunkSlicer;
 import org.apache.iotdb.db.storageengine.dataregion.compaction.utils.CompactionTestFileWriter;
+import org.apache.iotdb.db.storageengine.dataregion.modification.ModificationFile;
+import org.apache.iotdb.db.storageengine.dataregion.modification.TreeDeletionEntry;
 import org.apache.iotdb.db.storageengine.dataregion.tsfile.TsFileResource;
 import org.apache.iotdb.db.storageengine.dataregion.tsfile.TsFileResourceStatus;
 import org.apache.iotdb.pipe.api.access.Row;
+import org.apache.iotdb.pipe.api.event.dml.insertion.TabletInsertionEvent;
 
 import org.apache.tsfile.common.conf.TSFileConfig;
 import org.apache.tsfile.enums.TSDataType;
+import org.apache.tsfile.file.metadata.AbstractAlignedChunkMetadata;
+import org.apache.tsfile.file.metadata.IDeviceID;
 import org.apache.tsfile.file.metadata.enums.CompressionType;
 import org.apache.tsfile.file.metadata.enums.TSEncoding;
 import org.apache.tsfile.read.TsFileSequenceReader;
@@ -57,6 +67,7 @@ import java.io.IOException;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Comparator;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Objects;
@@ -107,6 +118,378 @@ public class TsFileInsertionEventParserTest {
     System.out.println(System.currentTimeMillis() - startTime);
   }
 
+  @Test
+  public void testParallelQueryContainer() throws Exception {
+    alignedTsFile =
+        TsFileGeneratorUtils.generateAlignedTsFile(
+            "aligned.tsfile", 5, 2, 1000, (int) TSFILE_START_TIME, 10000, 700, 50);
+    nonalignedTsFile =
+        TsFileGeneratorUtils.generateNonAlignedTsFile(
+            "nonaligned.tsfile", 5, 2, 1000, (int) TSFILE_START_TIME, 10000, 700, 50);
+
+    for (final File tsFile : Arrays.asList(alignedTsFile, nonalignedTsFile)) {
+      testParallelQueryParser(tsFile, 1);
+      testParallelQueryParser(tsFile, 3);
+      testParallelQueryParser(tsFile, 8);
+    }
+  }
+
+  private void testParallelQueryParser(final File tsFile, final int parallelism) throws Exception {
+    final TreePattern pattern = new PrefixTreePattern("root");
+
+    int expectedCount = 0;
+    try (final TsFileInsertionEventParser parser =
+        new TsFileInsertionEventQueryParser(
+            tsFile, pattern, Long.MIN_VALUE, Long.MAX_VALUE, createTsFileInsertionEvent(tsFile))) {
+      for (final TabletInsertionEvent event : parser.toTabletInsertionEvents()) {
+        expectedCount += getNonNullSize(((PipeRawTabletInsertionEvent) event).convertToTablet());
+      }
+    }
+    Assert.assertTrue(expectedCount > 0);
+
+    int count = 0;
+    int reportedCount = 0;
+    final List<String> devices = new ArrayList<>();
+    try (final TsFileInsertionEventParallelQueryParser parser =
+        new TsFileInsertionEventParallelQueryParser(
+            tsFile,
+            pattern,
+            Long.MIN_VALUE,
+            Long.MAX_VALUE,
+            createTsFileInsertionEvent(tsFile),
+            parallelism)) {
+      Assert.assertEquals(Math.min(parallelism, 5), parser.getShardNum());
+      for (final TabletInsertionEvent event : parser.toTabletInsertionEvents()) {
+        final PipeRawTabletInsertionEvent rawEvent = (PipeRawTabletInsertionEvent) event;
+        final Tablet tablet = rawEvent.convertToTablet();
+        count += getNonNullSize(tablet);
+        devices.add(tablet.getDeviceId());
+        if (rawEvent.isNeedToReport()) {
+          ++reportedCount;
+        }
+      }
+    }
+
+    Assert.assertEquals(expectedCount, count);
+    // Only the last tablet of the TsFile reports the progress
+    Assert.assertEquals(1, reportedCount);
+    // The tablets come out device by device
+    final List<String> sortedDevices = new ArrayList<>(devices);
+    sortedDevices.sort(Comparator.naturalOrder());
+    Assert.assertEquals(sortedDevices, devices);
+  }
+
+  @Test
+  public void testChunkSlicer() throws Exception {
+    alignedTsFile =
+        TsFileGeneratorUtils.generateAlignedTsFile(
+            "aligned.tsfile", 5, 2, 1000, (int) TSFILE_START_TIME, 10000, 700, 50);
+    nonalignedTsFile =
+        TsFileGeneratorUtils.generateNonAlignedTsFile(
+            "nonaligned.tsfile", 5, 2, 1000, (int) TSFILE_START_TIME, 10000, 700, 50);
+
+    for (final File tsFile : Arrays.asList(alignedTsFile, nonalignedTsFile)) {
+      final AtomicReference<String> oneMeasurement = new AtomicReference<>();
+      try (final TsFileSequenceReader reader = new TsFileSequenceReader(tsFile.getAbsolutePath())) {
+        reader
+            .getDeviceMeasurementsMap()
+            .forEach(
+                (k, v) ->
+                    v.stream()
+                        .filter(p -> p != null && !p.isEmpty())
+                        .forEach(p -> oneMeasurement.set(new Path(k, p, false).toString())));
+      }
+
+      // Every chunk is inside the time range and copied without decoding
+      testChunkSlicer(tsFile, new PrefixTreePattern("root"), Long.MIN_VALUE, Long.MAX_VALUE, false);
+      testChunkSlicer(
+          tsFile,
+          new PrefixTreePattern("root"),
+          TSFILE_START_TIME + 100,
+          TSFILE_START_TIME + 800,
+          true);
+      testChunkSlicer(
+          tsFile,
+          new PrefixTreePattern(oneMeasurement.get()),
+          TSFILE_START_TIME + 100,
+          TSFILE_START_TIME + 800,
+          true);
+    }
+
+    // Nothing matches the time range
+    try (final TsFileChunkSlicer slicer =
+        new TsFileChunkSlicer(
+            alignedTsFile, new PrefixTreePattern("root"), Long.MIN_VALUE, 0, false)) {
+      Assert.assertNull(slicer.slice());
+      Assert.assertEquals(0, slicer.getCopiedChunkCount() + slicer.getDecodedChunkCount());
+    }
+  }
+
+  private void testChunkSlicer(
+      final File tsFile,
+      final TreePattern pattern,
+      final long startTime,
+      final long endTime,
+      final boolean shouldDecode)
+      throws Exception {
+    int expectedCount = 0;
+    try (final TsFileInsertionEventParser parser =
+        new TsFileInsertionEventQueryParser(
+            tsFile, pattern, startTime, endTime, createTsFileInsertionEvent(tsFile))) {
+      for (final TabletInsertionEvent event : parser.toTabletInsertionEvents()) {
+        expectedCount += getNonNullSize(((PipeRawTabletInsertionEvent) event).convertToTablet());
+      }
+    }
+    Assert.assertTrue(expectedCount > 0);
+
+    File slicedTsFile = null;
+    try (final TsFileChunkSlicer slicer =
+        new TsFileChunkSlicer(tsFile, pattern, startTime, endTime, false)) {
+      slicedTsFile = slicer.slice();
+      Assert.assertNotNull(slicedTsFile);
+      Assert.assertEquals(shouldDecode, slicer.getDecodedChunkCount() > 0);
+      Assert.assertTrue(shouldDecode || slicer.getCopiedChunkCount() > 0);
+
+      // The sliced TsFile only contains the matched data
+      int count = 0;
+      try (final TsFileInsertionEventParser parser =
+          new TsFileInsertionEventQueryParser(
+              slicedTsFile,
+              new PrefixTreePattern("root"),
+              Long.MIN_VALUE,
+              Long.MAX_VALUE,
+              createTsFileInsertionEvent(slicedTsFile))) {
+        for (final TabletInsertionEvent event : parser.toTabletInsertionEvents()) {
+          count += getNonNullSize(((PipeRawTabletInsertionEvent) event).convertToTablet());
+        }
+      }
+      Assert.assertEquals(expectedCount, count);
+    } finally {
+      if (Objects.nonNull(slicedTsFile)) {
+        slicedTsFile.delete();
+      }
+    }
+  }
+
+  @Test
+  public void testChunkSlicerWithMods() throws Exception {
+    final File tsFile = new File("0-0-3-0.tsfile");
+    resource = new TsFileResource(tsFile);
+    resource.updatePlanIndexes(0);
+    resource.setStatusForTest(TsFileResourceStatus.NORMAL);
+    try (final CompactionTestFileWriter writer = new CompactionTestFileWriter(resource)) {
+      writer.startChunkGroup("d1");
+      writer.generateSimpleAlignedSeriesToCurrentDevice(
+          Arrays.asList("s0", "s1", "s2"),
+          new TimeRange[] {new TimeRange(10, 40), new TimeRange(50, 80)},
+          TSEncoding.PLAIN,
+          CompressionType.LZ4);
+      writer.endChunkGroup();
+      writer.startChunkGroup("d2");
+      writer.generateSimpleNonAlignedSeriesToCurrentDevice(
+          "s0",
+          new TimeRange[] {new TimeRange(10, 40), new TimeRange(50, 80)},
+          TSEncoding.PLAIN,
+          CompressionType.LZ4);
+      writer.generateSimpleNonAlignedSeriesToCurrentDevice(
+          "s1", new TimeRange[] {new TimeRange(10, 40)}, TSEncoding.PLAIN, CompressionType.LZ4);
+      writer.endChunkGroup();
+      writer.startChunkGroup("d3");
+      writer.generateSimpleAlignedSeriesToCurrentDevice(
+          Arrays.asList("s0", "s1"),
+          new TimeRange[] {new TimeRange(10, 40)},
+          TSEncoding.PLAIN,
+          CompressionType.LZ4);
+      writer.endChunkGroup();
+      writer.endFile();
+    }
+    try (final ModificationFile modificationFile =
+        new ModificationFile(ModificationFile.getExclusiveMods(tsFile), false)) {
+      // Partially delete the second aligned chunk of d1 and the first chunk of d2.s0
+      modificationFile.write(
+          new TreeDeletionEntry(new MeasurementPath("root.testsg.d1.s1"), 55, 60));
+      modificationFile.write(
+          new TreeDeletionEntry(new MeasurementPath("root.testsg.d2.s0"), 20, 25));
+      // Fully delete an aligned column, a non-aligned chunk and a whole aligned device
+      modificationFile.write(
+          new TreeDeletionEntry(new MeasurementPath("root.testsg.d1.s2"), 0, 100));
+      modificationFile.write(
+          new TreeDeletionEntry(new MeasurementPath("root.testsg.d2.s1"), 0, 100));
+      modificationFile.write(
+          new TreeDeletionEntry(new MeasurementPath("root.testsg.d3.**"), 0, 100));
+    }
+
+    final TreePattern pattern = new PrefixTreePattern("root");
+    int expectedCount = 0;
+    try (final TsFileInsertionEventParser parser =
+        new TsFileInsertionEventQueryParser(
+            null,
+            0,
+            tsFile,
+            pattern,
+            Long.MIN_VALUE,
+            Long.MAX_VALUE,
+            null,
+            createTsFileInsertionEvent(tsFile),
+            true)) {
+      for (final TabletInsertionEvent event : parser.toTabletInsertionEvents()) {
+        expectedCount += getNonNullSize(((PipeRawTabletInsertionEvent) event).convertToTablet());
+      }
+    }
+    // d1.s0: 62, d1.s1: 62 - 6, d2.s0: 62 - 6
+    Assert.assertEquals(174, expectedCount);
+
+    File slicedTsFile = null;
+    try (final TsFileChunkSlicer slicer =
+        new TsFileChunkSlicer(tsFile, pattern, Long.MIN_VALUE, Long.MAX_VALUE, true)) {
+      slicedTsFile = slicer.slice();
+      Assert.assertNotNull(slicedTsFile);
+      // The chunks overlapped by mods are decoded, the others are copied
+      Assert.assertEquals(2, slicer.getCopiedChunkCount());
+      Assert.assertEquals(2, slicer.getDecodedChunkCount());
+
+      int count = 0;
+      try (final TsFileInsertionEventParser parser =
+          new TsFileInsertionEventQueryParser(
+              slicedTsFile,
+              pattern,
+              Long.MIN_VALUE,
+              Long.MAX_VALUE,
+              createTsFileInsertionEvent(slicedTsFile))) {
+        for (final TabletInsertionEvent event : parser.toTabletInsertionEvents()) {
+          count += getNonNullSize(((PipeRawTabletInsertionEvent) event).convertToTablet());
+        }
+      }
+      Assert.assertEquals(expectedCount, count);
+
+      // The fully deleted chunks, aligned columns and devices are dropped
+      final Set<String> measurements = new HashSet<>();
+      try (final TsFileSequenceReader reader =
+          new TsFileSequenceReader(slicedTsFile.getAbsolutePath())) {
+        reader
+            .getDeviceMeasurementsMap()
+            .forEach(
+                (k, v) ->
+                    v.stream()
+                        .filter(p -> p != null && !p.isEmpty())
+                        .forEach(p -> measurements.add(k + "." + p)));
+      }
+      Assert.assertEquals(
+          new HashSet<>(
+              Arrays.asList("root.testsg.d1.s0", "root.testsg.d1.s1", "root.testsg.d2.s0")),
+          measurements);
+    } finally {
+      if (Objects.nonNull(slicedTsFile)) {
+        slicedTsFile.delete();
+      }
+      ModificationFile.getExclusiveMods(tsFile).delete();
+    }
+  }
+
+  @Test
+  public void testChunkSlicerWithAllNullAlignedRows() throws Exception {
+    generateSparseAlignedTsFile();
+
+    // s1 is null at time 2, so the time chunk can't be copied with s1 only
+    testChunkSlicerRowCount(new PrefixTreePattern("root.sg.d.s1"), 2, false);
+    // Neither s1 nor s2 has a value at every time
+    testChunkSlicerRowCount(new IoTDBTreePattern("root.sg.d.s*"), 3, false);
+    // t3 has a value at every time
+    testChunkSlicerRowCount(new PrefixTreePattern("root.sg.d"), 3, true);
+  }
+
+  private void testChunkSlicerRowCount(
+      final TreePattern pattern, final long expectedRowCount, final boolean shouldCopy)
+      throws Exception {
+    File slicedTsFile = null;
+    try (final TsFileChunkSlicer slicer =
+        new TsFileChunkSlicer(alignedTsFile, pattern, Long.MIN_VALUE, Long.MAX_VALUE, false)) {
+      slicedTsFile = slicer.slice();
+      Assert.assertNotNull(slicedTsFile);
+      Assert.assertEquals(shouldCopy ? 1 : 0, slicer.getCopiedChunkCount());
+      Assert.assertEquals(shouldCopy ? 0 : 1, slicer.getDecodedChunkCount());
+
+      long rowCount = 0;
+      try (final TsFileSequenceReader reader =
+          new TsFileSequenceReader(slicedTsFile.getAbsolutePath())) {
+        for (final AbstractAlignedChunkMetadata alignedChunkMetadata :
+            reader.getAlignedChunkMetadata(
+                IDeviceID.Factory.DEFAULT_FACTORY.create("root.sg.d"), true)) {
+          rowCount += alignedChunkMetadata.getTimeChunkMetadata().getStatistics().getCount();
+        }
+      }
+      Assert.assertEquals(expectedRowCount, rowCount);
+    } finally {
+      if (Objects.nonNull(slicedTsFile)) {
+        slicedTsFile.delete();
+      }
+    }
+  }
+
+  @Test
+  public void testSlicedTsFileInsertionEventDeletesFileOnRelease() throws Exception {
+    generateSparseAlignedTsFile();
+
+    final File slicedTsFile;
+    try (final TsFileChunkSlicer slicer =
+        new TsFileChunkSlicer(
+            alignedTsFile,
+            new PrefixTreePattern("root.sg.d.s1"),
+            Long.MIN_VALUE,
+            Long.MAX_VALUE,
+            false)) {
+      slicedTsFile = slicer.slice();
+    }
+    Assert.assertNotNull(slicedTsFile);
+
+    try {
+      final PipeSlicedTsFileInsertionEvent event =
+          new PipeSlicedTsFileInsertionEvent(
+              createTsFileInsertionEvent(alignedTsFile), slicedTsFile);
+      Assert.assertEquals(slicedTsFile, event.getTsFile());
+      Assert.assertEquals(0, event.getExtractTime());
+      Assert.assertTrue(event.increaseReferenceCount("test"));
+      // The bookkeeping of PipeTsFileInsertionEvent still runs for the sliced event
+      Assert.assertNotEquals(0, event.getExtractTime());
+      Assert.assertTrue(event.increaseReferenceCount("test"));
+      Assert.assertTrue(event.decreaseReferenceCount("test", false));
+      Assert.assertTrue(slicedTsFile.exists());
+
+      // Only the sliced TsFile owned by the event is deleted
+      Assert.assertTrue(event.decreaseReferenceCount("test", false));
+      Assert.assertFalse(slicedTsFile.exists());
+      Assert.assertTrue(alignedTsFile.exists());
+    } finally {
+      slicedTsFile.delete();
+    }
+  }
+
+  private void generateSparseAlignedTsFile() throws Exception {
+    alignedTsFile = new File("0-0-4-0.tsfile");
+
+    final List<IMeasurementSchema> schemaList = new ArrayList<>();
+    schemaList.add(new MeasurementSchema("s1", TSDataType.INT64));
+    schemaList.add(new MeasurementSchema("s2", TSDataType.INT64));
+    schemaList.add(new MeasurementSchema("t3", TSDataType.INT64));
+
+    final Tablet t = new Tablet("root.sg.d", schemaList, 1024);
+    for (int i = 0; i < 3; ++i) {
+      t.addTimestamp(i, i + 1);
+      t.addValue("t3", i, (long) i);
+    }
+    t.addValue("s1", 0, 1L);
+    t.addValue("s2", 0, null);
+    t.addValue("s1", 1, null);
+    t.addValue("s2", 1, 2L);
+    t.addValue("s1", 2, 3L);
+    t.addValue("s2", 2, 3L);
+
+    try (final TsFileWriter writer = new TsFileWriter(alignedTsFile)) {
+      writer.registerAlignedTimeseries(new PartialPath("root.sg.d"), schemaList);
+      writer.writeAligned(t);
+    }
+  }
+
   public void testToTabletInsertionEvents(final boolean isQuery) throws Exception {
     // Test empty chunk
     testMixedTsFileWithEmptyChunk(isQuery);
@@ -554,27 +937,7 @@ public class TsFileInsertionEventParserTest {
       final long endTime,
       final boolean isQuery,
       final int expectedCount) {
-    final PipeTsFileInsertionEvent tsFileInsertionEvent =
-        new PipeTsFileInsertionEvent(
-            false,
-            "",
-            new TsFileResource(tsFile),
-            null,
-            true,
-            false,
-            false,
-            null,
-            null,
-            0,
-            null,
-            null,
-            null,
-            null,
-            null,
-            null,
-            true,
-            Long.MIN_VALUE,
-            Long.MAX_VALUE);
+    final PipeTsFileInsertionEvent tsFileInsertionEvent = createTsFileInsertionEvent(tsFile);
     try (final TsFileInsertionEventParser tsFileContainer =
         isQuery
             ? new TsFileInsertionEventQueryParser(
@@ -632,6 +995,29 @@ public class TsFileInsertionEventParserTest {
     }
   }
 
+  private PipeTsFileInsertionEvent createTsFileInsertionEvent(final File tsFile) {
+    return new PipeTsFileInsertionEvent(
+        false,
+        "",
+        new TsFileResource(tsFile),
+        null,
+        true,
+        false,
+        false,
+        null,
+        null,
+        0,
+        null,
+        null,
+        null,
+        null,
+        null,
+        null,
+        true,
+        Long.MIN_VALUE,
+        Long.MAX_VALUE);
+  }
+
   private int getNonNullSize(final Row row) {
     int count = 0;
     for (int i = 0; i < row.size(); ++i) {
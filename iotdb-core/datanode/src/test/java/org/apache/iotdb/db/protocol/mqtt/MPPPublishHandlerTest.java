@@ -0,0 +1,95 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.iotdb.db.protocol.mqtt;
+
+import org.apache.iotdb.common.rpc.thrift.TSStatus;
+import org.apache.iotdb.rpc.TSStatusCode;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class MPPPublishHandlerTest {
+
+  @Test
+  public void testIsInsertSucceeded() {
+    assertTrue(MPPPublishHandler.isInsertSucceeded(status(TSStatusCode.SUCCESS_STATUS)));
+    assertTrue(MPPPublishHandler.isInsertSucceeded(status(TSStatusCode.REDIRECTION_RECOMMEND)));
+    assertFalse(MPPPublishHandler.isInsertSucceeded(status(TSStatusCode.NO_PERMISSION)));
+    assertFalse(MPPPublishHandler.isInsertSucceeded(status(TSStatusCode.MULTIPLE_ERROR)));
+  }
+
+  @Test
+  public void testSuccessfulBatchNotRetried() {
+    for (TSStatusCode code :
+        Arrays.asList(TSStatusCode.SUCCESS_STATUS, TSStatusCode.REDIRECTION_RECOMMEND)) {
+      List<List<String>> batches = new ArrayList<>();
+      List<String> inserted = new ArrayList<>();
+      MPPPublishHandler.insertOrFallback(
+          Arrays.asList("root.sg.d1", "root.sg.d2"),
+          batch -> {
+            batches.add(batch);
+            return MPPPublishHandler.isInsertSucceeded(status(code));
+          },
+          inserted::add);
+
+      assertEquals(Collections.singletonList(Arrays.asList("root.sg.d1", "root.sg.d2")), batches);
+      assertTrue(inserted.isEmpty());
+    }
+  }
+
+  @Test
+  public void testFailedBatchInsertedOneByOne() {
+    List<String> inserted = new ArrayList<>();
+    MPPPublishHandler.insertOrFallback(
+        Arrays.asList("root.sg.d1", "root.forbidden.d2", "root.sg.d3"),
+        batch -> MPPPublishHandler.isInsertSucceeded(status(TSStatusCode.NO_PERMISSION)),
+        row -> {
+          // only the row of the forbidden device is dropped
+          if (!row.startsWith("root.forbidden")) {
+            inserted.add(row);
+          }
+        });
+
+    assertEquals(Arrays.asList("root.sg.d1", "root.sg.d3"), inserted);
+  }
+
+  @Test
+  public void testSingleRowInsertedDirectly() {
+    List<String> inserted = new ArrayList<>();
+    MPPPublishHandler.insertOrFallback(
+        Collections.singletonList("root.sg.d1"),
+        batch -> {
+          throw new AssertionError("a single row should not be batched");
+        },
+        inserted::add);
+
+    assertEquals(Collections.singletonList("root.sg.d1"), inserted);
+  }
+
+  private static TSStatus status(TSStatusCode code) {
+    return new TSStatus(code.getStatusCode());
+  }
+}
@@ -0,0 +1,218 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.iotdb.db.protocol.mqtt;
+
+import org.apache.iotdb.db.protocol.session.MqttClientSession;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class MqttMessageBatcherTest {
+
+  private final MqttClientSession session = new MqttClientSession("client");
+  // The sessions of the connected clients, as MPPPublishHandler keeps them
+  private final Map<String, MqttClientSession> connectedSessions = new ConcurrentHashMap<>();
+
+  @Before
+  public void setUp() {
+    connectedSessions.put("client", session);
+    connectedSessions.put("client1", session);
+    connectedSessions.put("client2", session);
+  }
+
+  @Test
+  public void testFlushWhenFull() {
+    List<List<Message>> batches = new CopyOnWriteArrayList<>();
+    MqttMessageBatcher batcher =
+        new MqttMessageBatcher(
+            3, TimeUnit.HOURS.toMillis(1), (s, b) -> batches.add(b), this::isConnected);
+    try {
+      batcher.add("client", session, Arrays.asList(message(1), null));
+      batcher.add("client", session, Collections.singletonList(message(2)));
+      assertEquals(0, batches.size());
+
+      batcher.add("client", session, Collections.singletonList(message(3)));
+      assertEquals(1, batches.size());
+      assertEquals(Arrays.asList(1L, 2L, 3L), timestamps(batches.get(0)));
+
+      // the buffered messages are inserted before the session of the client is closed
+      batcher.add("client", session, Collections.singletonList(message(4)));
+      batcher.flush("client");
+      assertEquals(2, batches.size());
+      assertEquals(Collections.singletonList(4L), timestamps(batches.get(1)));
+    } finally {
+      batcher.stop();
+    }
+  }
+
+  @Test
+  public void testFlushAfterMaxDelay() throws InterruptedException {
+    CountDownLatch inserted = new CountDownLatch(1);
+    List<List<Message>> batches = new CopyOnWriteArrayList<>();
+    MqttMessageBatcher batcher =
+        new MqttMessageBatcher(
+            100,
+            10,
+            (s, b) -> {
+              batches.add(b);
+              inserted.countDown();
+            },
+            this::isConnected);
+    try {
+      batcher.add("client", session, Arrays.asList(message(1), message(2)));
+      assertTrue(inserted.await(10, TimeUnit.SECONDS));
+      assertEquals(Arrays.asList(1L, 2L), timestamps(batches.get(0)));
+    } finally {
+      batcher.stop();
+    }
+  }
+
+  @Test
+  public void testFlushWhenStopped() {
+    List<List<Message>> batches = new CopyOnWriteArrayList<>();
+    MqttMessageBatcher batcher =
+        new MqttMessageBatcher(
+            100, TimeUnit.HOURS.toMillis(1), (s, b) -> batches.add(b), this::isConnected);
+    batcher.add("client1", session, Collections.singletonList(message(1)));
+    batcher.add("client2", session, Collections.singletonList(message(2)));
+    batcher.stop();
+    assertEquals(2, batches.size());
+  }
+
+  @Test
+  public void testAddAfterDisconnect() {
+    List<List<Message>> batches = new CopyOnWriteArrayList<>();
+    List<MqttClientSession> sessions = new CopyOnWriteArrayList<>();
+    MqttMessageBatcher batcher =
+        new MqttMessageBatcher(
+            100,
+            TimeUnit.HOURS.toMillis(1),
+            (s, b) -> {
+              sessions.add(s);
+              batches.add(b);
+            },
+            this::isConnected);
+    try {
+      batcher.add("client", session, Collections.singletonList(message(1)));
+
+      // The publishing thread has fetched the session, then the client disconnects
+      connectedSessions.remove("client");
+      batcher.flush("client");
+      assertEquals(1, batches.size());
+      batcher.add("client", session, Arrays.asList(message(2), null));
+
+      // The messages are inserted at once instead of being left in a new buffer
+      assertEquals(2, batches.size());
+      assertEquals(Collections.singletonList(2L), timestamps(batches.get(1)));
+
+      // The client reconnects with a new session, a message with the stale session is inserted
+      // directly instead of being buffered with the new session
+      MqttClientSession newSession = new MqttClientSession("client");
+      connectedSessions.put("client", newSession);
+      batcher.add("client", newSession, Collections.singletonList(message(3)));
+      batcher.add("client", session, Collections.singletonList(message(4)));
+      assertEquals(3, batches.size());
+      assertEquals(Collections.singletonList(4L), timestamps(batches.get(2)));
+      assertSame(session, sessions.get(2));
+    } finally {
+      batcher.stop();
+    }
+    // Only the buffer of the new session is left
+    assertEquals(4, batches.size());
+    assertEquals(Collections.singletonList(3L), timestamps(batches.get(3)));
+    assertSame(connectedSessions.get("client"), sessions.get(3));
+  }
+
+  @Test
+  public void testConcurrentAddAndDisconnect() throws InterruptedException {
+    int round = 1000;
+    AtomicInteger insertedCount = new AtomicInteger(0);
+    Set<MqttClientSession> closedSessions = ConcurrentHashMap.newKeySet();
+    AtomicInteger insertedAfterClosed = new AtomicInteger(0);
+    MqttMessageBatcher batcher =
+        new MqttMessageBatcher(
+            100,
+            1,
+            (s, b) -> {
+              insertedCount.addAndGet(b.size());
+              if (closedSessions.contains(s)) {
+                insertedAfterClosed.addAndGet(b.size());
+              }
+            },
+            this::isConnected);
+    try {
+      for (int i = 0; i < round; i++) {
+        MqttClientSession clientSession = new MqttClientSession("client");
+        connectedSessions.put("client", clientSession);
+        Thread publisher =
+            new Thread(
+                () -> batcher.add("client", clientSession, Collections.singletonList(message(1))));
+        publisher.start();
+        // Disconnect as MPPPublishHandler does, racing with the publisher
+        connectedSessions.remove("client");
+        batcher.flush("client");
+        publisher.join();
+        // Messages added after the flush are inserted by the publisher itself, nothing is left
+        // buffered for the closed session
+        closedSessions.add(clientSession);
+      }
+      assertEquals(round, insertedCount.get());
+      // Wait for a few scheduled flushes, which shouldn't insert with the closed sessions
+      Thread.sleep(50);
+      assertEquals(0, insertedAfterClosed.get());
+    } finally {
+      batcher.stop();
+    }
+    assertEquals(round, insertedCount.get());
+  }
+
+  private boolean isConnected(String clientId, MqttClientSession clientSession) {
+    return connectedSessions.get(clientId) == clientSession;
+  }
+
+  private Message message(long timestamp) {
+    TreeMessage message = new TreeMessage();
+    message.setDevice("root.sg.d1");
+    message.setTimestamp(timestamp);
+    return message;
+  }
+
+  private List<Long> timestamps(List<Message> batch) {
+    List<Long> timestamps = new ArrayList<>();
+    for (Message message : batch) {
+      timestamps.add(message.getTimestamp());
+    }
+    return timestamps;
+  }
+}
@@ -185,6 +185,87 @@ public class SourceHandleTest {
         .onFinished(sourceHandle);
   }
 
+  @Test
+  public void testReceivePushedTsBlocks() {
+    final String queryId = "q0";
+    final int numOfMockTsBlock = 3;
+    final TEndPoint remoteEndpoint =
+        new TEndPoint("remote", IoTDBDescriptor.getInstance().getConfig().getMppDataExchangePort());
+    final TFragmentInstanceId remoteFragmentInstanceId = new TFragmentInstanceId(queryId, 1, "0");
+    final String localPlanNodeId = "exchange_0";
+    final TFragmentInstanceId localFragmentInstanceId = new TFragmentInstanceId(queryId, 0, "0");
+
+    // Construct a mock LocalMemoryManager that do not block any reservation.
+    LocalMemoryManager mockLocalMemoryManager = Mockito.mock(LocalMemoryManager.class);
+    MemoryPool mockMemoryPool = Utils.createMockNonBlockedMemoryPool();
+    Mockito.when(mockLocalMemoryManager.getQueryPool()).thenReturn(mockMemoryPool);
+    IClientManager<TEndPoint, SyncDataNodeMPPDataExchangeServiceClient> mockClientManager =
+        Mockito.mock(IClientManager.class);
+    // Construct a mock client.
+    SyncDataNodeMPPDataExchangeServiceClient mockClient =
+        Mockito.mock(SyncDataNodeMPPDataExchangeServiceClient.class);
+    try {
+      Mockito.when(mockClientManager.borrowClient(remoteEndpoint)).thenReturn(mockClient);
+    } catch (ClientManagerException e) {
+      e.printStackTrace();
+      Assert.fail();
+    }
+    SourceHandleListener mockSourceHandleListener = Mockito.mock(SourceHandleListener.class);
+    TsBlockSerde mockTsBlockSerde = Utils.createMockTsBlockSerde(MOCK_TSBLOCK_SIZE);
+
+    SourceHandle sourceHandle =
+        new SourceHandle(
+            remoteEndpoint,
+            remoteFragmentInstanceId,
+            localFragmentInstanceId,
+            localPlanNodeId,
+            0,
+            mockLocalMemoryManager,
+            Executors.newSingleThreadExecutor(),
+            mockTsBlockSerde,
+            mockSourceHandleListener,
+            mockClientManager);
+    Assert.assertFalse(sourceHandle.isBlocked().isDone());
+
+    // New data blocks event arrived with the TsBlocks pushed along.
+    sourceHandle.updatePendingDataBlockInfo(
+        0,
+        Stream.generate(() -> MOCK_TSBLOCK_SIZE)
+            .limit(numOfMockTsBlock)
+            .collect(Collectors.toList()),
+        Stream.generate(() -> ByteBuffer.allocate(0))
+            .limit(numOfMockTsBlock)
+            .collect(Collectors.toList()));
+    Assert.assertTrue(sourceHandle.isBlocked().isDone());
+    Assert.assertEquals(
+        numOfMockTsBlock * MOCK_TSBLOCK_SIZE, sourceHandle.getBufferRetainedSizeInBytes());
+    try {
+      Mockito.verify(mockClient, Mockito.timeout(10_000).times(1))
+          .onAcknowledgeDataBlockEvent(
+              Mockito.argThat(
+                  e ->
+                      remoteFragmentInstanceId.equals(e.getSourceFragmentInstanceId())
+                          && 0 == e.getStartSequenceId()
+                          && numOfMockTsBlock == e.getEndSequenceId()));
+      // The pushed TsBlocks are not pulled again.
+      Mockito.verify(mockClient, Mockito.never())
+          .getDataBlock(Mockito.any(TGetDataBlockRequest.class));
+    } catch (TException e) {
+      e.printStackTrace();
+      Assert.fail();
+    }
+
+    // The local fragment instance consumes the data blocks.
+    for (int i = 0; i < numOfMockTsBlock; i++) {
+      Assert.assertNotNull(sourceHandle.receive());
+      Assert.assertEquals(
+          (numOfMockTsBlock - 1 - i) * MOCK_TSBLOCK_SIZE,
+          sourceHandle.getBufferRetainedSizeInBytes());
+    }
+    sourceHandle.setNoMoreTsBlocks(numOfMockTsBlock - 1);
+    Assert.assertTrue(sourceHandle.isFinished());
+  }
+
   @Test
   public void testBlockedOneTimeReceive() {
     final String queryId = "q0";
@@ -0,0 +1,88 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iotdb.db.queryengine.execution.exchange;
+
+import com.google.common.collect.ImmutableList;
+import org.apache.tsfile.enums.TSDataType;
+import org.apache.tsfile.file.metadata.enums.CompressionType;
+import org.apache.tsfile.read.common.block.TsBlock;
+import org.apache.tsfile.read.common.block.TsBlockBuilder;
+import org.apache.tsfile.read.common.block.column.TsBlockSerde;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+public class TsBlockCompressionTest {
+
+  private final TsBlockSerde serde = new TsBlockSerde();
+
+  private TsBlock buildTsBlock(int positionCount) {
+    TsBlockBuilder builder =
+        new TsBlockBuilder(ImmutableList.of(TSDataType.INT64, TSDataType.DOUBLE));
+    for (int i = 0; i < positionCount; i++) {
+      builder.getTimeColumnBuilder().writeLong(i);
+      builder.getColumnBuilder(0).writeLong(i % 10);
+      if (i % 3 == 0) {
+        builder.getColumnBuilder(1).appendNull();
+      } else {
+        builder.getColumnBuilder(1).writeDouble(1.5);
+      }
+      builder.declarePosition();
+    }
+    return builder.build();
+  }
+
+  @Test
+  public void testCompressAndUncompress() throws IOException {
+    TsBlock tsBlock = buildTsBlock(10000);
+    ByteBuffer serializedTsBlock = serde.serialize(tsBlock);
+    int uncompressedSize = serializedTsBlock.remaining();
+    for (CompressionType compressionType :
+        new CompressionType[] {CompressionType.LZ4, CompressionType.ZSTD, CompressionType.SNAPPY}) {
+      ByteBuffer compressedTsBlock =
+          TsBlockCompression.compress(serializedTsBlock, compressionType, 0);
+      Assert.assertNotNull(compressedTsBlock);
+      Assert.assertTrue(compressedTsBlock.remaining() < uncompressedSize);
+      // the source buffer is not consumed
+      Assert.assertEquals(uncompressedSize, serializedTsBlock.remaining());
+
+      TsBlock result =
+          serde.deserialize(TsBlockCompression.uncompress(compressedTsBlock, compressionType));
+      Assert.assertEquals(tsBlock.getPositionCount(), result.getPositionCount());
+      for (int i = 0; i < tsBlock.getPositionCount(); i++) {
+        Assert.assertEquals(tsBlock.getTimeByIndex(i), result.getTimeByIndex(i));
+        Assert.assertEquals(tsBlock.getColumn(0).getLong(i), result.getColumn(0).getLong(i));
+        Assert.assertEquals(tsBlock.getColumn(1).isNull(i), result.getColumn(1).isNull(i));
+      }
+    }
+  }
+
+  @Test
+  public void testSkipSmallTsBlock() throws IOException {
+    ByteBuffer serializedTsBlock = serde.serialize(buildTsBlock(10));
+    Assert.assertNull(
+        TsBlockCompression.compress(
+            serializedTsBlock, CompressionType.LZ4, serializedTsBlock.remaining() + 1));
+    Assert.assertNull(
+        TsBlockCompression.compress(serializedTsBlock, CompressionType.UNCOMPRESSED, 0));
+  }
+}
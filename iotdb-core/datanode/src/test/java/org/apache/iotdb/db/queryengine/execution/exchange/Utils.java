@@ -139,6 +139,14 @@ public class Utils {
                 Mockito.anyLong(),
                 Mockito.anyLong()))
         .thenReturn(true);
+    Mockito.when(
+            mockMemoryPool.tryReserveWithoutBlocking(
+                Mockito.anyString(),
+                Mockito.anyString(),
+                Mockito.anyString(),
+                Mockito.anyLong(),
+                Mockito.anyLong()))
+        .thenReturn(true);
     return mockMemoryPool;
   }
 
@@ -0,0 +1,187 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iotdb.db.queryengine.execution.fragment;
+
+import org.apache.iotdb.commons.concurrent.IoTDBThreadPoolFactory;
+import org.apache.iotdb.commons.exception.IllegalPathException;
+import org.apache.iotdb.commons.path.AlignedFullPath;
+import org.apache.iotdb.commons.path.IFullPath;
+import org.apache.iotdb.commons.path.MeasurementPath;
+import org.apache.iotdb.commons.path.NonAlignedFullPath;
+import org.apache.iotdb.commons.path.PartialPath;
+import org.apache.iotdb.db.conf.IoTDBDescriptor;
+import org.apache.iotdb.db.exception.query.QueryProcessException;
+import org.apache.iotdb.db.queryengine.common.FragmentInstanceId;
+import org.apache.iotdb.db.queryengine.common.PlanFragmentId;
+import org.apache.iotdb.db.queryengine.common.QueryId;
+import org.apache.iotdb.db.queryengine.plan.planner.plan.TimePredicate;
+import org.apache.iotdb.db.queryengine.plan.planner.plan.node.PlanNode;
+import org.apache.iotdb.db.queryengine.plan.planner.plan.node.PlanNodeId;
+import org.apache.iotdb.db.queryengine.plan.planner.plan.node.process.join.FullOuterTimeJoinNode;
+import org.apache.iotdb.db.queryengine.plan.planner.plan.node.source.LastQueryScanNode;
+import org.apache.iotdb.db.queryengine.plan.planner.plan.node.source.SeriesScanNode;
+import org.apache.iotdb.db.queryengine.plan.statement.component.Ordering;
+import org.apache.iotdb.db.storageengine.dataregion.IDataRegionForQuery;
+import org.apache.iotdb.db.storageengine.dataregion.read.QueryDataSource;
+import org.apache.iotdb.db.storageengine.dataregion.tsfile.TsFileID;
+import org.apache.iotdb.db.storageengine.dataregion.tsfile.TsFileResource;
+
+import org.apache.tsfile.enums.TSDataType;
+import org.apache.tsfile.file.metadata.IDeviceID;
+import org.apache.tsfile.write.schema.IMeasurementSchema;
+import org.apache.tsfile.write.schema.MeasurementSchema;
+import org.junit.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class FragmentInstanceManagerTest {
+
+  @Test
+  public void testIsFullScan() throws IllegalPathException {
+    MeasurementPath path = new MeasurementPath("root.sg.d1.s1", TSDataType.INT32);
+    PlanNode fullScan = new SeriesScanNode(new PlanNodeId("1"), path, Ordering.ASC);
+    assertTrue(FragmentInstanceManager.isFullScan(fullScan, null));
+
+    // bounded by time, limit or last
+    assertFalse(FragmentInstanceManager.isFullScan(fullScan, Mockito.mock(TimePredicate.class)));
+    PlanNode limitedScan = new SeriesScanNode(new PlanNodeId("2"), path, Ordering.ASC, 10, 0, null);
+    assertFalse(FragmentInstanceManager.isFullScan(limitedScan, null));
+    PlanNode lastScan =
+        new LastQueryScanNode(
+            new PlanNodeId("3"),
+            new PartialPath("root.sg.d1"),
+            false,
+            Collections.singletonList(0),
+            null,
+            null,
+            Collections.singletonList(new MeasurementSchema("s1", TSDataType.INT32)));
+    assertFalse(
+        FragmentInstanceManager.isFullScan(
+            new FullOuterTimeJoinNode(
+                new PlanNodeId("4"), Ordering.ASC, Arrays.asList(fullScan, lastScan)),
+            null));
+
+    assertTrue(
+        FragmentInstanceManager.isFullScan(
+            new FullOuterTimeJoinNode(
+                new PlanNodeId("5"), Ordering.ASC, Arrays.asList(limitedScan, fullScan)),
+            null));
+  }
+
+  @Test
+  public void testIsLargeScan() {
+    IDeviceID deviceID = IDeviceID.Factory.DEFAULT_FACTORY.create("root.sg.d1");
+    List<IFullPath> nonAligned =
+        Collections.singletonList(
+            new NonAlignedFullPath(deviceID, new MeasurementSchema("s1", TSDataType.INT32)));
+    List<IMeasurementSchema> schemas = new ArrayList<>();
+    List<String> measurements = new ArrayList<>();
+    for (int i = 0; i < 9; i++) {
+      measurements.add("s" + i);
+      schemas.add(new MeasurementSchema("s" + i, TSDataType.INT32));
+    }
+    List<IFullPath> aligned =
+        Collections.singletonList(new AlignedFullPath(deviceID, measurements, schemas));
+
+    // one series in 10 files: 20 reads
+    assertFalse(FragmentInstanceContext.isLargeScan(nonAligned, createDataSource(6, 4), 21));
+    assertTrue(FragmentInstanceContext.isLargeScan(nonAligned, createDataSource(6, 4), 20));
+    // 9 columns and the time column in 10 files: 200 reads
+    assertFalse(FragmentInstanceContext.isLargeScan(aligned, createDataSource(10, 0), 201));
+    assertTrue(FragmentInstanceContext.isLargeScan(aligned, createDataSource(10, 0), 200));
+    // disabled
+    assertFalse(FragmentInstanceContext.isLargeScan(aligned, createDataSource(10, 0), 0));
+  }
+
+  @Test
+  public void testSmallFullScanKeepsCaches() throws QueryProcessException {
+    IDeviceID deviceID = IDeviceID.Factory.DEFAULT_FACTORY.create("root.sg.d1");
+    List<IFullPath> paths =
+        Collections.singletonList(
+            new NonAlignedFullPath(deviceID, new MeasurementSchema("s1", TSDataType.INT32)));
+    ExecutorService instanceNotificationExecutor =
+        IoTDBThreadPoolFactory.newFixedThreadPool(1, "test-instance-notification");
+    try {
+      // one series in 4 files is far below the default threshold
+      assertFalse(initFullScan(paths, 4, 4096, instanceNotificationExecutor).isCacheBypassed());
+      assertTrue(initFullScan(paths, 4, 8, instanceNotificationExecutor).isCacheBypassed());
+    } finally {
+      instanceNotificationExecutor.shutdown();
+    }
+  }
+
+  private FragmentInstanceContext initFullScan(
+      List<IFullPath> paths, int fileNum, long threshold, ExecutorService executor)
+      throws QueryProcessException {
+    IDataRegionForQuery dataRegion = Mockito.mock(IDataRegionForQuery.class);
+    Mockito.when(dataRegion.tryReadLock(ArgumentMatchers.anyLong())).thenReturn(true);
+    Mockito.when(
+            dataRegion.query(
+                ArgumentMatchers.any(),
+                ArgumentMatchers.any(),
+                ArgumentMatchers.any(),
+                ArgumentMatchers.any(),
+                ArgumentMatchers.any(),
+                ArgumentMatchers.anyLong()))
+        .thenReturn(createDataSource(fileNum, 0));
+    FragmentInstanceId instanceId =
+        new FragmentInstanceId(new PlanFragmentId(new QueryId("test"), 0), "0");
+    FragmentInstanceContext context =
+        FragmentInstanceContext.createFragmentInstanceContext(
+            instanceId, new FragmentInstanceStateMachine(instanceId, executor));
+    context.setDataRegion(dataRegion);
+    context.setFullScan(true);
+
+    long originalThreshold =
+        IoTDBDescriptor.getInstance().getConfig().getCacheBypassScanThreshold();
+    IoTDBDescriptor.getInstance().getConfig().setCacheBypassScanThreshold(threshold);
+    try {
+      assertTrue(context.initQueryDataSource(paths));
+    } finally {
+      IoTDBDescriptor.getInstance().getConfig().setCacheBypassScanThreshold(originalThreshold);
+      context.releaseResource();
+    }
+    return context;
+  }
+
+  private QueryDataSource createDataSource(int seqNum, int unseqNum) {
+    return new QueryDataSource(createResources(seqNum), createResources(unseqNum));
+  }
+
+  private List<TsFileResource> createResources(int num) {
+    List<TsFileResource> resources = new ArrayList<>();
+    for (int i = 0; i < num; i++) {
+      TsFileResource resource = Mockito.mock(TsFileResource.class);
+      Mockito.when(resource.isClosed()).thenReturn(true);
+      Mockito.when(resource.getTsFileID()).thenReturn(new TsFileID());
+      resources.add(resource);
+    }
+    return resources;
+  }
+}
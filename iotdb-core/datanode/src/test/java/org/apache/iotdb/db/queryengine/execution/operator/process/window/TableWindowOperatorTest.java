@@ -23,6 +23,7 @@ import org.apache.iotdb.commons.concurrent.IoTDBThreadPoolFactory;
 import org.apache.iotdb.db.queryengine.common.FragmentInstanceId;
 import org.apache.iotdb.db.queryengine.common.PlanFragmentId;
 import org.apache.iotdb.db.queryengine.common.QueryId;
+import org.apache.iotdb.db.queryengine.exception.MemoryNotEnoughException;
 import org.apache.iotdb.db.queryengine.execution.driver.DriverContext;
 import org.apache.iotdb.db.queryengine.execution.fragment.FragmentInstanceContext;
 import org.apache.iotdb.db.queryengine.execution.fragment.FragmentInstanceStateMachine;
@@ -31,7 +32,9 @@ import org.apache.iotdb.db.queryengine.execution.operator.OperatorContext;
 import org.apache.iotdb.db.queryengine.execution.operator.process.TreeLinearFillOperator;
 import org.apache.iotdb.db.queryengine.execution.operator.process.window.function.WindowFunction;
 import org.apache.iotdb.db.queryengine.execution.operator.process.window.function.rank.RankFunction;
+import org.apache.iotdb.db.queryengine.execution.operator.process.window.function.rank.RowNumberFunction;
 import org.apache.iotdb.db.queryengine.execution.operator.process.window.partition.frame.FrameInfo;
+import org.apache.iotdb.db.queryengine.plan.planner.memory.MemoryReservationManager;
 import org.apache.iotdb.db.queryengine.plan.planner.plan.node.PlanNodeId;
 
 import com.google.common.util.concurrent.ListenableFuture;
@@ -41,8 +44,13 @@ import org.apache.tsfile.read.common.block.TsBlock;
 import org.apache.tsfile.read.common.block.TsBlockBuilder;
 import org.apache.tsfile.read.common.block.column.RunLengthEncodedColumn;
 import org.apache.tsfile.utils.Binary;
+import org.apache.tsfile.utils.Pair;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.Mockito;
 
+import java.io.File;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
@@ -51,10 +59,14 @@ import java.util.concurrent.ExecutorService;
 
 import static org.apache.iotdb.db.queryengine.execution.fragment.FragmentInstanceContext.createFragmentInstanceContext;
 import static org.apache.iotdb.db.queryengine.execution.operator.source.relational.TableScanOperator.TIME_COLUMN_TEMPLATE;
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 public class TableWindowOperatorTest {
+  @Rule public TemporaryFolder tempFolder = new TemporaryFolder();
+
   private static final ExecutorService instanceNotificationExecutor =
       IoTDBThreadPoolFactory.newFixedThreadPool(1, "windowOperator-test-instance-notification");
 
@@ -328,8 +340,224 @@ public class TableWindowOperatorTest {
     }
   }
 
+  @Test
+  public void testStreamingPartitionCrossMultiTsBlock() {
+    long[][] timeArray =
+        new long[][] {
+          {1, 2, 3},
+          {4},
+          {5, 6},
+          {7},
+        };
+    String[][] deviceIdArray =
+        new String[][] {
+          {"d1", "d1", "d2"},
+          {"d2"},
+          {"d2", "d2"},
+          {"d2"},
+        };
+    int[][] valueArray =
+        new int[][] {
+          {1, 2, 3},
+          {4},
+          {5, 6},
+          {7},
+        };
+
+    int count = 0;
+    try (TableWindowOperator windowOperator =
+        genWindowOperator(timeArray, deviceIdArray, valueArray, new RowNumberFunction(), 0)) {
+      ListenableFuture<?> listenableFuture = windowOperator.isBlocked();
+      listenableFuture.get();
+      while (!windowOperator.isFinished() && windowOperator.hasNext()) {
+        TsBlock tsBlock = windowOperator.next();
+        if (tsBlock != null && !tsBlock.isEmpty()) {
+          for (int i = 0, size = tsBlock.getPositionCount(); i < size; i++, count++) {
+            assertEquals(column1[count], tsBlock.getColumn(0).getLong(i));
+            assertEquals(
+                column2[count],
+                tsBlock.getColumn(1).getBinary(i).getStringValue(TSFileConfig.STRING_CHARSET));
+            assertEquals(column3[count], tsBlock.getColumn(2).getInt(i));
+            assertEquals(column4[count], tsBlock.getColumn(3).getLong(i));
+          }
+        }
+      }
+      assertEquals(column1.length, count);
+    } catch (Exception e) {
+      e.printStackTrace();
+      fail(e.getMessage());
+    }
+  }
+
+  @Test
+  public void testSpillWhenMemoryNotEnough() throws Exception {
+    // d1 crosses 5 TsBlocks, more than the TsBlocks cached by SpilledTsBlockList
+    long[][] timeArray = new long[][] {{1, 2}, {3, 4}, {5, 6}, {7, 8}, {9, 10, 11}, {12, 13}};
+    String[][] deviceIdArray =
+        new String[][] {
+          {"d1", "d1"}, {"d1", "d1"}, {"d1", "d1"}, {"d1", "d1"}, {"d1", "d2", "d2"}, {"d2", "d2"}
+        };
+    int[][] valueArray = new int[][] {{1, 2}, {3, 4}, {5, 6}, {7, 8}, {9, 10, 11}, {12, 13}};
+
+    List<String> expected;
+    try (TableWindowOperator windowOperator =
+        genWindowOperator(
+            timeArray,
+            deviceIdArray,
+            valueArray,
+            new RankFunction(),
+            TableWindowOperator.NOT_STREAMING,
+            new LimitedMemoryReservationManager(Long.MAX_VALUE),
+            null)) {
+      expected = collectOutput(windowOperator);
+    }
+    assertEquals(13, expected.size());
+    assertEquals("9,d1,9,9", expected.get(8));
+    assertEquals("13,d2,13,4", expected.get(12));
+
+    // Every reservation fails, so both multi-TsBlock partitions are spilled
+    LimitedMemoryReservationManager memoryReservationManager =
+        new LimitedMemoryReservationManager(0);
+    TableWindowOperator windowOperator =
+        genWindowOperator(
+            timeArray,
+            deviceIdArray,
+            valueArray,
+            new RankFunction(),
+            TableWindowOperator.NOT_STREAMING,
+            memoryReservationManager,
+            tempFolder.getRoot().getPath() + File.separator + "window");
+    try {
+      assertEquals(expected, collectOutput(windowOperator));
+      assertEquals(
+          "2", windowOperator.getOperatorContext().getSpecifiedInfo().get("spilledPartitionCount"));
+      assertTrue(
+          Long.parseLong(
+                  windowOperator.getOperatorContext().getSpecifiedInfo().get("spilledDataSize"))
+              > 0);
+      // The spilled files are deleted once the partitions are processed
+      assertArrayEquals(new String[0], tempFolder.getRoot().list());
+    } finally {
+      windowOperator.close();
+    }
+    assertEquals(0, memoryReservationManager.reservedBytes);
+  }
+
+  @Test
+  public void testMemoryNotEnoughWithoutSpill() throws Exception {
+    long[][] timeArray = new long[][] {{1, 2}, {3, 4}};
+    String[][] deviceIdArray = new String[][] {{"d1", "d1"}, {"d1", "d1"}};
+    int[][] valueArray = new int[][] {{1, 2}, {3, 4}};
+
+    try (TableWindowOperator windowOperator =
+        genWindowOperator(
+            timeArray,
+            deviceIdArray,
+            valueArray,
+            new RankFunction(),
+            TableWindowOperator.NOT_STREAMING,
+            new LimitedMemoryReservationManager(0),
+            null)) {
+      collectOutput(windowOperator);
+      fail("MemoryNotEnoughException is expected when spilling is disabled");
+    } catch (MemoryNotEnoughException e) {
+      // expected
+    }
+  }
+
+  @Test
+  public void testCloseDeletesSpilledFile() throws Exception {
+    long[][] timeArray = new long[][] {{1, 2}, {3, 4}, {5, 6}};
+    String[][] deviceIdArray = new String[][] {{"d1", "d1"}, {"d1", "d1"}, {"d1", "d1"}};
+    int[][] valueArray = new int[][] {{1, 2}, {3, 4}, {5, 6}};
+
+    LimitedMemoryReservationManager memoryReservationManager =
+        new LimitedMemoryReservationManager(0);
+    TableWindowOperator windowOperator =
+        genWindowOperator(
+            timeArray,
+            deviceIdArray,
+            valueArray,
+            new RankFunction(),
+            TableWindowOperator.NOT_STREAMING,
+            memoryReservationManager,
+            tempFolder.getRoot().getPath() + File.separator + "window");
+    // Consume two TsBlocks, the partition isn't finished yet
+    windowOperator.next();
+    windowOperator.next();
+    assertEquals(1, tempFolder.getRoot().list().length);
+
+    windowOperator.close();
+    assertArrayEquals(new String[0], tempFolder.getRoot().list());
+    assertEquals(0, memoryReservationManager.reservedBytes);
+  }
+
+  @Test
+  public void testStreamingReleaseEvictedMemory() throws Exception {
+    int tsBlockCount = 10;
+    long[][] timeArray = new long[tsBlockCount][];
+    String[][] deviceIdArray = new String[tsBlockCount][];
+    int[][] valueArray = new int[tsBlockCount][];
+    for (int i = 0; i < tsBlockCount; i++) {
+      timeArray[i] = new long[] {2 * i + 1, 2 * i + 2};
+      deviceIdArray[i] = new String[] {"d1", "d1"};
+      valueArray[i] = new int[] {2 * i + 1, 2 * i + 2};
+    }
+
+    LimitedMemoryReservationManager memoryReservationManager =
+        new LimitedMemoryReservationManager(Long.MAX_VALUE);
+    List<String> rows;
+    try (TableWindowOperator windowOperator =
+        genWindowOperator(
+            timeArray,
+            deviceIdArray,
+            valueArray,
+            new RowNumberFunction(),
+            0,
+            memoryReservationManager,
+            null)) {
+      rows = collectOutput(windowOperator);
+    }
+    assertEquals(2 * tsBlockCount, rows.size());
+    assertEquals("20,d1,20,20", rows.get(rows.size() - 1));
+    // Only the last TsBlock and the one being appended are held at any time
+    assertTrue(
+        memoryReservationManager.maxReservedBytes
+            <= 2 * memoryReservationManager.maxReservationSize);
+    assertEquals(0, memoryReservationManager.reservedBytes);
+  }
+
   private TableWindowOperator genWindowOperator(
       long[][] timeArray, String[][] deviceIdArray, int[][] valueArray) {
+    return genWindowOperator(
+        timeArray,
+        deviceIdArray,
+        valueArray,
+        new RankFunction(),
+        TableWindowOperator.NOT_STREAMING);
+  }
+
+  private TableWindowOperator genWindowOperator(
+      long[][] timeArray,
+      String[][] deviceIdArray,
+      int[][] valueArray,
+      WindowFunction windowFunction,
+      int streamingLookback) {
+    return genWindowOperator(
+        timeArray, deviceIdArray, valueArray, windowFunction, streamingLookback, null, null);
+  }
+
+  /**
+   * @param memoryReservationManager replaces the one of the FragmentInstanceContext if not null
+   */
+  private TableWindowOperator genWindowOperator(
+      long[][] timeArray,
+      String[][] deviceIdArray,
+      int[][] valueArray,
+      WindowFunction windowFunction,
+      int streamingLookback,
+      MemoryReservationManager memoryReservationManager,
+      String spillFilePrefix) {
     QueryId queryId = new QueryId("stub_query");
     FragmentInstanceId instanceId =
         new FragmentInstanceId(new PlanFragmentId(queryId, 0), "stub-instance");
@@ -337,6 +565,12 @@ public class TableWindowOperatorTest {
         new FragmentInstanceStateMachine(instanceId, instanceNotificationExecutor);
     FragmentInstanceContext fragmentInstanceContext =
         createFragmentInstanceContext(instanceId, stateMachine);
+    if (memoryReservationManager != null) {
+      fragmentInstanceContext = Mockito.spy(fragmentInstanceContext);
+      Mockito.doReturn(memoryReservationManager)
+          .when(fragmentInstanceContext)
+          .getMemoryReservationContext();
+    }
     DriverContext driverContext = new DriverContext(fragmentInstanceContext, 0);
     PlanNodeId planNode = new PlanNodeId("1");
     driverContext.addOperatorContext(1, planNode, TreeLinearFillOperator.class.getSimpleName());
@@ -349,7 +583,6 @@ public class TableWindowOperatorTest {
     for (int i = 0; i < inputDataTypes.size(); i++) {
       outputChannels.add(i);
     }
-    WindowFunction windowFunction = new RankFunction();
     FrameInfo frameInfo =
         new FrameInfo(
             FrameInfo.FrameType.ROWS,
@@ -366,6 +599,78 @@ public class TableWindowOperatorTest {
         Collections.singletonList(windowFunction),
         Collections.singletonList(frameInfo),
         Collections.singletonList(1),
-        Collections.singletonList(2));
+        Collections.singletonList(2),
+        streamingLookback,
+        spillFilePrefix);
+  }
+
+  private static List<String> collectOutput(TableWindowOperator windowOperator) throws Exception {
+    List<String> rows = new ArrayList<>();
+    windowOperator.isBlocked().get();
+    while (!windowOperator.isFinished() && windowOperator.hasNext()) {
+      TsBlock tsBlock = windowOperator.next();
+      if (tsBlock != null && !tsBlock.isEmpty()) {
+        for (int i = 0, size = tsBlock.getPositionCount(); i < size; i++) {
+          rows.add(
+              tsBlock.getColumn(0).getLong(i)
+                  + ","
+                  + tsBlock.getColumn(1).getBinary(i).getStringValue(TSFileConfig.STRING_CHARSET)
+                  + ","
+                  + tsBlock.getColumn(2).getInt(i)
+                  + ","
+                  + tsBlock.getColumn(3).getLong(i));
+        }
+      }
+    }
+    return rows;
+  }
+
+  /** Fails the reservation once more than limit bytes are reserved, like the query memory pool. */
+  private static class LimitedMemoryReservationManager implements MemoryReservationManager {
+    private final long limit;
+    private long reservedBytes;
+    private long maxReservedBytes;
+    private long maxReservationSize;
+
+    private LimitedMemoryReservationManager(long limit) {
+      this.limit = limit;
+    }
+
+    @Override
+    public void reserveMemoryCumulatively(long size) {
+      // The failed reservation stays pending, as the real managers do
+      reservedBytes += size;
+      maxReservedBytes = Math.max(maxReservedBytes, reservedBytes);
+      maxReservationSize = Math.max(maxReservationSize, size);
+      if (reservedBytes > limit) {
+        throw new MemoryNotEnoughException("There is not enough memory for the test");
+      }
+    }
+
+    @Override
+    public void reserveMemoryImmediately() {
+      // do nothing
+    }
+
+    @Override
+    public void releaseMemoryCumulatively(long size) {
+      reservedBytes -= size;
+    }
+
+    @Override
+    public void releaseAllReservedMemory() {
+      reservedBytes = 0;
+    }
+
+    @Override
+    public Pair<Long, Long> releaseMemoryVirtually(long size) {
+      reservedBytes -= size;
+      return new Pair<>(0L, size);
+    }
+
+    @Override
+    public void reserveMemoryVirtually(long bytesToBeReserved, long bytesAlreadyReserved) {
+      reservedBytes += bytesToBeReserved + bytesAlreadyReserved;
+    }
   }
 }
@@ -0,0 +1,178 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iotdb.db.queryengine.execution.operator.process.window.partition;
+
+import org.apache.tsfile.enums.TSDataType;
+import org.apache.tsfile.read.common.block.TsBlock;
+import org.apache.tsfile.read.common.block.TsBlockBuilder;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class SpilledTsBlockListTest {
+  private static final int TSBLOCK_COUNT = 6;
+  private static final int POSITION_COUNT = 3;
+
+  @Rule public TemporaryFolder tempFolder = new TemporaryFolder();
+
+  private File file;
+  private SpilledTsBlockList spilledTsBlocks;
+
+  @Before
+  public void setUp() {
+    file = new File(tempFolder.getRoot(), "window-0.windowTemp");
+    spilledTsBlocks = new SpilledTsBlockList(file.getPath());
+    // More TsBlocks than the cached ones, so the first TsBlocks are read from file
+    for (int i = 0; i < TSBLOCK_COUNT; i++) {
+      spilledTsBlocks.add(buildTsBlock(i * POSITION_COUNT, POSITION_COUNT));
+    }
+  }
+
+  @After
+  public void tearDown() {
+    spilledTsBlocks.close();
+  }
+
+  @Test
+  public void testWriteAndRead() {
+    assertTrue(file.exists());
+    assertTrue(spilledTsBlocks.getSpilledBytes() > 0);
+    assertEquals(TSBLOCK_COUNT, spilledTsBlocks.size());
+    for (int i = 0; i < TSBLOCK_COUNT; i++) {
+      assertEquals(POSITION_COUNT, spilledTsBlocks.getPositionCount(i));
+      assertValues(spilledTsBlocks.get(i), i * POSITION_COUNT, POSITION_COUNT);
+    }
+    // Read again in reverse order, evicting the cached TsBlocks
+    for (int i = TSBLOCK_COUNT - 1; i >= 0; i--) {
+      assertValues(spilledTsBlocks.get(i), i * POSITION_COUNT, POSITION_COUNT);
+    }
+  }
+
+  @Test
+  public void testRegion() {
+    // rows [4, 11) : row 1 and 2 of TsBlock 1, TsBlock 2, row 0 and 1 of TsBlock 3
+    SpilledTsBlockList.Region region = spilledTsBlocks.region(1, 1, 3, 2);
+    assertEquals(3, region.size());
+    assertEquals(2, region.getPositionCount(0));
+    assertEquals(3, region.getPositionCount(1));
+    assertEquals(2, region.getPositionCount(2));
+    assertValues(region.get(0), 4, 2);
+    assertValues(region.get(1), 6, 3);
+    assertValues(region.get(2), 9, 2);
+
+    // Indexes relative to the region, the first TsBlock of it starts from row 4
+    SpilledTsBlockList.Region subRegion = region.region(0, 1, 2, 1);
+    assertEquals(3, subRegion.size());
+    assertValues(subRegion.get(0), 5, 1);
+    assertValues(subRegion.get(1), 6, 3);
+    assertValues(subRegion.get(2), 9, 1);
+
+    // Both ends in the first TsBlock of the region
+    SpilledTsBlockList.Region singleBlockRegion = region.region(0, 0, 0, 1);
+    assertEquals(1, singleBlockRegion.size());
+    assertEquals(1, singleBlockRegion.getPositionCount(0));
+    assertValues(singleBlockRegion.get(0), 4, 1);
+
+    // Both ends in one TsBlock
+    singleBlockRegion = spilledTsBlocks.region(2, 1, 2, 3);
+    assertEquals(1, singleBlockRegion.size());
+    assertValues(singleBlockRegion.get(0), 7, 2);
+  }
+
+  @Test
+  public void testSpilledPartition() {
+    Partition partition = new Partition(spilledTsBlocks, 1, 2);
+    assertEquals((TSBLOCK_COUNT - 2) * POSITION_COUNT + 2 + 2, partition.getPositionCount());
+    for (int i = 0; i < partition.getPositionCount(); i++) {
+      assertEquals(i + 1, partition.getInt(0, i));
+    }
+
+    Partition.PartitionIndex partitionIndex = partition.getPartitionIndex(2);
+    assertEquals(1, partitionIndex.getTsBlockIndex());
+    assertEquals(0, partitionIndex.getOffsetInTsBlock());
+
+    // The spilled file is deleted once the partition is processed
+    partition.close();
+    assertFalse(file.exists());
+  }
+
+  @Test
+  public void testClose() {
+    spilledTsBlocks.close();
+    assertFalse(file.exists());
+    // Closing twice is harmless
+    spilledTsBlocks.close();
+  }
+
+  @Test
+  public void testEvictStreamingPartition() {
+    Partition partition = new Partition();
+    for (int i = 0; i < 3; i++) {
+      partition.addTsBlock(buildTsBlock(i * POSITION_COUNT, POSITION_COUNT));
+    }
+
+    // Only the first TsBlock has no row at or after row 4
+    assertEquals(1, partition.evictTsBlocksBefore(4).size());
+    assertEquals(3 * POSITION_COUNT, partition.getPositionCount());
+    Partition.PartitionIndex partitionIndex = partition.getPartitionIndex(4);
+    assertEquals(0, partitionIndex.getTsBlockIndex());
+    assertEquals(1, partitionIndex.getOffsetInTsBlock());
+    assertEquals(4, partition.getInt(0, 4));
+    try {
+      partition.getPartitionIndex(2);
+      fail("Row 2 has been evicted");
+    } catch (IndexOutOfBoundsException e) {
+      // expected
+    }
+
+    // The last TsBlock is always kept
+    assertEquals(1, partition.evictTsBlocksBefore(100).size());
+    assertEquals(3 * POSITION_COUNT, partition.getPositionCount());
+    assertEquals(8, partition.getInt(0, 8));
+  }
+
+  private static TsBlock buildTsBlock(int startValue, int positionCount) {
+    TsBlockBuilder builder =
+        new TsBlockBuilder(positionCount, Collections.singletonList(TSDataType.INT32));
+    for (int i = 0; i < positionCount; i++) {
+      builder.getTimeColumnBuilder().writeLong(startValue + i);
+      builder.getColumnBuilder(0).writeInt(startValue + i);
+      builder.declarePosition();
+    }
+    return builder.build();
+  }
+
+  private static void assertValues(TsBlock tsBlock, int startValue, int positionCount) {
+    assertEquals(positionCount, tsBlock.getPositionCount());
+    for (int i = 0; i < positionCount; i++) {
+      assertEquals(startValue + i, tsBlock.getColumn(0).getInt(i));
+    }
+  }
+}
@@ -0,0 +1,220 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iotdb.db.queryengine.execution.operator.source.relational.aggregation;
+
+import org.apache.iotdb.db.queryengine.execution.operator.source.relational.aggregation.grouped.GroupedUserDefinedAggregateAccumulator;
+import org.apache.iotdb.udf.api.State;
+import org.apache.iotdb.udf.api.customizer.analysis.AggregateFunctionAnalysis;
+import org.apache.iotdb.udf.api.customizer.parameter.FunctionArguments;
+import org.apache.iotdb.udf.api.relational.AggregateFunction;
+import org.apache.iotdb.udf.api.relational.access.Record;
+import org.apache.iotdb.udf.api.utils.ResultValue;
+
+import org.apache.tsfile.block.column.Column;
+import org.apache.tsfile.enums.TSDataType;
+import org.apache.tsfile.read.common.block.column.BinaryColumnBuilder;
+import org.apache.tsfile.read.common.block.column.LongColumn;
+import org.apache.tsfile.read.common.block.column.LongColumnBuilder;
+import org.apache.tsfile.read.common.type.TypeFactory;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Collections;
+import java.util.Optional;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class UserDefinedAggregateAccumulatorTest {
+
+  private static final long[] VALUES = {1, 2, 4, 8, 16, 32};
+
+  @Test
+  public void testToSelection() {
+    boolean[] selection = new boolean[VALUES.length];
+    assertSame(selection, AggregationMask.createSelectAll(VALUES.length).toSelection(selection));
+    assertArrayEquals(new boolean[] {true, true, true, true, true, true}, selection);
+
+    // the array is reused and the positions selected before are cleared
+    assertSame(
+        selection,
+        AggregationMask.createSelectedPositions(VALUES.length, new int[] {1, 4}, 2)
+            .toSelection(selection));
+    assertArrayEquals(new boolean[] {false, true, false, false, true, false}, selection);
+
+    // the array always has exactly the position count of the mask
+    boolean[] shorter =
+        AggregationMask.createSelectedPositions(3, new int[] {0, 2}, 2).toSelection(selection);
+    assertArrayEquals(new boolean[] {true, false, true}, shorter);
+    boolean[] longer = AggregationMask.createSelectNone(8).toSelection(selection);
+    assertArrayEquals(new boolean[8], longer);
+    assertArrayEquals(new boolean[] {true}, AggregationMask.createSelectAll(1).toSelection(null));
+  }
+
+  @Test
+  public void testAddInputWithPartialMask() {
+    for (boolean vectorized : new boolean[] {false, true}) {
+      SumFunction function = new SumFunction();
+      UserDefinedAggregateFunctionAccumulator accumulator =
+          new UserDefinedAggregateFunctionAccumulator(
+              analysis(vectorized),
+              function,
+              Collections.singletonList(TypeFactory.getType(TSDataType.INT64)));
+
+      accumulator.addInput(
+          new Column[] {longColumn(VALUES)},
+          AggregationMask.createSelectedPositions(VALUES.length, new int[] {0, 2, 5}, 3));
+      // a smaller block after a larger one
+      accumulator.addInput(
+          new Column[] {longColumn(new long[] {64, 128})},
+          AggregationMask.createSelectedPositions(2, new int[] {1}, 1));
+      accumulator.addInput(
+          new Column[] {longColumn(new long[] {256})}, AggregationMask.createSelectAll(1));
+
+      LongColumnBuilder builder = new LongColumnBuilder(null, 1);
+      accumulator.evaluateFinal(builder);
+      assertEquals(1 + 4 + 32 + 128 + 256, builder.build().getLong(0));
+      assertEquals(vectorized, function.vectorizedInputCount == 3);
+    }
+  }
+
+  @Test
+  public void testGroupedAddInputWithPartialMask() {
+    for (boolean vectorized : new boolean[] {false, true}) {
+      SumFunction function = new SumFunction();
+      GroupedUserDefinedAggregateAccumulator accumulator =
+          new GroupedUserDefinedAggregateAccumulator(
+              analysis(vectorized),
+              function,
+              Collections.singletonList(TypeFactory.getType(TSDataType.INT64)));
+      accumulator.setGroupCount(4);
+
+      // group 3 only appears at unselected positions
+      int[] groupIds = {0, 1, 0, 3, 2, 1};
+      accumulator.addInput(
+          groupIds,
+          new Column[] {longColumn(VALUES)},
+          AggregationMask.createSelectedPositions(VALUES.length, new int[] {0, 1, 2, 4}, 4));
+      accumulator.addInput(
+          new int[] {2, 3},
+          new Column[] {longColumn(new long[] {64, 128})},
+          AggregationMask.createSelectedPositions(2, new int[] {0}, 1));
+
+      LongColumnBuilder builder = new LongColumnBuilder(null, 3);
+      for (int groupId = 0; groupId < 3; groupId++) {
+        accumulator.evaluateFinal(groupId, builder);
+      }
+      Column result = builder.build();
+      assertEquals(1 + 4, result.getLong(0));
+      assertEquals(2, result.getLong(1));
+      assertEquals(16 + 64, result.getLong(2));
+      assertEquals(vectorized, function.vectorizedInputCount == 2);
+      // the unselected positions are given null states
+      assertEquals(0, function.unselectedStateCount);
+
+      // no state is created for the group never selected
+      try {
+        accumulator.evaluateIntermediate(3, new BinaryColumnBuilder(null, 1));
+        fail();
+      } catch (IllegalStateException e) {
+        assertTrue(e.getMessage().contains("group 3"));
+      }
+    }
+  }
+
+  private static AggregateFunctionAnalysis analysis(boolean vectorized) {
+    return new AggregateFunctionAnalysis.Builder()
+        .outputDataType(org.apache.iotdb.udf.api.type.Type.INT64)
+        .vectorized(vectorized)
+        .build();
+  }
+
+  private static Column longColumn(long[] values) {
+    return new LongColumn(values.length, Optional.empty(), values);
+  }
+
+  private static class SumState implements State {
+
+    private long sum;
+
+    @Override
+    public void reset() {
+      sum = 0;
+    }
+
+    @Override
+    public byte[] serialize() {
+      return ByteBuffer.allocate(Long.BYTES).putLong(sum).array();
+    }
+
+    @Override
+    public void deserialize(byte[] bytes) {
+      sum = ByteBuffer.wrap(bytes).getLong();
+    }
+  }
+
+  private static class SumFunction implements AggregateFunction {
+
+    private int vectorizedInputCount = 0;
+    private int unselectedStateCount = 0;
+
+    @Override
+    public AggregateFunctionAnalysis analyze(FunctionArguments arguments) {
+      return analysis(false);
+    }
+
+    @Override
+    public State createState() {
+      return new SumState();
+    }
+
+    @Override
+    public void addInput(State state, Record input) {
+      ((SumState) state).sum += input.getLong(0);
+    }
+
+    @Override
+    public void addInput(State[] states, Column[] columns, boolean[] selection) {
+      vectorizedInputCount++;
+      assertEquals(columns[0].getPositionCount(), states.length);
+      assertEquals(columns[0].getPositionCount(), selection.length);
+      for (int i = 0; i < selection.length; i++) {
+        if (selection[i]) {
+          ((SumState) states[i]).sum += columns[0].getLong(i);
+        } else if (states[i] != null) {
+          unselectedStateCount++;
+        }
+      }
+    }
+
+    @Override
+    public void combineState(State state, State rhs) {
+      ((SumState) state).sum += ((SumState) rhs).sum;
+    }
+
+    @Override
+    public void outputFinal(State state, ResultValue resultValue) {
+      resultValue.setLong(((SumState) state).sum);
+    }
+  }
+}
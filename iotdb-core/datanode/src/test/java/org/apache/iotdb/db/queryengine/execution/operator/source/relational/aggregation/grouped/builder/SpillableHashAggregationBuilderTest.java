@@ -0,0 +1,146 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.queryengine.execution.operator.source.relational.aggregation.grouped.builder;
+
+import org.apache.iotdb.commons.utils.FileUtils;
+import org.apache.iotdb.db.queryengine.execution.driver.DriverContext;
+import org.apache.iotdb.db.queryengine.execution.operator.OperatorContext;
+import org.apache.iotdb.db.queryengine.execution.operator.source.relational.aggregation.grouped.GroupedAggregator;
+import org.apache.iotdb.db.queryengine.execution.operator.source.relational.aggregation.grouped.GroupedCountAccumulator;
+import org.apache.iotdb.db.queryengine.execution.operator.source.relational.aggregation.grouped.GroupedSumAccumulator;
+import org.apache.iotdb.db.queryengine.plan.planner.plan.node.PlanNodeId;
+import org.apache.iotdb.db.queryengine.plan.relational.planner.node.AggregationNode;
+
+import org.apache.tsfile.enums.TSDataType;
+import org.apache.tsfile.read.common.block.TsBlock;
+import org.apache.tsfile.read.common.block.column.LongColumn;
+import org.apache.tsfile.read.common.block.column.RunLengthEncodedColumn;
+import org.apache.tsfile.read.common.type.LongType;
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.OptionalInt;
+
+import static org.apache.iotdb.db.queryengine.execution.operator.source.relational.TableScanOperator.TIME_COLUMN_TEMPLATE;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class SpillableHashAggregationBuilderTest {
+
+  private static final String SPILL_FOLDER = "target" + File.separator + "hashAggSpill";
+
+  private static final int GROUP_COUNT = 1000;
+
+  @After
+  public void tearDown() {
+    FileUtils.deleteFileOrDirectory(new File(SPILL_FOLDER));
+  }
+
+  @Test
+  public void testSpillAndMerge() {
+    OperatorContext operatorContext =
+        new OperatorContext(1, new PlanNodeId("1"), "test-type", new DriverContext());
+    // sum(s1), count(s1) group by key
+    List<GroupedAggregator> aggregators =
+        Arrays.asList(
+            new GroupedAggregator(
+                new GroupedSumAccumulator(TSDataType.INT64),
+                AggregationNode.Step.SINGLE,
+                TSDataType.DOUBLE,
+                Collections.singletonList(1),
+                OptionalInt.empty()),
+            new GroupedAggregator(
+                new GroupedCountAccumulator(),
+                AggregationNode.Step.SINGLE,
+                TSDataType.INT64,
+                Collections.singletonList(1),
+                OptionalInt.empty()));
+    List<GroupedAggregator> mergingAggregators =
+        Arrays.asList(
+            new GroupedAggregator(
+                new GroupedSumAccumulator(TSDataType.INT64),
+                AggregationNode.Step.FINAL,
+                TSDataType.DOUBLE,
+                Collections.singletonList(1),
+                OptionalInt.empty()),
+            new GroupedAggregator(
+                new GroupedCountAccumulator(),
+                AggregationNode.Step.FINAL,
+                TSDataType.INT64,
+                Collections.singletonList(2),
+                OptionalInt.empty()));
+
+    try (SpillableHashAggregationBuilder builder =
+        new SpillableHashAggregationBuilder(
+            aggregators,
+            mergingAggregators,
+            Arrays.asList(TSDataType.DOUBLE, TSDataType.INT64),
+            AggregationNode.Step.SINGLE,
+            16,
+            Collections.singletonList(LongType.getInstance()),
+            Collections.singletonList(0),
+            operatorContext,
+            Long.MAX_VALUE,
+            new HashAggregationSpiller(SPILL_FOLDER, SPILL_FOLDER + File.separator + "1", 4))) {
+      builder.processBlock(buildInput());
+      assertTrue(builder.spill());
+      assertFalse(builder.spill());
+      builder.processBlock(buildInput());
+      assertTrue(builder.hasSpilled());
+
+      long[] sums = new long[GROUP_COUNT];
+      long[] counts = new long[GROUP_COUNT];
+      int resultCount = 0;
+      while (!builder.finished()) {
+        TsBlock result = builder.buildResult();
+        for (int i = 0; i < result.getPositionCount(); i++) {
+          int key = (int) result.getColumn(0).getLong(i);
+          sums[key] += (long) result.getColumn(1).getDouble(i);
+          counts[key] += result.getColumn(2).getLong(i);
+          resultCount++;
+        }
+      }
+      assertEquals(GROUP_COUNT, resultCount);
+      for (int key = 0; key < GROUP_COUNT; key++) {
+        assertEquals(2L * key * 3, sums[key]);
+        assertEquals(6, counts[key]);
+      }
+    }
+  }
+
+  /** Each key appears three times with the value of the key. */
+  private static TsBlock buildInput() {
+    int positionCount = GROUP_COUNT * 3;
+    long[] keys = new long[positionCount];
+    for (int i = 0; i < positionCount; i++) {
+      keys[i] = i % GROUP_COUNT;
+    }
+    return new TsBlock(
+        positionCount,
+        new RunLengthEncodedColumn(TIME_COLUMN_TEMPLATE, positionCount),
+        new LongColumn(positionCount, Optional.empty(), keys),
+        new LongColumn(positionCount, Optional.empty(), keys));
+  }
+}
@@ -239,6 +239,12 @@ public class DefaultDriverSchedulerTest {
     }
     DriverTask testTask =
         new DriverTask(mockDriver, 100L, DriverTaskStatus.RUNNING, driverTaskHandle, 0, false);
+    FragmentInstanceStateMachine stateMachine =
+        new FragmentInstanceStateMachine(instanceId, instanceNotificationExecutor);
+    FragmentInstanceContext fragmentInstanceContext =
+        createFragmentInstanceContext(instanceId, stateMachine);
+    DriverContext driverContext = new DriverContext(fragmentInstanceContext, 0);
+    Mockito.when(testTask.getDriver().getDriverContext()).thenReturn(driverContext);
     Set<DriverTask> taskSet = new HashSet<>();
     taskSet.add(testTask);
     Map<FragmentInstanceId, Set<DriverTask>> fragmentRelatedTask = new ConcurrentHashMap<>();
@@ -248,7 +254,9 @@ public class DefaultDriverSchedulerTest {
     ExecutionContext context = new ExecutionContext();
     context.setTimeSlice(new Duration(1, TimeUnit.SECONDS));
     context.setCpuDuration(new CpuTimer.CpuDuration());
+    context.setScheduledTimeInNanos(100L);
     defaultScheduler.runningToReady(testTask, context);
+    Assert.assertEquals(100L, fragmentInstanceContext.getScheduledTime());
     // Assert.assertEquals(0.0D, testTask.getSchedulePriority(), 0.00001);
     Assert.assertEquals(DriverTaskStatus.READY, testTask.getStatus());
     Assert.assertFalse(manager.getBlockedTasks().contains(testTask));
@@ -301,6 +309,12 @@ public class DefaultDriverSchedulerTest {
     }
     DriverTask testTask =
         new DriverTask(mockDriver, 100L, DriverTaskStatus.RUNNING, driverTaskHandle, 0, false);
+    FragmentInstanceStateMachine stateMachine =
+        new FragmentInstanceStateMachine(instanceId, instanceNotificationExecutor);
+    FragmentInstanceContext fragmentInstanceContext =
+        createFragmentInstanceContext(instanceId, stateMachine);
+    DriverContext driverContext = new DriverContext(fragmentInstanceContext, 0);
+    Mockito.when(testTask.getDriver().getDriverContext()).thenReturn(driverContext);
     Set<DriverTask> taskSet = new HashSet<>();
     taskSet.add(testTask);
     Map<FragmentInstanceId, Set<DriverTask>> fragmentRelatedTask = new ConcurrentHashMap<>();
@@ -363,6 +377,12 @@ public class DefaultDriverSchedulerTest {
     }
     DriverTask testTask =
         new DriverTask(mockDriver, 100L, DriverTaskStatus.RUNNING, driverTaskHandle, 0, false);
+    FragmentInstanceStateMachine stateMachine =
+        new FragmentInstanceStateMachine(instanceId, instanceNotificationExecutor);
+    FragmentInstanceContext fragmentInstanceContext =
+        createFragmentInstanceContext(instanceId, stateMachine);
+    DriverContext driverContext = new DriverContext(fragmentInstanceContext, 0);
+    Mockito.when(testTask.getDriver().getDriverContext()).thenReturn(driverContext);
     Set<DriverTask> taskSet = new HashSet<>();
     taskSet.add(testTask);
     Map<FragmentInstanceId, Set<DriverTask>> fragmentRelatedTask = new ConcurrentHashMap<>();
@@ -0,0 +1,162 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iotdb.db.queryengine.execution.schedule.queue;
+
+import org.apache.iotdb.db.queryengine.common.FragmentInstanceId;
+import org.apache.iotdb.db.queryengine.common.PlanFragmentId;
+import org.apache.iotdb.db.queryengine.common.QueryId;
+import org.apache.iotdb.db.queryengine.execution.driver.IDriver;
+import org.apache.iotdb.db.queryengine.execution.schedule.DriverScheduler;
+import org.apache.iotdb.db.queryengine.execution.schedule.queue.multilevelqueue.DriverTaskHandle;
+import org.apache.iotdb.db.queryengine.execution.schedule.queue.multilevelqueue.MultilevelPriorityQueue;
+import org.apache.iotdb.db.queryengine.execution.schedule.queue.multilevelqueue.WorkStealingMultilevelPriorityQueue;
+import org.apache.iotdb.db.queryengine.execution.schedule.task.DriverTask;
+import org.apache.iotdb.db.queryengine.execution.schedule.task.DriverTaskId;
+import org.apache.iotdb.db.queryengine.execution.schedule.task.DriverTaskStatus;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.util.HashSet;
+import java.util.OptionalInt;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+public class WorkStealingMultilevelPriorityQueueTest {
+
+  @Test
+  public void testPushAndPoll() throws InterruptedException {
+    WorkStealingMultilevelPriorityQueue queue =
+        new WorkStealingMultilevelPriorityQueue(2, 1000, new DriverTask(), 4);
+    DriverTask e1 = mockDriverTask(mockDriverTaskId("inst-0"), false);
+    DriverTask e2 = mockDriverTask(mockDriverTaskId("inst-1"), false);
+    DriverTask e3 = mockDriverTask(mockDriverTaskId("inst-2"), true);
+    queue.push(e1);
+    queue.push(e2);
+    queue.push(e3);
+    Assert.assertEquals(3, queue.size());
+
+    // Tasks pushed by non-worker threads are spread over the shards, this thread steals the ones
+    // out of its own shard
+    Set<String> polled = new HashSet<>();
+    for (int i = 0; i < 3; i++) {
+      polled.add(queue.poll().getDriverTaskId().toString());
+      Assert.assertEquals(2 - i, queue.size());
+    }
+    Assert.assertTrue(polled.contains(e1.getDriverTaskId().toString()));
+    Assert.assertTrue(polled.contains(e2.getDriverTaskId().toString()));
+    Assert.assertTrue(polled.contains(e3.getDriverTaskId().toString()));
+
+    // The polled tasks hold the reserved capacity until they are pushed back or finished
+    queue.repush(e1);
+    Assert.assertEquals(1, queue.size());
+    Assert.assertEquals(e1.getDriverTaskId().toString(), queue.poll().getDriverTaskId().toString());
+  }
+
+  @Test
+  public void testPushExceedCapacity() throws InterruptedException {
+    WorkStealingMultilevelPriorityQueue queue =
+        new WorkStealingMultilevelPriorityQueue(2, 1, new DriverTask(), 2);
+    DriverTask e1 = mockDriverTask(mockDriverTaskId("inst-0"), false);
+    queue.push(e1);
+    DriverTask e2 = mockDriverTask(mockDriverTaskId("inst-1"), false);
+    Assert.assertThrows(IllegalStateException.class, () -> queue.push(e2));
+    queue.poll();
+    // The capacity is still reserved for the polled task
+    Assert.assertThrows(IllegalStateException.class, () -> queue.push(e2));
+    queue.decreaseReservedSize();
+    queue.push(e2);
+    Assert.assertEquals(1, queue.size());
+  }
+
+  @Test
+  public void testRemoveAndClear() {
+    WorkStealingMultilevelPriorityQueue queue =
+        new WorkStealingMultilevelPriorityQueue(2, 1000, new DriverTask(), 4);
+    DriverTask e1 = mockDriverTask(mockDriverTaskId("inst-0"), false);
+    DriverTask e2 = mockDriverTask(mockDriverTaskId("inst-1"), false);
+    queue.push(e1);
+    queue.push(e2);
+    // The queued task itself is returned, not the shared query holder
+    Assert.assertSame(e2, queue.remove(e2.getDriverTaskId()));
+    Assert.assertNull(queue.remove(e2.getDriverTaskId()));
+    Assert.assertEquals(1, queue.size());
+    queue.clear();
+    Assert.assertEquals(0, queue.size());
+  }
+
+  @Test
+  public void testWorkersStealTasks() throws InterruptedException {
+    int workerNum = 4;
+    int taskNum = 100;
+    WorkStealingMultilevelPriorityQueue queue =
+        new WorkStealingMultilevelPriorityQueue(2, 1000, new DriverTask(), workerNum);
+    Set<String> polled = ConcurrentHashMap.newKeySet();
+    CountDownLatch allPolled = new CountDownLatch(taskNum);
+    Thread[] workers = new Thread[workerNum];
+    for (int i = 0; i < workerNum; i++) {
+      workers[i] =
+          new Thread(
+              () -> {
+                try {
+                  while (true) {
+                    polled.add(queue.poll().getDriverTaskId().toString());
+                    allPolled.countDown();
+                  }
+                } catch (InterruptedException e) {
+                  Thread.currentThread().interrupt();
+                }
+              });
+      workers[i].start();
+    }
+    // Only one worker is woken up for each task, the idle ones must steal from the other shards
+    for (int i = 0; i < taskNum; i++) {
+      queue.push(mockDriverTask(mockDriverTaskId("inst-" + i), false));
+    }
+    Assert.assertTrue(allPolled.await(10, TimeUnit.SECONDS));
+    Assert.assertEquals(taskNum, polled.size());
+    Assert.assertEquals(0, queue.size());
+    for (Thread worker : workers) {
+      worker.interrupt();
+      worker.join(10_000);
+    }
+  }
+
+  private DriverTask mockDriverTask(DriverTaskId driverTaskID, boolean isHighestPriority) {
+    DriverScheduler manager = DriverScheduler.getInstance();
+    IDriver mockDriver = Mockito.mock(IDriver.class);
+    DriverTaskHandle driverTaskHandle =
+        new DriverTaskHandle(
+            1,
+            (MultilevelPriorityQueue) manager.getReadyQueue(),
+            OptionalInt.of(Integer.MAX_VALUE));
+    Mockito.when(mockDriver.getDriverTaskId()).thenReturn(driverTaskID);
+    return new DriverTask(
+        mockDriver, 100L, DriverTaskStatus.READY, driverTaskHandle, 0, isHighestPriority);
+  }
+
+  private DriverTaskId mockDriverTaskId(String instanceId) {
+    QueryId queryId = new QueryId("test");
+    return new DriverTaskId(new FragmentInstanceId(new PlanFragmentId(queryId, 0), instanceId), 0);
+  }
+}
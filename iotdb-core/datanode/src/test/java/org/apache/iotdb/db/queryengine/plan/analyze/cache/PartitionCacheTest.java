@@ -450,6 +450,82 @@ public class PartitionCacheTest {
     }
   }
 
+  @Test
+  public void testInvalidDatabaseCache() {
+    String invalidDatabase = getDatabaseName(0);
+    String keptDatabase = getDatabaseName(1);
+    partitionCache.invalidCache(invalidDatabase);
+
+    // only the invalidated database is missed
+    assertEquals(
+        0,
+        partitionCache
+            .getDatabaseToDevice(
+                Collections.singletonList(
+                    Factory.DEFAULT_FACTORY.create(getDeviceName(invalidDatabase, 0))),
+                false,
+                false,
+                AuthorityChecker.SUPER_USER)
+            .size());
+    assertEquals(
+        1,
+        partitionCache
+            .getDatabaseToDevice(
+                Collections.singletonList(
+                    Factory.DEFAULT_FACTORY.create(getDeviceName(keptDatabase, 0))),
+                false,
+                false,
+                AuthorityChecker.SUPER_USER)
+            .size());
+    for (int deviceNumber = 0; deviceNumber < DEVICE_PER_STORAGE_GROUP; deviceNumber++) {
+      IDeviceID invalidDevice =
+          Factory.DEFAULT_FACTORY.create(getDeviceName(invalidDatabase, deviceNumber));
+      IDeviceID keptDevice =
+          Factory.DEFAULT_FACTORY.create(getDeviceName(keptDatabase, deviceNumber));
+      assertNull(
+          partitionCache.getSchemaPartition(
+              Collections.singletonMap(invalidDatabase, Collections.singletonList(invalidDevice))));
+      assertNotNull(
+          partitionCache.getSchemaPartition(
+              Collections.singletonMap(keptDatabase, Collections.singletonList(keptDevice))));
+      assertNull(
+          partitionCache.getDataPartition(
+              getStorageGroupToQueryParamsMap(invalidDatabase, invalidDevice, false)));
+      assertNotNull(
+          partitionCache.getDataPartition(
+              getStorageGroupToQueryParamsMap(keptDatabase, keptDevice, false)));
+    }
+  }
+
+  @Test
+  public void testDropUpdateFetchedBeforeInvalidation() {
+    String database = getDatabaseName(0);
+    IDeviceID deviceID = Factory.DEFAULT_FACTORY.create(getDeviceName(database, 0));
+    Map<String, List<DataPartitionQueryParam>> searchMap =
+        getStorageGroupToQueryParamsMap(database, deviceID, false);
+    Map<String, List<IDeviceID>> schemaSearchMap =
+        Collections.singletonMap(database, Collections.singletonList(deviceID));
+
+    // the partitions are fetched before the database is invalidated
+    long fetchEpoch = partitionCache.getEpoch();
+    partitionCache.invalidCache(database);
+    partitionCache.updateSchemaPartitionCache(
+        fetchEpoch, Collections.singletonMap(database, schemaPartitionTable.get(database)));
+    partitionCache.updateDataPartitionCache(
+        fetchEpoch, Collections.singletonMap(database, dataPartitionTable.get(database)));
+    assertNull(partitionCache.getSchemaPartition(schemaSearchMap));
+    assertNull(partitionCache.getDataPartition(searchMap));
+
+    // the partitions fetched after the invalidation are cached
+    fetchEpoch = partitionCache.getEpoch();
+    partitionCache.updateSchemaPartitionCache(
+        fetchEpoch, Collections.singletonMap(database, schemaPartitionTable.get(database)));
+    partitionCache.updateDataPartitionCache(
+        fetchEpoch, Collections.singletonMap(database, dataPartitionTable.get(database)));
+    assertNotNull(partitionCache.getSchemaPartition(schemaSearchMap));
+    assertNotNull(partitionCache.getDataPartition(searchMap));
+  }
+
   /**
    * get StorageGroupToQueryParamsMap
    *
@@ -0,0 +1,270 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.queryengine.plan.relational.analyzer;
+
+import org.apache.iotdb.db.queryengine.common.QueryId;
+import org.apache.iotdb.db.queryengine.execution.driver.DriverContext;
+import org.apache.iotdb.db.queryengine.execution.fragment.FragmentInstanceContext;
+import org.apache.iotdb.db.queryengine.execution.operator.Operator;
+import org.apache.iotdb.db.queryengine.execution.operator.OperatorContext;
+import org.apache.iotdb.db.queryengine.execution.operator.source.relational.AbstractHashJoinOperator;
+import org.apache.iotdb.db.queryengine.execution.operator.source.relational.HashInnerJoinOperator;
+import org.apache.iotdb.db.queryengine.execution.operator.source.relational.HashLeftJoinOperator;
+import org.apache.iotdb.db.queryengine.plan.planner.memory.ThreadSafeMemoryReservationManager;
+
+import io.airlift.units.Duration;
+import org.apache.tsfile.enums.TSDataType;
+import org.apache.tsfile.read.common.block.TsBlock;
+import org.apache.tsfile.read.common.block.TsBlockBuilder;
+import org.apache.tsfile.read.common.block.column.RunLengthEncodedColumn;
+import org.apache.tsfile.utils.Binary;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.apache.iotdb.db.queryengine.execution.operator.source.relational.AbstractTableScanOperator.TIME_COLUMN_TEMPLATE;
+import static org.junit.Assert.assertEquals;
+
+public class HashJoinOperatorTest {
+  private final Binary d1 = new Binary("d1".getBytes());
+  private final Binary d2 = new Binary("d2".getBytes());
+
+  private static final List<TSDataType> INPUT_TYPES =
+      Arrays.asList(TSDataType.TEXT, TSDataType.INT64, TSDataType.INT32);
+
+  @Test
+  public void testInnerJoinOnPrimitiveKey() throws Exception {
+    // left: (device, key, value), right: (device, key, value), join on key
+    // result: left.value, right.value
+    List<String> result =
+        execute(
+            true,
+            new int[] {1},
+            new TSDataType[] {TSDataType.INT64},
+            Arrays.asList(
+                buildBlock(new Binary[] {d1, d1, d2}, new Long[] {1L, 2L, null}, 10, 20, 30),
+                buildBlock(new Binary[] {d2, d2}, new Long[] {3L, 4L}, 40, 50)),
+            Arrays.asList(
+                buildBlock(new Binary[] {d1, d2}, new Long[] {2L, 4L}, 200, 400),
+                buildBlock(new Binary[] {d1, d1}, new Long[] {2L, null}, 201, 0)));
+    assertEquals(Arrays.asList("20,201", "20,200", "50,400"), result);
+  }
+
+  @Test
+  public void testLeftJoinOnMultiKeys() throws Exception {
+    // join on device and key
+    List<String> result =
+        execute(
+            false,
+            new int[] {0, 1},
+            new TSDataType[] {TSDataType.TEXT, TSDataType.INT64},
+            Arrays.asList(
+                buildBlock(new Binary[] {d1, d2, d2}, new Long[] {1L, 1L, null}, 10, 20, 30),
+                buildBlock(new Binary[] {d1}, new Long[] {2L}, 40)),
+            Collections.singletonList(
+                buildBlock(new Binary[] {d2, d1, d2}, new Long[] {1L, 2L, 2L}, 100, 200, 300)));
+    assertEquals(Arrays.asList("10,null", "20,100", "30,null", "40,200"), result);
+  }
+
+  @Test
+  public void testEmptyBuildSide() throws Exception {
+    List<TsBlock> probe =
+        Collections.singletonList(buildBlock(new Binary[] {d1}, new Long[] {1L}, 10));
+    assertEquals(
+        Collections.emptyList(),
+        execute(
+            true,
+            new int[] {1},
+            new TSDataType[] {TSDataType.INT64},
+            probe,
+            Collections.emptyList()));
+    assertEquals(
+        Collections.singletonList("10,null"),
+        execute(
+            false,
+            new int[] {1},
+            new TSDataType[] {TSDataType.INT64},
+            probe,
+            Collections.emptyList()));
+  }
+
+  @Test
+  public void testInnerJoinOnDoubleKey() throws Exception {
+    // SQL equality: 0.0 matches -0.0, NaN matches nothing
+    List<String> result =
+        execute(
+            true,
+            new int[] {1},
+            new TSDataType[] {TSDataType.DOUBLE},
+            Collections.singletonList(
+                buildDoubleBlock(new double[] {0.0, Double.NaN, 1.5}, 10, 20, 30)),
+            Collections.singletonList(
+                buildDoubleBlock(new double[] {Double.NaN, -0.0, 1.5}, 100, 200, 300)));
+    assertEquals(Arrays.asList("10,200", "30,300"), result);
+  }
+
+  private List<String> execute(
+      boolean inner,
+      int[] joinKeyPositions,
+      TSDataType[] joinKeyTypes,
+      List<TsBlock> leftBlocks,
+      List<TsBlock> rightBlocks)
+      throws Exception {
+    FragmentInstanceContext fragmentInstanceContext = Mockito.mock(FragmentInstanceContext.class);
+    Mockito.when(fragmentInstanceContext.getMemoryReservationContext())
+        .thenReturn(new ThreadSafeMemoryReservationManager(new QueryId("1"), "test"));
+    DriverContext driverContext = Mockito.mock(DriverContext.class);
+    Mockito.when(driverContext.getFragmentInstanceContext()).thenReturn(fragmentInstanceContext);
+    OperatorContext operatorContext = Mockito.mock(OperatorContext.class);
+    Mockito.when(operatorContext.getMaxRunTime()).thenReturn(new Duration(1, TimeUnit.SECONDS));
+    Mockito.when(operatorContext.getDriverContext()).thenReturn(driverContext);
+
+    Operator leftChild = new TsBlockListOperator(operatorContext, leftBlocks);
+    Operator rightChild = new TsBlockListOperator(operatorContext, rightBlocks);
+    List<TSDataType> outputTypes = Arrays.asList(TSDataType.INT32, TSDataType.INT32);
+    AbstractHashJoinOperator operator =
+        inner
+            ? new HashInnerJoinOperator(
+                operatorContext,
+                leftChild,
+                joinKeyPositions,
+                new int[] {2},
+                rightChild,
+                joinKeyPositions,
+                new int[] {2},
+                joinKeyTypes,
+                outputTypes)
+            : new HashLeftJoinOperator(
+                operatorContext,
+                leftChild,
+                joinKeyPositions,
+                new int[] {2},
+                rightChild,
+                joinKeyPositions,
+                new int[] {2},
+                joinKeyTypes,
+                outputTypes);
+
+    List<String> result = new ArrayList<>();
+    try {
+      while (operator.hasNext()) {
+        TsBlock block = operator.next();
+        if (block == null) {
+          continue;
+        }
+        for (int i = 0; i < block.getPositionCount(); i++) {
+          result.add(
+              block.getColumn(0).getInt(i)
+                  + ","
+                  + (block.getColumn(1).isNull(i) ? "null" : block.getColumn(1).getInt(i)));
+        }
+      }
+    } finally {
+      operator.close();
+    }
+    return result;
+  }
+
+  private static TsBlock buildBlock(Binary[] devices, Long[] keys, int... values) {
+    TsBlockBuilder builder = new TsBlockBuilder(devices.length, INPUT_TYPES);
+    for (int i = 0; i < devices.length; i++) {
+      builder.getColumnBuilder(0).writeBinary(devices[i]);
+      if (keys[i] == null) {
+        builder.getColumnBuilder(1).appendNull();
+      } else {
+        builder.getColumnBuilder(1).writeLong(keys[i]);
+      }
+      builder.getColumnBuilder(2).writeInt(values[i]);
+    }
+    builder.declarePositions(devices.length);
+    return builder.build(new RunLengthEncodedColumn(TIME_COLUMN_TEMPLATE, devices.length));
+  }
+
+  private static TsBlock buildDoubleBlock(double[] keys, int... values) {
+    TsBlockBuilder builder =
+        new TsBlockBuilder(
+            keys.length, Arrays.asList(TSDataType.TEXT, TSDataType.DOUBLE, TSDataType.INT32));
+    for (int i = 0; i < keys.length; i++) {
+      builder.getColumnBuilder(0).writeBinary(new Binary("d1".getBytes()));
+      builder.getColumnBuilder(1).writeDouble(keys[i]);
+      builder.getColumnBuilder(2).writeInt(values[i]);
+    }
+    builder.declarePositions(keys.length);
+    return builder.build(new RunLengthEncodedColumn(TIME_COLUMN_TEMPLATE, keys.length));
+  }
+
+  private static class TsBlockListOperator implements Operator {
+    private final OperatorContext operatorContext;
+    private final List<TsBlock> blocks;
+    private int index = 0;
+
+    private TsBlockListOperator(OperatorContext operatorContext, List<TsBlock> blocks) {
+      this.operatorContext = operatorContext;
+      this.blocks = blocks;
+    }
+
+    @Override
+    public OperatorContext getOperatorContext() {
+      return operatorContext;
+    }
+
+    @Override
+    public TsBlock next() {
+      return blocks.get(index++);
+    }
+
+    @Override
+    public boolean hasNext() {
+      return index < blocks.size();
+    }
+
+    @Override
+    public void close() {}
+
+    @Override
+    public boolean isFinished() {
+      return index >= blocks.size();
+    }
+
+    @Override
+    public long calculateMaxPeekMemory() {
+      return 64 * 1024;
+    }
+
+    @Override
+    public long calculateMaxReturnSize() {
+      return 64 * 1024;
+    }
+
+    @Override
+    public long calculateRetainedSizeAfterCallingNext() {
+      return 0;
+    }
+
+    @Override
+    public long ramBytesUsed() {
+      return 0;
+    }
+  }
+}
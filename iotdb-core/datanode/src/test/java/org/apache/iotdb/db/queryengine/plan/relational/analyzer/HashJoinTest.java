@@ -0,0 +1,169 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iotdb.db.queryengine.plan.relational.analyzer;
+
+import org.apache.iotdb.db.conf.IoTDBDescriptor;
+import org.apache.iotdb.db.queryengine.plan.planner.plan.LogicalQueryPlan;
+import org.apache.iotdb.db.queryengine.plan.planner.plan.node.PlanNode;
+import org.apache.iotdb.db.queryengine.plan.relational.planner.PlanTester;
+import org.apache.iotdb.db.queryengine.plan.relational.planner.assertions.PlanMatchPattern;
+import org.apache.iotdb.db.queryengine.plan.relational.planner.node.JoinNode;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+import static org.apache.iotdb.db.queryengine.plan.relational.planner.assertions.PlanAssert.assertPlan;
+import static org.apache.iotdb.db.queryengine.plan.relational.planner.assertions.PlanMatchPattern.join;
+import static org.apache.iotdb.db.queryengine.plan.relational.planner.assertions.PlanMatchPattern.output;
+import static org.apache.iotdb.db.queryengine.plan.relational.planner.assertions.PlanMatchPattern.sort;
+import static org.apache.iotdb.db.queryengine.plan.relational.planner.assertions.PlanMatchPattern.tableScan;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class HashJoinTest {
+  private boolean enableHashJoin;
+
+  private final PlanMatchPattern tableScan1 =
+      tableScan("testdb.table1", ImmutableList.of("time", "tag1"), ImmutableSet.of("time", "tag1"));
+  private final PlanMatchPattern tableScan2 =
+      tableScan("testdb.table1", ImmutableMap.of("time_0", "time", "tag1_1", "tag1"));
+
+  @Before
+  public void setUp() {
+    enableHashJoin = IoTDBDescriptor.getInstance().getConfig().isEnableHashJoin();
+    IoTDBDescriptor.getInstance().getConfig().setEnableHashJoin(true);
+  }
+
+  @After
+  public void tearDown() {
+    IoTDBDescriptor.getInstance().getConfig().setEnableHashJoin(enableHashJoin);
+  }
+
+  @Test
+  public void innerJoinTest() {
+    PlanTester planTester = new PlanTester();
+    LogicalQueryPlan logicalQueryPlan =
+        planTester.createPlan(
+            "SELECT t1.time FROM table1 t1 JOIN table1 t2 ON t1.tag1=t2.tag1 AND t1.time=t2.time");
+    // Verify full LogicalPlan, the SortNodes appended for merge sort join are removed
+    /*
+     *       └──OutputNode
+     *                └──JoinNode  (hash join)
+     *                   |──TableScanNode
+     *                   ├──TableScanNode
+     */
+    assertPlan(
+        logicalQueryPlan,
+        output(
+            join(
+                JoinNode.JoinType.INNER,
+                builder -> builder.left(tableScan1).right(tableScan2).ignoreEquiCriteria())));
+    assertTrue(findJoinNode(logicalQueryPlan).isHashJoin());
+  }
+
+  @Test
+  public void leftJoinTest() {
+    PlanTester planTester = new PlanTester();
+    LogicalQueryPlan logicalQueryPlan =
+        planTester.createPlan(
+            "SELECT t1.time FROM table1 t1 LEFT JOIN table1 t2 ON t1.tag1=t2.tag1 AND t1.time=t2.time");
+    // LEFT join is never flipped, the right child is the build side
+    assertPlan(
+        logicalQueryPlan,
+        output(
+            join(
+                JoinNode.JoinType.LEFT,
+                builder -> builder.left(tableScan1).right(tableScan2).ignoreEquiCriteria())));
+    assertTrue(findJoinNode(logicalQueryPlan).isHashJoin());
+  }
+
+  @Test
+  public void fullJoinTest() {
+    PlanTester planTester = new PlanTester();
+    LogicalQueryPlan logicalQueryPlan =
+        planTester.createPlan(
+            "SELECT t1.time FROM table1 t1 FULL JOIN table1 t2 ON t1.tag1=t2.tag1 AND t1.time=t2.time");
+    // FULL join is left to merge sort join
+    assertPlan(
+        logicalQueryPlan,
+        output(
+            join(
+                JoinNode.JoinType.FULL,
+                builder ->
+                    builder.left(sort(tableScan1)).right(sort(tableScan2)).ignoreEquiCriteria())));
+    assertFalse(findJoinNode(logicalQueryPlan).isHashJoin());
+  }
+
+  @Test
+  public void asofJoinTest() {
+    PlanTester planTester = new PlanTester();
+    LogicalQueryPlan logicalQueryPlan =
+        planTester.createPlan(
+            "SELECT table1.time FROM table1 ASOF JOIN table2 ON table1.tag1=table2.tag1 AND table1.time>table2.time");
+    // ASOF join is left to merge sort join
+    assertFalse(findJoinNode(logicalQueryPlan).isHashJoin());
+  }
+
+  @Test
+  public void crossJoinTest() {
+    PlanTester planTester = new PlanTester();
+    // no equi-join clause, the join is a cross join with a filter above it
+    LogicalQueryPlan logicalQueryPlan =
+        planTester.createPlan("SELECT t1.s1 FROM table1 t1 JOIN table1 t2 ON t1.s1>t2.s1");
+    assertFalse(findJoinNode(logicalQueryPlan).isHashJoin());
+  }
+
+  @Test
+  public void hashJoinDisabledTest() {
+    IoTDBDescriptor.getInstance().getConfig().setEnableHashJoin(false);
+    PlanTester planTester = new PlanTester();
+    LogicalQueryPlan logicalQueryPlan =
+        planTester.createPlan(
+            "SELECT t1.time FROM table1 t1 JOIN table1 t2 ON t1.tag1=t2.tag1 AND t1.time=t2.time");
+    assertPlan(
+        logicalQueryPlan,
+        output(
+            join(
+                JoinNode.JoinType.INNER,
+                builder ->
+                    builder.left(sort(tableScan1)).right(sort(tableScan2)).ignoreEquiCriteria())));
+    assertFalse(findJoinNode(logicalQueryPlan).isHashJoin());
+  }
+
+  private static JoinNode findJoinNode(LogicalQueryPlan logicalQueryPlan) {
+    Deque<PlanNode> stack = new ArrayDeque<>();
+    stack.push(logicalQueryPlan.getRootNode());
+    while (!stack.isEmpty()) {
+      PlanNode node = stack.pop();
+      if (node instanceof JoinNode) {
+        return (JoinNode) node;
+      }
+      node.getChildren().forEach(stack::push);
+    }
+    throw new AssertionError("No JoinNode in the plan");
+  }
+}
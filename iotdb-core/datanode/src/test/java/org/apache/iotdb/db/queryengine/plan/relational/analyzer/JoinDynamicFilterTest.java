@@ -0,0 +1,117 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iotdb.db.queryengine.plan.relational.analyzer;
+
+import org.apache.iotdb.db.queryengine.execution.operator.source.relational.JoinDynamicFilter;
+
+import org.apache.tsfile.enums.TSDataType;
+import org.apache.tsfile.read.common.block.TsBlock;
+import org.apache.tsfile.read.common.block.TsBlockBuilder;
+import org.apache.tsfile.read.common.block.column.RunLengthEncodedColumn;
+import org.apache.tsfile.read.filter.basic.Filter;
+import org.apache.tsfile.utils.Binary;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.apache.iotdb.db.queryengine.execution.operator.source.relational.AbstractTableScanOperator.TIME_COLUMN_TEMPLATE;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class JoinDynamicFilterTest {
+
+  @Test
+  public void testTimeAndTagDomain() {
+    // build side: (tag, time), join on both
+    JoinDynamicFilter filter = new JoinDynamicFilter(1, new int[] {0}, new int[] {0});
+    assertFalse(filter.isReady());
+    filter.collect(
+        Arrays.asList(
+            buildBlock(new String[] {"d1", "d2"}, new Long[] {100L, 200L}),
+            buildBlock(new String[] {"d1", null}, new Long[] {300L, 1000L})),
+        new int[] {0, 1});
+    assertTrue(filter.isReady());
+
+    // the row with null tag is not in the domain
+    Filter timeFilter = filter.getTimeFilter();
+    assertTrue(timeFilter.satisfyStartEndTime(50, 100));
+    assertTrue(timeFilter.satisfyStartEndTime(300, 400));
+    assertFalse(timeFilter.satisfyStartEndTime(301, 1000));
+    assertFalse(timeFilter.satisfyStartEndTime(0, 99));
+
+    assertTrue(filter.mayMatchDevice(i -> "d1"));
+    assertTrue(filter.mayMatchDevice(i -> "d2"));
+    assertFalse(filter.mayMatchDevice(i -> "d3"));
+    assertFalse(filter.mayMatchDevice(i -> null));
+  }
+
+  @Test
+  public void testManyTagValues() {
+    int count = 10_000;
+    String[] tags = new String[count];
+    Long[] times = new Long[count];
+    for (int i = 0; i < count; i++) {
+      tags[i] = "d" + i;
+      times[i] = (long) i;
+    }
+    JoinDynamicFilter filter = new JoinDynamicFilter(-1, new int[] {2}, new int[] {0});
+    filter.collect(Collections.singletonList(buildBlock(tags, times)), new int[] {0, 1});
+
+    assertNull(filter.getTimeFilter());
+    for (String tag : tags) {
+      // the bloom filter never rejects a value of the build side
+      assertTrue(filter.mayMatchDevice(i -> i == 2 ? tag : null));
+    }
+    int falsePositives = 0;
+    for (int i = count; i < 2 * count; i++) {
+      String tag = "d" + i;
+      if (filter.mayMatchDevice(idColumnIndex -> tag)) {
+        falsePositives++;
+      }
+    }
+    assertTrue(falsePositives < count / 10);
+  }
+
+  @Test
+  public void testEmptyBuildSide() {
+    JoinDynamicFilter filter = new JoinDynamicFilter(1, new int[] {0}, new int[] {0});
+    filter.collect(Collections.emptyList(), new int[] {0, 1});
+    assertTrue(filter.isReady());
+    assertNull(filter.getTimeFilter());
+    assertFalse(filter.mayMatchDevice(i -> "d1"));
+  }
+
+  private TsBlock buildBlock(String[] tags, Long[] times) {
+    TsBlockBuilder builder =
+        new TsBlockBuilder(Arrays.asList(TSDataType.STRING, TSDataType.TIMESTAMP));
+    for (int i = 0; i < tags.length; i++) {
+      if (tags[i] == null) {
+        builder.getColumnBuilder(0).appendNull();
+      } else {
+        builder.getColumnBuilder(0).writeBinary(new Binary(tags[i].getBytes()));
+      }
+      builder.getColumnBuilder(1).writeLong(times[i]);
+      builder.declarePosition();
+    }
+    return builder.build(new RunLengthEncodedColumn(TIME_COLUMN_TEMPLATE, tags.length));
+  }
+}
@@ -19,8 +19,12 @@
 
 package org.apache.iotdb.db.queryengine.plan.relational.planner;
 
+import org.apache.iotdb.db.queryengine.execution.operator.process.window.TableWindowOperator;
+import org.apache.iotdb.db.queryengine.plan.planner.TableOperatorGenerator;
 import org.apache.iotdb.db.queryengine.plan.planner.plan.LogicalQueryPlan;
+import org.apache.iotdb.db.queryengine.plan.planner.plan.node.PlanNode;
 import org.apache.iotdb.db.queryengine.plan.relational.planner.assertions.PlanMatchPattern;
+import org.apache.iotdb.db.queryengine.plan.relational.planner.node.WindowNode;
 
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
@@ -36,6 +40,7 @@ import static org.apache.iotdb.db.queryengine.plan.relational.planner.assertions
 import static org.apache.iotdb.db.queryengine.plan.relational.planner.assertions.PlanMatchPattern.sort;
 import static org.apache.iotdb.db.queryengine.plan.relational.planner.assertions.PlanMatchPattern.tableScan;
 import static org.apache.iotdb.db.queryengine.plan.relational.planner.assertions.PlanMatchPattern.window;
+import static org.junit.Assert.assertEquals;
 
 public class WindowFunctionTest {
   @Test
@@ -255,4 +260,54 @@ public class WindowFunctionTest {
     assertPlan(planTester.getFragmentPlan(4), tableScan);
     assertPlan(planTester.getFragmentPlan(5), tableScan);
   }
+
+  @Test
+  public void testWindowStreamingLookback() {
+    String over = " OVER(PARTITION BY tag1 ORDER BY time";
+    assertWindowStreamingLookback(0, "row_number()" + over + ")");
+    assertWindowStreamingLookback(1, "lag(s1)" + over + ")");
+    assertWindowStreamingLookback(3, "lag(s1, 3)" + over + ")");
+    assertWindowStreamingLookback(
+        TableWindowOperator.NOT_STREAMING, "lag(s1, 3) IGNORE NULLS" + over + ")");
+    assertWindowStreamingLookback(TableWindowOperator.NOT_STREAMING, "lead(s1)" + over + ")");
+    assertWindowStreamingLookback(TableWindowOperator.NOT_STREAMING, "rank()" + over + ")");
+
+    // ROWS frames, an aggregation also looks back at the row leaving the frame
+    assertWindowStreamingLookback(
+        3, "sum(s1)" + over + " ROWS BETWEEN 2 PRECEDING AND CURRENT ROW)");
+    assertWindowStreamingLookback(
+        1, "sum(s1)" + over + " ROWS BETWEEN CURRENT ROW AND CURRENT ROW)");
+    assertWindowStreamingLookback(
+        2, "sum(s1)" + over + " ROWS BETWEEN UNBOUNDED PRECEDING AND 1 PRECEDING)");
+    assertWindowStreamingLookback(
+        3, "first_value(s1)" + over + " ROWS BETWEEN 2 PRECEDING AND 1 PRECEDING)");
+    assertWindowStreamingLookback(
+        TableWindowOperator.NOT_STREAMING,
+        "first_value(s1)" + over + " ROWS BETWEEN UNBOUNDED PRECEDING AND CURRENT ROW)");
+    assertWindowStreamingLookback(
+        TableWindowOperator.NOT_STREAMING,
+        "sum(s1)" + over + " ROWS BETWEEN 1 PRECEDING AND 1 FOLLOWING)");
+
+    // RANGE frame is the default frame with ORDER BY
+    assertWindowStreamingLookback(TableWindowOperator.NOT_STREAMING, "sum(s1)" + over + ")");
+
+    // The max lookback among the window functions
+    assertWindowStreamingLookback(
+        3, "row_number()" + over + "), lag(s1, 3)" + over + "), lag(s1)" + over + ")");
+    assertWindowStreamingLookback(
+        TableWindowOperator.NOT_STREAMING, "lag(s1)" + over + "), lead(s1)" + over + ")");
+  }
+
+  private static void assertWindowStreamingLookback(int expected, String windowFunctions) {
+    LogicalQueryPlan logicalQueryPlan =
+        new PlanTester().createPlan("SELECT " + windowFunctions + " FROM table1");
+    PlanNode node = logicalQueryPlan.getRootNode();
+    while (!(node instanceof WindowNode)) {
+      node = node.getChildren().get(0);
+    }
+    assertEquals(
+        windowFunctions,
+        expected,
+        TableOperatorGenerator.getWindowStreamingLookback((WindowNode) node));
+  }
 }
@@ -0,0 +1,143 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iotdb.db.queryengine.transformation.dag.column.udf;
+
+import org.apache.iotdb.db.queryengine.transformation.dag.column.ColumnTransformer;
+import org.apache.iotdb.udf.api.customizer.analysis.ScalarFunctionAnalysis;
+import org.apache.iotdb.udf.api.customizer.parameter.FunctionArguments;
+import org.apache.iotdb.udf.api.relational.ScalarFunction;
+import org.apache.iotdb.udf.api.relational.access.Record;
+
+import org.apache.tsfile.block.column.Column;
+import org.apache.tsfile.block.column.ColumnBuilder;
+import org.apache.tsfile.read.common.block.column.DoubleColumn;
+import org.apache.tsfile.read.common.type.DoubleType;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.util.Collections;
+import java.util.Optional;
+
+public class UserDefineScalarFunctionTransformerTest {
+
+  private static final double[] VALUES = {1.0, 2.0, 3.0, 4.0};
+
+  /** Doubles the input, both row by row and column by column. */
+  private static class DoubleFunction implements ScalarFunction {
+
+    private int evaluatedRows = 0;
+    private int evaluatedBatches = 0;
+
+    @Override
+    public ScalarFunctionAnalysis analyze(FunctionArguments arguments) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Object evaluate(Record input) {
+      evaluatedRows++;
+      return input.isNull(0) ? null : input.getDouble(0) * 2;
+    }
+
+    @Override
+    public void evaluate(Column[] columns, boolean[] selection, ColumnBuilder builder) {
+      evaluatedBatches++;
+      Column column = columns[0];
+      for (int i = 0, size = column.getPositionCount(); i < size; i++) {
+        if (!selection[i] || column.isNull(i)) {
+          builder.appendNull();
+        } else {
+          builder.writeDouble(column.getDouble(i) * 2);
+        }
+      }
+    }
+  }
+
+  private ColumnTransformer mockColumnTransformer(Column column) {
+    ColumnTransformer mockTransformer = Mockito.mock(ColumnTransformer.class);
+    Mockito.when(mockTransformer.getColumn()).thenReturn(column);
+    Mockito.when(mockTransformer.getType()).thenReturn(DoubleType.getInstance());
+    Mockito.doNothing().when(mockTransformer).tryEvaluate();
+    Mockito.doNothing().when(mockTransformer).clearCache();
+    Mockito.doNothing().when(mockTransformer).evaluateWithSelection(Mockito.any());
+    Mockito.when(mockTransformer.getColumnCachePositionCount())
+        .thenReturn(column.getPositionCount());
+    return mockTransformer;
+  }
+
+  private UserDefineScalarFunctionTransformer createTransformer(
+      ScalarFunction function, boolean vectorized) {
+    Column input = new DoubleColumn(VALUES.length, Optional.empty(), VALUES);
+    UserDefineScalarFunctionTransformer transformer =
+        new UserDefineScalarFunctionTransformer(
+            DoubleType.getInstance(),
+            function,
+            Collections.singletonList(mockColumnTransformer(input)),
+            vectorized);
+    transformer.addReferenceCount();
+    return transformer;
+  }
+
+  @Test
+  public void testRowByRow() {
+    DoubleFunction function = new DoubleFunction();
+    UserDefineScalarFunctionTransformer transformer = createTransformer(function, false);
+    transformer.evaluate();
+    Column result = transformer.getColumn();
+    for (int i = 0; i < VALUES.length; i++) {
+      Assert.assertEquals(VALUES[i] * 2, result.getDouble(i), 0);
+    }
+    Assert.assertEquals(VALUES.length, function.evaluatedRows);
+    Assert.assertEquals(0, function.evaluatedBatches);
+  }
+
+  @Test
+  public void testVectorized() {
+    DoubleFunction function = new DoubleFunction();
+    UserDefineScalarFunctionTransformer transformer = createTransformer(function, true);
+    transformer.evaluate();
+    Column result = transformer.getColumn();
+    for (int i = 0; i < VALUES.length; i++) {
+      Assert.assertEquals(VALUES[i] * 2, result.getDouble(i), 0);
+    }
+    Assert.assertEquals(0, function.evaluatedRows);
+    Assert.assertEquals(1, function.evaluatedBatches);
+  }
+
+  @Test
+  public void testWithSelection() {
+    boolean[] selection = {true, false, true, false};
+    for (boolean vectorized : new boolean[] {false, true}) {
+      UserDefineScalarFunctionTransformer transformer =
+          createTransformer(new DoubleFunction(), vectorized);
+      transformer.evaluateWithSelection(selection);
+      Column result = transformer.getColumn();
+      Assert.assertEquals(VALUES.length, result.getPositionCount());
+      for (int i = 0; i < VALUES.length; i++) {
+        if (selection[i]) {
+          Assert.assertEquals(VALUES[i] * 2, result.getDouble(i), 0);
+        } else {
+          Assert.assertTrue(result.isNull(i));
+        }
+      }
+    }
+  }
+}
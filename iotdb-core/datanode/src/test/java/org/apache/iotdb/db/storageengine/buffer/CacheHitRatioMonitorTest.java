@@ -47,6 +47,9 @@ public class CacheHitRatioMonitorTest {
       assertTrue(
           cacheHitRatioMonitor.getChunkHitRatio() >= 0.0d
               && cacheHitRatioMonitor.getChunkHitRatio() <= 1.0d);
+      // no read since the caches were cleared
+      assertEquals(1.0d, cacheHitRatioMonitor.getChunkPointQueryHitRatio(), delta);
+      assertEquals(1.0d, cacheHitRatioMonitor.getChunkScanQueryHitRatio(), delta);
       assertTrue(cacheHitRatioMonitor.getChunkEvictionCount() >= 0);
       assertEquals(
           ChunkCache.getInstance().getMaxMemory(), cacheHitRatioMonitor.getChunkCacheMaxMemory());
@@ -56,6 +59,8 @@ public class CacheHitRatioMonitorTest {
       assertTrue(
           cacheHitRatioMonitor.getTimeSeriesMetadataHitRatio() >= 0.0d
               && cacheHitRatioMonitor.getTimeSeriesMetadataHitRatio() <= 1.0d);
+      assertEquals(1.0d, cacheHitRatioMonitor.getTimeSeriesMetadataPointQueryHitRatio(), delta);
+      assertEquals(1.0d, cacheHitRatioMonitor.getTimeSeriesMetadataScanQueryHitRatio(), delta);
       assertTrue(cacheHitRatioMonitor.getTimeSeriesMetadataCacheEvictionCount() >= 0);
       assertEquals(
           TimeSeriesMetadataCache.getInstance().getMaxMemory(),
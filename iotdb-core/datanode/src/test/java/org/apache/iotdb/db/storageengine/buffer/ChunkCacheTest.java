@@ -20,7 +20,10 @@
 package org.apache.iotdb.db.storageengine.buffer;
 
 import org.apache.iotdb.commons.exception.MetadataException;
+import org.apache.iotdb.db.conf.IoTDBConfig;
+import org.apache.iotdb.db.conf.IoTDBDescriptor;
 import org.apache.iotdb.db.exception.StorageEngineException;
+import org.apache.iotdb.db.queryengine.execution.fragment.QueryContext;
 import org.apache.iotdb.db.storageengine.dataregion.read.control.FileReaderManager;
 import org.apache.iotdb.db.storageengine.dataregion.tsfile.TsFileResource;
 import org.apache.iotdb.db.storageengine.dataregion.tsfile.TsFileResourceStatus;
@@ -51,7 +54,9 @@ import org.junit.Test;
 import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Set;
 
 import static org.apache.iotdb.commons.conf.IoTDBConstant.PATH_SEPARATOR;
 
@@ -133,6 +138,125 @@ public class ChunkCacheTest {
     }
   }
 
+  @Test
+  public void testCacheBypassed() throws IOException {
+    chunkCache.clear();
+    CacheHitRatioMonitor monitor = CacheHitRatioMonitor.getInstance();
+    TsFileResource tsFileResource = seqResources.get(0);
+    try (TsFileSequenceReader reader = new TsFileSequenceReader(tsFileResource.getTsFilePath())) {
+      ChunkMetadata chunkMetadata = reader.getChunkMetadataList(reader.getAllPaths().get(0)).get(0);
+      ChunkCache.ChunkCacheKey key =
+          new ChunkCache.ChunkCacheKey(
+              tsFileResource.getTsFilePath(),
+              tsFileResource.getTsFileID(),
+              chunkMetadata.getOffsetOfChunkHeader(),
+              true);
+
+      // a bypassed miss is neither admitted to the cache nor counted in its statistics
+      QueryContext scanContext = new QueryContext(1);
+      scanContext.setCacheBypassed(true);
+      Chunk chunk1 =
+          chunkCache.get(
+              key,
+              chunkMetadata.getDeleteIntervalList(),
+              chunkMetadata.getStatistics(),
+              scanContext);
+      Assert.assertTrue(chunkCache.isEmpty());
+      Assert.assertEquals(0, chunkCache.getRequestCount());
+      Assert.assertEquals(0.0, monitor.getChunkScanQueryHitRatio(), 0);
+      Assert.assertEquals(1.0, monitor.getChunkPointQueryHitRatio(), 0);
+
+      QueryContext pointContext = new QueryContext(2);
+      Chunk chunk2 =
+          chunkCache.get(
+              key,
+              chunkMetadata.getDeleteIntervalList(),
+              chunkMetadata.getStatistics(),
+              pointContext);
+      Assert.assertFalse(chunkCache.isEmpty());
+      Assert.assertEquals(1, chunkCache.getRequestCount());
+      Assert.assertEquals(chunk1.getData(), chunk2.getData());
+      Assert.assertEquals(0.0, monitor.getChunkPointQueryHitRatio(), 0);
+
+      // the scan still reads the cached chunk, without counting the hit in the cache statistics
+      chunkCache.get(
+          key, chunkMetadata.getDeleteIntervalList(), chunkMetadata.getStatistics(), scanContext);
+      Assert.assertEquals(1, scanContext.getQueryStatistics().getLoadChunkFromCacheCount().get());
+      Assert.assertEquals(1, chunkCache.getRequestCount());
+      Assert.assertEquals(0.5, monitor.getChunkScanQueryHitRatio(), 0);
+    }
+  }
+
+  @Test
+  public void testTimeSeriesMetadataCacheBypassed() throws IOException {
+    TimeSeriesMetadataCache timeSeriesMetadataCache = TimeSeriesMetadataCache.getInstance();
+    timeSeriesMetadataCache.clear();
+    CacheHitRatioMonitor monitor = CacheHitRatioMonitor.getInstance();
+    TsFileResource tsFileResource = seqResources.get(0);
+    Path path;
+    try (TsFileSequenceReader reader = new TsFileSequenceReader(tsFileResource.getTsFilePath())) {
+      path = reader.getAllPaths().get(0);
+    }
+    TimeSeriesMetadataCache.TimeSeriesMetadataCacheKey key =
+        new TimeSeriesMetadataCache.TimeSeriesMetadataCacheKey(
+            tsFileResource.getTsFileID(), path.getIDeviceID(), path.getMeasurement());
+    Set<String> allSensors = Collections.singleton(path.getMeasurement());
+
+    QueryContext scanContext = new QueryContext(1);
+    scanContext.setCacheBypassed(true);
+    Assert.assertNotNull(
+        timeSeriesMetadataCache.get(
+            tsFileResource.getTsFilePath(), key, allSensors, false, false, scanContext));
+    Assert.assertTrue(timeSeriesMetadataCache.isEmpty());
+    Assert.assertEquals(0, timeSeriesMetadataCache.getRequestCount());
+    Assert.assertEquals(0.0, monitor.getTimeSeriesMetadataScanQueryHitRatio(), 0);
+    Assert.assertEquals(1.0, monitor.getTimeSeriesMetadataPointQueryHitRatio(), 0);
+
+    QueryContext pointContext = new QueryContext(2);
+    Assert.assertNotNull(
+        timeSeriesMetadataCache.get(
+            tsFileResource.getTsFilePath(), key, allSensors, false, false, pointContext));
+    Assert.assertFalse(timeSeriesMetadataCache.isEmpty());
+    Assert.assertEquals(0.0, monitor.getTimeSeriesMetadataPointQueryHitRatio(), 0);
+    long requestCount = timeSeriesMetadataCache.getRequestCount();
+
+    Assert.assertNotNull(
+        timeSeriesMetadataCache.get(
+            tsFileResource.getTsFilePath(), key, allSensors, false, false, scanContext));
+    Assert.assertEquals(requestCount, timeSeriesMetadataCache.getRequestCount());
+    Assert.assertEquals(0.5, monitor.getTimeSeriesMetadataScanQueryHitRatio(), 0);
+  }
+
+  @Test
+  public void testDirectReadChunk() throws IOException {
+    IoTDBConfig config = IoTDBDescriptor.getInstance().getConfig();
+    boolean prevChunkDirectReadEnabled = config.isChunkDirectReadEnabled();
+    config.setChunkDirectReadEnabled(true);
+    FileReaderManager.getInstance().closeAndRemoveAllOpenedReaders();
+    TsFileResource tsFileResource = seqResources.get(0);
+    try (TsFileSequenceReader reader = new TsFileSequenceReader(tsFileResource.getTsFilePath())) {
+      for (Path path : reader.getAllPaths()) {
+        for (ChunkMetadata chunkMetadata : reader.getChunkMetadataList(path)) {
+          Chunk expected = reader.readMemChunk(chunkMetadata);
+          Chunk actual =
+              chunkCache.get(
+                  new ChunkCache.ChunkCacheKey(
+                      tsFileResource.getTsFilePath(),
+                      tsFileResource.getTsFileID(),
+                      chunkMetadata.getOffsetOfChunkHeader(),
+                      true),
+                  chunkMetadata.getDeleteIntervalList(),
+                  chunkMetadata.getStatistics());
+          Assert.assertTrue(actual.getData().isDirect());
+          Assert.assertEquals(expected.getHeader().getDataSize(), actual.getHeader().getDataSize());
+          Assert.assertEquals(expected.getData(), actual.getData());
+        }
+      }
+    } finally {
+      config.setChunkDirectReadEnabled(prevChunkDirectReadEnabled);
+    }
+  }
+
   void prepareSeries() throws MetadataException {
     measurementSchemas = new MeasurementSchema[measurementNum];
     for (int i = 0; i < measurementNum; i++) {
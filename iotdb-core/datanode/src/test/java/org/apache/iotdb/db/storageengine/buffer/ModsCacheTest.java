@@ -0,0 +1,101 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iotdb.db.storageengine.buffer;
+
+import org.apache.iotdb.commons.path.MeasurementPath;
+import org.apache.iotdb.commons.path.PatternTreeMap;
+import org.apache.iotdb.db.storageengine.dataregion.modification.ModEntry;
+import org.apache.iotdb.db.storageengine.dataregion.modification.TreeDeletionEntry;
+import org.apache.iotdb.db.storageengine.dataregion.tsfile.TsFileResource;
+import org.apache.iotdb.db.utils.datastructure.PatternTreeMapFactory.ModsSerializer;
+
+import org.apache.tsfile.external.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+
+public class ModsCacheTest {
+
+  private final File dataDir =
+      new File(
+          "target"
+              .concat(File.separator)
+              .concat("data")
+              .concat(File.separator)
+              .concat("sequence")
+              .concat(File.separator)
+              .concat("root.sg1")
+              .concat(File.separator)
+              .concat("1")
+              .concat(File.separator)
+              .concat("0"));
+  private TsFileResource resource;
+  private final ModsCache modsCache = ModsCache.getInstance();
+
+  @Before
+  public void setUp() {
+    Assert.assertTrue(dataDir.exists() || dataDir.mkdirs());
+    resource = new TsFileResource(new File(dataDir, "1-0-0-0.tsfile"));
+    modsCache.clear();
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    resource.getExclusiveModFile().remove();
+    modsCache.clear();
+    FileUtils.deleteDirectory(dataDir);
+  }
+
+  @Test
+  public void testCacheAndInvalidate() throws Exception {
+    Assert.assertTrue(ModsCache.isEnabled());
+    resource
+        .getExclusiveModFile()
+        .write(new TreeDeletionEntry(new MeasurementPath("root.sg1.d1.s1"), 1, 10));
+
+    long requestCount = modsCache.getRequestCount();
+    long hitCount = modsCache.getHitCount();
+    PatternTreeMap<ModEntry, ModsSerializer> first = modsCache.get(resource);
+    Assert.assertEquals(1, first.getOverlapped(new MeasurementPath("root.sg1.d1.s1")).size());
+    Assert.assertEquals(hitCount, modsCache.getHitCount());
+
+    // parsed only once for the following queries
+    Assert.assertSame(first, modsCache.get(resource));
+    Assert.assertEquals(requestCount + 2, modsCache.getRequestCount());
+    Assert.assertEquals(hitCount + 1, modsCache.getHitCount());
+    Assert.assertTrue(modsCache.getUsedMemory() > 0);
+
+    // the cached mods are dropped once the mods file is written
+    resource
+        .getExclusiveModFile()
+        .write(new TreeDeletionEntry(new MeasurementPath("root.sg1.d1.s1"), 20, 30));
+    PatternTreeMap<ModEntry, ModsSerializer> second = modsCache.get(resource);
+    Assert.assertNotSame(first, second);
+    Assert.assertEquals(2, second.getOverlapped(new MeasurementPath("root.sg1.d1.s1")).size());
+    Assert.assertEquals(1, modsCache.getEntriesCount());
+
+    modsCache.clear();
+    Assert.assertTrue(modsCache.isEmpty());
+    Assert.assertEquals(0, modsCache.getUsedMemory());
+  }
+}
@@ -30,6 +30,7 @@ import org.apache.iotdb.commons.path.IFullPath;
 import org.apache.iotdb.commons.path.MeasurementPath;
 import org.apache.iotdb.commons.path.NonAlignedFullPath;
 import org.apache.iotdb.commons.path.PartialPath;
+import org.apache.iotdb.commons.utils.TimePartitionUtils;
 import org.apache.iotdb.db.conf.IoTDBConfig;
 import org.apache.iotdb.db.conf.IoTDBDescriptor;
 import org.apache.iotdb.db.exception.DataRegionException;
@@ -93,6 +94,9 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import static org.apache.iotdb.db.queryengine.plan.statement.StatementTestUtils.genInsertRowNode;
 import static org.apache.iotdb.db.queryengine.plan.statement.StatementTestUtils.genInsertTabletNode;
@@ -782,6 +786,55 @@ public class DataRegionTest {
     config.setEnableSeparateData(defaultValue);
   }
 
+  @Test
+  public void testConcurrentInsertIntoDifferentTimePartitions() throws Exception {
+    int defaultStripeNum = config.getDataRegionInsertLockStripeNum();
+    long timePartitionInterval = TimePartitionUtils.getTimePartitionInterval();
+    config.setDataRegionInsertLockStripeNum(4);
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      dataRegion.syncDeleteDataFiles();
+      dataRegion = new DummyDataRegion(systemDir, storageGroup);
+      StorageEngine.getInstance().setDataRegion(new DataRegionId(0), dataRegion);
+
+      List<Future<?>> futures = new ArrayList<>();
+      for (int partition = 0; partition < 4; partition++) {
+        int finalPartition = partition;
+        futures.add(
+            executor.submit(
+                () -> {
+                  for (int j = 0; j < 100; j++) {
+                    long time = finalPartition * timePartitionInterval + j;
+                    TSRecord record = new TSRecord(deviceId, time);
+                    record.addTuple(
+                        DataPoint.getDataPoint(TSDataType.INT32, measurementId, String.valueOf(j)));
+                    dataRegion.insert(buildInsertRowNodeByTSRecord(record));
+                  }
+                  return null;
+                }));
+      }
+      for (Future<?> future : futures) {
+        future.get();
+      }
+      dataRegion.syncCloseAllWorkingTsFileProcessors();
+
+      QueryDataSource queryDataSource =
+          dataRegion.query(
+              Collections.singletonList(nonAlignedFullPath), device, context, null, null);
+      Assert.assertEquals(4, queryDataSource.getSeqResources().size());
+      Assert.assertEquals(0, queryDataSource.getUnseqResources().size());
+      for (TsFileResource resource : queryDataSource.getSeqResources()) {
+        Assert.assertTrue(resource.isClosed());
+        long partitionStartTime = resource.getTimePartition() * timePartitionInterval;
+        Assert.assertEquals(partitionStartTime, resource.getStartTime(device).get().longValue());
+        Assert.assertEquals(partitionStartTime + 99, resource.getEndTime(device).get().longValue());
+      }
+    } finally {
+      executor.shutdownNow();
+      config.setDataRegionInsertLockStripeNum(defaultStripeNum);
+    }
+  }
+
   @Test
   public void testDisableSeparateDataForInsertTablet1()
       throws QueryProcessException, IllegalPathException, IOException, WriteProcessException {
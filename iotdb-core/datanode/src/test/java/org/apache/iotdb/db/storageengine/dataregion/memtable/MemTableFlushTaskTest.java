@@ -20,13 +20,16 @@
 package org.apache.iotdb.db.storageengine.dataregion.memtable;
 
 import org.apache.iotdb.commons.exception.IllegalPathException;
+import org.apache.iotdb.db.conf.IoTDBDescriptor;
 import org.apache.iotdb.db.exception.WriteProcessException;
 import org.apache.iotdb.db.storageengine.dataregion.flush.MemTableFlushTask;
+import org.apache.iotdb.db.storageengine.rescon.memory.SystemInfo;
 import org.apache.iotdb.db.utils.EnvironmentUtils;
 import org.apache.iotdb.db.utils.constant.TestConstant;
 
 import org.apache.tsfile.enums.TSDataType;
 import org.apache.tsfile.file.metadata.ChunkMetadata;
+import org.apache.tsfile.file.metadata.IDeviceID;
 import org.apache.tsfile.fileSystem.FSFactoryProducer;
 import org.apache.tsfile.write.writer.RestorableTsFileIOWriter;
 import org.junit.After;
@@ -161,4 +164,56 @@ public class MemTableFlushTaskTest {
     assertEquals(TSDataType.BOOLEAN, chunkMetaData.getDataType());
     assertEquals(endTime - startTime + 1, chunkMetaData.getNumOfPoints());
   }
+
+  @Test
+  public void testParallelFlushMemTable()
+      throws ExecutionException, InterruptedException, IllegalPathException, WriteProcessException {
+    int originalThreadNum =
+        IoTDBDescriptor.getInstance().getConfig().getFlushEncodingThreadNumPerMemTable();
+    IoTDBDescriptor.getInstance().getConfig().setFlushEncodingThreadNumPerMemTable(4);
+    try {
+      int deviceNum = 20;
+      MemTableTestUtils.produceVectorData(memTable);
+      for (int i = 1; i <= deviceNum; i++) {
+        MemTableTestUtils.produceData(
+            memTable,
+            startTime,
+            endTime,
+            IDeviceID.Factory.DEFAULT_FACTORY.create("d" + i),
+            MemTableTestUtils.measurementId0,
+            MemTableTestUtils.dataType0);
+      }
+      double flushThreshold = SystemInfo.getInstance().getFlushThreshold();
+      MemTableFlushTask memTableFlushTask =
+          new MemTableFlushTask(memTable, writer, storageGroup, dataRegionId);
+      memTableFlushTask.syncFlushMemTable();
+      writer.makeMetadataVisible();
+      // the temporary memory of the encoding window is released
+      assertEquals(flushThreshold, SystemInfo.getInstance().getFlushThreshold(), 0);
+
+      assertEquals(
+          1,
+          writer
+              .getVisibleMetadataList(MemTableTestUtils.deviceId0, "sensor0", TSDataType.BOOLEAN)
+              .size());
+      for (int i = 1; i <= deviceNum; i++) {
+        ChunkMetadata chunkMetaData =
+            writer
+                .getVisibleMetadataList(
+                    IDeviceID.Factory.DEFAULT_FACTORY.create("d" + i),
+                    MemTableTestUtils.measurementId0,
+                    MemTableTestUtils.dataType0)
+                .get(0);
+        assertEquals(startTime, chunkMetaData.getStartTime());
+        assertEquals(endTime, chunkMetaData.getEndTime());
+        assertEquals(endTime - startTime + 1, chunkMetaData.getNumOfPoints());
+      }
+      assertEquals(deviceNum + 1, writer.getChunkGroupMetadataList().size());
+      assertEquals(0, MemTableFlushTask.getRunningEncodingWorkerNum());
+    } finally {
+      IoTDBDescriptor.getInstance()
+          .getConfig()
+          .setFlushEncodingThreadNumPerMemTable(originalThreadNum);
+    }
+  }
 }
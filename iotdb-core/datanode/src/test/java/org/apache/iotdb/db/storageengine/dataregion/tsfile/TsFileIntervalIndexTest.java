@@ -0,0 +1,149 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iotdb.db.storageengine.dataregion.tsfile;
+
+import org.apache.iotdb.db.storageengine.dataregion.tsfile.generator.TsFileNameGenerator;
+import org.apache.iotdb.db.utils.constant.TestConstant;
+
+import org.apache.tsfile.file.metadata.IDeviceID;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Collections;
+
+public class TsFileIntervalIndexTest {
+
+  private static final IDeviceID DEVICE_1 = IDeviceID.Factory.DEFAULT_FACTORY.create("root.sg.d1");
+  private static final IDeviceID DEVICE_2 = IDeviceID.Factory.DEFAULT_FACTORY.create("root.sg.d2");
+
+  private TsFileResource generateTsFileResource(
+      long timePartition, int version, IDeviceID device, long startTime, long endTime) {
+    File file =
+        new File(
+            TsFileNameGenerator.generateNewTsFilePath(
+                TestConstant.BASE_OUTPUT_PATH
+                    + "sequence"
+                    + File.separator
+                    + "root.sg"
+                    + File.separator
+                    + "0"
+                    + File.separator
+                    + timePartition,
+                version,
+                version,
+                0,
+                0));
+    TsFileResource resource = new TsFileResource(file);
+    resource.setSeq(true);
+    resource.updateStartTime(device, startTime);
+    resource.updateEndTime(device, endTime);
+    resource.setStatusForTest(TsFileResourceStatus.NORMAL);
+    return resource;
+  }
+
+  @Test
+  public void testQueryOverlappedFiles() throws Exception {
+    TsFileIntervalIndex index = new TsFileIntervalIndex();
+    TsFileResourceList list = new TsFileResourceList(index);
+    TsFileResource resource1 = generateTsFileResource(0, 10, DEVICE_1, 0, 100);
+    TsFileResource resource2 = generateTsFileResource(0, 30, DEVICE_1, 200, 300);
+    TsFileResource resource3 = generateTsFileResource(0, 20, DEVICE_2, 100, 200);
+    TsFileResource resource4 = generateTsFileResource(0, 40, DEVICE_1, 0, 1000);
+    list.add(resource1);
+    list.add(resource2);
+    // inserted between resource1 and resource2
+    list.keepOrderInsert(resource3);
+    list.add(resource4);
+
+    Assert.assertEquals(
+        Arrays.asList(resource1, resource4), index.query(DEVICE_1, 50, 150, true, null));
+    Assert.assertEquals(
+        Arrays.asList(resource2, resource4), index.query(DEVICE_1, 250, 250, true, null));
+    Assert.assertEquals(
+        Collections.singletonList(resource4), index.query(DEVICE_1, 500, 2000, true, null));
+    Assert.assertEquals(
+        Collections.singletonList(resource3), index.query(DEVICE_2, 0, 150, true, null));
+    Assert.assertTrue(index.query(DEVICE_2, 0, 150, false, null).isEmpty());
+    Assert.assertTrue(index.query(DEVICE_2, 0, 150, true, Collections.singletonList(1L)).isEmpty());
+
+    list.remove(resource4);
+    Assert.assertTrue(index.query(DEVICE_1, 500, 2000, true, null).isEmpty());
+  }
+
+  @Test
+  public void testUnsealedAndDegradedFiles() {
+    TsFileIntervalIndex index = new TsFileIntervalIndex();
+    TsFileResourceList list = new TsFileResourceList(index);
+    TsFileResource sealedResource = generateTsFileResource(0, 1, DEVICE_1, 0, 100);
+    TsFileResource unsealedResource = generateTsFileResource(0, 2, DEVICE_1, 200, 300);
+    unsealedResource.setStatusForTest(TsFileResourceStatus.UNCLOSED);
+    list.add(sealedResource);
+    list.add(unsealedResource);
+
+    // unsealed files are always returned
+    Assert.assertEquals(
+        Collections.singletonList(unsealedResource), index.query(DEVICE_2, 0, 50, true, null));
+
+    unsealedResource.setStatusForTest(TsFileResourceStatus.NORMAL);
+    index.indexSealedResources();
+    Assert.assertTrue(index.query(DEVICE_2, 0, 50, true, null).isEmpty());
+    Assert.assertEquals(
+        Arrays.asList(sealedResource, unsealedResource),
+        index.query(DEVICE_1, 50, 250, true, null));
+
+    // files with degraded time index are returned for every device in their time range
+    sealedResource.degradeTimeIndex();
+    index.indexSealedResources();
+    Assert.assertEquals(
+        Collections.singletonList(sealedResource), index.query(DEVICE_2, 0, 50, true, null));
+    Assert.assertTrue(index.query(DEVICE_2, 150, 160, true, null).isEmpty());
+
+    list.clear();
+    Assert.assertTrue(index.query(DEVICE_1, 0, 300, true, null).isEmpty());
+  }
+
+  @Test
+  public void testRemoveLongestInterval() {
+    TsFileIntervalIndex index = new TsFileIntervalIndex();
+    TsFileResourceList list = new TsFileResourceList(index);
+    TsFileResource shortResource = generateTsFileResource(0, 1, DEVICE_1, 900, 1000);
+    TsFileResource longResource1 = generateTsFileResource(0, 2, DEVICE_1, 0, 1000);
+    TsFileResource longResource2 = generateTsFileResource(0, 3, DEVICE_1, 100, 1100);
+    TsFileResource longestResource = generateTsFileResource(0, 4, DEVICE_1, 0, 5000);
+    list.add(shortResource);
+    list.add(longResource1);
+    list.add(longResource2);
+    list.add(longestResource);
+
+    // the remaining intervals of the same length are still found after one of them is removed
+    list.remove(longestResource);
+    list.remove(longResource1);
+    Assert.assertEquals(
+        Arrays.asList(shortResource, longResource2), index.query(DEVICE_1, 950, 960, true, null));
+    Assert.assertEquals(
+        Collections.singletonList(longResource2), index.query(DEVICE_1, 1050, 2000, true, null));
+
+    list.remove(longResource2);
+    Assert.assertEquals(
+        Collections.singletonList(shortResource), index.query(DEVICE_1, 950, 2000, true, null));
+  }
+}
@@ -0,0 +1,97 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iotdb.db.utils;
+
+import org.apache.tsfile.enums.TSDataType;
+import org.apache.tsfile.file.metadata.enums.CompressionType;
+import org.apache.tsfile.file.metadata.enums.TSEncoding;
+import org.apache.tsfile.utils.Binary;
+import org.apache.tsfile.utils.Pair;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+
+public class TabletDecoderTest {
+
+  private static final int ROW_SIZE = 100;
+
+  @Test
+  public void testDecodePlainColumns() {
+    TSDataType[] dataTypes =
+        new TSDataType[] {
+          TSDataType.INT32, TSDataType.INT64, TSDataType.FLOAT, TSDataType.DOUBLE, TSDataType.TEXT
+        };
+    ByteBuffer timeBuffer = ByteBuffer.allocate(ROW_SIZE * Long.BYTES);
+    for (int i = 0; i < ROW_SIZE; i++) {
+      timeBuffer.putLong(1000L + i);
+    }
+    timeBuffer.flip();
+
+    // laid out in the same way as SessionUtils.getValueBuffer of an uncompressed request
+    ByteBuffer valueBuffer = ByteBuffer.allocate(ROW_SIZE * 40);
+    for (int i = 0; i < ROW_SIZE; i++) {
+      valueBuffer.putInt(i);
+    }
+    for (int i = 0; i < ROW_SIZE; i++) {
+      valueBuffer.putLong(-i);
+    }
+    for (int i = 0; i < ROW_SIZE; i++) {
+      valueBuffer.putFloat(i + 0.5f);
+    }
+    for (int i = 0; i < ROW_SIZE; i++) {
+      valueBuffer.putDouble(i + 0.25);
+    }
+    for (int i = 0; i < ROW_SIZE; i++) {
+      byte[] bytes = String.valueOf(i).getBytes(StandardCharsets.UTF_8);
+      valueBuffer.putInt(bytes.length);
+      valueBuffer.put(bytes);
+    }
+    // the trailing bitmaps are left to the caller
+    valueBuffer.put((byte) 0);
+    valueBuffer.flip();
+
+    TabletDecoder decoder =
+        new TabletDecoder(
+            CompressionType.UNCOMPRESSED,
+            dataTypes,
+            Collections.nCopies(dataTypes.length + 1, TSEncoding.PLAIN),
+            ROW_SIZE);
+    long[] times = decoder.decodeTime(timeBuffer);
+    Pair<Object[], ByteBuffer> values = decoder.decodeValues(valueBuffer);
+
+    int[] intCol = (int[]) values.left[0];
+    long[] longCol = (long[]) values.left[1];
+    float[] floatCol = (float[]) values.left[2];
+    double[] doubleCol = (double[]) values.left[3];
+    Binary[] textCol = (Binary[]) values.left[4];
+    for (int i = 0; i < ROW_SIZE; i++) {
+      Assert.assertEquals(1000L + i, times[i]);
+      Assert.assertEquals(i, intCol[i]);
+      Assert.assertEquals(-i, longCol[i]);
+      Assert.assertEquals(i + 0.5f, floatCol[i], 0);
+      Assert.assertEquals(i + 0.25, doubleCol[i], 0);
+      Assert.assertEquals(String.valueOf(i), textCol[i].getStringValue(StandardCharsets.UTF_8));
+    }
+    Assert.assertEquals(1, values.right.remaining());
+  }
+}
@@ -0,0 +1,111 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.iotdb.db.utils.datastructure;
+
+import org.apache.iotdb.db.conf.IoTDBConfig;
+import org.apache.iotdb.db.conf.IoTDBDescriptor;
+import org.apache.iotdb.db.storageengine.rescon.memory.OffHeapArrayManager;
+
+import org.apache.tsfile.utils.BitMap;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class OffHeapTVListTest {
+
+  private final IoTDBConfig config = IoTDBDescriptor.getInstance().getConfig();
+
+  private boolean originalOffHeapEnabled;
+
+  @Before
+  public void setUp() {
+    originalOffHeapEnabled = config.isTvListOffHeapEnabled();
+    config.setTvListOffHeapEnabled(true);
+  }
+
+  @After
+  public void tearDown() {
+    config.setTvListOffHeapEnabled(originalOffHeapEnabled);
+    OffHeapArrayManager.close();
+  }
+
+  @Test
+  public void testPutAndSortLongs() {
+    LongTVList tvList = LongTVList.newList();
+    Assert.assertNotNull(tvList.offHeapValues);
+    for (long i = 1000; i >= 0; i--) {
+      tvList.putLong(i, i * 10);
+    }
+    tvList.sort();
+    for (int i = 0; i < tvList.rowCount; i++) {
+      Assert.assertEquals(i, tvList.getTime(i));
+      Assert.assertEquals(i * 10L, tvList.getLong(i));
+    }
+    Assert.assertTrue(tvList.values.isEmpty());
+    Assert.assertTrue(OffHeapArrayManager.getAllocatedSizeInBytes() > 0);
+  }
+
+  @Test
+  public void testPutDoublesWithBitMap() {
+    DoubleTVList tvList = DoubleTVList.newList();
+    long[] times = new long[1000];
+    double[] values = new double[1000];
+    BitMap bitMap = new BitMap(1000);
+    for (int i = 0; i < 1000; i++) {
+      times[i] = i;
+      values[i] = i + 0.5;
+      if (i % 10 == 0) {
+        bitMap.mark(i);
+      }
+    }
+    tvList.putDoubles(times, values, bitMap, 0, 1000);
+    tvList.sort();
+    Assert.assertEquals(900, tvList.rowCount);
+    int row = 0;
+    for (int i = 0; i < 1000; i++) {
+      if (i % 10 == 0) {
+        continue;
+      }
+      Assert.assertEquals(i, tvList.getTime(row));
+      Assert.assertEquals(i + 0.5, tvList.getDouble(row), 0);
+      row++;
+    }
+  }
+
+  @Test
+  public void testCloneAndClear() {
+    IntTVList tvList = IntTVList.newList();
+    FloatTVList floatTVList = FloatTVList.newList();
+    for (int i = 0; i < 500; i++) {
+      tvList.putInt(i, i);
+      floatTVList.putFloat(i, i);
+    }
+    IntTVList cloneList = tvList.clone();
+    tvList.clear();
+    Assert.assertTrue(tvList.offHeapValues.isEmpty());
+    for (int i = 0; i < 500; i++) {
+      Assert.assertEquals(i, cloneList.getInt(i));
+      Assert.assertEquals(i, floatTVList.getFloat(i), 0);
+    }
+    cloneList.clear();
+    floatTVList.clear();
+    Assert.assertTrue(OffHeapArrayManager.getPooledSizeInBytes() > 0);
+  }
+}
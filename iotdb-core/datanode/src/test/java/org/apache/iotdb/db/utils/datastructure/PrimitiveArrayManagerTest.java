@@ -26,15 +26,85 @@ import org.apache.iotdb.db.utils.TSDataTypeTestUtils;
 
 import org.apache.tsfile.enums.TSDataType;
 import org.apache.tsfile.utils.Binary;
+import org.junit.After;
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
 import static org.apache.iotdb.db.storageengine.rescon.memory.PrimitiveArrayManager.ARRAY_SIZE;
 
 public class PrimitiveArrayManagerTest {
   private DataNodeMemoryConfig dataNodeMemoryConfig =
       IoTDBDescriptor.getInstance().getMemoryConfig();
 
+  @After
+  public void tearDown() {
+    PrimitiveArrayManager.close();
+  }
+
+  @Test
+  public void testReuseReleasedArray() {
+    long[] array = (long[]) PrimitiveArrayManager.allocate(TSDataType.INT64);
+    PrimitiveArrayManager.release(array);
+    // the array is cached by the stripe of this thread
+    Assert.assertSame(array, PrimitiveArrayManager.allocate(TSDataType.INT64));
+
+    Binary[] binaries = (Binary[]) PrimitiveArrayManager.allocate(TSDataType.TEXT);
+    binaries[0] = new Binary(new byte[] {1});
+    PrimitiveArrayManager.release(binaries);
+    Binary[] reused = (Binary[]) PrimitiveArrayManager.allocate(TSDataType.TEXT);
+    Assert.assertSame(binaries, reused);
+    Assert.assertNull(reused[0]);
+  }
+
+  @Test
+  public void testConcurrentAllocateAndRelease() throws Exception {
+    int threadNum = 8;
+    int arraysPerThread = 100;
+    ExecutorService executor = Executors.newFixedThreadPool(threadNum);
+    try {
+      List<Future<?>> futures = new ArrayList<>();
+      for (int i = 0; i < threadNum; i++) {
+        futures.add(
+            executor.submit(
+                () -> {
+                  for (int round = 0; round < 10; round++) {
+                    List<Object> arrays = new ArrayList<>();
+                    for (int j = 0; j < arraysPerThread; j++) {
+                      Object array = PrimitiveArrayManager.allocate(TSDataType.DOUBLE);
+                      Assert.assertEquals(ARRAY_SIZE, ((double[]) array).length);
+                      arrays.add(array);
+                    }
+                    arrays.forEach(PrimitiveArrayManager::release);
+                  }
+                }));
+      }
+      for (Future<?> future : futures) {
+        future.get();
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+
+    long allocationCount = 0;
+    long reusedCount = 0;
+    for (int i = 0; i < PrimitiveArrayManager.getStripeNum(); i++) {
+      PrimitiveArrayManager.StripeStatistics statistics =
+          PrimitiveArrayManager.getStripeStatistics(i);
+      allocationCount += statistics.getAllocationCount();
+      reusedCount += statistics.getHitCount() + statistics.getStealCount();
+      Assert.assertTrue(
+          statistics.getHitCount() + statistics.getStealCount() <= statistics.getAllocationCount());
+    }
+    Assert.assertEquals((long) threadNum * arraysPerThread * 10, allocationCount);
+    Assert.assertTrue(reusedCount > 0);
+  }
+
   @Test
   public void testGetArrayRowCount() {
 
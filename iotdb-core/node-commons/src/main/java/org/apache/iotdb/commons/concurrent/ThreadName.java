@@ -76,6 +76,7 @@ public enum ThreadName {
   // -------------------------- ClientService --------------------------
   CLIENT_RPC_SERVICE("ClientRPC-Service"),
   CLIENT_RPC_PROCESSOR("ClientRPC-Processor"),
+  MQTT_INSERT_BATCH_FLUSH("MQTT-Insert-Batch-Flush"),
   // -------------------------- ConfigNode-RPC --------------------------
   CONFIGNODE_RPC_SERVICE("ConfigNodeRPC-Service"),
   CONFIGNODE_RPC_PROCESSOR("ConfigNodeRPC-Processor"),
@@ -153,6 +154,7 @@ public enum ThreadName {
   PIPE_RECEIVER_AIR_GAP_AGENT("Pipe-Receiver-Air-Gap-Agent"),
   PIPE_AIR_GAP_RECEIVER("Pipe-Air-Gap-Receiver"),
   PIPE_PARALLEL_EXECUTION_POOL("Pipe-Parallel-Execution-Pool"),
+  PIPE_TSFILE_PARALLEL_PARSING_POOL("Pipe-TsFile-Parallel-Parsing-Pool"),
   PIPE_TERMINATE_EXECUTION_POOL("Pipe-Terminate-Execution-Pool"),
   LOAD_DATATYPE_CONVERT_POOL("Load-Datatype-Convert-Pool"),
   SUBSCRIPTION_EXECUTOR_POOL("Subscription-Executor-Pool"),
@@ -258,7 +260,8 @@ public enum ThreadName {
               SCHEMA_PARALLEL_POOL));
 
   private static final Set<ThreadName> clientServiceThreadNames =
-      new HashSet<>(Arrays.asList(CLIENT_RPC_SERVICE, CLIENT_RPC_PROCESSOR));
+      new HashSet<>(
+          Arrays.asList(CLIENT_RPC_SERVICE, CLIENT_RPC_PROCESSOR, MQTT_INSERT_BATCH_FLUSH));
 
   private static final Set<ThreadName> iotConsensusThreadNames =
       new HashSet<>(
@@ -314,6 +317,7 @@ public enum ThreadName {
               PIPE_RECEIVER_AIR_GAP_AGENT,
               PIPE_AIR_GAP_RECEIVER,
               PIPE_PARALLEL_EXECUTION_POOL,
+              PIPE_TSFILE_PARALLEL_PARSING_POOL,
               SUBSCRIPTION_EXECUTOR_POOL,
               SUBSCRIPTION_RUNTIME_META_SYNCER,
               WINDOW_EVALUATION_SERVICE,
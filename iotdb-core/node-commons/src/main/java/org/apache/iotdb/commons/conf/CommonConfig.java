@@ -330,6 +330,9 @@ public class CommonConfig {
       PipeRateAverage.FIVE_MINUTES;
   private volatile double pipeRemainingInsertNodeCountEMAAlpha = 0.1;
   private volatile double pipeTsFileScanParsingThreshold = 0.05;
+  private volatile int pipeTsFileParallelParsingThreadNum = 1;
+  private volatile int pipeTsFileParallelParsingQueueCapacity = 4;
+  private volatile boolean pipeTsFileRawChunkTransferEnabled = false;
   private volatile double pipeDynamicMemoryHistoryWeight = 0.5;
   private volatile double pipeDynamicMemoryAdjustmentThreshold = 0.05;
   private volatile double pipeThresholdAllocationStrategyMaximumMemoryIncrementRatio = 0.1d;
@@ -1899,6 +1902,47 @@ public class CommonConfig {
     logger.info("pipeTsFileScanParsingThreshold is set to {}", pipeTsFileScanParsingThreshold);
   }
 
+  public int getPipeTsFileParallelParsingThreadNum() {
+    return pipeTsFileParallelParsingThreadNum;
+  }
+
+  public void setPipeTsFileParallelParsingThreadNum(int pipeTsFileParallelParsingThreadNum) {
+    if (this.pipeTsFileParallelParsingThreadNum == pipeTsFileParallelParsingThreadNum) {
+      return;
+    }
+    this.pipeTsFileParallelParsingThreadNum = pipeTsFileParallelParsingThreadNum;
+    logger.info(
+        "pipeTsFileParallelParsingThreadNum is set to {}", pipeTsFileParallelParsingThreadNum);
+  }
+
+  public int getPipeTsFileParallelParsingQueueCapacity() {
+    return pipeTsFileParallelParsingQueueCapacity;
+  }
+
+  public void setPipeTsFileParallelParsingQueueCapacity(
+      int pipeTsFileParallelParsingQueueCapacity) {
+    if (this.pipeTsFileParallelParsingQueueCapacity == pipeTsFileParallelParsingQueueCapacity) {
+      return;
+    }
+    this.pipeTsFileParallelParsingQueueCapacity = pipeTsFileParallelParsingQueueCapacity;
+    logger.info(
+        "pipeTsFileParallelParsingQueueCapacity is set to {}",
+        pipeTsFileParallelParsingQueueCapacity);
+  }
+
+  public boolean isPipeTsFileRawChunkTransferEnabled() {
+    return pipeTsFileRawChunkTransferEnabled;
+  }
+
+  public void setPipeTsFileRawChunkTransferEnabled(boolean pipeTsFileRawChunkTransferEnabled) {
+    if (this.pipeTsFileRawChunkTransferEnabled == pipeTsFileRawChunkTransferEnabled) {
+      return;
+    }
+    this.pipeTsFileRawChunkTransferEnabled = pipeTsFileRawChunkTransferEnabled;
+    logger.info(
+        "pipeTsFileRawChunkTransferEnabled is set to {}", pipeTsFileRawChunkTransferEnabled);
+  }
+
   public double getPipeDynamicMemoryHistoryWeight() {
     return pipeDynamicMemoryHistoryWeight;
   }
@@ -283,6 +283,9 @@ public class IoTDBConstant {
   public static final String MQTT_PAYLOAD_FORMATTER_NAME = "mqtt_payload_formatter";
   public static final String MQTT_DATA_PATH = "mqtt_data_path";
   public static final String MQTT_MAX_MESSAGE_SIZE = "mqtt_max_message_size";
+  public static final String MQTT_INSERT_BATCH_SIZE = "mqtt_insert_batch_size";
+  public static final String MQTT_INSERT_BATCH_MAX_DELAY_IN_MS =
+      "mqtt_insert_batch_max_delay_in_ms";
 
   // thrift
   public static final int DEFAULT_FETCH_SIZE = 5000;
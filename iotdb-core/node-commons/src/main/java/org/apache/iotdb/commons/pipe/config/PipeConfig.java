@@ -255,6 +255,18 @@ public class PipeConfig {
     return COMMON_CONFIG.getPipeTsFileScanParsingThreshold();
   }
 
+  public int getPipeTsFileParallelParsingThreadNum() {
+    return COMMON_CONFIG.getPipeTsFileParallelParsingThreadNum();
+  }
+
+  public int getPipeTsFileParallelParsingQueueCapacity() {
+    return COMMON_CONFIG.getPipeTsFileParallelParsingQueueCapacity();
+  }
+
+  public boolean isPipeTsFileRawChunkTransferEnabled() {
+    return COMMON_CONFIG.isPipeTsFileRawChunkTransferEnabled();
+  }
+
   public double getPipeDynamicMemoryHistoryWeight() {
     return COMMON_CONFIG.getPipeDynamicMemoryHistoryWeight();
   }
@@ -528,6 +540,10 @@ public class PipeConfig {
     LOGGER.info(
         "PipePipeRemainingInsertEventCountAverage: {}", getPipeRemainingInsertNodeCountEMAAlpha());
     LOGGER.info("PipeTsFileScanParsingThreshold(): {}", getPipeTsFileScanParsingThreshold());
+    LOGGER.info("PipeTsFileParallelParsingThreadNum: {}", getPipeTsFileParallelParsingThreadNum());
+    LOGGER.info(
+        "PipeTsFileParallelParsingQueueCapacity: {}", getPipeTsFileParallelParsingQueueCapacity());
+    LOGGER.info("PipeTsFileRawChunkTransferEnabled: {}", isPipeTsFileRawChunkTransferEnabled());
     LOGGER.info("PipeTransferTsFileSync: {}", isTransferTsFileSync());
     LOGGER.info(
         "PipeCheckAllSyncClientLiveTimeIntervalMs: {}",
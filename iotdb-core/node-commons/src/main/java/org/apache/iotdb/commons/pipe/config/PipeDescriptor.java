@@ -515,6 +515,24 @@ public class PipeDescriptor {
                 "pipe_tsfile_scan_parsing_threshold",
                 String.valueOf(config.getPipeTsFileScanParsingThreshold()))));
 
+    config.setPipeTsFileParallelParsingThreadNum(
+        Integer.parseInt(
+            properties.getProperty(
+                "pipe_tsfile_parallel_parsing_thread_num",
+                String.valueOf(config.getPipeTsFileParallelParsingThreadNum()))));
+
+    config.setPipeTsFileParallelParsingQueueCapacity(
+        Integer.parseInt(
+            properties.getProperty(
+                "pipe_tsfile_parallel_parsing_queue_capacity",
+                String.valueOf(config.getPipeTsFileParallelParsingQueueCapacity()))));
+
+    config.setPipeTsFileRawChunkTransferEnabled(
+        Boolean.parseBoolean(
+            properties.getProperty(
+                "pipe_tsfile_raw_chunk_transfer_enabled",
+                String.valueOf(config.isPipeTsFileRawChunkTransferEnabled()))));
+
     config.setPipeDynamicMemoryHistoryWeight(
         Double.parseDouble(
             properties.getProperty(
@@ -55,6 +55,8 @@ public enum Metric {
   THRIFT_RPC_UNCOMPRESS("thrift_rpc_uncompress"),
   THRIFT_RPC_DECODE("thrift_rpc_decode"),
   THRIFT_RPC_MEMORY_USAGE("thrift_rpc_memory_usage"),
+  MQTT_INSERT_BATCH_SIZE("mqtt_insert_batch_size"),
+  MQTT_INSERT_BATCH_LATENCY("mqtt_insert_batch_latency"),
   // consensus related
   STAGE("stage"),
   IOT_CONSENSUS("iot_consensus"),
@@ -82,6 +84,7 @@ public enum Metric {
   WAL_QUEUE_MEM_COST("wal_queue_mem_cost"),
   FLUSH_COST("flush_cost"),
   FLUSH_SUB_TASK_COST("flush_sub_task_cost"),
+  DATA_REGION_INSERT_LOCK_COST("data_region_insert_lock_cost"),
   MEMTABLE_THRESHOLD("memtable_threshold"),
   FLUSH_MEMTABLE_COUNT("flush_memtable_count"),
   ACTIVE_MEMTABLE_COUNT("active_memtable_count"),
@@ -91,6 +94,9 @@ public enum Metric {
   PAM_RELEASED_COUNT("primitive_array_manager_released_count"),
   PAM_ALLOCATED_FAILURE_COUNT("primitive_array_manager_allocated_failure_count"),
   PAM_RELEASED_FAILURE_COUNT("primitive_array_manager_released_failure_count"),
+  PAM_STRIPE_ALLOCATED_COUNT("primitive_array_manager_stripe_allocated_count"),
+  PAM_STRIPE_HIT_COUNT("primitive_array_manager_stripe_hit_count"),
+  PAM_STRIPE_STEAL_COUNT("primitive_array_manager_stripe_steal_count"),
 
   // compaction related
   DATA_WRITTEN("data_written"),
@@ -129,6 +135,7 @@ public enum Metric {
   DATA_EXCHANGE_COST("data_exchange_cost"),
   DATA_EXCHANGE_COUNT("data_exchange_count"),
   DATA_EXCHANGE_SIZE("data_exchange_size"),
+  DATA_EXCHANGE_COMPRESSION("data_exchange_compression"),
   DRIVER_SCHEDULER("driver_scheduler"),
   COORDINATOR("coordinator"),
   FRAGMENT_INSTANCE_MANAGER("fragment_instance_manager"),
@@ -200,6 +207,7 @@ public enum Metric {
   PIPE_TSFILE_TO_TABLETS_RATE("pipe_tsfile_to_tablets_rate"),
   PIPE_TSFILE_TO_TABLETS_COUNT("pipe_tsfile_to_tablets_count"),
   PIPE_TSFILE_TO_TABLETS_TOTAL_MEMORY("pipe_tsfile_to_tablets_total_memory"),
+  PIPE_TSFILE_TO_TABLETS_THROUGHPUT("pipe_tsfile_to_tablets_throughput"),
   PIPE_TSFILE_PARSE_FILE_COUNT("pipe_tsfile_parse_file_count"),
   // subscription related
   SUBSCRIPTION_UNCOMMITTED_EVENT_COUNT("subscription_uncommitted_event_count"),
@@ -39,6 +39,7 @@ struct TSyncLogEntriesReq {
 struct TSyncLogEntriesRes {
   1: required list<common.TSStatus> statuses
   2: optional i64 receiverMemSize
+  3: optional i64 receiverApplyTimeInNs
 }
 
 struct TInactivatePeerReq {
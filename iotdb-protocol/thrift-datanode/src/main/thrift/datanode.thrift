@@ -90,10 +90,14 @@ struct TGetDataBlockRequest {
   3: required i32 endSequenceId
   // Index of upstream SinkChannel
   4: required i32 index
+  // CompressionType the caller accepts for the returned TsBlocks, not set means uncompressed
+  5: optional byte compressionType
 }
 
 struct TGetDataBlockResponse {
   1: required list<binary> tsBlocks
+  // CompressionType of each TsBlock, not set means all TsBlocks are uncompressed
+  2: optional list<byte> compressionTypes
 }
 
 struct TAcknowledgeDataBlockEvent {
@@ -116,6 +120,8 @@ struct TNewDataBlockEvent {
   3: required TFragmentInstanceId sourceFragmentInstanceId
   4: required i32 startSequenceId
   5: required list<i64> blockSizes
+  // Serialized TsBlocks pushed along with the event, the receiver pulls them if not set
+  6: optional list<binary> tsBlocks
 }
 
 struct TEndOfDataBlockEvent {
@@ -766,6 +772,7 @@ struct TFetchFragmentInstanceStatisticsResp {
   15: optional string ip
   16: optional string state
   17: optional i32 initDataQuerySourceRetryCount
+  18: optional i64 scheduledTime
 }
 
 struct TKillQueryInstanceReq {